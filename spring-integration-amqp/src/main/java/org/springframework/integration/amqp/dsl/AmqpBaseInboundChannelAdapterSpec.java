@@ -1,5 +1,5 @@
 /*
- * Copyright 2014-2018 the original author or authors.
+ * Copyright 2014-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,6 +16,7 @@
 
 package org.springframework.integration.amqp.dsl;
 
+import org.springframework.amqp.rabbit.batch.BatchingStrategy;
 import org.springframework.amqp.support.converter.MessageConverter;
 import org.springframework.integration.amqp.inbound.AmqpInboundChannelAdapter;
 import org.springframework.integration.amqp.support.AmqpHeaderMapper;
@@ -102,4 +103,28 @@ public class AmqpBaseInboundChannelAdapterSpec<S extends AmqpBaseInboundChannelA
 		return _this();
 	}
 
+	/**
+	 * Set a batching strategy to use when de-batching producer batches.
+	 * @param batchingStrategy the strategy.
+	 * @return the spec.
+	 * @since 5.2
+	 * @see AmqpInboundChannelAdapter#setBatchingStrategy(BatchingStrategy)
+	 */
+	public S batchingStrategy(BatchingStrategy batchingStrategy) {
+		this.target.setBatchingStrategy(batchingStrategy);
+		return _this();
+	}
+
+	/**
+	 * Set the content of the list payload emitted for a batch.
+	 * @param batchMode the batch mode.
+	 * @return the spec.
+	 * @since 5.2
+	 * @see AmqpInboundChannelAdapter#setBatchMode(AmqpInboundChannelAdapter.BatchMode)
+	 */
+	public S batchMode(AmqpInboundChannelAdapter.BatchMode batchMode) {
+		this.target.setBatchMode(batchMode);
+		return _this();
+	}
+
 }
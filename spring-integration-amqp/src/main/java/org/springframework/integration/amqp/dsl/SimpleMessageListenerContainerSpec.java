@@ -1,5 +1,5 @@
 /*
- * Copyright 2017 the original author or authors.
+ * Copyright 2017-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -115,4 +115,17 @@ public class SimpleMessageListenerContainerSpec extends
 		return this;
 	}
 
+	/**
+	 * Set to true to present a list of up to {@code txSize} messages to the listener,
+	 * acknowledged together.
+	 * @param consumerBatchEnabled true to enable consumer batching.
+	 * @return the spec.
+	 * @since 5.2
+	 * @see SimpleMessageListenerContainer#setConsumerBatchEnabled(boolean)
+	 */
+	public SimpleMessageListenerContainerSpec consumerBatchEnabled(boolean consumerBatchEnabled) {
+		this.listenerContainer.setConsumerBatchEnabled(consumerBatchEnabled);
+		return this;
+	}
+
 }
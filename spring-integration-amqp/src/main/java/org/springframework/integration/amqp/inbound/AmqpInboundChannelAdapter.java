@@ -16,12 +16,19 @@
 
 package org.springframework.integration.amqp.inbound;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
 import org.springframework.amqp.core.AcknowledgeMode;
 import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.batch.BatchingStrategy;
+import org.springframework.amqp.rabbit.batch.SimpleBatchingStrategy;
 import org.springframework.amqp.rabbit.listener.AbstractMessageListenerContainer;
+import org.springframework.amqp.rabbit.listener.api.ChannelAwareBatchMessageListener;
 import org.springframework.amqp.rabbit.listener.api.ChannelAwareMessageListener;
 import org.springframework.amqp.support.AmqpHeaders;
 import org.springframework.amqp.support.converter.MessageConversionException;
@@ -47,6 +54,12 @@ import com.rabbitmq.client.Channel;
 /**
  * Adapter that receives Messages from an AMQP Queue, converts them into
  * Spring Integration Messages, and sends the results to a Message Channel.
+ * <p>
+ * Batches are emitted as a single message with a {@link List} payload (see
+ * {@link BatchMode}); this applies to producer batches (when the container's
+ * {@code deBatchingEnabled} is false) and to consumer batches (when the container's
+ * {@code consumerBatchEnabled} is true), in which case the container acknowledges the
+ * whole batch at once.
  *
  * @author Mark Fisher
  * @author Gary Russell
@@ -69,6 +82,10 @@ public class AmqpInboundChannelAdapter extends MessageProducerSupport implements
 
 	private RecoveryCallback<? extends Object> recoveryCallback;
 
+	private BatchingStrategy batchingStrategy = new SimpleBatchingStrategy(0, 0, 0L);
+
+	private BatchMode batchMode = BatchMode.MESSAGES;
+
 	public AmqpInboundChannelAdapter(AbstractMessageListenerContainer listenerContainer) {
 		Assert.notNull(listenerContainer, "listenerContainer must not be null");
 		Assert.isNull(listenerContainer.getMessageListener(),
@@ -115,6 +132,29 @@ public class AmqpInboundChannelAdapter extends MessageProducerSupport implements
 		this.recoveryCallback = recoveryCallback;
 	}
 
+	/**
+	 * Set a batching strategy to use when de-batching producer batches (when the
+	 * container's {@code deBatchingEnabled} is false). Default
+	 * {@link SimpleBatchingStrategy}.
+	 * @param batchingStrategy the strategy.
+	 * @since 5.2
+	 */
+	public void setBatchingStrategy(BatchingStrategy batchingStrategy) {
+		Assert.notNull(batchingStrategy, "'batchingStrategy' cannot be null");
+		this.batchingStrategy = batchingStrategy;
+	}
+
+	/**
+	 * Set the content of the {@link List} payload emitted for a batch of AMQP messages.
+	 * Default {@link BatchMode#MESSAGES}.
+	 * @param batchMode the batch mode.
+	 * @since 5.2
+	 */
+	public void setBatchMode(BatchMode batchMode) {
+		Assert.notNull(batchMode, "'batchMode' cannot be null");
+		this.batchMode = batchMode;
+	}
+
 
 	@Override
 	public String getComponentType() {
@@ -128,7 +168,9 @@ public class AmqpInboundChannelAdapter extends MessageProducerSupport implements
 					+ "provided; use an 'ErrorMessageSendingRecoverer' in the 'recoveryCallback' property to "
 					+ "send an error message when retries are exhausted");
 		}
-		Listener messageListener = new Listener();
+		Listener messageListener = this.messageListenerContainer.isConsumerBatchEnabled()
+				? new BatchListener()
+				: new Listener();
 		this.messageListenerContainer.setMessageListener(messageListener);
 		this.messageListenerContainer.afterPropertiesSet();
 		super.onInit();
@@ -161,11 +203,11 @@ public class AmqpInboundChannelAdapter extends MessageProducerSupport implements
 	 * holder here. If an attributes holder exists (by either method), we set the
 	 * attributes for use by the
 	 * {@link org.springframework.integration.support.ErrorMessageStrategy}.
-	 * @param amqpMessage the AMQP message to use.
+	 * @param amqpMessage the AMQP message (or list of messages for a batch) to use.
 	 * @param message the Spring Messaging message to use.
 	 * @since 4.3.10
 	 */
-	private void setAttributesIfNecessary(Message amqpMessage, org.springframework.messaging.Message<?> message) {
+	private void setAttributesIfNecessary(Object amqpMessage, org.springframework.messaging.Message<?> message) {
 		boolean needHolder = getErrorChannel() != null && this.retryTemplate == null;
 		boolean needAttributes = needHolder || this.retryTemplate != null;
 		if (needHolder) {
@@ -193,21 +235,57 @@ public class AmqpInboundChannelAdapter extends MessageProducerSupport implements
 		}
 	}
 
+	/**
+	 * Defines the payload of the message emitted for a batch of AMQP messages.
+	 * @since 5.2
+	 */
+	public enum BatchMode {
+
+		/**
+		 * The payload is a {@code List<Message<?>>}, each element having the converted
+		 * payload and the mapped headers of an AMQP message.
+		 */
+		MESSAGES,
+
+		/**
+		 * The payload is a {@code List<?>} of the converted payloads; the headers of the
+		 * individual AMQP messages are not mapped.
+		 */
+		EXTRACT_PAYLOADS
+
+	}
+
 	protected class Listener implements ChannelAwareMessageListener {
 
-		@SuppressWarnings("unchecked")
 		@Override
 		public void onMessage(final Message message, final Channel channel) throws Exception {
+			process(message, message, channel, () -> createMessage(message, channel));
+		}
+
+		/**
+		 * Create and send the message, with retry and error channel handling.
+		 * @param rawMessage the AMQP message, or the list of messages for a batch.
+		 * @param failedMessage the AMQP message to report in conversion errors.
+		 * @param channel the channel.
+		 * @param messageCreator creates the message to send.
+		 * @since 5.2
+		 */
+		@SuppressWarnings("unchecked")
+		protected void process(Object rawMessage, Message failedMessage, Channel channel,
+				Supplier<org.springframework.messaging.Message<Object>> messageCreator) {
+
 			boolean retryDisabled = AmqpInboundChannelAdapter.this.retryTemplate == null;
 			try {
 				if (retryDisabled) {
-					createAndSend(message, channel);
+					org.springframework.messaging.Message<Object> messagingMessage = messageCreator.get();
+					setAttributesIfNecessary(rawMessage, messagingMessage);
+					sendMessage(messagingMessage);
 				}
 				else {
-					final org.springframework.messaging.Message<Object> toSend = createMessage(message, channel);
+					final org.springframework.messaging.Message<Object> toSend = messageCreator.get();
 					AmqpInboundChannelAdapter.this.retryTemplate.execute(context -> {
 								StaticMessageHeaderAccessor.getDeliveryAttempt(toSend).incrementAndGet();
-								setAttributesIfNecessary(message, toSend);
+								setAttributesIfNecessary(rawMessage, toSend);
 								sendMessage(toSend);
 								return null;
 							},
@@ -216,10 +294,10 @@ public class AmqpInboundChannelAdapter extends MessageProducerSupport implements
 			}
 			catch (MessageConversionException e) {
 				if (getErrorChannel() != null) {
-					setAttributesIfNecessary(message, null);
+					setAttributesIfNecessary(rawMessage, null);
 					getMessagingTemplate()
 						.send(getErrorChannel(), buildErrorMessage(null,
-								EndpointUtils.errorMessagePayload(message, channel, isManualAck(), e)));
+								EndpointUtils.errorMessagePayload(failedMessage, channel, isManualAck(), e)));
 				}
 				else {
 					throw e;
@@ -232,16 +310,53 @@ public class AmqpInboundChannelAdapter extends MessageProducerSupport implements
 			}
 		}
 
-		private void createAndSend(Message message, Channel channel) {
-			org.springframework.messaging.Message<Object> messagingMessage = createMessage(message, channel);
-			setAttributesIfNecessary(message, messagingMessage);
-			sendMessage(messagingMessage);
-		}
-
 		private org.springframework.messaging.Message<Object> createMessage(Message message, Channel channel) {
-			Object payload = AmqpInboundChannelAdapter.this.messageConverter.fromMessage(message);
+			Object payload;
+			if (AmqpInboundChannelAdapter.this.batchingStrategy.canDebatch(message.getMessageProperties())) {
+				List<Object> fragments = new ArrayList<>();
+				AmqpInboundChannelAdapter.this.batchingStrategy.deBatch(message,
+						fragment -> fragments.add(convertBatchElement(fragment)));
+				payload = fragments;
+			}
+			else {
+				payload = AmqpInboundChannelAdapter.this.messageConverter.fromMessage(message);
+			}
 			Map<String, Object> headers = AmqpInboundChannelAdapter.this.headerMapper
 					.toHeadersFromRequest(message.getMessageProperties());
+			return buildMessage(payload, headers, message, channel);
+		}
+
+		/**
+		 * Convert an element of a batch according to the {@link BatchMode}.
+		 * @param message the AMQP message.
+		 * @return the payload or message to add to the batch.
+		 * @since 5.2
+		 */
+		protected Object convertBatchElement(Message message) {
+			Object payload = AmqpInboundChannelAdapter.this.messageConverter.fromMessage(message);
+			if (BatchMode.EXTRACT_PAYLOADS.equals(AmqpInboundChannelAdapter.this.batchMode)) {
+				return payload;
+			}
+			return getMessageBuilderFactory()
+					.withPayload(payload)
+					.copyHeaders(AmqpInboundChannelAdapter.this.headerMapper
+							.toHeadersFromRequest(message.getMessageProperties()))
+					.build();
+		}
+
+		/**
+		 * Build the message to send, adding the channel and delivery tag of the provided
+		 * AMQP message when using manual acks.
+		 * @param payload the payload.
+		 * @param headers the headers.
+		 * @param message the AMQP message, the last one of a batch.
+		 * @param channel the channel.
+		 * @return the message.
+		 * @since 5.2
+		 */
+		protected org.springframework.messaging.Message<Object> buildMessage(Object payload,
+				Map<String, Object> headers, Message message, Channel channel) {
+
 			if (isManualAck()) {
 				headers.put(AmqpHeaders.DELIVERY_TAG, message.getMessageProperties().getDeliveryTag());
 				headers.put(AmqpHeaders.CHANNEL, channel);
@@ -256,11 +371,38 @@ public class AmqpInboundChannelAdapter extends MessageProducerSupport implements
 			return messagingMessage;
 		}
 
-		private boolean isManualAck() {
+		protected boolean isManualAck() {
 			return AmqpInboundChannelAdapter.this.messageListenerContainer.getAcknowledgeMode()
 					== AcknowledgeMode.MANUAL;
 		}
 
 	}
 
+	/**
+	 * The listener used when the container has {@code consumerBatchEnabled}; emits each
+	 * batch as a single message with a {@link List} payload. With manual acks, the
+	 * {@link AmqpHeaders#DELIVERY_TAG} header is that of the last message in the batch,
+	 * so the whole batch can be acknowledged with {@code multiple} set to true.
+	 * @since 5.2
+	 */
+	protected class BatchListener extends Listener implements ChannelAwareBatchMessageListener {
+
+		@Override
+		public void onMessageBatch(List<Message> messages, Channel channel) {
+			Message last = messages.get(messages.size() - 1);
+			process(messages, last, channel, () -> createBatchMessage(messages, last, channel));
+		}
+
+		private org.springframework.messaging.Message<Object> createBatchMessage(List<Message> messages,
+				Message last, Channel channel) {
+
+			List<Object> batch = new ArrayList<>(messages.size());
+			for (Message message : messages) {
+				batch.add(convertBatchElement(message));
+			}
+			return buildMessage(batch, new HashMap<>(), last, channel);
+		}
+
+	}
+
 }
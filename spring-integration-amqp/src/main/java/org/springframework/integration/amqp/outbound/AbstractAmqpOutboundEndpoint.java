@@ -19,6 +19,7 @@ package org.springframework.integration.amqp.outbound;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.springframework.amqp.core.MessageDeliveryMode;
 import org.springframework.amqp.rabbit.connection.Connection;
@@ -597,6 +598,8 @@ public abstract class AbstractAmqpOutboundEndpoint extends AbstractReplyProducin
 
 		private final Message<?> message;
 
+		private final AtomicBoolean holdsWindowPermit = new AtomicBoolean();
+
 		CorrelationDataWrapper(String id, Object userData, Message<?> message) {
 			super(id);
 			this.userData = userData;
@@ -611,6 +614,18 @@ public abstract class AbstractAmqpOutboundEndpoint extends AbstractReplyProducin
 			return this.message;
 		}
 
+		void windowPermitAcquired() {
+			this.holdsWindowPermit.set(true);
+		}
+
+		/*
+		 * True only for the first call after the permit was acquired; a publish that
+		 * failed may still be nacked later, when its channel is closed.
+		 */
+		boolean releaseWindowPermit() {
+			return this.holdsWindowPermit.compareAndSet(true, false);
+		}
+
 		@Override
 		public SettableListenableFuture<Confirm> getFuture() {
 			if (this.userData instanceof CorrelationData) {
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,19 +16,41 @@
 
 package org.springframework.integration.amqp.outbound;
 
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
 import org.springframework.amqp.core.AmqpTemplate;
 import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.connection.CorrelationData.Confirm;
+import org.springframework.amqp.rabbit.core.BatchingRabbitTemplate;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.amqp.rabbit.core.RabbitTemplate.ReturnCallback;
 import org.springframework.amqp.support.converter.MessageConverter;
 import org.springframework.context.Lifecycle;
+import org.springframework.integration.MessageTimeoutException;
 import org.springframework.integration.amqp.support.MappingUtils;
 import org.springframework.integration.support.AbstractIntegrationMessageBuilder;
 import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageDeliveryException;
+import org.springframework.messaging.MessageHandlingException;
 import org.springframework.util.Assert;
 
 /**
  * Adapter that converts and sends Messages to an AMQP Exchange.
+ * <p>
+ * With publisher confirms enabled on the connection factory, the number of messages
+ * awaiting a confirm can be bounded with {@link #setMaxOutstandingConfirms(int)}, and
+ * the caller can be blocked until its message is confirmed with
+ * {@link #setWaitForConfirm(boolean)}.
+ * <p>
+ * To publish small messages in batches, provide a {@link BatchingRabbitTemplate}; its
+ * {@link org.springframework.amqp.rabbit.batch.BatchingStrategy} determines the batch
+ * size, the buffer limit and the timeout after which a partial batch is sent. Pending
+ * messages are sent when the endpoint is stopped. Batching is not supported with
+ * publisher confirms or by the outbound gateway.
  *
  * @author Mark Fisher
  * @author Oleg Zhurakousky
@@ -40,10 +62,24 @@ import org.springframework.util.Assert;
 public class AmqpOutboundEndpoint extends AbstractAmqpOutboundEndpoint
 		implements RabbitTemplate.ConfirmCallback, ReturnCallback {
 
+	private static final long DEFAULT_CONFIRM_TIMEOUT = 30_000L;
+
+	private static final long DEFAULT_CONFIRM_WINDOW_WAIT_TIME = 30_000L;
+
 	private final AmqpTemplate amqpTemplate;
 
 	private volatile boolean expectReply;
 
+	private int maxOutstandingConfirms;
+
+	private long confirmWindowWaitTime = DEFAULT_CONFIRM_WINDOW_WAIT_TIME;
+
+	private boolean waitForConfirm;
+
+	private long confirmTimeout = DEFAULT_CONFIRM_TIMEOUT;
+
+	private volatile Semaphore confirmWindow;
+
 	public AmqpOutboundEndpoint(AmqpTemplate amqpTemplate) {
 		Assert.notNull(amqpTemplate, "amqpTemplate must not be null");
 		this.amqpTemplate = amqpTemplate;
@@ -56,6 +92,63 @@ public class AmqpOutboundEndpoint extends AbstractAmqpOutboundEndpoint
 		this.expectReply = expectReply;
 	}
 
+	/**
+	 * Set the maximum number of sent messages for which a publisher confirm has not
+	 * yet been received. When the window is full, sending blocks until a confirm
+	 * (ack or nack) arrives, for up to {@link #setConfirmWindowWaitTime(long)}.
+	 * Requires publisher confirms on the connection factory; a
+	 * {@code confirmCorrelationExpression} is not required. Default 0 (unbounded).
+	 * @param maxOutstandingConfirms the maximum.
+	 * @since 5.2
+	 */
+	public void setMaxOutstandingConfirms(int maxOutstandingConfirms) {
+		this.maxOutstandingConfirms = maxOutstandingConfirms;
+	}
+
+	/**
+	 * Set the time in milliseconds to wait for room in the confirm window before a
+	 * {@link MessageTimeoutException} is thrown. Default 30 seconds.
+	 * @param confirmWindowWaitTime the time.
+	 * @since 5.2
+	 * @see #setMaxOutstandingConfirms(int)
+	 */
+	public void setConfirmWindowWaitTime(long confirmWindowWaitTime) {
+		this.confirmWindowWaitTime = confirmWindowWaitTime;
+	}
+
+	/**
+	 * Set to true to block the calling thread until the publisher confirm for its
+	 * message is received; a nack results in a {@link MessageDeliveryException} and
+	 * no confirm within {@link #setConfirmTimeout(long)} results in a
+	 * {@link MessageTimeoutException}. Ignored when a reply is expected.
+	 * Requires publisher confirms on the connection factory.
+	 * @param waitForConfirm true to wait.
+	 * @since 5.2
+	 */
+	public void setWaitForConfirm(boolean waitForConfirm) {
+		this.waitForConfirm = waitForConfirm;
+	}
+
+	/**
+	 * Set the time in milliseconds to wait for a publisher confirm when
+	 * {@link #setWaitForConfirm(boolean)} is true. Default 30 seconds.
+	 * @param confirmTimeout the timeout.
+	 * @since 5.2
+	 */
+	public void setConfirmTimeout(long confirmTimeout) {
+		this.confirmTimeout = confirmTimeout;
+	}
+
+	/**
+	 * Return the number of sent messages awaiting a publisher confirm, when
+	 * {@link #setMaxOutstandingConfirms(int) maxOutstandingConfirms} is set.
+	 * @return the number of outstanding confirms.
+	 * @since 5.2
+	 */
+	public int getOutstandingConfirms() {
+		Semaphore window = this.confirmWindow;
+		return window == null ? 0 : this.maxOutstandingConfirms - window.availablePermits();
+	}
 
 	@Override
 	public String getComponentType() {
@@ -64,11 +157,22 @@ public class AmqpOutboundEndpoint extends AbstractAmqpOutboundEndpoint
 
 	@Override
 	protected void endpointInit() {
-		if (getConfirmCorrelationExpression() != null) {
+		if (this.amqpTemplate instanceof BatchingRabbitTemplate) {
+			Assert.state(!this.expectReply, "A BatchingRabbitTemplate cannot be used with an outbound gateway");
+			Assert.state(getConfirmCorrelationExpression() == null && !isConfirmTracking(),
+					"Publisher confirms are not supported with a BatchingRabbitTemplate");
+		}
+		if (getConfirmCorrelationExpression() != null || isConfirmTracking()) {
 			Assert.isInstanceOf(RabbitTemplate.class, this.amqpTemplate,
 					"RabbitTemplate implementation is required for publisher confirms");
 			((RabbitTemplate) this.amqpTemplate).setConfirmCallback(this);
 		}
+		if (isConfirmTracking()) {
+			Assert.state(((RabbitTemplate) this.amqpTemplate).getConnectionFactory().isPublisherConfirms(),
+					"The connection factory must have publisher confirms enabled for 'maxOutstandingConfirms' "
+							+ "or 'waitForConfirm'");
+			this.confirmWindow = this.maxOutstandingConfirms > 0 ? new Semaphore(this.maxOutstandingConfirms) : null;
+		}
 		if (getReturnChannel() != null) {
 			Assert.isInstanceOf(RabbitTemplate.class, this.amqpTemplate,
 					"RabbitTemplate implementation is required for publisher confirms");
@@ -83,12 +187,19 @@ public class AmqpOutboundEndpoint extends AbstractAmqpOutboundEndpoint
 		}
 	}
 
+	private boolean isConfirmTracking() {
+		return this.maxOutstandingConfirms > 0 || this.waitForConfirm;
+	}
+
 	@Override
 	protected Object handleRequestMessage(Message<?> requestMessage) {
 		CorrelationData correlationData = generateCorrelationData(requestMessage);
 		String exchangeName = generateExchangeName(requestMessage);
 		String routingKey = generateRoutingKey(requestMessage);
-		if (this.expectReply) {
+		if (isConfirmTracking()) {
+			return sendWithConfirmTracking(exchangeName, routingKey, requestMessage, correlationData);
+		}
+		else if (this.expectReply) {
 			return this.sendAndReceive(exchangeName, routingKey, requestMessage, correlationData);
 		}
 		else {
@@ -97,6 +208,82 @@ public class AmqpOutboundEndpoint extends AbstractAmqpOutboundEndpoint
 		}
 	}
 
+	private Object sendWithConfirmTracking(String exchangeName, String routingKey, Message<?> requestMessage,
+			CorrelationData correlationData) {
+
+		CorrelationDataWrapper wrapper = (CorrelationDataWrapper) correlationData;
+		if (wrapper == null) {
+			// no user correlation data; track the confirm without routing it to the ack/nack channels
+			UUID id = requestMessage.getHeaders().getId();
+			wrapper = new CorrelationDataWrapper(id == null ? UUID.randomUUID().toString() : id.toString(), null,
+					requestMessage);
+		}
+		Semaphore window = this.confirmWindow;
+		if (window != null) {
+			acquireWindowPermit(window, requestMessage);
+			wrapper.windowPermitAcquired();
+		}
+		Object reply = null;
+		try {
+			if (this.expectReply) {
+				reply = sendAndReceive(exchangeName, routingKey, requestMessage, wrapper);
+			}
+			else {
+				send(exchangeName, routingKey, requestMessage, wrapper);
+			}
+		}
+		catch (RuntimeException e) {
+			releaseWindowPermit(wrapper);
+			throw e;
+		}
+		if (this.waitForConfirm && !this.expectReply) {
+			awaitConfirm(wrapper, requestMessage);
+		}
+		return reply;
+	}
+
+	private void acquireWindowPermit(Semaphore window, Message<?> requestMessage) {
+		try {
+			if (!window.tryAcquire(this.confirmWindowWaitTime, TimeUnit.MILLISECONDS)) {
+				throw new MessageTimeoutException(requestMessage, "Timed out waiting for room in the confirm window; "
+						+ this.maxOutstandingConfirms + " confirms outstanding");
+			}
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new MessageHandlingException(requestMessage, "Interrupted waiting for room in the confirm window",
+					e);
+		}
+	}
+
+	private void releaseWindowPermit(CorrelationDataWrapper wrapper) {
+		Semaphore window = this.confirmWindow;
+		if (window != null && wrapper.releaseWindowPermit()) {
+			window.release();
+		}
+	}
+
+	private void awaitConfirm(CorrelationDataWrapper wrapper, Message<?> requestMessage) {
+		try {
+			Confirm confirm = wrapper.getFuture().get(this.confirmTimeout, TimeUnit.MILLISECONDS);
+			if (!confirm.isAck()) {
+				throw new MessageDeliveryException(requestMessage,
+						"Negative publisher confirm received: " + confirm.getReason());
+			}
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new MessageHandlingException(requestMessage, "Interrupted waiting for a publisher confirm", e);
+		}
+		catch (ExecutionException e) {
+			throw new MessageHandlingException(requestMessage, "Failed to receive a publisher confirm", e.getCause());
+		}
+		catch (TimeoutException e) {
+			throw new MessageTimeoutException(requestMessage,
+					"No publisher confirm received within " + this.confirmTimeout + "ms");
+		}
+	}
+
 	private void send(String exchangeName, String routingKey,
 			final Message<?> requestMessage, CorrelationData correlationData) {
 		if (this.amqpTemplate instanceof RabbitTemplate) {
@@ -136,6 +323,14 @@ public class AmqpOutboundEndpoint extends AbstractAmqpOutboundEndpoint
 
 	@Override
 	public void confirm(CorrelationData correlationData, boolean ack, String cause) {
+		if (correlationData instanceof CorrelationDataWrapper) {
+			CorrelationDataWrapper wrapper = (CorrelationDataWrapper) correlationData;
+			releaseWindowPermit(wrapper);
+			wrapper.getFuture().set(new Confirm(ack, cause));
+			if (wrapper.getUserData() == null) {
+				return;
+			}
+		}
 		handleConfirm(correlationData, ack, cause);
 	}
 
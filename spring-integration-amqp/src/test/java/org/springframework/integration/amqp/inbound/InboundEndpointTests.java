@@ -27,6 +27,8 @@ import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.when;
 
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
@@ -36,11 +38,14 @@ import org.mockito.Mockito;
 
 import org.springframework.amqp.core.AcknowledgeMode;
 import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.batch.MessageBatch;
+import org.springframework.amqp.rabbit.batch.SimpleBatchingStrategy;
 import org.springframework.amqp.rabbit.connection.Connection;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.amqp.rabbit.listener.AbstractMessageListenerContainer;
 import org.springframework.amqp.rabbit.listener.SimpleMessageListenerContainer;
+import org.springframework.amqp.rabbit.listener.api.ChannelAwareBatchMessageListener;
 import org.springframework.amqp.rabbit.listener.api.ChannelAwareMessageListener;
 import org.springframework.amqp.rabbit.listener.exception.ListenerExecutionFailedException;
 import org.springframework.amqp.support.AmqpHeaders;
@@ -375,6 +380,58 @@ public class InboundEndpointTests {
 		assertThat(errors.receive(0)).isNull();
 	}
 
+	@Test
+	public void testProducerAndConsumerBatches() {
+		ConnectionFactory connectionFactory = mock(ConnectionFactory.class);
+		SimpleMessageListenerContainer container = new SimpleMessageListenerContainer(connectionFactory);
+		container.setDeBatchingEnabled(false);
+		AmqpInboundChannelAdapter adapter = new AmqpInboundChannelAdapter(container);
+		QueueChannel outputChannel = new QueueChannel();
+		adapter.setOutputChannel(outputChannel);
+		adapter.afterPropertiesSet();
+		SimpleBatchingStrategy batchingStrategy = new SimpleBatchingStrategy(2, 10_000, 10_000L);
+		MessageProperties messageProperties = new MessageProperties();
+		messageProperties.setContentType(MessageProperties.CONTENT_TYPE_TEXT_PLAIN);
+		assertThat(batchingStrategy.addToBatch("", "q", org.springframework.amqp.core.MessageBuilder
+				.withBody("foo".getBytes()).andProperties(messageProperties).build())).isNull();
+		MessageBatch batch = batchingStrategy.addToBatch("", "q", org.springframework.amqp.core.MessageBuilder
+				.withBody("bar".getBytes()).andProperties(messageProperties).build());
+		assertThat(batch).isNotNull();
+		((ChannelAwareMessageListener) container.getMessageListener()).onMessage(batch.getMessage(), null);
+		Message<?> received = outputChannel.receive(0);
+		assertThat(received).isNotNull();
+		assertThat(received.getPayload()).isInstanceOf(List.class);
+		List<?> messages = (List<?>) received.getPayload();
+		assertThat(messages).hasSize(2);
+		assertThat(((Message<?>) messages.get(0)).getPayload()).isEqualTo("foo");
+		assertThat(((Message<?>) messages.get(1)).getPayload()).isEqualTo("bar");
+
+		container = new SimpleMessageListenerContainer(connectionFactory);
+		container.setConsumerBatchEnabled(true);
+		container.setAcknowledgeMode(AcknowledgeMode.MANUAL);
+		adapter = new AmqpInboundChannelAdapter(container);
+		adapter.setOutputChannel(outputChannel);
+		adapter.setBatchMode(AmqpInboundChannelAdapter.BatchMode.EXTRACT_PAYLOADS);
+		adapter.afterPropertiesSet();
+		assertThat(container.getMessageListener()).isInstanceOf(ChannelAwareBatchMessageListener.class);
+		MessageProperties props1 = new MessageProperties();
+		props1.setDeliveryTag(1L);
+		MessageProperties props2 = new MessageProperties();
+		props2.setDeliveryTag(2L);
+		Channel channel = mock(Channel.class);
+		((ChannelAwareBatchMessageListener) container.getMessageListener()).onMessageBatch(Arrays.asList(
+				org.springframework.amqp.core.MessageBuilder.withBody("foo".getBytes()).andProperties(props1).build(),
+				org.springframework.amqp.core.MessageBuilder.withBody("bar".getBytes()).andProperties(props2).build()),
+				channel);
+		received = outputChannel.receive(0);
+		assertThat(received).isNotNull();
+		assertThat(received.getPayload()).isInstanceOf(List.class);
+		assertThat((List<?>) received.getPayload()).hasSize(2);
+		assertThat(((List<?>) received.getPayload()).get(0)).isEqualTo("foo".getBytes());
+		assertThat(received.getHeaders().get(AmqpHeaders.DELIVERY_TAG)).isEqualTo(2L);
+		assertThat(received.getHeaders().get(AmqpHeaders.CHANNEL)).isSameAs(channel);
+	}
+
 	public static class Foo {
 
 		private String bar;
@@ -17,16 +17,20 @@
 package org.springframework.integration.amqp.outbound;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.BDDMockito.given;
 import static org.mockito.BDDMockito.willAnswer;
 import static org.mockito.BDDMockito.willDoNothing;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.verify;
 
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.atomic.AtomicReference;
 
 import org.junit.Test;
@@ -34,15 +38,19 @@ import org.mockito.ArgumentCaptor;
 
 import org.springframework.amqp.core.Message;
 import org.springframework.amqp.rabbit.AsyncRabbitTemplate;
+import org.springframework.amqp.rabbit.batch.SimpleBatchingStrategy;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.BatchingRabbitTemplate;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.amqp.rabbit.listener.SimpleMessageListenerContainer;
 import org.springframework.beans.factory.BeanFactory;
+import org.springframework.integration.MessageTimeoutException;
 import org.springframework.integration.amqp.support.DefaultAmqpHeaderMapper;
 import org.springframework.integration.channel.NullChannel;
 import org.springframework.integration.channel.QueueChannel;
 import org.springframework.integration.support.MessageBuilder;
+import org.springframework.messaging.MessageDeliveryException;
 import org.springframework.messaging.MessageHeaders;
 import org.springframework.messaging.support.GenericMessage;
 import org.springframework.scheduling.TaskScheduler;
@@ -157,6 +165,80 @@ public class OutboundEndpointTests {
 		assertThat(amqpMessage.get().getMessageProperties().getHeaders().get(MessageHeaders.REPLY_CHANNEL)).isNull();
 	}
 
+	@Test
+	public void testConfirmWindowAndWaitForConfirm() {
+		ConnectionFactory connectionFactory = mock(ConnectionFactory.class);
+		given(connectionFactory.isPublisherConfirms()).willReturn(true);
+		RabbitTemplate amqpTemplate = spy(new RabbitTemplate(connectionFactory));
+		AmqpOutboundEndpoint endpoint = new AmqpOutboundEndpoint(amqpTemplate);
+		BlockingQueue<CorrelationData> sent = new LinkedBlockingQueue<>();
+		AtomicReference<Boolean> confirmOnSend = new AtomicReference<>();
+		willAnswer(invocation -> {
+			CorrelationData correlationData = invocation.getArgument(3);
+			if (confirmOnSend.get() == null) {
+				sent.add(correlationData);
+			}
+			else {
+				endpoint.confirm(correlationData, confirmOnSend.get(), "test");
+			}
+			return null;
+		}).given(amqpTemplate).send(anyString(), anyString(), any(Message.class), any(CorrelationData.class));
+		endpoint.setExchangeName("foo");
+		endpoint.setRoutingKey("bar");
+		endpoint.setMaxOutstandingConfirms(2);
+		endpoint.setConfirmWindowWaitTime(100);
+		endpoint.setBeanFactory(mock(BeanFactory.class));
+		endpoint.afterPropertiesSet();
+		endpoint.handleMessage(new GenericMessage<>("foo"));
+		endpoint.handleMessage(new GenericMessage<>("bar"));
+		assertThat(endpoint.getOutstandingConfirms()).isEqualTo(2);
+		assertThatExceptionOfType(MessageTimeoutException.class)
+				.isThrownBy(() -> endpoint.handleMessage(new GenericMessage<>("baz")));
+		CorrelationData first = sent.poll();
+		endpoint.confirm(first, true, null);
+		assertThat(first.getFuture().isDone()).isTrue();
+		assertThat(endpoint.getOutstandingConfirms()).isEqualTo(1);
+		endpoint.confirm(first, true, null);
+		assertThat(endpoint.getOutstandingConfirms()).isEqualTo(1);
+		endpoint.confirm(sent.poll(), false, "test");
+		assertThat(endpoint.getOutstandingConfirms()).isEqualTo(0);
+
+		endpoint.setWaitForConfirm(true);
+		endpoint.setConfirmTimeout(100);
+		endpoint.afterPropertiesSet();
+		confirmOnSend.set(true);
+		endpoint.handleMessage(new GenericMessage<>("foo"));
+		confirmOnSend.set(false);
+		assertThatExceptionOfType(MessageDeliveryException.class)
+				.isThrownBy(() -> endpoint.handleMessage(new GenericMessage<>("bar")))
+				.withMessageContaining("test");
+		assertThat(endpoint.getOutstandingConfirms()).isEqualTo(0);
+		confirmOnSend.set(null);
+		assertThatExceptionOfType(MessageTimeoutException.class)
+				.isThrownBy(() -> endpoint.handleMessage(new GenericMessage<>("baz")));
+		assertThat(endpoint.getOutstandingConfirms()).isEqualTo(1);
+		assertThat(sent).hasSize(1);
+	}
+
+	@Test
+	public void testBatchingTemplateValidation() {
+		BatchingRabbitTemplate template = new BatchingRabbitTemplate(new SimpleBatchingStrategy(10, 10_000, 100L),
+				mock(TaskScheduler.class));
+		template.setConnectionFactory(mock(ConnectionFactory.class));
+		AmqpOutboundEndpoint endpoint = new AmqpOutboundEndpoint(template);
+		endpoint.setExpectReply(true);
+		assertThatExceptionOfType(IllegalStateException.class)
+				.isThrownBy(endpoint::afterPropertiesSet)
+				.withMessageContaining("outbound gateway");
+		endpoint.setExpectReply(false);
+		endpoint.setWaitForConfirm(true);
+		assertThatExceptionOfType(IllegalStateException.class)
+				.isThrownBy(endpoint::afterPropertiesSet)
+				.withMessageContaining("Publisher confirms");
+		endpoint.setWaitForConfirm(false);
+		endpoint.afterPropertiesSet();
+	}
+
 	/**
 	 * Increase method visibility
 	 */
@@ -1,5 +1,5 @@
 /*
- * Copyright 2015-2016 the original author or authors.
+ * Copyright 2015-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,10 +16,10 @@
 
 package org.springframework.integration.codec.kryo;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
 
 import org.springframework.integration.codec.Codec;
 import org.springframework.util.Assert;
@@ -33,14 +33,28 @@ import com.esotericsoftware.kryo.pool.KryoPool;
 /**
  * Base class for {@link Codec}s using {@link Kryo}.
  * Manages pooled {@link Kryo} instances.
+ * <p>
+ * Since 5.2, encoding to a {@code byte[]} or a {@link ByteBuffer} uses a per-thread,
+ * reusable {@link Output} buffer instead of allocating new buffers for each call; see
+ * {@link #setMaxRetainedBufferSize(int)}. Encoding to a stream writes through a small
+ * {@link Output} buffer, so the encoded object is never held in memory in full.
  *
  * @author David Turanski
+ * @author Gary Russell
  * @since 4.2
  */
 public abstract class AbstractKryoCodec implements Codec {
 
+	private static final int INITIAL_BUFFER_SIZE = 1024;
+
+	private static final int DEFAULT_MAX_RETAINED_BUFFER_SIZE = 64 * 1024;
+
 	protected final KryoPool pool;
 
+	private final ThreadLocal<ReusableBuffers> buffers = ThreadLocal.withInitial(ReusableBuffers::new);
+
+	private int maxRetainedBufferSize = DEFAULT_MAX_RETAINED_BUFFER_SIZE;
+
 	protected AbstractKryoCodec() {
 		KryoFactory factory = () -> {
 			Kryo kryo = new Kryo();
@@ -52,18 +66,52 @@ public abstract class AbstractKryoCodec implements Codec {
 		this.pool = new KryoPool.Builder(factory).softReferences().build();
 	}
 
+	/**
+	 * Set the size above which a per-thread encoding buffer that has grown to accommodate
+	 * a large object is discarded after use, rather than retained for the next call.
+	 * Default 64k.
+	 * @param maxRetainedBufferSize the size.
+	 * @since 5.2
+	 */
+	public void setMaxRetainedBufferSize(int maxRetainedBufferSize) {
+		this.maxRetainedBufferSize = maxRetainedBufferSize;
+	}
+
 	@Override
 	public void encode(final Object object, OutputStream outputStream) throws IOException {
 		Assert.notNull(object, "cannot encode a null object");
 		Assert.notNull(outputStream, "'outputSteam' cannot be null");
 		final Output output = (outputStream instanceof Output ? (Output) outputStream : new Output(outputStream));
-		this.pool.run(kryo -> {
-			doEncode(kryo, object, output);
-			return Void.class;
-		});
+		encode(object, output);
 		output.close();
 	}
 
+	/**
+	 * Encode the object into the buffer, starting at its current position; the position
+	 * is advanced by the number of bytes written.
+	 * The buffer is not modified if it does not have enough space remaining.
+	 * @param object the object to encode.
+	 * @param buffer the buffer.
+	 * @return the number of bytes written.
+	 * @throws java.nio.BufferOverflowException if there is insufficient space remaining.
+	 * @since 5.2
+	 */
+	public int encode(Object object, ByteBuffer buffer) {
+		Assert.notNull(object, "cannot encode a null object");
+		Assert.notNull(buffer, "'buffer' cannot be null");
+		ReusableBuffers reusable = this.buffers.get();
+		Output output = reusable.borrowOutput();
+		try {
+			encode(object, output);
+			int length = output.position();
+			buffer.put(output.getBuffer(), 0, length);
+			return length;
+		}
+		finally {
+			reusable.releaseOutput(output);
+		}
+	}
+
 	@Override
 	public <T> T decode(byte[] bytes, Class<T> type) throws IOException {
 		Assert.notNull(bytes, "'bytes' cannot be null");
@@ -76,28 +124,88 @@ public abstract class AbstractKryoCodec implements Codec {
 		}
 	}
 
+	/**
+	 * Decode an object from the buffer, starting at its current position; the position
+	 * is advanced by the number of bytes read. Heap buffers are read in place; the
+	 * content of direct buffers is first copied to a per-thread array.
+	 * @param buffer the buffer.
+	 * @param type the object's class.
+	 * @param <T> the object's type.
+	 * @return the object.
+	 * @since 5.2
+	 */
+	public <T> T decode(ByteBuffer buffer, Class<T> type) {
+		Assert.notNull(buffer, "'buffer' cannot be null");
+		Assert.notNull(type, "'type' cannot be null");
+		int length = buffer.remaining();
+		if (buffer.hasArray()) {
+			int offset = buffer.arrayOffset() + buffer.position();
+			Input input = new Input(buffer.array(), offset, length);
+			T result = decode(input, type);
+			buffer.position(buffer.position() + input.position() - offset);
+			return result;
+		}
+		else {
+			ReusableBuffers reusable = this.buffers.get();
+			byte[] bytes = reusable.borrowBytes(length);
+			try {
+				buffer.duplicate().get(bytes, 0, length);
+				Input input = new Input(bytes, 0, length);
+				T result = decode(input, type);
+				buffer.position(buffer.position() + input.position());
+				return result;
+			}
+			finally {
+				reusable.releaseBytes(bytes);
+			}
+		}
+	}
+
 	@Override
 	public <T> T decode(InputStream inputStream, final Class<T> type) throws IOException {
 		Assert.notNull(inputStream, "'inputStream' cannot be null");
 		Assert.notNull(type, "'type' cannot be null");
 		final Input input = (inputStream instanceof Input ? (Input) inputStream : new Input(inputStream));
-		T result = null;
 		try {
-			result = this.pool.run(kryo -> doDecode(kryo, input, type));
+			return decode(input, type);
 		}
 		finally {
 			input.close();
 		}
-		return result;
 	}
 
 	@Override
 	public byte[] encode(Object object) throws IOException {
-		ByteArrayOutputStream bos = new ByteArrayOutputStream();
-		encode(object, bos);
-		byte[] bytes = bos.toByteArray();
-		bos.close();
-		return bytes;
+		Assert.notNull(object, "cannot encode a null object");
+		ReusableBuffers reusable = this.buffers.get();
+		Output output = reusable.borrowOutput();
+		try {
+			encode(object, output);
+			return output.toBytes();
+		}
+		finally {
+			reusable.releaseOutput(output);
+		}
+	}
+
+	private void encode(Object object, Output output) {
+		Kryo kryo = this.pool.borrow();
+		try {
+			doEncode(kryo, object, output);
+		}
+		finally {
+			this.pool.release(kryo);
+		}
+	}
+
+	private <T> T decode(Input input, Class<T> type) {
+		Kryo kryo = this.pool.borrow();
+		try {
+			return doDecode(kryo, input, type);
+		}
+		finally {
+			this.pool.release(kryo);
+		}
 	}
 
 	/**
@@ -125,4 +233,47 @@ public abstract class AbstractKryoCodec implements Codec {
 	 */
 	protected abstract void configureKryoInstance(Kryo kryo);
 
+	/*
+	 * Per-thread buffers; a nested use on the same thread (e.g. a custom serializer that
+	 * invokes the codec) gets a new buffer instead of the one in use.
+	 */
+	private final class ReusableBuffers {
+
+		private Output output;
+
+		private byte[] bytes;
+
+		Output borrowOutput() {
+			Output borrowed = this.output;
+			this.output = null;
+			if (borrowed == null) {
+				return new Output(INITIAL_BUFFER_SIZE, -1);
+			}
+			borrowed.clear();
+			return borrowed;
+		}
+
+		void releaseOutput(Output released) {
+			if (released.getBuffer().length <= AbstractKryoCodec.this.maxRetainedBufferSize) {
+				this.output = released;
+			}
+		}
+
+		byte[] borrowBytes(int length) {
+			byte[] borrowed = this.bytes;
+			this.bytes = null;
+			if (borrowed == null || borrowed.length < length) {
+				return new byte[Math.max(length, INITIAL_BUFFER_SIZE)];
+			}
+			return borrowed;
+		}
+
+		void releaseBytes(byte[] released) {
+			if (released.length <= AbstractKryoCodec.this.maxRetainedBufferSize) {
+				this.bytes = released;
+			}
+		}
+
+	}
+
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2015-2016 the original author or authors.
+ * Copyright 2015-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -34,7 +34,8 @@ import com.esotericsoftware.kryo.io.Output;
 class MessageHeadersSerializer extends Serializer<MessageHeaders> {
 	@Override
 	public void write(Kryo kryo, Output output, MessageHeaders headers) {
-		HashMap<String, Object> map = new HashMap<String, Object>();
+		// sized to avoid rehashing; the wire format is that of a HashMap
+		HashMap<String, Object> map = new HashMap<>((int) (headers.size() / 0.75f) + 1);
 		for (Map.Entry<String, Object> entry : headers.entrySet()) {
 			if (entry.getValue() != null) {
 				map.put(entry.getKey(), entry.getValue());
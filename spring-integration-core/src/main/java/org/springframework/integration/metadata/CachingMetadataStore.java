@@ -0,0 +1,318 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.metadata;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * A write-through caching {@link ConcurrentMetadataStore} decorator.
+ * Reads are served from a bounded, in-memory LRU cache with a time-to-live;
+ * writes are always performed against the target store first and then reflected
+ * in the cache.
+ * <p>
+ * Since {@link ConcurrentMetadataStore#putIfAbsent} fails whenever a value is present,
+ * a cached (non-expired) value short-circuits that call without a round-trip to the
+ * target store; this is the main benefit for the
+ * {@link org.springframework.integration.selector.MetadataStoreSelector} and the
+ * persistent file list filters, which see the same keys over and over.
+ * <p>
+ * When negative caching is enabled, a {@code null} result of {@link #get(String)} is
+ * also cached (for {@link #setNegativeTimeToLive(long)}); negative entries are never
+ * used for {@code putIfAbsent()} or {@code replace()} - those always go to the target.
+ * <p>
+ * If the target is a {@link ListenableMetadataStore}, a {@link MetadataStoreListener}
+ * is registered to keep the cache in sync with changes made by other instances.
+ * Otherwise, the time-to-live bounds how long a change made elsewhere may go unnoticed.
+ *
+ * @author Artem Bilan
+ *
+ * @since 5.2
+ */
+public class CachingMetadataStore implements ConcurrentMetadataStore, DisposableBean {
+
+	private static final int DEFAULT_MAX_SIZE = 1000;
+
+	private static final long DEFAULT_TIME_TO_LIVE = 60_000L;
+
+	private final ConcurrentMetadataStore target;
+
+	private final MetadataStoreListener invalidatingListener = new InvalidatingListener();
+
+	private final Object monitor = new Object();
+
+	private final AtomicLong hits = new AtomicLong();
+
+	private final AtomicLong misses = new AtomicLong();
+
+	private final Map<String, CacheEntry> cache =
+			new LinkedHashMap<String, CacheEntry>(16, 0.75f, true) {
+
+				private static final long serialVersionUID = 1L;
+
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<String, CacheEntry> eldest) {
+					return size() > CachingMetadataStore.this.maxSize;
+				}
+
+			};
+
+	private volatile int maxSize = DEFAULT_MAX_SIZE;
+
+	private long timeToLive = DEFAULT_TIME_TO_LIVE;
+
+	private long negativeTimeToLive = DEFAULT_TIME_TO_LIVE;
+
+	private boolean negativeCaching;
+
+	/*
+	 * Incremented (under the monitor) on every write or invalidation, so that a value
+	 * loaded from the target concurrently with a change is not put into the cache.
+	 */
+	private long modifications;
+
+	/**
+	 * Construct an instance based on the provided target store.
+	 * @param target the {@link ConcurrentMetadataStore} to delegate to.
+	 */
+	public CachingMetadataStore(ConcurrentMetadataStore target) {
+		Assert.notNull(target, "'target' must not be null");
+		this.target = target;
+		if (target instanceof ListenableMetadataStore) {
+			((ListenableMetadataStore) target).addListener(this.invalidatingListener);
+		}
+	}
+
+	/**
+	 * Set the maximum number of entries (positive and negative) kept in the cache;
+	 * the least recently used entries are evicted first. Defaults to 1000.
+	 * @param maxSize the maximum cache size.
+	 */
+	public void setMaxSize(int maxSize) {
+		Assert.isTrue(maxSize > 0, "'maxSize' must be greater than 0");
+		this.maxSize = maxSize;
+	}
+
+	/**
+	 * Set the time in milliseconds a cached value is considered valid.
+	 * Defaults to 60 seconds. A value {@code <= 0} means entries never expire;
+	 * that is only recommended with a {@link ListenableMetadataStore} target
+	 * or when this instance is the only writer to the target.
+	 * @param timeToLive the time-to-live in milliseconds.
+	 */
+	public void setTimeToLive(long timeToLive) {
+		this.timeToLive = timeToLive;
+	}
+
+	/**
+	 * Set the time in milliseconds a cached absence of a key is considered valid.
+	 * Defaults to 60 seconds. Only used when {@link #setNegativeCaching(boolean)} is
+	 * {@code true}.
+	 * @param negativeTimeToLive the negative time-to-live in milliseconds.
+	 */
+	public void setNegativeTimeToLive(long negativeTimeToLive) {
+		this.negativeTimeToLive = negativeTimeToLive;
+	}
+
+	/**
+	 * Set to true to cache {@code null} results of {@link #get(String)}. Default false.
+	 * @param negativeCaching true to enable negative caching.
+	 */
+	public void setNegativeCaching(boolean negativeCaching) {
+		this.negativeCaching = negativeCaching;
+	}
+
+	@Override
+	public void put(String key, String value) {
+		this.target.put(key, value);
+		cache(key, value);
+	}
+
+	@Override
+	@Nullable
+	public String get(String key) {
+		Assert.notNull(key, "'key' must not be null");
+		long stamp;
+		synchronized (this.monitor) {
+			CacheEntry entry = this.cache.get(key);
+			if (entry != null) {
+				if (!entry.isExpired()) {
+					this.hits.incrementAndGet();
+					return entry.value;
+				}
+				this.cache.remove(key);
+			}
+			stamp = this.modifications;
+		}
+		this.misses.incrementAndGet();
+		String value = this.target.get(key);
+		if (value != null || this.negativeCaching) {
+			synchronized (this.monitor) {
+				if (stamp == this.modifications) {
+					this.cache.put(key, newEntry(value));
+				}
+			}
+		}
+		return value;
+	}
+
+	@Override
+	@Nullable
+	public String remove(String key) {
+		String oldValue = this.target.remove(key);
+		if (this.negativeCaching) {
+			cache(key, null);
+		}
+		else {
+			invalidate(key);
+		}
+		return oldValue;
+	}
+
+	@Override
+	@Nullable
+	public String putIfAbsent(String key, String value) {
+		Assert.notNull(key, "'key' must not be null");
+		synchronized (this.monitor) {
+			CacheEntry entry = this.cache.get(key);
+			if (entry != null && entry.value != null && !entry.isExpired()) {
+				this.hits.incrementAndGet();
+				return entry.value;
+			}
+		}
+		this.misses.incrementAndGet();
+		String existing = this.target.putIfAbsent(key, value);
+		cache(key, existing == null ? value : existing);
+		return existing;
+	}
+
+	@Override
+	public boolean replace(String key, String oldValue, String newValue) {
+		boolean replaced = this.target.replace(key, oldValue, newValue);
+		if (replaced) {
+			cache(key, newValue);
+		}
+		else {
+			invalidate(key);
+		}
+		return replaced;
+	}
+
+	/**
+	 * Evict the entry for the provided key from the cache; the target store is not affected.
+	 * @param key the key to evict.
+	 */
+	@ManagedOperation
+	public void invalidate(String key) {
+		synchronized (this.monitor) {
+			this.modifications++;
+			this.cache.remove(key);
+		}
+	}
+
+	/**
+	 * Evict all the entries from the cache; the target store is not affected.
+	 */
+	@ManagedOperation
+	public void invalidateAll() {
+		synchronized (this.monitor) {
+			this.modifications++;
+			this.cache.clear();
+		}
+	}
+
+	@ManagedAttribute
+	public int getCacheSize() {
+		synchronized (this.monitor) {
+			return this.cache.size();
+		}
+	}
+
+	@ManagedAttribute
+	public long getHitCount() {
+		return this.hits.get();
+	}
+
+	@ManagedAttribute
+	public long getMissCount() {
+		return this.misses.get();
+	}
+
+	@Override
+	public void destroy() {
+		if (this.target instanceof ListenableMetadataStore) {
+			((ListenableMetadataStore) this.target).removeListener(this.invalidatingListener);
+		}
+		invalidateAll();
+	}
+
+	private void cache(String key, @Nullable String value) {
+		synchronized (this.monitor) {
+			this.modifications++;
+			this.cache.put(key, newEntry(value));
+		}
+	}
+
+	private CacheEntry newEntry(@Nullable String value) {
+		long ttl = value == null ? this.negativeTimeToLive : this.timeToLive;
+		return new CacheEntry(value, ttl > 0 ? System.currentTimeMillis() + ttl : Long.MAX_VALUE);
+	}
+
+	private static final class CacheEntry {
+
+		private final String value;
+
+		private final long expiresAt;
+
+		CacheEntry(@Nullable String value, long expiresAt) {
+			this.value = value;
+			this.expiresAt = expiresAt;
+		}
+
+		boolean isExpired() {
+			return System.currentTimeMillis() > this.expiresAt;
+		}
+
+	}
+
+	private final class InvalidatingListener implements MetadataStoreListener {
+
+		@Override
+		public void onAdd(String key, String value) {
+			cache(key, value);
+		}
+
+		@Override
+		public void onRemove(String key, String oldValue) {
+			invalidate(key);
+		}
+
+		@Override
+		public void onUpdate(String key, String newValue) {
+			cache(key, newValue);
+		}
+
+	}
+
+}
@@ -0,0 +1,560 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.store;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import org.springframework.core.NestedIOException;
+import org.springframework.core.serializer.Deserializer;
+import org.springframework.core.serializer.Serializer;
+import org.springframework.integration.IntegrationMessageHeaderAccessor;
+import org.springframework.integration.support.MutableMessage;
+import org.springframework.integration.support.converter.WhiteListDeserializingConverter;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.support.GenericMessage;
+import org.springframework.util.Assert;
+import org.springframework.util.SerializationUtils;
+import org.springframework.util.StreamUtils;
+
+/**
+ * A compact binary {@link Serializer} and {@link Deserializer} for the objects kept in
+ * message stores, e.g. with the {@code JdbcMessageStore} and
+ * {@code JdbcChannelMessageStore} {@code serializer} property (use
+ * {@link #messageDeserializer()} for their {@code deserializer} property).
+ * <p>
+ * {@link GenericMessage}s and {@link MutableMessage}s (and {@link MessageHolder}s that
+ * contain them) are written in a binary format: well-known header names are encoded as
+ * an index into a dictionary (which can be extended with
+ * {@link #setHeaderDictionary(String...)}), and {@code String}, {@code byte[]},
+ * {@link UUID} and primitive wrapper values are written without Java serialization.
+ * Other values, other message types and other objects (such as
+ * {@link MessageGroupMetadata}) are Java serialized. Header values that are not
+ * {@link Serializable} are skipped, as they are with Java serialization of
+ * {@link MessageHeaders}.
+ * <p>
+ * The data can be compressed (with {@link Deflater}) when it exceeds a threshold;
+ * see {@link #setCompressionThreshold(int)}.
+ * <p>
+ * Data that was written with Java serialization (e.g. existing rows written by the
+ * default serializer) is recognized and deserialized as before, so stores can be
+ * switched to this serializer without migrating their data. Java deserialization
+ * can be restricted with {@link #addWhiteListPatterns(String...)}.
+ *
+ * @author Gary Russell
+ * @since 5.2
+ *
+ */
+public class CompactMessageSerializer implements Serializer<Object>, Deserializer<Object> {
+
+	private static final byte MAGIC = (byte) 0xC5;
+
+	private static final byte VERSION = 1;
+
+	private static final int FLAG_COMPRESSED = 0x01;
+
+	private static final byte JAVA_MAGIC_0 = (byte) 0xAC;
+
+	private static final byte JAVA_MAGIC_1 = (byte) 0xED;
+
+	private static final byte KIND_OBJECT = 0;
+
+	private static final byte KIND_GENERIC_MESSAGE = 1;
+
+	private static final byte KIND_MUTABLE_MESSAGE = 2;
+
+	private static final byte KIND_MESSAGE_HOLDER = 3;
+
+	private static final byte TYPE_STRING = 1;
+
+	private static final byte TYPE_INTEGER = 2;
+
+	private static final byte TYPE_LONG = 3;
+
+	private static final byte TYPE_TRUE = 4;
+
+	private static final byte TYPE_FALSE = 5;
+
+	private static final byte TYPE_DOUBLE = 6;
+
+	private static final byte TYPE_FLOAT = 7;
+
+	private static final byte TYPE_SHORT = 8;
+
+	private static final byte TYPE_BYTE = 9;
+
+	private static final byte TYPE_CHARACTER = 10;
+
+	private static final byte TYPE_BYTES = 11;
+
+	private static final byte TYPE_UUID = 12;
+
+	private static final byte TYPE_SERIALIZED = 13;
+
+	/*
+	 * The order of these names is part of the format; new names can only be appended.
+	 */
+	private static final List<String> STANDARD_HEADERS = Arrays.asList(
+			MessageHeaders.ID,
+			MessageHeaders.TIMESTAMP,
+			MessageHeaders.CONTENT_TYPE,
+			MessageHeaders.REPLY_CHANNEL,
+			MessageHeaders.ERROR_CHANNEL,
+			IntegrationMessageHeaderAccessor.CORRELATION_ID,
+			IntegrationMessageHeaderAccessor.SEQUENCE_NUMBER,
+			IntegrationMessageHeaderAccessor.SEQUENCE_SIZE,
+			IntegrationMessageHeaderAccessor.SEQUENCE_DETAILS,
+			IntegrationMessageHeaderAccessor.EXPIRATION_DATE,
+			IntegrationMessageHeaderAccessor.PRIORITY,
+			IntegrationMessageHeaderAccessor.ROUTING_SLIP,
+			IntegrationMessageHeaderAccessor.DUPLICATE_MESSAGE,
+			IntegrationMessageHeaderAccessor.DELIVERY_ATTEMPT);
+
+	private final WhiteListDeserializingConverter javaDeserializer;
+
+	private List<String> headerDictionary = STANDARD_HEADERS;
+
+	private Map<String, Integer> headerIndexes = indexes(STANDARD_HEADERS);
+
+	private int compressionThreshold = -1;
+
+	/**
+	 * Construct an instance that uses the default class loader for Java
+	 * deserialization.
+	 */
+	public CompactMessageSerializer() {
+		this.javaDeserializer = new WhiteListDeserializingConverter();
+	}
+
+	/**
+	 * Construct an instance that uses the provided class loader for Java
+	 * deserialization.
+	 * @param classLoader the class loader.
+	 */
+	public CompactMessageSerializer(ClassLoader classLoader) {
+		this.javaDeserializer = new WhiteListDeserializingConverter(classLoader);
+	}
+
+	/**
+	 * Add header names to encode as dictionary indexes, in addition to the standard
+	 * headers. The same names, in the same order, must be configured wherever the data
+	 * is deserialized; names can be appended later, but never removed or reordered.
+	 * @param headerNames the header names.
+	 */
+	public void setHeaderDictionary(String... headerNames) {
+		Assert.noNullElements(headerNames, "'headerNames' cannot contain null elements");
+		List<String> dictionary = new ArrayList<>(STANDARD_HEADERS);
+		dictionary.addAll(Arrays.asList(headerNames));
+		this.headerIndexes = indexes(dictionary);
+		this.headerDictionary = dictionary;
+	}
+
+	/**
+	 * Set the size in bytes above which the data is compressed. Default -1, never.
+	 * @param compressionThreshold the threshold.
+	 */
+	public void setCompressionThreshold(int compressionThreshold) {
+		this.compressionThreshold = compressionThreshold;
+	}
+
+	/**
+	 * Add patterns for packages/classes that are allowed to be Java deserialized.
+	 * @param patterns the patterns.
+	 * @see WhiteListDeserializingConverter#addWhiteListPatterns(String...)
+	 */
+	public void addWhiteListPatterns(String... patterns) {
+		this.javaDeserializer.addWhiteListPatterns(patterns);
+	}
+
+	@Override
+	public void serialize(Object object, OutputStream outputStream) throws IOException {
+		Assert.notNull(object, "'object' cannot be null");
+		ByteArrayOutputStream body = new ByteArrayOutputStream(256);
+		DataOutputStream data = new DataOutputStream(body);
+		writeObject(object, data);
+		data.flush();
+		int length = body.size();
+		outputStream.write(MAGIC);
+		outputStream.write(VERSION);
+		if (this.compressionThreshold >= 0 && length > this.compressionThreshold) {
+			outputStream.write(FLAG_COMPRESSED);
+			writeVarInt(length, outputStream);
+			Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+			try {
+				deflater.setInput(body.toByteArray());
+				deflater.finish();
+				byte[] buffer = new byte[Math.min(length, 8192)];
+				while (!deflater.finished()) {
+					int n = deflater.deflate(buffer);
+					outputStream.write(buffer, 0, n);
+				}
+			}
+			finally {
+				deflater.end();
+			}
+		}
+		else {
+			outputStream.write(0);
+			body.writeTo(outputStream);
+		}
+		outputStream.flush();
+	}
+
+	@Override
+	public Object deserialize(InputStream inputStream) throws IOException {
+		byte[] bytes = StreamUtils.copyToByteArray(inputStream);
+		if (bytes.length >= 2 && bytes[0] == JAVA_MAGIC_0 && bytes[1] == JAVA_MAGIC_1) {
+			return this.javaDeserializer.convert(bytes);
+		}
+		if (bytes.length < 3 || bytes[0] != MAGIC) {
+			throw new IOException("Unrecognized data; not written by a CompactMessageSerializer "
+					+ "or with Java serialization");
+		}
+		if (bytes[1] != VERSION) {
+			throw new IOException("Unsupported format version: " + bytes[1]);
+		}
+		ByteArrayInputStream stream = new ByteArrayInputStream(bytes, 3, bytes.length - 3);
+		if ((bytes[2] & FLAG_COMPRESSED) != 0) {
+			stream = new ByteArrayInputStream(inflate(stream, bytes));
+		}
+		return readObject(new DataInputStream(stream));
+	}
+
+	/**
+	 * Return a view of this serializer's {@link #deserialize(InputStream)} that is typed
+	 * for stores that only keep messages, e.g. for the {@code JdbcMessageStore} and
+	 * {@code JdbcChannelMessageStore} {@code deserializer} property.
+	 * @return the message deserializer.
+	 */
+	public Deserializer<Message<?>> messageDeserializer() {
+		return inputStream -> {
+			Object object = deserialize(inputStream);
+			if (!(object instanceof Message)) {
+				throw new IOException("Expected a Message but deserialized a "
+						+ (object == null ? null : object.getClass().getName()));
+			}
+			return (Message<?>) object;
+		};
+	}
+
+	private void writeObject(Object object, DataOutputStream data) throws IOException {
+		if (object instanceof MessageHolder) {
+			MessageHolder holder = (MessageHolder) object;
+			if (isCompactMessage(holder.getMessage())) {
+				data.writeByte(KIND_MESSAGE_HOLDER);
+				data.writeLong(holder.getMessageMetadata().getTimestamp());
+				writeMessage(holder.getMessage(), data);
+				return;
+			}
+		}
+		else if (isCompactMessage(object)) {
+			writeMessage((Message<?>) object, data);
+			return;
+		}
+		data.writeByte(KIND_OBJECT);
+		writeSerialized(object, data);
+	}
+
+	private static boolean isCompactMessage(Object object) {
+		Class<?> type = object.getClass();
+		return type.equals(GenericMessage.class) || type.equals(MutableMessage.class);
+	}
+
+	private void writeMessage(Message<?> message, DataOutputStream data) throws IOException {
+		data.writeByte(message instanceof MutableMessage ? KIND_MUTABLE_MESSAGE : KIND_GENERIC_MESSAGE);
+		MessageHeaders headers = message.getHeaders();
+		int count = 0;
+		for (Object value : headers.values()) {
+			if (value instanceof Serializable) {
+				count++;
+			}
+		}
+		writeVarInt(count, data);
+		for (Map.Entry<String, Object> header : headers.entrySet()) {
+			if (header.getValue() instanceof Serializable) {
+				writeHeaderName(header.getKey(), data);
+				writeValue(header.getValue(), data);
+			}
+		}
+		writeValue(message.getPayload(), data);
+	}
+
+	private void writeHeaderName(String name, DataOutputStream data) throws IOException {
+		Integer index = this.headerIndexes.get(name);
+		if (index != null) {
+			writeVarInt(index + 1, data);
+		}
+		else {
+			writeVarInt(0, data);
+			writeString(name, data);
+		}
+	}
+
+	private void writeValue(Object value, DataOutputStream data) throws IOException {
+		if (value instanceof String) {
+			data.writeByte(TYPE_STRING);
+			writeString((String) value, data);
+		}
+		else if (value instanceof Integer) {
+			data.writeByte(TYPE_INTEGER);
+			data.writeInt((Integer) value);
+		}
+		else if (value instanceof Long) {
+			data.writeByte(TYPE_LONG);
+			data.writeLong((Long) value);
+		}
+		else if (value instanceof Boolean) {
+			data.writeByte((Boolean) value ? TYPE_TRUE : TYPE_FALSE);
+		}
+		else if (value instanceof Double) {
+			data.writeByte(TYPE_DOUBLE);
+			data.writeDouble((Double) value);
+		}
+		else if (value instanceof Float) {
+			data.writeByte(TYPE_FLOAT);
+			data.writeFloat((Float) value);
+		}
+		else if (value instanceof Short) {
+			data.writeByte(TYPE_SHORT);
+			data.writeShort((Short) value);
+		}
+		else if (value instanceof Byte) {
+			data.writeByte(TYPE_BYTE);
+			data.writeByte((Byte) value);
+		}
+		else if (value instanceof Character) {
+			data.writeByte(TYPE_CHARACTER);
+			data.writeChar((Character) value);
+		}
+		else if (value instanceof byte[]) {
+			byte[] bytes = (byte[]) value;
+			data.writeByte(TYPE_BYTES);
+			writeVarInt(bytes.length, data);
+			data.write(bytes);
+		}
+		else if (value instanceof UUID) {
+			UUID uuid = (UUID) value;
+			data.writeByte(TYPE_UUID);
+			data.writeLong(uuid.getMostSignificantBits());
+			data.writeLong(uuid.getLeastSignificantBits());
+		}
+		else {
+			data.writeByte(TYPE_SERIALIZED);
+			writeSerialized(value, data);
+		}
+	}
+
+	private static void writeSerialized(Object value, DataOutputStream data) throws IOException {
+		byte[] bytes = SerializationUtils.serialize(value);
+		writeVarInt(bytes.length, data);
+		data.write(bytes);
+	}
+
+	private static void writeString(String value, DataOutputStream data) throws IOException {
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		writeVarInt(bytes.length, data);
+		data.write(bytes);
+	}
+
+	private static void writeVarInt(int value, OutputStream outputStream) throws IOException {
+		int remaining = value;
+		while ((remaining & ~0x7F) != 0) {
+			outputStream.write((remaining & 0x7F) | 0x80);
+			remaining >>>= 7;
+		}
+		outputStream.write(remaining);
+	}
+
+	private Object readObject(DataInputStream data) throws IOException {
+		byte kind = data.readByte();
+		switch (kind) {
+			case KIND_OBJECT:
+				return readSerialized(data);
+			case KIND_MESSAGE_HOLDER:
+				return readMessageHolder(data);
+			default:
+				return readMessage(kind, data);
+		}
+	}
+
+	private MessageHolder readMessageHolder(DataInputStream data) throws IOException {
+		long timestamp = data.readLong();
+		MessageHolder holder = new MessageHolder(readMessage(data.readByte(), data));
+		holder.setTimestamp(timestamp);
+		return holder;
+	}
+
+	private Message<?> readMessage(byte kind, DataInputStream data) throws IOException {
+		int count = readVarInt(data);
+		Map<String, Object> headers = new HashMap<>((int) (count / 0.75f) + 1);
+		for (int i = 0; i < count; i++) {
+			String name = readHeaderName(data);
+			headers.put(name, readValue(data));
+		}
+		Object payload = readValue(data);
+		switch (kind) {
+			case KIND_GENERIC_MESSAGE:
+				return new GenericMessage<>(payload, new DeserializedMessageHeaders(headers));
+			case KIND_MUTABLE_MESSAGE:
+				return new MutableMessage<>(payload, headers);
+			default:
+				throw new IOException("Unknown message kind: " + kind);
+		}
+	}
+
+	private String readHeaderName(DataInputStream data) throws IOException {
+		int index = readVarInt(data);
+		if (index == 0) {
+			return readString(data);
+		}
+		if (index > this.headerDictionary.size()) {
+			throw new IOException("Header dictionary index " + index + " out of range; "
+					+ "the data was written with a larger dictionary");
+		}
+		return this.headerDictionary.get(index - 1);
+	}
+
+	private Object readValue(DataInputStream data) throws IOException {
+		byte type = data.readByte();
+		switch (type) {
+			case TYPE_STRING:
+				return readString(data);
+			case TYPE_INTEGER:
+				return data.readInt();
+			case TYPE_LONG:
+				return data.readLong();
+			case TYPE_TRUE:
+				return Boolean.TRUE;
+			case TYPE_FALSE:
+				return Boolean.FALSE;
+			case TYPE_DOUBLE:
+				return data.readDouble();
+			case TYPE_FLOAT:
+				return data.readFloat();
+			case TYPE_SHORT:
+				return data.readShort();
+			case TYPE_BYTE:
+				return data.readByte();
+			case TYPE_CHARACTER:
+				return data.readChar();
+			case TYPE_BYTES:
+				return readBytes(data);
+			case TYPE_UUID:
+				return new UUID(data.readLong(), data.readLong());
+			case TYPE_SERIALIZED:
+				return readSerialized(data);
+			default:
+				throw new IOException("Unknown value type: " + type);
+		}
+	}
+
+	private Object readSerialized(DataInputStream data) throws IOException {
+		return this.javaDeserializer.convert(readBytes(data));
+	}
+
+	private static String readString(DataInputStream data) throws IOException {
+		return new String(readBytes(data), StandardCharsets.UTF_8);
+	}
+
+	private static byte[] readBytes(DataInputStream data) throws IOException {
+		byte[] bytes = new byte[readVarInt(data)];
+		data.readFully(bytes);
+		return bytes;
+	}
+
+	private static int readVarInt(InputStream inputStream) throws IOException {
+		int value = 0;
+		for (int shift = 0; shift < 32; shift += 7) {
+			int b = inputStream.read();
+			if (b < 0) {
+				throw new IOException("Unexpected end of data");
+			}
+			value |= (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) {
+				return value;
+			}
+		}
+		throw new IOException("Malformed variable length integer");
+	}
+
+	private static byte[] inflate(ByteArrayInputStream stream, byte[] bytes) throws IOException {
+		int length = readVarInt(stream);
+		int offset = bytes.length - stream.available();
+		Inflater inflater = new Inflater();
+		try {
+			inflater.setInput(bytes, offset, bytes.length - offset);
+			byte[] inflated = new byte[length];
+			int n = 0;
+			while (n < length && !inflater.finished()) {
+				int inflatedLength = inflater.inflate(inflated, n, length - n);
+				if (inflatedLength == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+					break;
+				}
+				n += inflatedLength;
+			}
+			if (n != length) {
+				throw new IOException("Truncated compressed data");
+			}
+			return inflated;
+		}
+		catch (DataFormatException e) {
+			throw new NestedIOException("Invalid compressed data", e);
+		}
+		finally {
+			inflater.end();
+		}
+	}
+
+	private static Map<String, Integer> indexes(List<String> names) {
+		Map<String, Integer> indexes = new HashMap<>();
+		for (int i = 0; i < names.size(); i++) {
+			indexes.putIfAbsent(names.get(i), i);
+		}
+		return indexes;
+	}
+
+	/**
+	 * Immutable {@link MessageHeaders} that keep the deserialized id and timestamp.
+	 */
+	private static final class DeserializedMessageHeaders extends MessageHeaders {
+
+		private static final long serialVersionUID = 1L;
+
+		DeserializedMessageHeaders(Map<String, Object> headers) {
+			super(headers, (UUID) headers.get(ID), (Long) headers.get(TIMESTAMP));
+		}
+
+	}
+
+}
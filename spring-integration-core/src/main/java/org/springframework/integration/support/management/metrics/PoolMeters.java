@@ -0,0 +1,95 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.support.management.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+
+import org.springframework.integration.util.SimplePool;
+import org.springframework.util.Assert;
+
+/**
+ * The meters of a {@link SimplePool}: gauges for the active, idle and allocated items
+ * and the wait count, distinguished by a {@code state} tag, and a {@code .borrow}
+ * timer for the time taken to obtain an item.
+ *
+ * @author Gary Russell
+ *
+ * @since 5.2
+ */
+public final class PoolMeters {
+
+	private final TimerFacade borrowTimer;
+
+	private final MeterFacade[] meters;
+
+	/**
+	 * Register the meters for the pool.
+	 * @param metricsCaptor the metrics captor.
+	 * @param pool the pool.
+	 * @param meterName the gauge name; the timer name is {@code meterName + ".borrow"}.
+	 * @param name the value of the {@code name} tag for these meters.
+	 * @param itemDescription the description of the pooled items, e.g.
+	 * {@code "Pooled TCP connections"}.
+	 */
+	public PoolMeters(MetricsCaptor metricsCaptor, SimplePool<?> pool, String meterName, String name,
+			String itemDescription) {
+
+		Assert.notNull(metricsCaptor, "'metricsCaptor' must not be null");
+		Assert.notNull(pool, "'pool' must not be null");
+		this.borrowTimer = metricsCaptor.timerBuilder(meterName + ".borrow")
+				.tag("name", name)
+				.description("Time to obtain an item from the pool: " + itemDescription)
+				.build();
+		this.meters = new MeterFacade[] {
+				this.borrowTimer,
+				gauge(metricsCaptor, pool, meterName, name, itemDescription, "active", p -> p.getActiveCount()),
+				gauge(metricsCaptor, pool, meterName, name, itemDescription, "idle", p -> p.getIdleCount()),
+				gauge(metricsCaptor, pool, meterName, name, itemDescription, "allocated",
+						p -> p.getAllocatedCount()),
+				gauge(metricsCaptor, pool, meterName, name, itemDescription, "waits", p -> p.getWaitCount())
+		};
+	}
+
+	private static MeterFacade gauge(MetricsCaptor metricsCaptor, SimplePool<?> pool, String meterName,
+			String name, String itemDescription, String state, ToDoubleFunction<SimplePool<?>> function) {
+
+		return metricsCaptor.gaugeBuilder(meterName, pool, obj -> function.applyAsDouble((SimplePool<?>) obj))
+				.tag("name", name)
+				.tag("state", state)
+				.description(itemDescription)
+				.build();
+	}
+
+	/**
+	 * Record the time taken to obtain an item from the pool.
+	 * @param nanos the time in nanoseconds.
+	 */
+	public void recordBorrow(long nanos) {
+		this.borrowTimer.record(nanos, TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * Remove the meters.
+	 */
+	public void remove() {
+		for (MeterFacade meter : this.meters) {
+			meter.remove();
+		}
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -24,6 +24,7 @@ import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -59,6 +60,8 @@ public class SimplePool<T> implements Pool<T> {
 
 	private final PoolItemCallback<T> callback;
 
+	private final AtomicLong waitCount = new AtomicLong();
+
 	/**
 	 * Creates a SimplePool with a specific limit.
 	 * @param poolSize The maximum number of items the pool supports.
@@ -141,6 +144,16 @@ public class SimplePool<T> implements Pool<T> {
 		return this.allocated.size();
 	}
 
+	/**
+	 * Return the number of {@link #getItem()} calls that had to wait because all the
+	 * items were in use.
+	 * @return the wait count.
+	 * @since 5.2
+	 */
+	public long getWaitCount() {
+		return this.waitCount.get();
+	}
+
 	/**
 	 * Adjusts the wait timeout - the time for which getItem() will wait if no idle
 	 * entries are available.
@@ -161,7 +174,11 @@ public class SimplePool<T> implements Pool<T> {
 		boolean permitted = false;
 		try {
 			try {
-				permitted = this.permits.tryAcquire(this.waitTimeout, TimeUnit.MILLISECONDS);
+				permitted = this.permits.tryAcquire();
+				if (!permitted) {
+					this.waitCount.incrementAndGet();
+					permitted = this.permits.tryAcquire(this.waitTimeout, TimeUnit.MILLISECONDS);
+				}
 			}
 			catch (InterruptedException e) {
 				Thread.currentThread().interrupt();
@@ -247,6 +264,65 @@ public class SimplePool<T> implements Pool<T> {
 		}
 	}
 
+	/**
+	 * Create new items, if necessary, until at least {@code minIdle} items are idle,
+	 * without exceeding the pool size; used to pre-warm the pool.
+	 * @param minIdle the minimum number of idle items.
+	 * @return the number of items created.
+	 * @since 5.2
+	 */
+	public int fillIdleItems(int minIdle) {
+		int created = 0;
+		while (this.available.size() < minIdle && this.allocated.size() < this.poolSize.get()
+				&& this.permits.tryAcquire()) {
+
+			try {
+				T item = this.callback.createForPool();
+				if (this.logger.isDebugEnabled()) {
+					this.logger.debug("Created new idle " + item + ".");
+				}
+				this.allocated.add(item);
+				this.available.add(item);
+				created++;
+			}
+			finally {
+				this.permits.release();
+			}
+		}
+		return created;
+	}
+
+	/**
+	 * Check each idle item with {@link PoolItemCallback#isStale(Object)} and remove the
+	 * stale ones. An item is out of the pool while it is checked, so it can't be obtained
+	 * concurrently.
+	 * @return the number of items removed.
+	 * @since 5.2
+	 */
+	public int removeStaleIdleItems() {
+		int removed = 0;
+		int toCheck = this.available.size();
+		for (int i = 0; i < toCheck && this.permits.tryAcquire(); i++) {
+			try {
+				T item = this.available.poll();
+				if (item == null) {
+					break;
+				}
+				if (this.callback.isStale(item)) {
+					doRemoveItem(item);
+					removed++;
+				}
+				else {
+					this.available.add(item);
+				}
+			}
+			finally {
+				this.permits.release();
+			}
+		}
+		return removed;
+	}
+
 	private void doRemoveItem(T item) {
 		if (this.logger.isDebugEnabled()) {
 			this.logger.debug("Removing " + item + " from the pool");
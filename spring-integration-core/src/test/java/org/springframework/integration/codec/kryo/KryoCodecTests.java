@@ -17,14 +17,19 @@
 package org.springframework.integration.codec.kryo;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
 
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.assertj.core.data.Offset;
 import org.junit.Test;
@@ -32,6 +37,7 @@ import org.junit.Test;
 /**
  * @author David Turanski
  * @author Artem Bilan
+ * @author Gary Russell
  *
  * @since 4.2
  */
@@ -127,6 +133,55 @@ public class KryoCodecTests {
 		assertThat(foo2.get("two")).isEqualTo(2);
 	}
 
+	@Test
+	public void testByteBuffersAndBufferReuse() throws IOException {
+		PojoCodec codec = new PojoCodec();
+		codec.setMaxRetainedBufferSize(2048);
+		SomeClassWithNoDefaultConstructors foo = new SomeClassWithNoDefaultConstructors("foo", 123);
+		byte[] bytes = codec.encode(foo);
+		assertThat(codec.encode(foo)).isEqualTo(bytes);
+		for (ByteBuffer buffer : new ByteBuffer[] { ByteBuffer.allocate(100), ByteBuffer.allocateDirect(100) }) {
+			buffer.put((byte) 42);
+			assertThat(codec.encode(foo, buffer)).isEqualTo(bytes.length);
+			assertThat(codec.encode("bar", buffer)).isGreaterThan(0);
+			buffer.flip();
+			assertThat(buffer.get()).isEqualTo((byte) 42);
+			assertThat(codec.decode(buffer, SomeClassWithNoDefaultConstructors.class)).isEqualTo(foo);
+			assertThat(codec.decode(buffer, String.class)).isEqualTo("bar");
+			assertThat(buffer.hasRemaining()).isFalse();
+		}
+		ByteBuffer tooSmall = ByteBuffer.allocate(bytes.length - 1);
+		assertThatExceptionOfType(BufferOverflowException.class).isThrownBy(() -> codec.encode(foo, tooSmall));
+		assertThat(tooSmall.position()).isEqualTo(0);
+		char[] large = new char[10_000];
+		Arrays.fill(large, 'x');
+		String largeString = new String(large);
+		assertThat(codec.decode(codec.encode(largeString), String.class)).isEqualTo(largeString);
+		assertThat(codec.decode(codec.encode(foo), SomeClassWithNoDefaultConstructors.class)).isEqualTo(foo);
+	}
+
+	@Test
+	public void testStreamEncodingWritesThrough() throws IOException {
+		PojoCodec codec = new PojoCodec();
+		char[] large = new char[10_000];
+		Arrays.fill(large, 'x');
+		String largeString = new String(large);
+		AtomicInteger writes = new AtomicInteger();
+		ByteArrayOutputStream bos = new ByteArrayOutputStream() {
+
+			@Override
+			public synchronized void write(byte[] b, int off, int len) {
+				assertThat(len).isLessThanOrEqualTo(4096);
+				writes.incrementAndGet();
+				super.write(b, off, len);
+			}
+
+		};
+		codec.encode(largeString, bos);
+		assertThat(writes.get()).isGreaterThan(1);
+		assertThat(codec.decode(bos.toByteArray(), String.class)).isEqualTo(largeString);
+	}
+
 	static class SomeClassWithNoDefaultConstructors {
 
 		private String val1;
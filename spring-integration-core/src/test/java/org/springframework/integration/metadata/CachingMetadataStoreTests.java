@@ -0,0 +1,120 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.metadata;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * @author Artem Bilan
+ *
+ * @since 5.2
+ */
+public class CachingMetadataStoreTests {
+
+	@Test
+	public void testReadsAreCached() {
+		SimpleMetadataStore target = spy(new SimpleMetadataStore());
+		CachingMetadataStore store = new CachingMetadataStore(target);
+		store.put("foo", "bar");
+		assertThat(store.get("foo")).isEqualTo("bar");
+		assertThat(store.get("foo")).isEqualTo("bar");
+		assertThat(store.putIfAbsent("foo", "baz")).isEqualTo("bar");
+		verify(target, times(0)).get(anyString());
+		verify(target, times(0)).putIfAbsent(anyString(), anyString());
+		assertThat(store.getHitCount()).isEqualTo(3);
+
+		assertThat(store.putIfAbsent("qux", "baz")).isNull();
+		assertThat(store.putIfAbsent("qux", "baz")).isEqualTo("baz");
+		verify(target, times(1)).putIfAbsent(anyString(), anyString());
+
+		assertThat(store.replace("qux", "baz", "fiz")).isTrue();
+		assertThat(store.get("qux")).isEqualTo("fiz");
+		assertThat(store.remove("qux")).isEqualTo("fiz");
+		assertThat(store.get("qux")).isNull();
+		assertThat(store.get("qux")).isNull();
+		verify(target, times(2)).get("qux");
+	}
+
+	@Test
+	public void testNegativeCachingAndSize() {
+		SimpleMetadataStore target = spy(new SimpleMetadataStore());
+		CachingMetadataStore store = new CachingMetadataStore(target);
+		store.setNegativeCaching(true);
+		store.setMaxSize(2);
+		assertThat(store.get("foo")).isNull();
+		assertThat(store.get("foo")).isNull();
+		verify(target, times(1)).get("foo");
+		assertThat(store.putIfAbsent("foo", "bar")).isNull();
+		verify(target).putIfAbsent("foo", "bar");
+		store.put("baz", "qux");
+		store.put("fiz", "buz");
+		assertThat(store.getCacheSize()).isEqualTo(2);
+		assertThat(store.get("foo")).isEqualTo("bar");
+		verify(target, times(2)).get("foo");
+	}
+
+	@Test
+	public void testExpiry() throws InterruptedException {
+		SimpleMetadataStore target = spy(new SimpleMetadataStore());
+		CachingMetadataStore store = new CachingMetadataStore(target);
+		store.setTimeToLive(10);
+		store.put("foo", "bar");
+		Thread.sleep(50);
+		assertThat(store.get("foo")).isEqualTo("bar");
+		verify(target).get("foo");
+	}
+
+	@Test
+	public void testInvalidationViaListener() {
+		TestListenableMetadataStore target = new TestListenableMetadataStore();
+		CachingMetadataStore store = new CachingMetadataStore(target);
+		assertThat(target.listeners).hasSize(1);
+		store.put("foo", "bar");
+		target.listeners.get(0).onUpdate("foo", "baz");
+		assertThat(store.putIfAbsent("foo", "qux")).isEqualTo("baz");
+		target.listeners.get(0).onRemove("foo", "baz");
+		assertThat(store.getCacheSize()).isEqualTo(0);
+		store.destroy();
+		assertThat(target.listeners).isEmpty();
+	}
+
+	private static class TestListenableMetadataStore extends SimpleMetadataStore implements ListenableMetadataStore {
+
+		private final List<MetadataStoreListener> listeners = new ArrayList<>();
+
+		@Override
+		public void addListener(MetadataStoreListener callback) {
+			this.listeners.add(callback);
+		}
+
+		@Override
+		public void removeListener(MetadataStoreListener callback) {
+			this.listeners.remove(callback);
+		}
+
+	}
+
+}
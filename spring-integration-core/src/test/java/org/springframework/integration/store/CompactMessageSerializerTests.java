@@ -0,0 +1,123 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.store;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.junit.Test;
+
+import org.springframework.integration.IntegrationMessageHeaderAccessor;
+import org.springframework.integration.support.MutableMessage;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.GenericMessage;
+import org.springframework.util.SerializationUtils;
+
+/**
+ * @author Gary Russell
+ * @since 5.2
+ *
+ */
+public class CompactMessageSerializerTests {
+
+	@Test
+	public void testMessageRoundTrip() throws IOException {
+		CompactMessageSerializer serializer = new CompactMessageSerializer();
+		serializer.setHeaderDictionary("foo");
+		Map<String, Object> headers = new HashMap<>();
+		headers.put(IntegrationMessageHeaderAccessor.CORRELATION_ID, "abc");
+		headers.put(IntegrationMessageHeaderAccessor.SEQUENCE_NUMBER, 3);
+		headers.put("foo", 1L);
+		headers.put("bar", true);
+		headers.put("baz", 1.5d);
+		headers.put("qux", 'q');
+		headers.put("uuid", UUID.randomUUID());
+		headers.put("list", new ArrayList<>(Arrays.asList("x", "y")));
+		headers.put("notSerializable", new Object());
+		GenericMessage<String> message = new GenericMessage<>("hello", headers);
+		byte[] bytes = serialize(serializer, message);
+		assertThat(bytes.length).isLessThan(SerializationUtils.serialize(message).length);
+		Message<?> deserialized = (Message<?>) serializer.deserialize(new ByteArrayInputStream(bytes));
+		assertThat(deserialized).isInstanceOf(GenericMessage.class);
+		assertThat(deserialized.getPayload()).isEqualTo("hello");
+		Map<String, Object> expected = new HashMap<>(message.getHeaders());
+		expected.remove("notSerializable");
+		assertThat(new HashMap<>(deserialized.getHeaders())).isEqualTo(expected);
+		assertThatThrownBy(() -> deserialized.getHeaders().put("foo", 2L))
+				.isInstanceOf(UnsupportedOperationException.class);
+	}
+
+	@Test
+	public void testMessageHolderAndCompression() throws IOException {
+		CompactMessageSerializer serializer = new CompactMessageSerializer();
+		serializer.setCompressionThreshold(100);
+		byte[] payload = new byte[10_000];
+		Arrays.fill(payload, (byte) 'x');
+		MessageHolder holder = new MessageHolder(new MutableMessage<>(payload));
+		holder.setTimestamp(1234L);
+		byte[] bytes = serialize(serializer, holder);
+		assertThat(bytes.length).isLessThan(500);
+		MessageHolder deserialized = (MessageHolder) serializer.deserialize(new ByteArrayInputStream(bytes));
+		assertThat(deserialized.getMessage()).isInstanceOf(MutableMessage.class);
+		assertThat((byte[]) deserialized.getMessage().getPayload()).isEqualTo(payload);
+		assertThat(deserialized.getMessage().getHeaders()).isEqualTo(holder.getMessage().getHeaders());
+		assertThat(deserialized.getMessageMetadata().getMessageId())
+				.isEqualTo(holder.getMessage().getHeaders().getId());
+		assertThat(deserialized.getMessageMetadata().getTimestamp()).isEqualTo(1234L);
+	}
+
+	@Test
+	public void testOtherObjectsAndJavaSerializedData() throws IOException {
+		CompactMessageSerializer serializer = new CompactMessageSerializer();
+		List<Integer> list = new ArrayList<>(Arrays.asList(1, 2));
+		assertThat(serializer.deserialize(new ByteArrayInputStream(serialize(serializer, list)))).isEqualTo(list);
+		GenericMessage<String> message = new GenericMessage<>("old");
+		Object deserialized = serializer.deserialize(
+				new ByteArrayInputStream(SerializationUtils.serialize(message)));
+		assertThat(deserialized).isEqualTo(message);
+	}
+
+	@Test
+	public void testMessageDeserializer() throws IOException {
+		CompactMessageSerializer serializer = new CompactMessageSerializer();
+		GenericMessage<String> message = new GenericMessage<>("foo");
+		Message<?> deserialized = serializer.messageDeserializer()
+				.deserialize(new ByteArrayInputStream(serialize(serializer, message)));
+		assertThat(deserialized.getPayload()).isEqualTo("foo");
+		assertThat(deserialized.getHeaders().getId()).isEqualTo(message.getHeaders().getId());
+		byte[] notMessage = serialize(serializer, new ArrayList<>(Arrays.asList(1, 2)));
+		assertThatThrownBy(() -> serializer.messageDeserializer().deserialize(new ByteArrayInputStream(notMessage)))
+				.isInstanceOf(IOException.class);
+	}
+
+	private static byte[] serialize(CompactMessageSerializer serializer, Object object) throws IOException {
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		serializer.serialize(object, outputStream);
+		return outputStream.toByteArray();
+	}
+
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.support.management.micrometer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import org.springframework.integration.support.management.metrics.PoolMeters;
+import org.springframework.integration.util.SimplePool;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * @author Gary Russell
+ *
+ * @since 5.2
+ *
+ */
+public class PoolMetersTests {
+
+	@Test
+	public void testPoolMeters() {
+		MeterRegistry registry = new SimpleMeterRegistry();
+		SimplePool<Object> pool = new SimplePool<>(2, new SimplePool.PoolItemCallback<Object>() {
+
+			@Override
+			public Object createForPool() {
+				return new Object();
+			}
+
+			@Override
+			public boolean isStale(Object item) {
+				return false;
+			}
+
+			@Override
+			public void removedFromPool(Object item) {
+			}
+
+		});
+		PoolMeters meters = new PoolMeters(new MicrometerMetricsCaptor(registry), pool, "test.pool", "foo",
+				"Test items");
+		Object item = pool.getItem();
+		meters.recordBorrow(TimeUnit.MILLISECONDS.toNanos(5));
+		assertThat(registry.get("test.pool").tag("name", "foo").tag("state", "active").gauge().value())
+				.isEqualTo(1.0);
+		assertThat(registry.get("test.pool").tag("state", "idle").gauge().value()).isEqualTo(0.0);
+		assertThat(registry.get("test.pool").tag("state", "allocated").gauge().value()).isEqualTo(1.0);
+		assertThat(registry.get("test.pool").tag("state", "waits").gauge().value()).isEqualTo(0.0);
+		pool.releaseItem(item);
+		assertThat(registry.get("test.pool").tag("state", "idle").gauge().value()).isEqualTo(1.0);
+		assertThat(registry.get("test.pool.borrow").tag("name", "foo").timer().count()).isEqualTo(1L);
+		meters.remove();
+		assertThat(registry.find("test.pool").meters()).isEmpty();
+		assertThat(registry.find("test.pool.borrow").meters()).isEmpty();
+	}
+
+}
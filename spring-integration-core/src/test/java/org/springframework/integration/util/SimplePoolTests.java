@@ -146,6 +146,27 @@ public class SimplePoolTests {
 	}
 
 
+	@Test
+	public void testFillIdleAndRemoveStale() {
+		final Set<String> strings = new HashSet<String>();
+		final AtomicBoolean stale = new AtomicBoolean();
+		SimplePool<String> pool = stringPool(3, strings, stale);
+		String s1 = pool.getItem();
+		assertThat(pool.fillIdleItems(5)).isEqualTo(2);
+		assertThat(pool.getIdleCount()).isEqualTo(2);
+		assertThat(pool.getAllocatedCount()).isEqualTo(3);
+		assertThat(pool.fillIdleItems(1)).isEqualTo(0);
+		assertThat(pool.removeStaleIdleItems()).isEqualTo(0);
+		assertThat(pool.getIdleCount()).isEqualTo(2);
+		stale.set(true);
+		assertThat(pool.removeStaleIdleItems()).isEqualTo(2);
+		assertThat(pool.getIdleCount()).isEqualTo(0);
+		assertThat(pool.getAllocatedCount()).isEqualTo(1);
+		assertThat(strings).containsExactly(s1);
+		pool.releaseItem(s1);
+		assertThat(pool.getWaitCount()).isEqualTo(0);
+	}
+
 	private SimplePool<String> stringPool(int size, final Set<String> strings,
 			final AtomicBoolean stale) {
 		SimplePool<String> pool = new SimplePool<String>(size, new SimplePool.PoolItemCallback<String>() {
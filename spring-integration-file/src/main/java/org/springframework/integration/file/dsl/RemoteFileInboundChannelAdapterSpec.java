@@ -1,5 +1,5 @@
 /*
- * Copyright 2016-2018 the original author or authors.
+ * Copyright 2016-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -19,6 +19,7 @@ package org.springframework.integration.file.dsl;
 import java.io.File;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.Executor;
 import java.util.function.Function;
 
 import org.springframework.expression.Expression;
@@ -232,6 +233,31 @@ public abstract class RemoteFileInboundChannelAdapterSpec<F, S extends RemoteFil
 		return _this();
 	}
 
+	/**
+	 * Set the maximum number of files downloaded concurrently during a synchronization,
+	 * each over its own session.
+	 * @param transferConcurrency the maximum number of concurrent downloads.
+	 * @return the spec.
+	 * @since 5.2
+	 * @see AbstractInboundFileSynchronizer#setTransferConcurrency(int)
+	 */
+	public S transferConcurrency(int transferConcurrency) {
+		this.synchronizer.setTransferConcurrency(transferConcurrency);
+		return _this();
+	}
+
+	/**
+	 * Set the {@link Executor} for the concurrent download workers.
+	 * @param taskExecutor the executor.
+	 * @return the spec.
+	 * @since 5.2
+	 * @see #transferConcurrency(int)
+	 */
+	public S taskExecutor(Executor taskExecutor) {
+		this.synchronizer.setTaskExecutor(taskExecutor);
+		return _this();
+	}
+
 	/**
 	 * Specify the maximum number of remote files that will be fetched on each fetch
 	 * attempt. A small number is recommended when multiple application instances are
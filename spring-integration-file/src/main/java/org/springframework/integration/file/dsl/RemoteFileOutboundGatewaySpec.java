@@ -1,5 +1,5 @@
 /*
- * Copyright 2016-2018 the original author or authors.
+ * Copyright 2016-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -19,6 +19,7 @@ package org.springframework.integration.file.dsl;
 import java.io.File;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.Executor;
 import java.util.function.Function;
 
 import org.springframework.expression.Expression;
@@ -351,6 +352,81 @@ public abstract class RemoteFileOutboundGatewaySpec<F, S extends RemoteFileOutbo
 		return _this();
 	}
 
+	/**
+	 * Set the maximum number of files transferred concurrently by the MGET and MPUT
+	 * commands, each over its own session.
+	 * @param transferConcurrency the maximum number of concurrent transfers.
+	 * @return the current Spec
+	 * @since 5.2
+	 * @see AbstractRemoteFileOutboundGateway#setTransferConcurrency(int)
+	 */
+	public S transferConcurrency(int transferConcurrency) {
+		this.target.setTransferConcurrency(transferConcurrency);
+		return _this();
+	}
+
+	/**
+	 * Set the {@link Executor} for concurrent MGET and MPUT transfers.
+	 * @param taskExecutor the executor.
+	 * @return the current Spec
+	 * @since 5.2
+	 * @see #transferConcurrency(int)
+	 */
+	public S taskExecutor(Executor taskExecutor) {
+		this.target.setTaskExecutor(taskExecutor);
+		return _this();
+	}
+
+	/**
+	 * Set the number of byte ranges a large file is split into and fetched concurrently
+	 * by the GET and MGET commands.
+	 * @param rangeConcurrency the number of ranges.
+	 * @return the current Spec
+	 * @since 5.2
+	 * @see AbstractRemoteFileOutboundGateway#setRangeConcurrency(int)
+	 */
+	public S rangeConcurrency(int rangeConcurrency) {
+		this.target.setRangeConcurrency(rangeConcurrency);
+		return _this();
+	}
+
+	/**
+	 * Set the {@link Executor} used to fetch the byte ranges of a large file.
+	 * @param rangeTaskExecutor the executor.
+	 * @return the current Spec
+	 * @since 5.2
+	 * @see AbstractRemoteFileOutboundGateway#setRangeTaskExecutor(Executor)
+	 */
+	public S rangeTaskExecutor(Executor rangeTaskExecutor) {
+		this.target.setRangeTaskExecutor(rangeTaskExecutor);
+		return _this();
+	}
+
+	/**
+	 * Set the minimum file size for a download to be split into ranges.
+	 * @param rangeThreshold the threshold in bytes.
+	 * @return the current Spec
+	 * @since 5.2
+	 * @see #rangeConcurrency(int)
+	 */
+	public S rangeThreshold(long rangeThreshold) {
+		this.target.setRangeThreshold(rangeThreshold);
+		return _this();
+	}
+
+	/**
+	 * Set to true to resume interrupted GET and MGET transfers from the partially
+	 * downloaded temporary file.
+	 * @param resumeDownloads true to resume downloads.
+	 * @return the current Spec
+	 * @since 5.2
+	 * @see AbstractRemoteFileOutboundGateway#setResumeDownloads(boolean)
+	 */
+	public S resumeDownloads(boolean resumeDownloads) {
+		this.target.setResumeDownloads(resumeDownloads);
+		return _this();
+	}
+
 
 	@Override
 	public Map<Object, String> getComponentsToRegister() {
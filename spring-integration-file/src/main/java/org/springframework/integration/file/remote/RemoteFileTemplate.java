@@ -18,12 +18,24 @@ package org.springframework.integration.file.remote;
 
 import java.io.BufferedInputStream;
 import java.io.ByteArrayInputStream;
+import java.io.EOFException;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -400,6 +412,222 @@ public class RemoteFileTemplate<F> implements RemoteFileOperations<F>, Initializ
 		});
 	}
 
+	/**
+	 * Download a remote file into a local file, splitting it into {@code ranges}
+	 * contiguous byte ranges which are fetched concurrently, each over its own
+	 * {@link Session}, and written at their offset in the local file.
+	 * The first range is fetched on the calling thread, the others on the provided
+	 * {@link Executor}; this method returns when all the ranges have been fetched.
+	 * Up to {@code ranges} sessions are used; see
+	 * {@link #readRanges(Session, String, long, File, int, Executor)} to use an
+	 * existing session for the first range.
+	 * @param remotePath the remote file path.
+	 * @param size the remote file size.
+	 * @param localFile the local file; created or truncated to {@code size}.
+	 * @param ranges the number of ranges.
+	 * @param executor the executor for the ranges other than the first.
+	 * @since 5.2
+	 */
+	public void readRanges(String remotePath, long size, File localFile, int ranges, Executor executor) {
+		execute(session -> {
+			readRanges(session, remotePath, size, localFile, ranges, executor);
+			return null;
+		});
+	}
+
+	/**
+	 * Download a remote file into a local file, splitting it into {@code ranges}
+	 * contiguous byte ranges which are fetched concurrently and written at their offset
+	 * in the local file. The first range is fetched with the provided session on the
+	 * calling thread, the others each over a new {@link Session} on the provided
+	 * {@link Executor}, so up to {@code ranges - 1} additional sessions are used;
+	 * this method returns when all the ranges have been fetched.
+	 * The {@link Session} must support {@link Session#readRaw(String, long)}.
+	 * If any range fails, the first failure is thrown after the other ranges completed;
+	 * the local file is then incomplete and it is up to the caller to remove it.
+	 * @param session the session for the first range.
+	 * @param remotePath the remote file path.
+	 * @param size the remote file size.
+	 * @param localFile the local file; created or truncated to {@code size}.
+	 * @param ranges the number of ranges.
+	 * @param executor the executor for the ranges other than the first.
+	 * @since 5.2
+	 */
+	public void readRanges(Session<F> session, String remotePath, long size, File localFile, int ranges,
+			Executor executor) {
+
+		Assert.notNull(session, "'session' cannot be null");
+		Assert.notNull(remotePath, "'remotePath' cannot be null");
+		Assert.notNull(localFile, "'localFile' cannot be null");
+		Assert.isTrue(size >= 0, "'size' must not be negative");
+		Assert.isTrue(ranges > 0, "'ranges' must be greater than 0");
+		Assert.notNull(executor, "'executor' cannot be null");
+		try (RandomAccessFile file = new RandomAccessFile(localFile, "rw")) {
+			file.setLength(size);
+		}
+		catch (IOException e) {
+			throw new MessagingException("Failed to prepare local file " + localFile, e);
+		}
+		long rangeSize = Math.max(1, (size + ranges - 1) / ranges);
+		List<CompletableFuture<Void>> futures = new ArrayList<>();
+		for (long offset = rangeSize; offset < size; offset += rangeSize) {
+			long start = offset;
+			long length = Math.min(rangeSize, size - start);
+			futures.add(CompletableFuture.runAsync(() -> execute(rangeSession -> {
+				readRange(rangeSession, remotePath, start, length, localFile);
+				return null;
+			}), executor));
+		}
+		RuntimeException failure = null;
+		try {
+			readRange(session, remotePath, 0, Math.min(rangeSize, size), localFile);
+		}
+		catch (IOException e) {
+			failure = new MessagingException("Failed to read range of " + remotePath, e);
+		}
+		catch (RuntimeException e) {
+			failure = e;
+		}
+		for (CompletableFuture<Void> future : futures) {
+			try {
+				future.join();
+			}
+			catch (CompletionException e) {
+				if (failure == null) {
+					failure = e.getCause() instanceof RuntimeException
+							? (RuntimeException) e.getCause()
+							: new MessagingException("Failed to read range of " + remotePath, e.getCause());
+				}
+			}
+		}
+		if (failure != null) {
+			throw failure;
+		}
+	}
+
+	private void readRange(Session<F> session, String remotePath, long offset, long length, File localFile)
+			throws IOException {
+
+		InputStream inputStream = session.readRaw(remotePath, offset);
+		try (FileChannel channel = FileChannel.open(localFile.toPath(), StandardOpenOption.WRITE)) {
+			byte[] buffer = new byte[8192];
+			long position = offset;
+			long remaining = length;
+			while (remaining > 0) {
+				int read = inputStream.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+				if (read < 0) {
+					throw new EOFException("Unexpected end of remote file " + remotePath + " at " + position);
+				}
+				ByteBuffer byteBuffer = ByteBuffer.wrap(buffer, 0, read);
+				while (byteBuffer.hasRemaining()) {
+					position += channel.write(byteBuffer, position);
+				}
+				remaining -= read;
+			}
+		}
+		finally {
+			inputStream.close();
+			boolean finalized;
+			try {
+				finalized = session.finalizeRaw();
+			}
+			catch (IOException e) {
+				this.logger.debug("Failed to finalize the range read", e);
+				finalized = false;
+			}
+			/*
+			 * Closing the stream before the end of the file is reported as an aborted
+			 * transfer by some protocols (e.g. FTP), but the session is still usable;
+			 * only discard it if it fails a test.
+			 */
+			if (!finalized && !session.test()) {
+				this.logger.debug("Discarding the session after a range read");
+				session.dirty();
+			}
+		}
+	}
+
+	/**
+	 * Invoke the callback once for each index from {@code 0} to {@code count - 1}, using
+	 * up to {@code concurrency} sessions: the provided session on the calling thread and
+	 * a new session for each additional worker, which runs on the provided
+	 * {@link Executor} with its session bound to the thread, as with
+	 * {@link #invoke(OperationsCallback)}. If the executor rejects a worker, the others
+	 * (including the calling thread) process its indexes. The first failure stops the
+	 * processing of further indexes, and it is thrown when all the workers are done;
+	 * it is up to the caller to record which indexes were processed.
+	 * @param session the session for the calling thread.
+	 * @param count the number of indexes.
+	 * @param concurrency the maximum number of sessions.
+	 * @param executor the executor for the additional workers.
+	 * @param callback the callback.
+	 * @throws IOException if the first failure is an {@link IOException}.
+	 * @since 5.2
+	 */
+	public void executeConcurrently(Session<F> session, int count, int concurrency, Executor executor,
+			IndexedSessionCallback<F> callback) throws IOException {
+
+		Assert.isTrue(concurrency > 0, "'concurrency' must be greater than 0");
+		Assert.notNull(executor, "'executor' cannot be null");
+		AtomicInteger nextIndex = new AtomicInteger();
+		AtomicReference<Exception> failure = new AtomicReference<>();
+		SessionCallback<F, Void> worker = s -> {
+			for (int i = nextIndex.getAndIncrement(); i < count && failure.get() == null;
+					i = nextIndex.getAndIncrement()) {
+
+				try {
+					callback.doInSession(s, i);
+				}
+				catch (Exception ex) {
+					failure.compareAndSet(null, ex);
+				}
+			}
+			return null;
+		};
+		int workers = Math.min(concurrency, count) - 1;
+		CountDownLatch workersDone = new CountDownLatch(Math.max(workers, 0));
+		for (int i = 0; i < workers; i++) {
+			try {
+				executor.execute(() -> {
+					try {
+						invoke(t -> t.execute(worker));
+					}
+					catch (Exception ex) {
+						failure.compareAndSet(null, ex);
+					}
+					finally {
+						workersDone.countDown();
+					}
+				});
+			}
+			catch (RuntimeException ex) {
+				// Rejected - the remaining workers (including the calling thread) process the indexes
+				workersDone.countDown();
+				if (this.logger.isDebugEnabled()) {
+					this.logger.debug("Failed to start a worker; continuing with fewer", ex);
+				}
+			}
+		}
+		try {
+			worker.doInSession(session);
+			workersDone.await();
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			failure.compareAndSet(null, ex);
+		}
+		Exception ex = failure.get();
+		if (ex instanceof RuntimeException) {
+			throw (RuntimeException) ex;
+		}
+		else if (ex instanceof IOException) {
+			throw (IOException) ex;
+		}
+		else if (ex != null) {
+			throw new MessagingException("Interrupted while waiting for the workers", ex);
+		}
+	}
+
 
 	@Override
 	public F[] list(String path) {
@@ -597,6 +825,25 @@ public class RemoteFileTemplate<F> implements RemoteFileOperations<F>, Initializ
 		}
 	}
 
+	/**
+	 * A callback for {@link #executeConcurrently(Session, int, int, Executor, IndexedSessionCallback)}.
+	 *
+	 * @param <F> the type of file.
+	 * @since 5.2
+	 */
+	@FunctionalInterface
+	public interface IndexedSessionCallback<F> {
+
+		/**
+		 * Process the item at the index.
+		 * @param session the session.
+		 * @param index the index.
+		 * @throws IOException an IO exception.
+		 */
+		void doInSession(Session<F> session, int index) throws IOException;
+
+	}
+
 	private static final class StreamHolder {
 
 		private final InputStream stream;
@@ -29,10 +29,14 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.BeanFactory;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.expression.EvaluationContext;
 import org.springframework.expression.Expression;
 import org.springframework.expression.spel.standard.SpelExpressionParser;
@@ -47,6 +51,7 @@ import org.springframework.integration.file.remote.MessageSessionCallback;
 import org.springframework.integration.file.remote.RemoteFileOperations;
 import org.springframework.integration.file.remote.RemoteFileTemplate;
 import org.springframework.integration.file.remote.RemoteFileUtils;
+import org.springframework.integration.file.remote.session.CachingSessionFactory;
 import org.springframework.integration.file.remote.session.Session;
 import org.springframework.integration.file.remote.session.SessionFactory;
 import org.springframework.integration.file.support.FileExistsMode;
@@ -72,6 +77,8 @@ import org.springframework.util.StringUtils;
  */
 public abstract class AbstractRemoteFileOutboundGateway<F> extends AbstractReplyProducingMessageHandler {
 
+	private static final long DEFAULT_RANGE_THRESHOLD = 16 * 1024 * 1024;
+
 
 	private final RemoteFileTemplate<F> remoteFileTemplate;
 
@@ -109,6 +116,18 @@ public abstract class AbstractRemoteFileOutboundGateway<F> extends AbstractReply
 
 	private Integer chmod;
 
+	private int transferConcurrency = 1;
+
+	private Executor taskExecutor;
+
+	private Executor rangeTaskExecutor;
+
+	private int rangeConcurrency = 1;
+
+	private long rangeThreshold = DEFAULT_RANGE_THRESHOLD;
+
+	private boolean resumeDownloads;
+
 	/**
 	 * Construct an instance using the provided session factory and callback for
 	 * performing operations on the session.
@@ -390,6 +409,99 @@ public abstract class AbstractRemoteFileOutboundGateway<F> extends AbstractReply
 		return false;
 	}
 
+	/**
+	 * Set the maximum number of files transferred concurrently by the MGET and MPUT
+	 * commands. Each concurrent transfer uses its own {@link Session}, so the session
+	 * factory (e.g. a
+	 * {@link org.springframework.integration.file.remote.session.CachingSessionFactory})
+	 * must be able to provide that many sessions. The result list order is the same as
+	 * for sequential transfers. Default 1 (sequential transfers on a single session).
+	 * @param transferConcurrency the maximum number of concurrent transfers.
+	 * @since 5.2
+	 * @see #setTaskExecutor(Executor)
+	 */
+	public void setTransferConcurrency(int transferConcurrency) {
+		Assert.isTrue(transferConcurrency > 0, "'transferConcurrency' must be greater than 0");
+		this.transferConcurrency = transferConcurrency;
+	}
+
+	/**
+	 * Set the {@link Executor} used for concurrent MGET and MPUT transfers;
+	 * the calling thread always performs transfers too.
+	 * Defaults to a {@link SimpleAsyncTaskExecutor}.
+	 * @param taskExecutor the executor.
+	 * @since 5.2
+	 * @see #setTransferConcurrency(int)
+	 */
+	public void setTaskExecutor(Executor taskExecutor) {
+		Assert.notNull(taskExecutor, "'taskExecutor' must not be null");
+		this.taskExecutor = taskExecutor;
+	}
+
+	/**
+	 * Set the number of byte ranges a single large file is split into by the GET and
+	 * MGET commands; the ranges are fetched concurrently, each over its own
+	 * {@link Session} (the first one over the session of the transfer), and written at
+	 * their offset in the local file. A GET therefore uses up to
+	 * {@code rangeConcurrency} sessions and an MGET up to
+	 * {@code transferConcurrency * rangeConcurrency} sessions; the gateway fails to
+	 * initialize if its
+	 * {@link org.springframework.integration.file.remote.session.CachingSessionFactory}
+	 * pool is smaller than that.
+	 * Only files of at least {@link #setRangeThreshold(long) rangeThreshold} bytes are
+	 * split; files are downloaded in one piece if the session does not
+	 * {@link Session#supportsOffsetReads() support offset reads}.
+	 * Not used with {@link FileExistsMode#APPEND}. Default 1 (no splitting).
+	 * @param rangeConcurrency the number of ranges.
+	 * @since 5.2
+	 * @see #setRangeTaskExecutor(Executor)
+	 */
+	public void setRangeConcurrency(int rangeConcurrency) {
+		Assert.isTrue(rangeConcurrency > 0, "'rangeConcurrency' must be greater than 0");
+		this.rangeConcurrency = rangeConcurrency;
+	}
+
+	/**
+	 * Set the {@link Executor} used to fetch the byte ranges of a large file when
+	 * {@link #setRangeConcurrency(int) rangeConcurrency} is greater than 1; the calling
+	 * thread always fetches the first range and waits for the others.
+	 * Since MGET transfer workers wait for their ranges, this must not be a bounded
+	 * executor shared with the {@link #setTaskExecutor(Executor) taskExecutor}.
+	 * Defaults to a {@link SimpleAsyncTaskExecutor}.
+	 * @param rangeTaskExecutor the executor.
+	 * @since 5.2
+	 */
+	public void setRangeTaskExecutor(Executor rangeTaskExecutor) {
+		Assert.notNull(rangeTaskExecutor, "'rangeTaskExecutor' must not be null");
+		this.rangeTaskExecutor = rangeTaskExecutor;
+	}
+
+	/**
+	 * Set the minimum file size (in bytes) for a download to be split into ranges when
+	 * {@link #setRangeConcurrency(int) rangeConcurrency} is greater than 1.
+	 * Default 16Mb.
+	 * @param rangeThreshold the threshold.
+	 * @since 5.2
+	 */
+	public void setRangeThreshold(long rangeThreshold) {
+		this.rangeThreshold = rangeThreshold;
+	}
+
+	/**
+	 * Set to true to keep the partially downloaded temporary file when a GET or MGET
+	 * transfer fails, and to resume the transfer from the end of that file on the next
+	 * attempt, instead of starting over. A partial file is only used when it is smaller
+	 * than the remote file and was last written after the remote file was last modified.
+	 * Partial files are discarded if the session does not
+	 * {@link Session#supportsOffsetReads() support offset reads}.
+	 * Not used with {@link FileExistsMode#APPEND} or ranged downloads. Default false.
+	 * @param resumeDownloads true to resume downloads.
+	 * @since 5.2
+	 */
+	public void setResumeDownloads(boolean resumeDownloads) {
+		this.resumeDownloads = resumeDownloads;
+	}
+
 	protected final RemoteFileTemplate<F> getRemoteFileTemplate() {
 		return this.remoteFileTemplate;
 	}
@@ -417,9 +529,42 @@ public abstract class AbstractRemoteFileOutboundGateway<F> extends AbstractReply
 							Option.RECURSIVE.toString() + " to obtain files in subdirectories");
 		}
 
+		int sessions = sessionsPerRequest();
+		SessionFactory<F> sessionFactory = this.remoteFileTemplate.getSessionFactory();
+		if (sessions > 1 && sessionFactory instanceof CachingSessionFactory) {
+			int poolSize = ((CachingSessionFactory<F>) sessionFactory).getPoolSize();
+			Assert.state(sessions <= poolSize, () -> "The '" + this.command + "' command can use up to " + sessions
+					+ " sessions (transferConcurrency * rangeConcurrency) but the session cache pool size is only "
+					+ poolSize);
+		}
+
+		if (this.transferConcurrency > 1 && this.taskExecutor == null) {
+			this.taskExecutor = new SimpleAsyncTaskExecutor();
+		}
+		if (this.rangeConcurrency > 1 && this.rangeTaskExecutor == null) {
+			this.rangeTaskExecutor = new SimpleAsyncTaskExecutor();
+		}
+
 		populateBeanFactoryIntoComponentsIfAny();
 	}
 
+	/*
+	 * The maximum number of sessions used concurrently by one request; a transfer worker
+	 * reads the first range of a file over its own session.
+	 */
+	private int sessionsPerRequest() {
+		if (Command.MGET.equals(this.command)) {
+			return this.transferConcurrency * this.rangeConcurrency;
+		}
+		else if (Command.GET.equals(this.command)) {
+			return this.rangeConcurrency;
+		}
+		else if (Command.MPUT.equals(this.command)) {
+			return this.transferConcurrency;
+		}
+		return 1;
+	}
+
 	private void populateBeanFactoryIntoComponentsIfAny() {
 		BeanFactory beanFactory = getBeanFactory();
 		if (beanFactory != null) {
@@ -732,6 +877,9 @@ public abstract class AbstractRemoteFileOutboundGateway<F> extends AbstractReply
 	 * @since 5.0
 	 */
 	protected List<String> mPut(Message<?> message, Session<F> session, File localDir) {
+		if (this.transferConcurrency > 1) {
+			return putLocalDirectoryConcurrently(message, session, localDir);
+		}
 		return putLocalDirectory(message, localDir, null);
 	}
 
@@ -771,6 +919,137 @@ public abstract class AbstractRemoteFileOutboundGateway<F> extends AbstractReply
 		return replies;
 	}
 
+	private List<String> putLocalDirectoryConcurrently(Message<?> requestMessage, Session<F> session, File localDir) {
+		List<File> files = new ArrayList<>();
+		List<String> subDirectories = new ArrayList<>();
+		collectLocalFilesForMput(localDir, null, files, subDirectories);
+		List<Integer> indexes = new ArrayList<>(files.size());
+		for (int i = 0; i < files.size(); i++) {
+			indexes.add(i);
+		}
+		/*
+		 * The first file for each (sub)directory is sent while holding the guards of that
+		 * directory and of its parents that are not yet known to exist, so that concurrent
+		 * sessions don't race to create the same remote directories.
+		 */
+		Map<String, Object> directoryGuards = new ConcurrentHashMap<>();
+		Set<String> directoriesReady = ConcurrentHashMap.newKeySet();
+		List<String> replies = new ArrayList<>();
+		try {
+			transferConcurrently(session, indexes, replies, (s, i) -> {
+				Message<File> fileMessage = new MutableMessage<>(files.get(i), requestMessage.getHeaders());
+				String subDirectory = subDirectories.get(i);
+				List<String> directoryKeys = directoryKeys(subDirectory);
+				if (directoriesReady.contains(directoryKeys.get(directoryKeys.size() - 1))) {
+					return doPut(fileMessage, subDirectory);
+				}
+				return putCreatingDirectories(fileMessage, subDirectory, directoryKeys, 0, directoryGuards,
+						directoriesReady);
+			});
+		}
+		catch (Exception ex) {
+			if (replies.size() > 0) {
+				throw new PartialSuccessException(requestMessage, "Partially successful 'mput' operation", ex,
+						replies, files);
+			}
+			throw ex;
+		}
+		return replies;
+	}
+
+	/*
+	 * The keys of the directory and its parents, top down; the (null) root directory has
+	 * the key "", which no subdirectory can have.
+	 */
+	private List<String> directoryKeys(@Nullable String subDirectory) {
+		List<String> keys = new ArrayList<>();
+		keys.add("");
+		if (subDirectory != null) {
+			String separator = this.remoteFileTemplate.getRemoteFileSeparator();
+			int index = subDirectory.indexOf(separator);
+			while (index > 0) {
+				keys.add(subDirectory.substring(0, index));
+				index = subDirectory.indexOf(separator, index + separator.length());
+			}
+			keys.add(subDirectory);
+		}
+		return keys;
+	}
+
+	/*
+	 * Take the guards of the directories that are not ready, always top down to avoid
+	 * deadlocks, then put the file and mark all the directories as ready.
+	 */
+	private String putCreatingDirectories(Message<File> fileMessage, @Nullable String subDirectory,
+			List<String> directoryKeys, int index, Map<String, Object> guards, Set<String> directoriesReady) {
+
+		if (index == directoryKeys.size()) {
+			String path = doPut(fileMessage, subDirectory);
+			directoriesReady.addAll(directoryKeys);
+			return path;
+		}
+		String key = directoryKeys.get(index);
+		if (!directoriesReady.contains(key)) {
+			synchronized (guards.computeIfAbsent(key, k -> new Object())) {
+				if (!directoriesReady.contains(key)) {
+					return putCreatingDirectories(fileMessage, subDirectory, directoryKeys, index + 1, guards,
+							directoriesReady);
+				}
+			}
+		}
+		return putCreatingDirectories(fileMessage, subDirectory, directoryKeys, index + 1, guards,
+				directoriesReady);
+	}
+
+	private void collectLocalFilesForMput(File directory, String subDirectory, List<File> files,
+			List<String> subDirectories) {
+
+		for (File file : filterMputFiles(directory.listFiles())) {
+			if (!file.isDirectory()) {
+				files.add(file);
+				subDirectories.add(subDirectory);
+			}
+			else if (this.options.contains(Option.RECURSIVE)) {
+				String newSubDirectory =
+						(StringUtils.hasText(subDirectory) ?
+								subDirectory + this.remoteFileTemplate.getRemoteFileSeparator()
+								: "") + file.getName();
+				collectLocalFilesForMput(file, newSubDirectory, files, subDirectories);
+			}
+		}
+	}
+
+	/**
+	 * Transfer the items using up to {@link #transferConcurrency} sessions (see
+	 * {@link RemoteFileTemplate#executeConcurrently}). Non-null results are added to the
+	 * {@code results} in the order of the {@code items}. The first failure stops further
+	 * transfers and is re-thrown after all the workers are done; the {@code results}
+	 * contain the successful transfers at that time.
+	 */
+	private <T, R> void transferConcurrently(Session<F> session, List<T> items, List<R> results,
+			TransferCallback<F, T, R> callback) {
+
+		Object[] transferred = new Object[items.size()];
+		try {
+			this.remoteFileTemplate.executeConcurrently(session, items.size(), this.transferConcurrency,
+					this.taskExecutor, (s, i) -> {
+						transferred[i] = callback.transfer(s, items.get(i));
+					});
+		}
+		catch (IOException ex) {
+			throw new UncheckedIOException(ex);
+		}
+		finally {
+			for (Object result : transferred) {
+				if (result != null) {
+					@SuppressWarnings("unchecked")
+					R transferResult = (R) result;
+					results.add(transferResult);
+				}
+			}
+		}
+	}
+
 	/**
 	 * List remote files to local representation.
 	 * The message can be consulted for some context for the current request;
@@ -911,43 +1190,26 @@ public abstract class AbstractRemoteFileOutboundGateway<F> extends AbstractReply
 				|| (exists && FileExistsMode.REPLACE_IF_MODIFIED.equals(existsMode)
 				&& localFile.lastModified() != getModified(fileInfo));
 		if (!exists || appending || replacing) {
-			OutputStream outputStream;
 			String tempFileName = localFile.getAbsolutePath() + this.remoteFileTemplate.getTemporaryFileSuffix();
 			File tempFile = new File(tempFileName);
-			if (appending) {
-				outputStream = new BufferedOutputStream(new FileOutputStream(localFile, true));
-			}
-			else {
-				outputStream = new BufferedOutputStream(new FileOutputStream(tempFile));
-			}
+			boolean offsetReads = !appending && session.supportsOffsetReads();
+			long size = !offsetReads || (this.rangeConcurrency == 1 && !this.resumeDownloads) ? -1 : getSize(fileInfo);
 			if (replacing) {
 				localFile.delete();
 			}
-			try {
-				session.read(remoteFilePath, outputStream);
-			}
-			catch (Exception e) {
-				/* Some operation systems acquire exclusive file-lock during file processing
-				and the file can't be deleted without closing streams before.
-				*/
-				outputStream.close();
-				tempFile.delete();
-
-				if (e instanceof RuntimeException) {
-					throw (RuntimeException) e;
-				}
-				else {
-					throw new MessagingException("Failure occurred while copying from remote to local directory", e);
-				}
-			}
-			finally {
+			if (this.rangeConcurrency > 1 && size >= this.rangeThreshold && size > 0) {
 				try {
-					outputStream.close();
+					this.remoteFileTemplate.readRanges(session, remoteFilePath, size, tempFile, this.rangeConcurrency,
+							this.rangeTaskExecutor);
 				}
-				catch (Exception ignored2) {
-					//Ignore it
+				catch (RuntimeException e) {
+					tempFile.delete();
+					throw e;
 				}
 			}
+			else {
+				readToLocalFile(session, remoteFilePath, fileInfo, size, appending ? localFile : tempFile, appending);
+			}
 			if (!appending && !tempFile.renameTo(localFile)) {
 				throw new MessagingException("Failed to rename local file");
 			}
@@ -987,6 +1249,60 @@ public abstract class AbstractRemoteFileOutboundGateway<F> extends AbstractReply
 		return localFile;
 	}
 
+	private void readToLocalFile(Session<F> session, String remoteFilePath, F fileInfo, long size, File file,
+			boolean appending) throws IOException {
+
+		long offset = 0;
+		if (!appending && this.resumeDownloads && file.exists()) {
+			if (size > 0 && file.length() < size && getModified(fileInfo) <= file.lastModified()) {
+				offset = file.length();
+				if (logger.isDebugEnabled()) {
+					logger.debug("Resuming download of " + remoteFilePath + " at offset " + offset);
+				}
+			}
+			else {
+				file.delete();
+			}
+		}
+		OutputStream outputStream = new BufferedOutputStream(new FileOutputStream(file, appending || offset > 0));
+		try {
+			if (offset > 0) {
+				session.read(remoteFilePath, offset, outputStream);
+			}
+			else {
+				session.read(remoteFilePath, outputStream);
+			}
+		}
+		catch (Exception e) {
+			/* Some operation systems acquire exclusive file-lock during file processing
+			and the file can't be deleted without closing streams before.
+			*/
+			outputStream.close();
+			if (!appending && !this.resumeDownloads) {
+				file.delete();
+			}
+
+			if (e instanceof RuntimeException) {
+				throw (RuntimeException) e;
+			}
+			else {
+				throw new MessagingException("Failure occurred while copying from remote to local directory", e);
+			}
+		}
+		finally {
+			try {
+				outputStream.close();
+			}
+			catch (Exception ignored2) {
+				//Ignore it
+			}
+		}
+	}
+
+	private long getSize(F fileInfo) {
+		return asFileInfoList(Collections.singletonList(fileInfo)).get(0).getSize();
+	}
+
 	protected List<File> mGet(Message<?> message, Session<F> session, String remoteDirectory,
 			String remoteFilename) throws IOException {
 
@@ -1010,13 +1326,22 @@ public abstract class AbstractRemoteFileOutboundGateway<F> extends AbstractReply
 		List<AbstractFileInfo<F>> remoteFiles = lsRemoteFilesForMget(message, session, remoteDirectory,
 				remoteFilename, remotePath);
 		try {
-			for (AbstractFileInfo<F> lsEntry : remoteFiles) {
-				if (lsEntry.isDirectory()) {
-					continue;
-				}
-				File file = getRemoteFileForMget(message, session, remoteDirectory, lsEntry);
-				if (file != null) {
-					files.add(file);
+			if (this.transferConcurrency > 1) {
+				List<AbstractFileInfo<F>> filesOnly = remoteFiles.stream()
+						.filter(lsEntry -> !lsEntry.isDirectory())
+						.collect(Collectors.toList());
+				transferConcurrently(session, filesOnly, files,
+						(s, lsEntry) -> getRemoteFileForMget(message, s, remoteDirectory, lsEntry));
+			}
+			else {
+				for (AbstractFileInfo<F> lsEntry : remoteFiles) {
+					if (lsEntry.isDirectory()) {
+						continue;
+					}
+					File file = getRemoteFileForMget(message, session, remoteDirectory, lsEntry);
+					if (file != null) {
+						files.add(file);
+					}
 				}
 			}
 		}
@@ -1053,10 +1378,16 @@ public abstract class AbstractRemoteFileOutboundGateway<F> extends AbstractReply
 		List<AbstractFileInfo<F>> fileNames = lsRemoteFilesForMget(message, session, remoteDirectory,
 				remoteFilename, remoteDirectory);
 		try {
-			for (AbstractFileInfo<F> lsEntry : fileNames) {
-				File file = getRemoteFileForMget(message, session, remoteDirectory, lsEntry);
-				if (file != null) {
-					files.add(file);
+			if (this.transferConcurrency > 1) {
+				transferConcurrently(session, fileNames, files,
+						(s, lsEntry) -> getRemoteFileForMget(message, s, remoteDirectory, lsEntry));
+			}
+			else {
+				for (AbstractFileInfo<F> lsEntry : fileNames) {
+					File file = getRemoteFileForMget(message, session, remoteDirectory, lsEntry);
+					if (file != null) {
+						files.add(file);
+					}
 				}
 			}
 		}
@@ -1125,7 +1456,8 @@ public abstract class AbstractRemoteFileOutboundGateway<F> extends AbstractReply
 		File localDir = ExpressionUtils.expressionToFile(this.localDirectoryExpression, evaluationContext, message,
 				"Local Directory");
 		if (!localDir.exists()) {
-			Assert.isTrue(localDir.mkdirs(), "Failed to make local directory: " + localDir);
+			// Another concurrent transfer may have just created it
+			Assert.isTrue(localDir.mkdirs() || localDir.isDirectory(), "Failed to make local directory: " + localDir);
 		}
 		return localDir;
 	}
@@ -1153,6 +1485,13 @@ public abstract class AbstractRemoteFileOutboundGateway<F> extends AbstractReply
 
 	protected abstract F enhanceNameWithSubDirectory(F file, String directory);
 
+	@FunctionalInterface
+	private interface TransferCallback<F, T, R> {
+
+		R transfer(Session<F> session, T item) throws IOException;
+
+	}
+
 	/**
 	 * Enumeration of commands supported by the gateways.
 	 */
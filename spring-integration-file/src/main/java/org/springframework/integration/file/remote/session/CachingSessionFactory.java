@@ -19,12 +19,24 @@ package org.springframework.integration.file.remote.session;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
-import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.BeanNameAware;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.integration.support.management.IntegrationManagement;
+import org.springframework.integration.support.management.metrics.MetricsCaptor;
+import org.springframework.integration.support.management.metrics.PoolMeters;
 import org.springframework.integration.util.SimplePool;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.scheduling.TaskScheduler;
 import org.springframework.util.Assert;
 
 /**
@@ -39,20 +51,60 @@ import org.springframework.util.Assert;
  * @author Alen Turkovic
  * @since 2.0
  */
-public class CachingSessionFactory<F> implements SessionFactory<F>, DisposableBean {
+@ManagedResource
+public class CachingSessionFactory<F> implements SessionFactory<F>, IntegrationManagement, SmartLifecycle,
+		BeanNameAware {
 
 	private static final Log logger = LogFactory.getLog(CachingSessionFactory.class);
 
+	private static final String SESSIONS_METER_NAME = "spring.integration.remote.sessions";
+
 	private final SessionFactory<F> sessionFactory;
 
 	private final SimplePool<Session<F>> pool;
 
 	private final boolean isSharedSessionCapable;
 
+	private final Map<Session<F>, Long> idleSince = new ConcurrentHashMap<>();
+
+	private final AtomicLong borrowCount = new AtomicLong();
+
+	private final AtomicLong borrowTimeTotal = new AtomicLong();
+
+	private final AtomicLong borrowTimeMax = new AtomicLong();
+
+	private final Object lifecycleMonitor = new Object();
+
+	private final ManagementOverrides managementOverrides = new ManagementOverrides();
+
 	private boolean testSession;
 
 	private volatile long sharedSessionEpoch;
 
+	private int minIdle;
+
+	private long maxIdleTime;
+
+	private long evictionInterval = 30_000L;
+
+	private TaskScheduler taskScheduler;
+
+	private Boolean autoStartup;
+
+	private int phase = Integer.MIN_VALUE;
+
+	private volatile ScheduledFuture<?> evictionTask;
+
+	private volatile boolean running;
+
+	private String beanName;
+
+	private volatile boolean loggingEnabled = true;
+
+	private volatile boolean countsEnabled;
+
+	private volatile PoolMeters poolMeters;
+
 	/**
 	 * Create a CachingSessionFactory with an unlimited number of sessions.
 	 *
@@ -81,16 +133,25 @@ public class CachingSessionFactory<F> implements SessionFactory<F>, DisposableBe
 		this.pool = new SimplePool<Session<F>>(sessionCacheSize, new SimplePool.PoolItemCallback<Session<F>>() {
 			@Override
 			public Session<F> createForPool() {
-				return CachingSessionFactory.this.sessionFactory.getSession();
+				Session<F> session = CachingSessionFactory.this.sessionFactory.getSession();
+				CachingSessionFactory.this.idleSince.put(session, System.currentTimeMillis());
+				return session;
 			}
 
 			@Override
 			public boolean isStale(Session<F> session) {
+				if (isIdleTooLong(session)) {
+					if (logger.isDebugEnabled()) {
+						logger.debug("Session " + session + " has been idle for too long");
+					}
+					return true;
+				}
 				return CachingSessionFactory.this.testSession ? !session.test() : !session.isOpen();
 			}
 
 			@Override
 			public void removedFromPool(Session<F> session) {
+				CachingSessionFactory.this.idleSince.remove(session);
 				session.close();
 			}
 		});
@@ -127,12 +188,300 @@ public class CachingSessionFactory<F> implements SessionFactory<F>, DisposableBe
 		this.testSession = testSession;
 	}
 
+	/**
+	 * Set the number of idle sessions to create when this factory is started, and to
+	 * maintain on each eviction run, so that the first operations don't pay for the
+	 * connection establishment. Default 0.
+	 * @param minIdle the minimum number of idle sessions.
+	 * @since 5.2
+	 * @see #setTaskScheduler(TaskScheduler)
+	 */
+	public void setMinIdle(int minIdle) {
+		Assert.isTrue(minIdle >= 0, "'minIdle' cannot be negative");
+		this.minIdle = minIdle;
+	}
+
+	/**
+	 * Set the time in milliseconds after which an idle session is closed instead of being
+	 * reused; typically a little less than the server's idle timeout. Checked when a
+	 * session is retrieved from the cache and on each eviction run. Default 0 (no limit).
+	 * @param maxIdleTime the maximum idle time.
+	 * @since 5.2
+	 */
+	public void setMaxIdleTime(long maxIdleTime) {
+		this.maxIdleTime = maxIdleTime;
+	}
+
+	/**
+	 * Set the interval in milliseconds between eviction runs, which close the sessions
+	 * idle for longer than {@link #setMaxIdleTime(long) maxIdleTime}, test the other idle
+	 * sessions when {@link #setTestSession(boolean) testSession} is true, and create
+	 * sessions to restore {@link #setMinIdle(int) minIdle}. Only applies when a
+	 * {@link #setTaskScheduler(TaskScheduler) taskScheduler} is provided. Default 30 seconds.
+	 * @param evictionInterval the interval.
+	 * @since 5.2
+	 */
+	public void setEvictionInterval(long evictionInterval) {
+		Assert.isTrue(evictionInterval > 0, "'evictionInterval' must be greater than 0");
+		this.evictionInterval = evictionInterval;
+	}
+
+	/**
+	 * Set a {@link TaskScheduler} to run the idle session eviction in the background.
+	 * @param taskScheduler the task scheduler.
+	 * @since 5.2
+	 * @see #setEvictionInterval(long)
+	 */
+	public void setTaskScheduler(TaskScheduler taskScheduler) {
+		this.taskScheduler = taskScheduler;
+	}
+
+	/**
+	 * Set whether this factory is started automatically by the application context.
+	 * By default, it is only auto-started when there is something to start: when
+	 * {@link #setMinIdle(int) minIdle} is greater than 0 or a
+	 * {@link #setTaskScheduler(TaskScheduler) taskScheduler} is provided for the eviction.
+	 * @param autoStartup true to start automatically.
+	 * @since 5.2
+	 */
+	public void setAutoStartup(boolean autoStartup) {
+		this.autoStartup = autoStartup;
+	}
+
+	/**
+	 * Set the phase in which this factory is started and stopped; default
+	 * {@link Integer#MIN_VALUE} so that it starts before, and stops after, the
+	 * endpoints that use it.
+	 * @param phase the phase.
+	 * @since 5.2
+	 * @see #setAutoStartup(boolean)
+	 */
+	public void setPhase(int phase) {
+		this.phase = phase;
+	}
+
+	@Override
+	public boolean isAutoStartup() {
+		if (this.autoStartup != null) {
+			return this.autoStartup;
+		}
+		return this.minIdle > 0 || this.taskScheduler != null;
+	}
+
+	@Override
+	public int getPhase() {
+		return this.phase;
+	}
+
+	/**
+	 * Create the {@link #setMinIdle(int) minIdle} sessions and schedule the eviction task,
+	 * if configured. A failure to create the sessions is logged and doesn't prevent
+	 * the start.
+	 */
+	@Override
+	public void start() {
+		synchronized (this.lifecycleMonitor) {
+			if (!this.running) {
+				this.running = true;
+				fillIdleSessions();
+				if (this.taskScheduler != null) {
+					this.evictionTask =
+							this.taskScheduler.scheduleWithFixedDelay(this::evictIdleSessions, this.evictionInterval);
+				}
+			}
+		}
+	}
+
+	@Override
+	public void stop() {
+		synchronized (this.lifecycleMonitor) {
+			if (this.running) {
+				this.running = false;
+				ScheduledFuture<?> task = this.evictionTask;
+				if (task != null) {
+					task.cancel(false);
+					this.evictionTask = null;
+				}
+			}
+		}
+	}
+
+	@Override
+	public boolean isRunning() {
+		return this.running;
+	}
+
+	/**
+	 * Close the idle sessions which have been idle for too long or fail the
+	 * {@link Session#test() test} (if {@link #setTestSession(boolean) testSession}),
+	 * and then create sessions to restore {@link #setMinIdle(int) minIdle}.
+	 * @return the number of closed sessions.
+	 * @since 5.2
+	 */
+	@ManagedOperation
+	public int evictIdleSessions() {
+		int removed = this.pool.removeStaleIdleItems();
+		if (removed > 0 && this.loggingEnabled && logger.isDebugEnabled()) {
+			logger.debug("Evicted " + removed + " idle sessions");
+		}
+		fillIdleSessions();
+		return removed;
+	}
+
+	private void fillIdleSessions() {
+		if (this.minIdle > 0) {
+			try {
+				this.pool.fillIdleItems(this.minIdle);
+			}
+			catch (Exception e) {
+				logger.warn("Failed to create idle sessions", e);
+			}
+		}
+	}
+
+	private boolean isIdleTooLong(Session<F> session) {
+		Long since = this.idleSince.get(session);
+		return this.maxIdleTime > 0 && since != null && System.currentTimeMillis() - since > this.maxIdleTime;
+	}
+
+	@Override
+	public void setBeanName(String name) {
+		this.beanName = name;
+	}
+
+	/**
+	 * Register the meters for this cache: the {@code spring.integration.remote.sessions}
+	 * gauges for the active, idle and allocated sessions and the wait count, and the
+	 * {@code spring.integration.remote.sessions.borrow} timer for {@link #getSession()},
+	 * tagged with the bean name. Invoked by the {@code IntegrationManagementConfigurer}
+	 * when Micrometer is present.
+	 * @param metricsCaptor the metrics captor.
+	 * @since 5.2
+	 */
+	@Override
+	public void registerMetricsCaptor(MetricsCaptor metricsCaptor) {
+		if (metricsCaptor != null && this.poolMeters == null) {
+			this.poolMeters = new PoolMeters(metricsCaptor, this.pool, SESSIONS_METER_NAME,
+					this.beanName != null ? this.beanName : "cachingSessionFactory", "Cached remote file sessions");
+		}
+	}
+
+	@Override
+	public void setLoggingEnabled(boolean loggingEnabled) {
+		this.loggingEnabled = loggingEnabled;
+		this.managementOverrides.loggingConfigured = true;
+	}
+
+	@Override
+	public boolean isLoggingEnabled() {
+		return this.loggingEnabled;
+	}
+
+	/**
+	 * Reset the borrow statistics.
+	 */
+	@Override
+	public void reset() {
+		this.borrowCount.set(0);
+		this.borrowTimeTotal.set(0);
+		this.borrowTimeMax.set(0);
+	}
+
+	@Override
+	public void setCountsEnabled(boolean countsEnabled) {
+		this.countsEnabled = countsEnabled;
+		this.managementOverrides.countsConfigured = true;
+	}
+
+	@Override
+	public boolean isCountsEnabled() {
+		return this.countsEnabled;
+	}
+
+	@Override
+	public ManagementOverrides getOverrides() {
+		return this.managementOverrides;
+	}
+
+	/**
+	 * Return the maximum number of sessions; {@link Integer#MAX_VALUE} if unlimited.
+	 * @return the pool size.
+	 * @since 5.2
+	 */
+	@ManagedAttribute
+	public int getPoolSize() {
+		return this.pool.getPoolSize();
+	}
+
+	@ManagedAttribute
+	public int getActiveCount() {
+		return this.pool.getActiveCount();
+	}
+
+	@ManagedAttribute
+	public int getIdleCount() {
+		return this.pool.getIdleCount();
+	}
+
+	@ManagedAttribute
+	public int getAllocatedCount() {
+		return this.pool.getAllocatedCount();
+	}
+
+	/**
+	 * Return the number of {@link #getSession()} calls that had to wait for a session
+	 * because all of them were in use.
+	 * @return the wait count.
+	 * @since 5.2
+	 */
+	@ManagedAttribute
+	public long getWaitCount() {
+		return this.pool.getWaitCount();
+	}
+
+	@ManagedAttribute
+	public long getBorrowCount() {
+		return this.borrowCount.get();
+	}
+
+	/**
+	 * Return the mean time in milliseconds to obtain a session, including any wait
+	 * and the connection (or test) of the session.
+	 * @return the mean borrow time.
+	 * @since 5.2
+	 */
+	@ManagedAttribute
+	public double getMeanBorrowTime() {
+		long count = this.borrowCount.get();
+		return count == 0 ? 0 : (double) this.borrowTimeTotal.get() / count / 1_000_000;
+	}
+
+	/**
+	 * Return the maximum time in milliseconds to obtain a session.
+	 * @return the max borrow time.
+	 * @since 5.2
+	 */
+	@ManagedAttribute
+	public double getMaxBorrowTime() {
+		return (double) this.borrowTimeMax.get() / 1_000_000;
+	}
+
 	/**
 	 * Get a session from the pool (or block if none available).
 	 */
 	@Override
 	public Session<F> getSession() {
-		return new CachedSession(this.pool.getItem(), this.sharedSessionEpoch);
+		long start = System.nanoTime();
+		Session<F> session = this.pool.getItem();
+		long borrowTime = System.nanoTime() - start;
+		this.borrowCount.incrementAndGet();
+		this.borrowTimeTotal.addAndGet(borrowTime);
+		this.borrowTimeMax.accumulateAndGet(borrowTime, Math::max);
+		PoolMeters meters = this.poolMeters;
+		if (meters != null) {
+			meters.recordBorrow(borrowTime);
+		}
+		return new CachedSession(session, this.sharedSessionEpoch);
 	}
 
 	/**
@@ -140,6 +489,11 @@ public class CachingSessionFactory<F> implements SessionFactory<F>, DisposableBe
 	 */
 	@Override
 	public void destroy() {
+		stop();
+		PoolMeters meters = this.poolMeters;
+		if (meters != null) {
+			meters.remove();
+		}
 		this.pool.removeAllIdleItems();
 	}
 
@@ -215,6 +569,7 @@ public class CachingSessionFactory<F> implements SessionFactory<F>, DisposableBe
 						//No-op in this context
 					}
 				}
+				CachingSessionFactory.this.idleSince.put(this.targetSession, System.currentTimeMillis());
 				CachingSessionFactory.this.pool.releaseItem(this.targetSession);
 				this.released = true;
 			}
@@ -235,6 +590,11 @@ public class CachingSessionFactory<F> implements SessionFactory<F>, DisposableBe
 			this.targetSession.read(source, os);
 		}
 
+		@Override
+		public void read(String source, long offset, OutputStream os) throws IOException {
+			this.targetSession.read(source, offset, os);
+		}
+
 		@Override
 		public void write(InputStream inputStream, String destination) throws IOException {
 			this.targetSession.write(inputStream, destination);
@@ -280,6 +640,21 @@ public class CachingSessionFactory<F> implements SessionFactory<F>, DisposableBe
 			return this.targetSession.readRaw(source);
 		}
 
+		@Override
+		public InputStream readRaw(String source, long offset) throws IOException {
+			return this.targetSession.readRaw(source, offset);
+		}
+
+		@Override
+		public boolean test() {
+			return this.targetSession.test();
+		}
+
+		@Override
+		public boolean supportsOffsetReads() {
+			return this.targetSession.supportsOffsetReads();
+		}
+
 		@Override
 		public boolean finalizeRaw() throws IOException {
 			return this.targetSession.finalizeRaw();
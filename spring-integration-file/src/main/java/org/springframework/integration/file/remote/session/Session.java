@@ -97,6 +97,58 @@ public interface Session<F> extends Closeable {
 	 */
 	boolean finalizeRaw() throws IOException;
 
+	/**
+	 * Retrieve a remote file, skipping the first {@code offset} bytes, e.g. to resume
+	 * an interrupted transfer.
+	 * The default implementation only supports an {@code offset} of {@code 0};
+	 * see {@link #supportsOffsetReads()}.
+	 * @param source The path of the remote file.
+	 * @param offset the number of bytes to skip.
+	 * @param outputStream The output stream.
+	 * @throws IOException Any IOException.
+	 * @since 5.2
+	 */
+	default void read(String source, long offset, OutputStream outputStream) throws IOException {
+		if (offset == 0) {
+			read(source, outputStream);
+		}
+		else {
+			throw new UnsupportedOperationException("This session does not support reading from an offset");
+		}
+	}
+
+	/**
+	 * Retrieve a remote file as a raw {@link InputStream}, starting at {@code offset}.
+	 * The stream may be closed before the end of the file is reached;
+	 * {@link #finalizeRaw()} must be called after closing it, and may report a failure
+	 * in that case (e.g. FTP reports an aborted transfer).
+	 * The default implementation only supports an {@code offset} of {@code 0};
+	 * see {@link #supportsOffsetReads()}.
+	 * @param source The path of the remote file.
+	 * @param offset the number of bytes to skip.
+	 * @return The raw inputStream.
+	 * @throws IOException Any IOException.
+	 * @since 5.2
+	 */
+	default InputStream readRaw(String source, long offset) throws IOException {
+		if (offset == 0) {
+			return readRaw(source);
+		}
+		else {
+			throw new UnsupportedOperationException("This session does not support reading from an offset");
+		}
+	}
+
+	/**
+	 * Return true if this session supports a non-zero {@code offset} in
+	 * {@link #read(String, long, OutputStream)} and {@link #readRaw(String, long)}.
+	 * @return true if offset reads are supported; the default implementation returns false.
+	 * @since 5.2
+	 */
+	default boolean supportsOffsetReads() {
+		return false;
+	}
+
 	/**
 	 * Get the underlying client library's client instance for this session.
 	 * Returns an {@code Object} to avoid significant changes to -file, -ftp, -sftp
@@ -23,8 +23,11 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.Matcher;
 import java.util.stream.Collectors;
 
@@ -35,6 +38,7 @@ import org.springframework.beans.BeansException;
 import org.springframework.beans.factory.BeanFactory;
 import org.springframework.beans.factory.BeanFactoryAware;
 import org.springframework.beans.factory.InitializingBean;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.expression.EvaluationContext;
 import org.springframework.expression.Expression;
 import org.springframework.expression.ExpressionParser;
@@ -124,6 +128,10 @@ public abstract class AbstractInboundFileSynchronizer<F>
 	@Nullable
 	private Comparator<F> comparator;
 
+	private int transferConcurrency = 1;
+
+	private Executor taskExecutor;
+
 	/**
 	 * Create a synchronizer with the {@link SessionFactory} used to acquire {@link Session} instances.
 	 *
@@ -250,6 +258,36 @@ public abstract class AbstractInboundFileSynchronizer<F>
 		this.preserveTimestamp = preserveTimestamp;
 	}
 
+	/**
+	 * Set the maximum number of files downloaded concurrently during a synchronization.
+	 * The remote directory is listed and filtered on one session; the files are then
+	 * downloaded by up to this number of workers, each on its own session from the
+	 * session factory (the calling thread is one of them). A
+	 * {@link org.springframework.integration.file.remote.session.CachingSessionFactory}
+	 * with a large enough session cache size is recommended.
+	 * Default 1 (sequential downloads on a single session).
+	 * @param transferConcurrency the maximum number of concurrent downloads.
+	 * @since 5.2
+	 * @see #setTaskExecutor(Executor)
+	 */
+	public void setTransferConcurrency(int transferConcurrency) {
+		Assert.isTrue(transferConcurrency > 0, "'transferConcurrency' must be greater than 0");
+		this.transferConcurrency = transferConcurrency;
+	}
+
+	/**
+	 * Set the {@link Executor} for the concurrent download workers.
+	 * Defaults to a {@link SimpleAsyncTaskExecutor}, created when the
+	 * {@link #setTransferConcurrency(int) transferConcurrency} is greater than 1.
+	 * @param taskExecutor the executor.
+	 * @since 5.2
+	 * @see #setTransferConcurrency(int)
+	 */
+	public void setTaskExecutor(Executor taskExecutor) {
+		Assert.notNull(taskExecutor, "'taskExecutor' must not be null");
+		this.taskExecutor = taskExecutor;
+	}
+
 	@Override
 	public void setBeanFactory(BeanFactory beanFactory) throws BeansException {
 		this.beanFactory = beanFactory;
@@ -261,6 +299,9 @@ public abstract class AbstractInboundFileSynchronizer<F>
 		if (this.evaluationContext == null) {
 			this.evaluationContext = ExpressionUtils.createStandardEvaluationContext(this.beanFactory);
 		}
+		if (this.transferConcurrency > 1 && this.taskExecutor == null) {
+			this.taskExecutor = new SimpleAsyncTaskExecutor();
+		}
 		evaluateRemoteDirectory();
 		doInit();
 	}
@@ -329,6 +370,11 @@ public abstract class AbstractInboundFileSynchronizer<F>
 			boolean filteringOneByOne = haveFilter && this.filter.supportsSingleFileFiltering();
 			List<F> filteredFiles = applyFilter(files, haveFilter, filteringOneByOne, maxFetchSize);
 
+			if (this.transferConcurrency > 1) {
+				return transferFilesConcurrently(localDirectory, maxFetchSize, session, filteredFiles,
+						filteringOneByOne);
+			}
+
 			int copied = filteredFiles.size();
 			int accepted = 0;
 
@@ -365,6 +411,74 @@ public abstract class AbstractInboundFileSynchronizer<F>
 		}
 	}
 
+	private int transferFilesConcurrently(File localDirectory, int maxFetchSize, Session<F> session,
+			List<F> files, boolean filteringOneByOne) throws IOException {
+
+		String remoteDirectory = this.evaluatedRemoteDirectory;
+		int size = files.size();
+		// null - not attempted, or failed
+		Boolean[] copied = new Boolean[size];
+		boolean[] accepted = new boolean[size];
+		AtomicInteger acceptedCount = new AtomicInteger();
+		try {
+			this.remoteFileTemplate.executeConcurrently(session, size, this.transferConcurrency, this.taskExecutor,
+					(s, i) -> {
+						F file = files.get(i);
+						if (!filteringOneByOne || acceptForTransfer(file, maxFetchSize, acceptedCount)) {
+							accepted[i] = true;
+							copied[i] = copyFileToLocalDirectory(remoteDirectory, file, localDirectory, s);
+						}
+					});
+		}
+		catch (RuntimeException | IOException ex) {
+			rollbackNotTransferred(files, copied, accepted, filteringOneByOne);
+			throw ex;
+		}
+		int transferred = 0;
+		for (Boolean result : copied) {
+			if (Boolean.TRUE.equals(result)) {
+				transferred++;
+			}
+		}
+		return transferred;
+	}
+
+	/*
+	 * With a single file filter, files are accepted just before they are copied (as in
+	 * a sequential transfer), so that a failure can't leave accepted files that were
+	 * never attempted; the max fetch size check must be atomic with the acceptance.
+	 */
+	private boolean acceptForTransfer(F file, int maxFetchSize, AtomicInteger acceptedCount) {
+		synchronized (acceptedCount) {
+			if ((maxFetchSize < 0 || acceptedCount.get() < maxFetchSize) && this.filter.accept(file)) {
+				acceptedCount.incrementAndGet();
+				return true;
+			}
+			return false;
+		}
+	}
+
+	/*
+	 * Unlike the sequential transfer, the failed and not attempted files are not
+	 * necessarily at the end of the list, and files after them may have been copied,
+	 * so roll back only the files that were accepted but not transferred, one by one.
+	 */
+	private void rollbackNotTransferred(List<F> files, Boolean[] copied, boolean[] accepted,
+			boolean filteringOneByOne) {
+
+		for (int i = 0; i < copied.length; i++) {
+			if (copied[i] == null && (accepted[i] || !filteringOneByOne)) {
+				F file = files.get(i);
+				if (this.filter instanceof ResettableFileListFilter) {
+					resetFilterIfNecessary(file);
+				}
+				else {
+					rollbackFromFileToListEnd(Collections.singletonList(file), file);
+				}
+			}
+		}
+	}
+
 	private List<F> applyFilter(F[] files, boolean haveFilter, boolean filteringOneByOne, int maxFetchSize) {
 		List<F> filteredFiles;
 		if (!filteringOneByOne && haveFilter) {
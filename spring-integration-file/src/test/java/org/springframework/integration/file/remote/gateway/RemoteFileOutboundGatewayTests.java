@@ -17,6 +17,7 @@
 package org.springframework.integration.file.remote.gateway;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
 import static org.assertj.core.api.Assertions.fail;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
@@ -27,17 +28,21 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.FileReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Collection;
 import java.util.Date;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicReference;
 
 import org.junit.Rule;
@@ -53,6 +58,7 @@ import org.springframework.integration.file.filters.AbstractSimplePatternFileLis
 import org.springframework.integration.file.remote.AbstractFileInfo;
 import org.springframework.integration.file.remote.RemoteFileTemplate;
 import org.springframework.integration.file.remote.handler.FileTransferringMessageHandler;
+import org.springframework.integration.file.remote.session.CachingSessionFactory;
 import org.springframework.integration.file.remote.session.Session;
 import org.springframework.integration.file.remote.session.SessionFactory;
 import org.springframework.integration.file.support.FileExistsMode;
@@ -219,6 +225,235 @@ public class RemoteFileOutboundGatewayTests {
 		assertThat(out.getHeaders().get(FileHeaders.REMOTE_DIRECTORY)).isEqualTo("testremote/");
 	}
 
+	@Test
+	public void testMGetConcurrently() {
+		SessionFactory sessionFactory = mock(SessionFactory.class);
+		TestRemoteFileOutboundGateway gw = new TestRemoteFileOutboundGateway(sessionFactory, "mget", "payload");
+		gw.setLocalDirectory(this.tempFolder.getRoot());
+		gw.setTransferConcurrency(4);
+		gw.afterPropertiesSet();
+		Set<String> readingThreads = ConcurrentHashMap.newKeySet();
+		when(sessionFactory.getSession()).thenAnswer(invocation -> new TestSession() {
+
+			@Override
+			public void read(String source, OutputStream outputStream) throws IOException {
+				readingThreads.add(Thread.currentThread().getName());
+				try {
+					Thread.sleep(20);
+				}
+				catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				outputStream.write(source.getBytes());
+			}
+
+			@Override
+			public TestLsEntry[] list(String path) {
+				TestLsEntry[] entries = new TestLsEntry[20];
+				for (int i = 0; i < entries.length; i++) {
+					entries[i] = new TestLsEntry(String.format("f%02d", i), 123, false, false, 1234, "-r--r--r--");
+				}
+				return entries;
+			}
+
+		});
+		@SuppressWarnings("unchecked")
+		MessageBuilder<List<File>> out = (MessageBuilder<List<File>>) gw
+				.handleRequestMessage(new GenericMessage<>("testremote/*"));
+		List<File> files = out.getPayload();
+		assertThat(files).hasSize(20);
+		for (int i = 0; i < files.size(); i++) {
+			assertThat(files.get(i).getName()).isEqualTo(String.format("f%02d", i));
+		}
+		assertThat(readingThreads.size()).isGreaterThan(1);
+		verify(sessionFactory, times(4)).getSession();
+	}
+
+	@Test
+	public void testGetRanges() throws Exception {
+		byte[] content = new byte[100];
+		for (int i = 0; i < content.length; i++) {
+			content[i] = (byte) i;
+		}
+		SessionFactory sessionFactory = mock(SessionFactory.class);
+		TestRemoteFileOutboundGateway gw = new TestRemoteFileOutboundGateway(sessionFactory, "get", "payload");
+		gw.setLocalDirectory(this.tempFolder.getRoot());
+		gw.setRangeConcurrency(4);
+		gw.setRangeThreshold(10);
+		gw.afterPropertiesSet();
+		Set<Long> offsets = ConcurrentHashMap.newKeySet();
+		when(sessionFactory.getSession()).thenAnswer(invocation -> new TestSession() {
+
+			@Override
+			public TestLsEntry[] list(String path) {
+				return new TestLsEntry[] {
+						new TestLsEntry("f1", content.length, false, false, 12345, "-rw-r--r--")
+				};
+			}
+
+			@Override
+			public boolean supportsOffsetReads() {
+				return true;
+			}
+
+			@Override
+			public InputStream readRaw(String source, long offset) {
+				offsets.add(offset);
+				return new ByteArrayInputStream(content, (int) offset, content.length - (int) offset);
+			}
+
+			@Override
+			public boolean finalizeRaw() {
+				return true;
+			}
+
+		});
+		@SuppressWarnings("unchecked")
+		MessageBuilder<File> out = (MessageBuilder<File>) gw.handleRequestMessage(new GenericMessage<>("f1"));
+		File outFile = out.getPayload();
+		assertThat(outFile).isEqualTo(new File(this.tempFolder.getRoot(), "f1"));
+		assertThat(Files.readAllBytes(outFile.toPath())).isEqualTo(content);
+		assertThat(offsets).containsExactlyInAnyOrder(0L, 25L, 50L, 75L);
+		verify(sessionFactory, times(4)).getSession();
+	}
+
+	@Test
+	public void testGetRangesKeepsCachedSessions() throws Exception {
+		byte[] content = new byte[100];
+		SessionFactory sessionFactory = mock(SessionFactory.class);
+		when(sessionFactory.getSession()).thenAnswer(invocation -> new TestSession() {
+
+			@Override
+			public TestLsEntry[] list(String path) {
+				return new TestLsEntry[] {
+						new TestLsEntry("f1", content.length, false, false, 12345, "-rw-r--r--")
+				};
+			}
+
+			@Override
+			public boolean isOpen() {
+				return true;
+			}
+
+			@Override
+			public boolean supportsOffsetReads() {
+				return true;
+			}
+
+			@Override
+			public InputStream readRaw(String source, long offset) {
+				return new ByteArrayInputStream(content, (int) offset, content.length - (int) offset);
+			}
+
+			@Override
+			public boolean finalizeRaw() throws IOException {
+				throw new IOException("426 transfer aborted");
+			}
+
+		});
+		CachingSessionFactory<TestLsEntry> cache = new CachingSessionFactory<>(sessionFactory, 4);
+		TestRemoteFileOutboundGateway gw = new TestRemoteFileOutboundGateway(cache, "get", "payload");
+		gw.setLocalDirectory(this.tempFolder.getRoot());
+		gw.setFileExistsMode(FileExistsMode.REPLACE);
+		gw.setRangeConcurrency(4);
+		gw.setRangeThreshold(10);
+		gw.setRangeTaskExecutor(Runnable::run);
+		gw.afterPropertiesSet();
+		gw.handleRequestMessage(new GenericMessage<>("f1"));
+		gw.handleRequestMessage(new GenericMessage<>("f1"));
+		verify(sessionFactory, times(2)).getSession();
+		assertThat(cache.getIdleCount()).isEqualTo(2);
+	}
+
+	@Test
+	public void testGetRangesPoolTooSmall() {
+		CachingSessionFactory<TestLsEntry> cache = new CachingSessionFactory<>(mock(SessionFactory.class), 3);
+		TestRemoteFileOutboundGateway gw = new TestRemoteFileOutboundGateway(cache, "get", "payload");
+		gw.setLocalDirectory(this.tempFolder.getRoot());
+		gw.setRangeConcurrency(4);
+		assertThatIllegalStateException().isThrownBy(gw::afterPropertiesSet)
+				.withMessageContaining("up to 4 sessions");
+	}
+
+	@Test
+	public void testGetRangesNotSupported() throws Exception {
+		SessionFactory sessionFactory = mock(SessionFactory.class);
+		TestRemoteFileOutboundGateway gw = new TestRemoteFileOutboundGateway(sessionFactory, "get", "payload");
+		gw.setLocalDirectory(this.tempFolder.getRoot());
+		gw.setRangeConcurrency(4);
+		gw.setRangeThreshold(1);
+		gw.afterPropertiesSet();
+		when(sessionFactory.getSession()).thenAnswer(invocation -> new TestSession() {
+
+			@Override
+			public TestLsEntry[] list(String path) {
+				return new TestLsEntry[] {
+						new TestLsEntry("f1", 8, false, false, 12345, "-rw-r--r--")
+				};
+			}
+
+			@Override
+			public void read(String source, OutputStream outputStream) throws IOException {
+				outputStream.write("abcdefgh".getBytes());
+			}
+
+		});
+		@SuppressWarnings("unchecked")
+		MessageBuilder<File> out = (MessageBuilder<File>) gw.handleRequestMessage(new GenericMessage<>("f1"));
+		assertThat(out.getPayload()).hasContent("abcdefgh");
+		verify(sessionFactory, times(1)).getSession();
+	}
+
+	@Test
+	public void testGetResume() throws Exception {
+		SessionFactory sessionFactory = mock(SessionFactory.class);
+		TestRemoteFileOutboundGateway gw = new TestRemoteFileOutboundGateway(sessionFactory, "get", "payload");
+		gw.setLocalDirectory(this.tempFolder.getRoot());
+		gw.setResumeDownloads(true);
+		gw.afterPropertiesSet();
+		AtomicReference<Long> resumedAt = new AtomicReference<>();
+		when(sessionFactory.getSession()).thenAnswer(invocation -> new TestSession() {
+
+			@Override
+			public TestLsEntry[] list(String path) {
+				return new TestLsEntry[] {
+						new TestLsEntry("f1", 8, false, false, 12345, "-rw-r--r--")
+				};
+			}
+
+			@Override
+			public boolean supportsOffsetReads() {
+				return true;
+			}
+
+			@Override
+			public void read(String source, OutputStream outputStream) throws IOException {
+				outputStream.write("abcd".getBytes());
+				outputStream.flush();
+				throw new IOException("connection lost");
+			}
+
+			@Override
+			public void read(String source, long offset, OutputStream outputStream) throws IOException {
+				resumedAt.set(offset);
+				outputStream.write("efgh".getBytes());
+			}
+
+		});
+		try {
+			gw.handleRequestMessage(new GenericMessage<>("f1"));
+			fail("expected exception");
+		}
+		catch (MessagingException e) {
+			assertThat(e.getCause()).isInstanceOf(IOException.class);
+		}
+		assertThat(new File(this.tempFolder.getRoot(), "f1.writing")).hasContent("abcd");
+		@SuppressWarnings("unchecked")
+		MessageBuilder<File> out = (MessageBuilder<File>) gw.handleRequestMessage(new GenericMessage<>("f1"));
+		assertThat(resumedAt.get()).isEqualTo(4L);
+		assertThat(out.getPayload()).hasContent("abcdefgh");
+	}
+
 	@Test(expected = MessagingException.class)
 	public void testMGetEmpty() {
 		SessionFactory sessionFactory = mock(SessionFactory.class);
@@ -1041,7 +1276,7 @@ public class RemoteFileOutboundGatewayTests {
 		}
 
 		@Override
-		public boolean finalizeRaw() {
+		public boolean finalizeRaw() throws IOException {
 			return false;
 		}
 
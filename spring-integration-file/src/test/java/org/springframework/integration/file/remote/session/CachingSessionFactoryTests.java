@@ -18,7 +18,11 @@ package org.springframework.integration.file.remote.session;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -26,15 +30,23 @@ import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.Test;
+import org.mockito.Answers;
 
 import org.springframework.beans.factory.BeanFactory;
 import org.springframework.expression.common.LiteralExpression;
 import org.springframework.integration.file.remote.InputStreamCallback;
 import org.springframework.integration.file.remote.RemoteFileTemplate;
+import org.springframework.integration.support.management.metrics.GaugeFacade;
+import org.springframework.integration.support.management.metrics.MetricsCaptor;
+import org.springframework.integration.support.management.metrics.MetricsCaptor.GaugeBuilder;
+import org.springframework.integration.support.management.metrics.MetricsCaptor.TimerBuilder;
+import org.springframework.integration.support.management.metrics.TimerFacade;
 import org.springframework.integration.test.util.TestUtils;
 import org.springframework.messaging.support.GenericMessage;
+import org.springframework.scheduling.TaskScheduler;
 
 /**
  * @author Gary Russell
@@ -101,6 +113,76 @@ public class CachingSessionFactoryTests {
 		verify(session).close();
 	}
 
+	@Test
+	public void testMinIdleAndEviction() throws Exception {
+		TestSessionFactory factory = new TestSessionFactory();
+		CachingSessionFactory<String> cache = new CachingSessionFactory<String>(factory, 3);
+		cache.setMinIdle(2);
+		cache.setMaxIdleTime(50);
+		cache.start();
+		assertThat(cache.getIdleCount()).isEqualTo(2);
+		assertThat(cache.getAllocatedCount()).isEqualTo(2);
+		Session<String> sess1 = cache.getSession();
+		assertThat(TestUtils.getPropertyValue(sess1, "targetSession.id")).isEqualTo("session:1");
+		assertThat(cache.getActiveCount()).isEqualTo(1);
+		assertThat(cache.getBorrowCount()).isEqualTo(1);
+		Thread.sleep(100);
+		assertThat(cache.evictIdleSessions()).isEqualTo(1);
+		// minIdle restored
+		assertThat(cache.getIdleCount()).isEqualTo(2);
+		assertThat(cache.getAllocatedCount()).isEqualTo(3);
+		sess1.close();
+		assertThat(cache.evictIdleSessions()).isEqualTo(0);
+		assertThat(cache.getIdleCount()).isEqualTo(3);
+		Thread.sleep(100);
+		// an idle session is not reused after maxIdleTime
+		Session<String> sess2 = cache.getSession();
+		assertThat(TestUtils.getPropertyValue(sess2, "targetSession.id")).isEqualTo("session:5");
+		sess2.close();
+		cache.stop();
+		cache.destroy();
+		assertThat(cache.getIdleCount()).isEqualTo(0);
+	}
+
+	@Test
+	public void testAutoStartupOnlyWhenNeeded() {
+		CachingSessionFactory<String> cache = new CachingSessionFactory<String>(new TestSessionFactory(), 3);
+		assertThat(cache.isAutoStartup()).isFalse();
+		cache.setMinIdle(1);
+		assertThat(cache.isAutoStartup()).isTrue();
+		cache.setMinIdle(0);
+		cache.setTaskScheduler(mock(TaskScheduler.class));
+		assertThat(cache.isAutoStartup()).isTrue();
+		cache.setAutoStartup(false);
+		assertThat(cache.isAutoStartup()).isFalse();
+	}
+
+	@Test
+	public void testMetricsCaptorTaggedWithBeanName() {
+		CachingSessionFactory<String> cache = new CachingSessionFactory<String>(new TestSessionFactory(), 3);
+		cache.setBeanName("csf");
+		MetricsCaptor captor = mock(MetricsCaptor.class);
+		TimerBuilder timerBuilder = mock(TimerBuilder.class, Answers.RETURNS_SELF);
+		TimerFacade timer = mock(TimerFacade.class);
+		when(timerBuilder.build()).thenReturn(timer);
+		when(captor.timerBuilder("spring.integration.remote.sessions.borrow")).thenReturn(timerBuilder);
+		GaugeBuilder gaugeBuilder = mock(GaugeBuilder.class, Answers.RETURNS_SELF);
+		GaugeFacade gauge = mock(GaugeFacade.class);
+		when(gaugeBuilder.build()).thenReturn(gauge);
+		when(captor.gaugeBuilder(eq("spring.integration.remote.sessions"), any(), any())).thenReturn(gaugeBuilder);
+		cache.registerMetricsCaptor(captor);
+		verify(timerBuilder).tag("name", "csf");
+		verify(gaugeBuilder, times(4)).tag("name", "csf");
+		cache.getSession().close();
+		verify(timer).record(anyLong(), eq(TimeUnit.NANOSECONDS));
+		assertThat(cache.getBorrowCount()).isEqualTo(1);
+		cache.reset();
+		assertThat(cache.getBorrowCount()).isEqualTo(0);
+		cache.destroy();
+		verify(timer).remove();
+		verify(gauge, times(4)).remove();
+	}
+
 	private class TestSessionFactory implements SessionFactory<String> {
 
 		private int n;
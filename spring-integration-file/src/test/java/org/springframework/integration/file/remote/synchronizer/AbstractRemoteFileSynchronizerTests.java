@@ -24,7 +24,18 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
@@ -36,6 +47,8 @@ import org.springframework.beans.factory.BeanFactory;
 import org.springframework.integration.file.HeadDirectoryScanner;
 import org.springframework.integration.file.filters.AcceptOnceFileListFilter;
 import org.springframework.integration.file.filters.ChainFileListFilter;
+import org.springframework.integration.file.filters.FileListFilter;
+import org.springframework.integration.file.filters.ReversibleFileListFilter;
 import org.springframework.integration.file.remote.session.Session;
 import org.springframework.integration.file.remote.session.SessionFactory;
 import org.springframework.messaging.MessagingException;
@@ -101,6 +114,193 @@ public class AbstractRemoteFileSynchronizerTests {
 		sync.close();
 	}
 
+	@Test
+	public void testConcurrentTransferRollback() throws Exception {
+		final AtomicBoolean failWhenCopyingBar = new AtomicBoolean(true);
+		final Map<String, AtomicInteger> copied = new ConcurrentHashMap<>();
+		SessionFactory<String> sf = new StringSessionFactory();
+		AbstractInboundFileSynchronizer<String> sync = new AbstractInboundFileSynchronizer<String>(sf) {
+
+			@Override
+			protected boolean isFile(String file) {
+				return true;
+			}
+
+			@Override
+			protected String getFilename(String file) {
+				return file;
+			}
+
+			@Override
+			protected long getModified(String file) {
+				return 0;
+			}
+
+			@Override
+			protected boolean copyFileToLocalDirectory(String remoteDirectoryPath, String remoteFile,
+					File localDirectory, Session<String> session) throws IOException {
+				if ("bar".equals(remoteFile) && failWhenCopyingBar.getAndSet(false)) {
+					throw new IOException("fail");
+				}
+				copied.computeIfAbsent(remoteFile, k -> new AtomicInteger()).incrementAndGet();
+				return true;
+			}
+
+		};
+		sync.setFilter(new AcceptOnceFileListFilter<>());
+		sync.setRemoteDirectory("foo");
+		sync.setTransferConcurrency(3);
+		ExecutorService executor = Executors.newCachedThreadPool();
+		sync.setTaskExecutor(executor);
+
+		try {
+			sync.synchronizeToLocalDirectory(mock(File.class));
+			fail("Expected exception");
+		}
+		catch (MessagingException e) {
+			assertThat(e.getCause()).isInstanceOf(MessagingException.class);
+			assertThat(e.getCause().getCause()).isInstanceOf(IOException.class);
+			assertThat(e.getCause().getCause().getMessage()).isEqualTo("fail");
+		}
+		sync.synchronizeToLocalDirectory(mock(File.class));
+		assertThat(copied.keySet()).containsExactlyInAnyOrder("foo", "bar", "baz");
+		assertThat(copied.values()).allMatch(count -> count.get() == 1);
+		sync.synchronizeToLocalDirectory(mock(File.class));
+		assertThat(copied.values()).allMatch(count -> count.get() == 1);
+		sync.close();
+		executor.shutdownNow();
+	}
+
+	@Test
+	public void testConcurrentTransferSingleFileFilterAcceptsLazily() throws Exception {
+		Map<String, AtomicInteger> copied = new ConcurrentHashMap<>();
+		AbstractInboundFileSynchronizer<String> sync = createFailingSynchronizer(copied, null);
+		Set<String> accepted = ConcurrentHashMap.newKeySet();
+		sync.setFilter(new FileListFilter<String>() {
+
+			@Override
+			public List<String> filterFiles(String[] files) {
+				return Arrays.stream(files).filter(this::accept).collect(Collectors.toList());
+			}
+
+			@Override
+			public boolean accept(String file) {
+				return accepted.add(file);
+			}
+
+			@Override
+			public boolean supportsSingleFileFiltering() {
+				return true;
+			}
+
+		});
+		sync.setTransferConcurrency(2);
+		// all the transfers on the calling thread, in order
+		sync.setTaskExecutor(task -> {
+			throw new RejectedExecutionException();
+		});
+		try {
+			sync.synchronizeToLocalDirectory(mock(File.class));
+			fail("Expected exception");
+		}
+		catch (MessagingException e) {
+			assertThat(e.getCause().getCause().getMessage()).isEqualTo("fail");
+		}
+		// 'bar' and 'baz' were not attempted, so not accepted
+		assertThat(accepted).containsExactly("foo");
+		sync.synchronizeToLocalDirectory(mock(File.class));
+		assertThat(copied.keySet()).containsExactlyInAnyOrder("bar", "baz");
+		sync.close();
+	}
+
+	@Test
+	public void testConcurrentTransferReversibleFilterRollsBackOnlyFailed() throws Exception {
+		Map<String, AtomicInteger> copied = new ConcurrentHashMap<>();
+		CountDownLatch othersCopied = new CountDownLatch(2);
+		AbstractInboundFileSynchronizer<String> sync = createFailingSynchronizer(copied, othersCopied);
+		List<String> rolledBack = new ArrayList<>();
+		sync.setFilter(new ReversibleFileListFilter<String>() {
+
+			@Override
+			public List<String> filterFiles(String[] files) {
+				return Arrays.asList(files);
+			}
+
+			@Override
+			public void rollback(String file, List<String> files) {
+				rolledBack.addAll(files);
+			}
+
+		});
+		sync.setTransferConcurrency(2);
+		ExecutorService executor = Executors.newCachedThreadPool();
+		sync.setTaskExecutor(executor);
+		try {
+			sync.synchronizeToLocalDirectory(mock(File.class));
+			fail("Expected exception");
+		}
+		catch (MessagingException e) {
+			assertThat(e.getCause().getCause().getMessage()).isEqualTo("fail");
+		}
+		assertThat(copied.keySet()).containsExactlyInAnyOrder("bar", "baz");
+		assertThat(rolledBack).containsExactly("foo");
+		sync.close();
+		executor.shutdownNow();
+	}
+
+	/*
+	 * Fails the first copy of 'foo', after the other files have been copied if the latch
+	 * is provided.
+	 */
+	private AbstractInboundFileSynchronizer<String> createFailingSynchronizer(Map<String, AtomicInteger> copied,
+			CountDownLatch othersCopied) {
+
+		AtomicBoolean failWhenCopyingFoo = new AtomicBoolean(true);
+		AbstractInboundFileSynchronizer<String> sync =
+				new AbstractInboundFileSynchronizer<String>(new StringSessionFactory()) {
+
+					@Override
+					protected boolean isFile(String file) {
+						return true;
+					}
+
+					@Override
+					protected String getFilename(String file) {
+						return file;
+					}
+
+					@Override
+					protected long getModified(String file) {
+						return 0;
+					}
+
+					@Override
+					protected boolean copyFileToLocalDirectory(String remoteDirectoryPath, String remoteFile,
+							File localDirectory, Session<String> session) throws IOException {
+
+						if ("foo".equals(remoteFile) && failWhenCopyingFoo.getAndSet(false)) {
+							try {
+								if (othersCopied != null) {
+									othersCopied.await(10, TimeUnit.SECONDS);
+								}
+							}
+							catch (InterruptedException e) {
+								Thread.currentThread().interrupt();
+							}
+							throw new IOException("fail");
+						}
+						copied.computeIfAbsent(remoteFile, k -> new AtomicInteger()).incrementAndGet();
+						if (othersCopied != null) {
+							othersCopied.countDown();
+						}
+						return true;
+					}
+
+				};
+		sync.setRemoteDirectory("foo");
+		return sync;
+	}
+
 	@Test
 	public void testMaxFetchSizeSynchronizer() throws Exception {
 		final AtomicInteger count = new AtomicInteger();
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -115,6 +115,41 @@ public class FtpSession implements Session<FTPFile> {
 		throw new IOException("completePendingCommandFailed");
 	}
 
+	@Override
+	public void read(String path, long offset, OutputStream fos) throws IOException {
+		Assert.hasText(path, "path must not be null");
+		Assert.notNull(fos, "outputStream must not be null");
+		Assert.isTrue(offset >= 0, "'offset' must not be negative");
+		this.client.setRestartOffset(offset);
+		boolean completed = this.client.retrieveFile(path, fos);
+		if (!completed) {
+			throw new IOException("Failed to copy '" + path + "' from offset " + offset +
+					". Server replied with: " + this.client.getReplyString());
+		}
+		this.logger.info("File has been successfully transferred from: " + path + " starting at offset " + offset);
+	}
+
+	@Override
+	public InputStream readRaw(String source, long offset) throws IOException {
+		Assert.isTrue(offset >= 0, "'offset' must not be negative");
+		if (!this.readingRaw.compareAndSet(false, true)) {
+			throw new IOException("Previous raw read was not finalized");
+		}
+		this.client.setRestartOffset(offset);
+		InputStream inputStream = this.client.retrieveFileStream(source);
+		if (inputStream == null) {
+			this.readingRaw.set(false);
+			throw new IOException("Failed to obtain InputStream for remote file " + source + " at offset "
+					+ offset + ": " + this.client.getReplyCode());
+		}
+		return inputStream;
+	}
+
+	@Override
+	public boolean supportsOffsetReads() {
+		return true;
+	}
+
 	@Override
 	public void write(InputStream inputStream, String path) throws IOException {
 		Assert.notNull(inputStream, "inputStream must not be null");
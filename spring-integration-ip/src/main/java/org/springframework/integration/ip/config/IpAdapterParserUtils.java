@@ -129,6 +129,8 @@ public abstract class IpAdapterParserUtils {
 
 	public static final String READ_DELAY = "read-delay";
 
+	public static final String VIRTUAL_THREADS = "virtual-threads";
+
 	public static final String SSL_HANDSHAKE_TIMEOUT = "ssl-handshake-timeout";
 
 	private IpAdapterParserUtils() {
@@ -112,6 +112,8 @@ public class TcpConnectionFactoryFactoryBean extends AbstractFactoryBean<Abstrac
 
 	private volatile Long readDelay;
 
+	private volatile boolean virtualThreads;
+
 	private volatile TcpSSLContextSupport sslContextSupport;
 
 	private volatile Integer sslHandshakeTimeout;
@@ -218,6 +220,9 @@ public class TcpConnectionFactoryFactoryBean extends AbstractFactoryBean<Abstrac
 		if (this.readDelay != null) {
 			factory.setReadDelay(this.readDelay);
 		}
+		if (this.virtualThreads) {
+			factory.setVirtualThreads(true);
+		}
 	}
 
 	private void setServerAttributes(AbstractServerConnectionFactory factory) {
@@ -471,6 +476,15 @@ public class TcpConnectionFactoryFactoryBean extends AbstractFactoryBean<Abstrac
 		this.readDelay = readDelay;
 	}
 
+	/**
+	 * @param virtualThreads true to use virtual threads when no task executor is provided.
+	 * @since 5.2
+	 * @see AbstractConnectionFactory#setVirtualThreads(boolean)
+	 */
+	public void setVirtualThreads(boolean virtualThreads) {
+		this.virtualThreads = virtualThreads;
+	}
+
 	public void setSslContextSupport(TcpSSLContextSupport sslContextSupport) {
 		Assert.notNull(sslContextSupport, "TcpSSLContextSupport may not be null");
 		this.sslContextSupport = sslContextSupport;
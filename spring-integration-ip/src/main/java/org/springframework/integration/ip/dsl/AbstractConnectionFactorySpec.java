@@ -1,5 +1,5 @@
 /*
- * Copyright 2016 the original author or authors.
+ * Copyright 2016-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -209,6 +209,17 @@ public abstract class AbstractConnectionFactorySpec
 		return _this();
 	}
 
+	/**
+	 * @param virtualThreads true to use virtual threads when no task executor is provided.
+	 * @return the spec.
+	 * @since 5.2
+	 * @see AbstractConnectionFactory#setVirtualThreads(boolean)
+	 */
+	public S virtualThreads(boolean virtualThreads) {
+		this.target.setVirtualThreads(virtualThreads);
+		return _this();
+	}
+
 	/**
 	 * @param tcpSocketSupport the {@link TcpSocketSupport}.
 	 * @return the spec.
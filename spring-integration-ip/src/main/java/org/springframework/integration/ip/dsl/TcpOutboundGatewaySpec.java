@@ -1,5 +1,5 @@
 /*
- * Copyright 2016-2017 the original author or authors.
+ * Copyright 2016-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -20,6 +20,7 @@ import java.util.Collections;
 import java.util.Map;
 import java.util.function.Function;
 
+import org.springframework.integration.aggregator.CorrelationStrategy;
 import org.springframework.integration.dsl.ComponentsRegistration;
 import org.springframework.integration.dsl.MessageHandlerSpec;
 import org.springframework.integration.expression.FunctionExpression;
@@ -89,6 +90,29 @@ public class TcpOutboundGatewaySpec extends MessageHandlerSpec<TcpOutboundGatewa
 		return _this();
 	}
 
+	/**
+	 * Set a {@link CorrelationStrategy} to multiplex requests over the shared connection.
+	 * @param correlationStrategy the correlation strategy.
+	 * @return the spec.
+	 * @since 5.2
+	 * @see TcpOutboundGateway#setCorrelationStrategy(CorrelationStrategy)
+	 */
+	public TcpOutboundGatewaySpec correlationStrategy(CorrelationStrategy correlationStrategy) {
+		this.target.setCorrelationStrategy(correlationStrategy);
+		return _this();
+	}
+
+	/**
+	 * @param maxPendingReplies the maximum number of outstanding multiplexed requests.
+	 * @return the spec.
+	 * @since 5.2
+	 * @see TcpOutboundGateway#setMaxPendingReplies(int)
+	 */
+	public TcpOutboundGatewaySpec maxPendingReplies(int maxPendingReplies) {
+		this.target.setMaxPendingReplies(maxPendingReplies);
+		return _this();
+	}
+
 	@Override
 	public Map<Object, String> getComponentsToRegister() {
 		return this.connectionFactory != null
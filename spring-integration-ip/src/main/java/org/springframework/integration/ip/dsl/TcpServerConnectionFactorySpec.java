@@ -1,5 +1,5 @@
 /*
- * Copyright 2016 the original author or authors.
+ * Copyright 2016-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -19,6 +19,7 @@ package org.springframework.integration.ip.dsl;
 import org.springframework.integration.ip.tcp.connection.AbstractServerConnectionFactory;
 import org.springframework.integration.ip.tcp.connection.TcpNetServerConnectionFactory;
 import org.springframework.integration.ip.tcp.connection.TcpNioServerConnectionFactory;
+import org.springframework.util.Assert;
 
 /**
  * An {@link AbstractConnectionFactorySpec} for {@link AbstractServerConnectionFactory}s.
@@ -58,4 +59,18 @@ public class TcpServerConnectionFactorySpec
 		return _this();
 	}
 
+	/**
+	 * Only applies to NIO server connection factories.
+	 * @param eventLoopCount the number of event loops.
+	 * @return the spec.
+	 * @since 5.2
+	 * @see TcpNioServerConnectionFactory#setEventLoopCount(int)
+	 */
+	public TcpServerConnectionFactorySpec eventLoopCount(int eventLoopCount) {
+		Assert.state(this.target instanceof TcpNioServerConnectionFactory,
+				"'eventLoopCount' is only supported by NIO connection factories");
+		((TcpNioServerConnectionFactory) this.target).setEventLoopCount(eventLoopCount);
+		return _this();
+	}
+
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -34,6 +34,7 @@ import org.springframework.integration.ip.tcp.connection.TcpConnection;
 import org.springframework.integration.ip.tcp.connection.TcpConnectionFailedCorrelationEvent;
 import org.springframework.integration.ip.tcp.connection.TcpListener;
 import org.springframework.integration.ip.tcp.connection.TcpSender;
+import org.springframework.integration.ip.tcp.serializer.PooledByteBuffer;
 import org.springframework.messaging.Message;
 import org.springframework.messaging.MessagingException;
 import org.springframework.messaging.support.ErrorMessage;
@@ -104,6 +105,10 @@ public class TcpInboundGateway extends MessagingGatewaySupport implements
 			return false;
 		}
 		finally {
+			if (!isErrorMessage) {
+				// the flow has returned; a consumer on another thread must have retained the buffer
+				PooledByteBuffer.releaseIfPooled(message.getPayload());
+			}
 			String connectionId = (String) message.getHeaders().get(IpHeaders.CONNECTION_ID);
 			if (connectionId != null && !isErrorMessage && this.isSingleUse) {
 				if (this.serverConnectionFactory != null) {
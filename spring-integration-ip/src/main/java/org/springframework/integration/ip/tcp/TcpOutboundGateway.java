@@ -1,5 +1,5 @@
 /*
- * Copyright 2001-2018 the original author or authors.
+ * Copyright 2001-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -29,6 +29,7 @@ import org.springframework.expression.Expression;
 import org.springframework.expression.common.LiteralExpression;
 import org.springframework.expression.spel.support.StandardEvaluationContext;
 import org.springframework.integration.MessageTimeoutException;
+import org.springframework.integration.aggregator.CorrelationStrategy;
 import org.springframework.integration.expression.ExpressionUtils;
 import org.springframework.integration.expression.ValueExpression;
 import org.springframework.integration.handler.AbstractReplyProducingMessageHandler;
@@ -41,6 +42,7 @@ import org.springframework.integration.ip.tcp.connection.TcpListener;
 import org.springframework.integration.ip.tcp.connection.TcpSender;
 import org.springframework.messaging.Message;
 import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHandlingException;
 import org.springframework.messaging.MessagingException;
 import org.springframework.messaging.support.ErrorMessage;
 import org.springframework.util.Assert;
@@ -49,8 +51,10 @@ import org.springframework.util.Assert;
  * TCP outbound gateway that uses a client connection factory. If the factory is configured
  * for single-use connections, each request is sent on a new connection; if the factory does not use
  * single use connections, each request is blocked until the previous response is received
- * (or times out). Asynchronous requests/responses over the same connection are not
- * supported - use a pair of outbound/inbound adapters for that use case.
+ * (or times out), unless a {@link #setCorrelationStrategy(CorrelationStrategy)
+ * correlation strategy} is provided. In that case the gateway is multiplexed: many
+ * requests can be outstanding on the shared connection, and replies, which may arrive
+ * in any order, are correlated with their requests using a key carried in the messages.
  * <p>
  * {@link Lifecycle} methods delegate to the underlying {@link AbstractConnectionFactory}
  *
@@ -66,8 +70,12 @@ public class TcpOutboundGateway extends AbstractReplyProducingMessageHandler
 
 	private static final int DEFAULT_SECOND_CHANCE_DELAY = 2;
 
+	private static final int DEFAULT_MAX_PENDING_REPLIES = 1000;
+
 	private final Map<String, AsyncReply> pendingReplies = new ConcurrentHashMap<>();
 
+	private final Map<String, Map<Object, AsyncReply>> multiplexedReplies = new ConcurrentHashMap<>();
+
 	private final Semaphore semaphore = new Semaphore(1, true);
 
 	private AbstractClientConnectionFactory connectionFactory;
@@ -83,6 +91,12 @@ public class TcpOutboundGateway extends AbstractReplyProducingMessageHandler
 
 	private int secondChanceDelay = DEFAULT_SECOND_CHANCE_DELAY;
 
+	private CorrelationStrategy correlationStrategy;
+
+	private int maxPendingReplies = DEFAULT_MAX_PENDING_REPLIES;
+
+	private Semaphore pendingRepliesPermits;
+
 	/**
 	 * @param requestTimeout the requestTimeout to set
 	 */
@@ -110,12 +124,48 @@ public class TcpOutboundGateway extends AbstractReplyProducingMessageHandler
 		this.evaluationContextSet = true;
 	}
 
+	/**
+	 * Set a {@link CorrelationStrategy} to enable multiplexing of requests over the
+	 * shared connection: requests are no longer serialized; instead, the strategy is
+	 * applied to each request and to each reply (as mapped by the connection's
+	 * {@link org.springframework.integration.ip.tcp.connection.TcpMessageMapper}) to
+	 * obtain the key used to correlate them, so replies may arrive in any order.
+	 * The key is typically carried in the framed payload (and extracted from there, or
+	 * mapped to a header by a custom mapper); it must be unique among the requests that
+	 * are outstanding on a connection. A reply timeout only fails the request concerned;
+	 * the connection is not closed.
+	 * Cannot be used with single-use connections.
+	 * @param correlationStrategy the correlation strategy.
+	 * @since 5.2
+	 * @see #setMaxPendingReplies(int)
+	 */
+	public void setCorrelationStrategy(CorrelationStrategy correlationStrategy) {
+		this.correlationStrategy = correlationStrategy;
+	}
+
+	/**
+	 * Set the maximum number of outstanding requests when multiplexing; further requests
+	 * wait (up to the request timeout) for a reply to arrive or to time out.
+	 * Default 1000.
+	 * @param maxPendingReplies the maximum number of outstanding requests.
+	 * @since 5.2
+	 * @see #setCorrelationStrategy(CorrelationStrategy)
+	 */
+	public void setMaxPendingReplies(int maxPendingReplies) {
+		Assert.isTrue(maxPendingReplies > 0, "'maxPendingReplies' must be greater than 0");
+		this.maxPendingReplies = maxPendingReplies;
+	}
+
 	@Override
 	protected void doInit() {
 		super.doInit();
 		if (!this.evaluationContextSet) {
 			this.evaluationContext = ExpressionUtils.createStandardEvaluationContext(getBeanFactory());
 		}
+		if (this.correlationStrategy != null) {
+			Assert.state(!this.isSingleUse, "A 'correlationStrategy' cannot be used with single-use connections");
+			this.pendingRepliesPermits = new Semaphore(this.maxPendingReplies);
+		}
 	}
 
 	/**
@@ -134,6 +184,9 @@ public class TcpOutboundGateway extends AbstractReplyProducingMessageHandler
 	protected Object handleRequestMessage(Message<?> requestMessage) {
 		Assert.notNull(this.connectionFactory, this.getClass().getName() +
 				" requires a client connection factory");
+		if (this.correlationStrategy != null) {
+			return handleMultiplexedRequestMessage(requestMessage);
+		}
 		boolean haveSemaphore = false;
 		TcpConnection connection = null;
 		String connectionId = null;
@@ -149,16 +202,7 @@ public class TcpOutboundGateway extends AbstractReplyProducingMessageHandler
 				}
 			}
 			connection = this.connectionFactory.getConnection();
-			Long remoteTimeout = this.remoteTimeoutExpression.getValue(this.evaluationContext, requestMessage,
-					Long.class);
-			if (remoteTimeout == null) {
-				remoteTimeout = DEFAULT_REMOTE_TIMEOUT;
-				if (logger.isWarnEnabled()) {
-					logger.warn("remoteTimeoutExpression evaluated to null; falling back to default for message "
-							+ requestMessage);
-				}
-			}
-			AsyncReply reply = new AsyncReply(remoteTimeout);
+			AsyncReply reply = new AsyncReply(obtainRemoteTimeout(requestMessage));
 			connectionId = connection.getConnectionId();
 			this.pendingReplies.put(connectionId, reply);
 			if (logger.isDebugEnabled()) {
@@ -205,6 +249,79 @@ public class TcpOutboundGateway extends AbstractReplyProducingMessageHandler
 		}
 	}
 
+	private Object handleMultiplexedRequestMessage(Message<?> requestMessage) {
+		Object correlationKey = this.correlationStrategy.getCorrelationKey(requestMessage);
+		if (correlationKey == null) {
+			throw new MessageHandlingException(requestMessage,
+					"The correlation strategy returned null for the request");
+		}
+		boolean havePermit = false;
+		TcpConnection connection = null;
+		Map<Object, AsyncReply> replies = null;
+		AsyncReply reply = null;
+		try {
+			if (!this.pendingRepliesPermits.tryAcquire(this.requestTimeout, TimeUnit.MILLISECONDS)) {
+				throw new MessageTimeoutException(requestMessage, "Timed out waiting for a pending reply slot");
+			}
+			havePermit = true;
+			connection = this.connectionFactory.getConnection();
+			String connectionId = connection.getConnectionId();
+			AsyncReply newReply = new AsyncReply(obtainRemoteTimeout(requestMessage));
+			replies = this.multiplexedReplies.computeIfAbsent(connectionId, id -> new ConcurrentHashMap<>());
+			if (replies.putIfAbsent(correlationKey, newReply) != null) {
+				throw new MessageHandlingException(requestMessage, "A request with correlation key '"
+						+ correlationKey + "' is already pending on connection " + connectionId);
+			}
+			reply = newReply;
+			if (logger.isDebugEnabled()) {
+				logger.debug("Added pending reply " + correlationKey + " on " + connectionId);
+			}
+			connection.send(requestMessage);
+			Message<?> replyMessage = reply.getReply();
+			if (replyMessage == null) {
+				if (logger.isDebugEnabled()) {
+					logger.debug("Remote Timeout for " + correlationKey + " on " + connectionId);
+				}
+				throw new MessageTimeoutException(requestMessage, "Timed out waiting for response");
+			}
+			if (logger.isDebugEnabled()) {
+				logger.debug("Response " + replyMessage);
+			}
+			return replyMessage;
+		}
+		catch (Exception e) {
+			logger.error("Tcp Gateway exception", e);
+			if (e instanceof MessagingException) {
+				throw (MessagingException) e;
+			}
+			throw new MessagingException("Failed to send or receive", e);
+		}
+		finally {
+			if (reply != null) {
+				replies.remove(correlationKey, reply);
+				if (replies.isEmpty() && !connection.isOpen()) {
+					this.multiplexedReplies.remove(connection.getConnectionId(), replies);
+				}
+			}
+			if (havePermit) {
+				this.pendingRepliesPermits.release();
+			}
+		}
+	}
+
+	private long obtainRemoteTimeout(Message<?> requestMessage) {
+		Long remoteTimeout = this.remoteTimeoutExpression.getValue(this.evaluationContext, requestMessage,
+				Long.class);
+		if (remoteTimeout == null) {
+			remoteTimeout = DEFAULT_REMOTE_TIMEOUT;
+			if (logger.isWarnEnabled()) {
+				logger.warn("remoteTimeoutExpression evaluated to null; falling back to default for message "
+						+ requestMessage);
+			}
+		}
+		return remoteTimeout;
+	}
+
 	@Override
 	public boolean onMessage(Message<?> message) {
 		String connectionId = message.getHeaders().get(IpHeaders.CONNECTION_ID, String.class);
@@ -216,6 +333,9 @@ public class TcpOutboundGateway extends AbstractReplyProducingMessageHandler
 		if (logger.isTraceEnabled()) {
 			logger.trace("onMessage: " + connectionId + "(" + message + ")");
 		}
+		if (this.correlationStrategy != null) {
+			return onMultiplexedMessage(connectionId, message);
+		}
 		AsyncReply reply = this.pendingReplies.get(connectionId);
 		if (reply == null) {
 			if (message instanceof ErrorMessage) {
@@ -236,6 +356,31 @@ public class TcpOutboundGateway extends AbstractReplyProducingMessageHandler
 		return false;
 	}
 
+	private boolean onMultiplexedMessage(String connectionId, Message<?> message) {
+		Map<Object, AsyncReply> replies = this.multiplexedReplies.get(connectionId);
+		if (message instanceof ErrorMessage) {
+			/*
+			 * A socket error cannot be correlated with a particular request;
+			 * convey it to all the requests waiting on this connection.
+			 */
+			if (replies != null) {
+				replies.values().forEach(reply -> reply.setReply(message));
+			}
+			return false;
+		}
+		Object correlationKey = this.correlationStrategy.getCorrelationKey(message);
+		AsyncReply reply = replies != null && correlationKey != null ? replies.get(correlationKey) : null;
+		if (reply == null) {
+			String errorMessage = "Cannot correlate response - no pending reply for " + correlationKey
+					+ " on " + connectionId;
+			logger.error(errorMessage);
+			publishNoConnectionEvent(message, connectionId, errorMessage);
+			return false;
+		}
+		reply.setReply(message);
+		return false;
+	}
+
 	private void publishNoConnectionEvent(Message<?> message, String connectionId, String errorMessage) {
 		ApplicationEventPublisher applicationEventPublisher = this.connectionFactory.getApplicationEventPublisher();
 		if (applicationEventPublisher != null) {
@@ -253,12 +398,15 @@ public class TcpOutboundGateway extends AbstractReplyProducingMessageHandler
 
 	@Override
 	public void addNewConnection(TcpConnection connection) {
-		// do nothing - no asynchronous multiplexing supported
+		// do nothing - multiplexed replies are registered when a request is sent
 	}
 
 	@Override
 	public void removeDeadConnection(TcpConnection connection) {
-		// do nothing - no asynchronous multiplexing supported
+		Map<Object, AsyncReply> replies = this.multiplexedReplies.get(connection.getConnectionId());
+		if (replies != null && replies.isEmpty()) {
+			this.multiplexedReplies.remove(connection.getConnectionId(), replies);
+		}
 	}
 
 	/**
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2016 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -29,6 +29,7 @@ import org.springframework.integration.ip.tcp.connection.ClientModeCapable;
 import org.springframework.integration.ip.tcp.connection.ClientModeConnectionManager;
 import org.springframework.integration.ip.tcp.connection.ConnectionFactory;
 import org.springframework.integration.ip.tcp.connection.TcpListener;
+import org.springframework.integration.ip.tcp.serializer.PooledByteBuffer;
 import org.springframework.messaging.Message;
 import org.springframework.messaging.support.ErrorMessage;
 import org.springframework.util.Assert;
@@ -94,6 +95,10 @@ public class TcpReceivingChannelAdapter
 			return false;
 		}
 		finally {
+			if (!isErrorMessage) {
+				// the flow has returned; a consumer on another thread must have retained the buffer
+				PooledByteBuffer.releaseIfPooled(message.getPayload());
+			}
 			String connectionId = (String) message.getHeaders().get(IpHeaders.CONNECTION_ID);
 			if (connectionId != null && !isErrorMessage && this.isSingleUse) {
 				if (this.serverConnectionFactory != null) {
@@ -18,6 +18,7 @@ package org.springframework.integration.ip.tcp.connection;
 
 import java.io.EOFException;
 import java.io.IOException;
+import java.lang.reflect.Method;
 import java.net.Socket;
 import java.net.SocketException;
 import java.net.SocketTimeoutException;
@@ -51,6 +52,7 @@ import org.springframework.integration.ip.tcp.serializer.ByteArrayCrLfSerializer
 import org.springframework.lang.Nullable;
 import org.springframework.messaging.MessagingException;
 import org.springframework.util.Assert;
+import org.springframework.util.ReflectionUtils;
 
 /**
  * Base class for all connection factories.
@@ -68,6 +70,13 @@ public abstract class AbstractConnectionFactory extends IntegrationObjectSupport
 
 	private static final int DEFAULT_READ_DELAY = 100;
 
+	/*
+	 * Executors.newVirtualThreadPerTaskExecutor() - Java 21 and later.
+	 */
+	@Nullable
+	private static final Method NEW_VIRTUAL_THREAD_EXECUTOR =
+			ReflectionUtils.findMethod(Executors.class, "newVirtualThreadPerTaskExecutor");
+
 	private volatile String host;
 
 	private volatile int port;
@@ -130,6 +139,8 @@ public abstract class AbstractConnectionFactory extends IntegrationObjectSupport
 
 	private volatile Integer sslHandshakeTimeout;
 
+	private boolean virtualThreads;
+
 	public AbstractConnectionFactory(int port) {
 		this.port = port;
 	}
@@ -378,6 +389,22 @@ public abstract class AbstractConnectionFactory extends IntegrationObjectSupport
 		this.taskExecutor = taskExecutor;
 	}
 
+	/**
+	 * Set to true to use a virtual thread per task instead of the default cached thread
+	 * pool when no {@link #setTaskExecutor(Executor) task executor} is provided; the
+	 * connection read loops (or NIO reads and message assembly) and, for servers, the
+	 * accept loop then run on virtual threads. Requires Java 21 or later.
+	 * This is mostly useful with blocking (non-NIO) connections, where each connection
+	 * otherwise dedicates a platform thread to its read loop.
+	 * @param virtualThreads true to use virtual threads.
+	 * @since 5.2
+	 */
+	public void setVirtualThreads(boolean virtualThreads) {
+		Assert.isTrue(!virtualThreads || NEW_VIRTUAL_THREAD_EXECUTOR != null,
+				"Virtual threads require Java 21 or later");
+		this.virtualThreads = virtualThreads;
+	}
+
 	/**
 	 *
 	 * @param deserializer the deserializer to set
@@ -524,7 +551,12 @@ public abstract class AbstractConnectionFactory extends IntegrationObjectSupport
 		synchronized (this.lifecycleMonitor) {
 			if (this.taskExecutor == null) {
 				this.privateExecutor = true;
-				this.taskExecutor = Executors.newCachedThreadPool();
+				if (this.virtualThreads) {
+					this.taskExecutor = (Executor) ReflectionUtils.invokeMethod(NEW_VIRTUAL_THREAD_EXECUTOR, null);
+				}
+				else {
+					this.taskExecutor = Executors.newCachedThreadPool();
+				}
 			}
 			return this.taskExecutor;
 		}
@@ -683,41 +715,7 @@ public abstract class AbstractConnectionFactory extends IntegrationObjectSupport
 						final TcpNioConnection connection;
 						connection = (TcpNioConnection) key.attachment();
 						connection.setLastRead(System.currentTimeMillis());
-						try {
-							this.taskExecutor.execute(() -> {
-								boolean delayed = false;
-								try {
-									connection.readPacket();
-								}
-								catch (RejectedExecutionException e1) {
-									delayRead(selector, now, key);
-									delayed = true;
-								}
-								catch (Exception e2) {
-									if (connection.isOpen()) {
-										logger.error("Exception on read " +
-												connection.getConnectionId() + " " +
-												e2.getMessage());
-										connection.close();
-									}
-									else {
-										logger.debug("Connection closed");
-									}
-								}
-								if (!delayed) {
-									if (key.channel().isOpen()) {
-										key.interestOps(SelectionKey.OP_READ);
-										selector.wakeup();
-									}
-									else {
-										connection.sendExceptionToListener(new EOFException("Connection is closed"));
-									}
-								}
-							});
-						}
-						catch (RejectedExecutionException e) {
-							delayRead(selector, now, key);
-						}
+						doRead(selector, now, key, connection);
 					}
 					else if (key.isAcceptable()) {
 						try {
@@ -743,6 +741,57 @@ public abstract class AbstractConnectionFactory extends IntegrationObjectSupport
 		}
 	}
 
+	/**
+	 * Read from a connection whose key has been selected for reading; the read interest
+	 * has been removed from the key and must be restored when the read is complete.
+	 * By default, the read is performed on the task executor; if no thread is available,
+	 * the read is delayed.
+	 * @param selector the selector.
+	 * @param now the current time.
+	 * @param key the selection key.
+	 * @param connection the connection.
+	 * @since 5.2
+	 */
+	protected void doRead(final Selector selector, final long now, final SelectionKey key,
+			final TcpNioConnection connection) {
+
+		try {
+			this.taskExecutor.execute(() -> {
+				boolean delayed = false;
+				try {
+					connection.readPacket();
+				}
+				catch (RejectedExecutionException e1) {
+					delayRead(selector, now, key);
+					delayed = true;
+				}
+				catch (Exception e2) {
+					if (connection.isOpen()) {
+						logger.error("Exception on read " +
+								connection.getConnectionId() + " " +
+								e2.getMessage());
+						connection.close();
+					}
+					else {
+						logger.debug("Connection closed");
+					}
+				}
+				if (!delayed) {
+					if (key.channel().isOpen()) {
+						key.interestOps(SelectionKey.OP_READ);
+						selector.wakeup();
+					}
+					else {
+						connection.sendExceptionToListener(new EOFException("Connection is closed"));
+					}
+				}
+			});
+		}
+		catch (RejectedExecutionException e) {
+			delayRead(selector, now, key);
+		}
+	}
+
 	protected void delayRead(Selector selector, long now, final SelectionKey key) {
 		TcpNioConnection connection = (TcpNioConnection) key.attachment();
 		if (!this.delayedReads.add(new PendingIO(now, key))) { // should never happen - unbounded queue
@@ -772,7 +821,12 @@ public abstract class AbstractConnectionFactory extends IntegrationObjectSupport
 					PendingIO pendingRead = this.delayedReads.take();
 					if (pendingRead.key.channel().isOpen()) {
 						pendingRead.key.interestOps(SelectionKey.OP_READ);
-						wakeSelector = true;
+						if (pendingRead.key.selector() == selector) {
+							wakeSelector = true;
+						}
+						else {
+							pendingRead.key.selector().wakeup();
+						}
 						if (logger.isDebugEnabled()) {
 							logger.debug("Rescheduling delayed read for " + ((TcpNioConnection) pendingRead.key.attachment()).getConnectionId());
 						}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -19,34 +19,77 @@ package org.springframework.integration.ip.tcp.connection;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.core.serializer.Deserializer;
 import org.springframework.core.serializer.Serializer;
 import org.springframework.integration.ip.IpHeaders;
 import org.springframework.integration.support.AbstractIntegrationMessageBuilder;
+import org.springframework.integration.support.management.IntegrationManagement;
+import org.springframework.integration.support.management.metrics.CounterFacade;
+import org.springframework.integration.support.management.metrics.MetricsCaptor;
+import org.springframework.integration.support.management.metrics.PoolMeters;
 import org.springframework.integration.util.SimplePool;
 import org.springframework.lang.Nullable;
 import org.springframework.messaging.Message;
 import org.springframework.messaging.MessagingException;
 import org.springframework.messaging.support.ErrorMessage;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.util.Assert;
 
 /**
  * Connection factory that caches connections from the underlying target factory. The underlying
  * factory will be reconfigured to have {@code singleUse=true} in order for the connection to be
  * returned to the cache after use. Users should not subsequently set the underlying property to
  * false, or cache starvation will result.
+ * <p>
+ * Since 5.2, the cache can be warmed up with {@link #setMinIdle(int) minIdle} connections
+ * on start, idle connections that are already known to be closed can be evicted in the
+ * background (see {@link #setEvictionInterval(long)}), and pool meters are registered
+ * when a {@link MetricsCaptor} is provided by the {@code IntegrationManagementConfigurer}.
  *
  * @author Gary Russell
  * @since 2.2
  *
  */
-public class CachingClientConnectionFactory extends AbstractClientConnectionFactory {
+public class CachingClientConnectionFactory extends AbstractClientConnectionFactory
+		implements IntegrationManagement, DisposableBean {
+
+	private static final String CONNECTIONS_METER_NAME = "spring.integration.tcp.connections";
 
 	private final AbstractClientConnectionFactory targetConnectionFactory;
 
 	private final SimplePool<TcpConnectionSupport> pool;
 
+	private final AtomicLong createdCount = new AtomicLong();
+
+	private final AtomicLong closedCount = new AtomicLong();
+
+	private final AtomicLong borrowCount = new AtomicLong();
+
+	private final AtomicLong borrowTimeTotal = new AtomicLong();
+
+	private final ManagementOverrides managementOverrides = new ManagementOverrides();
+
+	private int minIdle;
+
+	private long evictionInterval;
+
+	private volatile ScheduledFuture<?> evictionTask;
+
+	private volatile PoolMeters poolMeters;
+
+	private volatile CounterFacade createdCounter;
+
+	private volatile CounterFacade closedCounter;
+
+	private volatile boolean loggingEnabled = true;
+
+	private volatile boolean countsEnabled;
+
 	/**
 	 * Construct a caching connection factory that delegates to the provided factory, with
 	 * the provided pool size.
@@ -64,7 +107,10 @@ public class CachingClientConnectionFactory extends AbstractClientConnectionFact
 					@Override
 					public TcpConnectionSupport createForPool() {
 						try {
-							return CachingClientConnectionFactory.this.targetConnectionFactory.getConnection();
+							TcpConnectionSupport connection =
+									CachingClientConnectionFactory.this.targetConnectionFactory.getConnection();
+							connectionCreated();
+							return connection;
 						}
 						catch (Exception e) {
 							throw new MessagingException("Failed to obtain connection", e);
@@ -79,6 +125,7 @@ public class CachingClientConnectionFactory extends AbstractClientConnectionFact
 					@Override
 					public void removedFromPool(TcpConnectionSupport connection) {
 						connection.close();
+						connectionClosed();
 					}
 
 				});
@@ -132,9 +179,205 @@ public class CachingClientConnectionFactory extends AbstractClientConnectionFact
 		return this.pool.getAllocatedCount();
 	}
 
+	/**
+	 * Return the number of {@link #getConnection()} calls that had to wait for a
+	 * connection because all of them were in use.
+	 * @return the wait count.
+	 * @since 5.2
+	 * @see SimplePool#getWaitCount()
+	 */
+	public long getWaitCount() {
+		return this.pool.getWaitCount();
+	}
+
+	/**
+	 * Return the number of connections created by the target factory for the pool.
+	 * @return the created count.
+	 * @since 5.2
+	 */
+	public long getCreatedCount() {
+		return this.createdCount.get();
+	}
+
+	/**
+	 * Return the number of pooled connections that have been closed and discarded.
+	 * @return the closed count.
+	 * @since 5.2
+	 */
+	public long getClosedCount() {
+		return this.closedCount.get();
+	}
+
+	/**
+	 * Return the number of {@link #getConnection()} calls.
+	 * @return the borrow count.
+	 * @since 5.2
+	 */
+	public long getBorrowCount() {
+		return this.borrowCount.get();
+	}
+
+	/**
+	 * Return the mean time in milliseconds to obtain a connection, including any wait
+	 * and the establishment of a new connection.
+	 * @return the mean borrow time.
+	 * @since 5.2
+	 */
+	public double getMeanBorrowTime() {
+		long count = this.borrowCount.get();
+		return count == 0 ? 0 : (double) this.borrowTimeTotal.get() / count / 1_000_000;
+	}
+
+	/**
+	 * Set the number of connections to establish when this factory is started, and to
+	 * maintain on each eviction run, so that the first requests don't pay for the
+	 * connection establishment. Default 0.
+	 * @param minIdle the minimum number of idle connections.
+	 * @since 5.2
+	 */
+	public void setMinIdle(int minIdle) {
+		Assert.isTrue(minIdle >= 0, "'minIdle' cannot be negative");
+		this.minIdle = minIdle;
+	}
+
+	/**
+	 * Set the interval in milliseconds between background evictions of the idle
+	 * connections that are no longer open - for example, because their reader saw the
+	 * server close the socket - and new connections are established to restore
+	 * {@link #setMinIdle(int) minIdle}. Nothing is sent on the connections, so this is
+	 * not a health check: a connection that the peer dropped without the client
+	 * noticing remains in the pool. The evictions run on the
+	 * {@link #setTaskScheduler(TaskScheduler) taskScheduler}.
+	 * Default 0 - no background eviction; closed connections are only detected when
+	 * retrieved from the pool.
+	 * @param evictionInterval the interval.
+	 * @since 5.2
+	 */
+	public void setEvictionInterval(long evictionInterval) {
+		Assert.isTrue(evictionInterval >= 0, "'evictionInterval' cannot be negative");
+		this.evictionInterval = evictionInterval;
+	}
+
+	/**
+	 * Discard the idle connections that are no longer open and establish connections
+	 * to restore {@link #setMinIdle(int) minIdle}.
+	 * @return the number of discarded connections.
+	 * @since 5.2
+	 */
+	public int evictIdleConnections() {
+		int removed = this.pool.removeStaleIdleItems();
+		if (removed > 0 && this.loggingEnabled && logger.isDebugEnabled()) {
+			logger.debug("Evicted " + removed + " closed idle connections");
+		}
+		fillIdleConnections();
+		return removed;
+	}
+
+	private void fillIdleConnections() {
+		if (this.minIdle > 0) {
+			try {
+				this.pool.fillIdleItems(this.minIdle);
+			}
+			catch (Exception e) {
+				logger.warn("Failed to establish idle connections", e);
+			}
+		}
+	}
+
+	/**
+	 * Register the meters for this pool, tagged with the bean name: the
+	 * {@code spring.integration.tcp.connections} gauges for the active, idle and
+	 * allocated connections and the wait count, the
+	 * {@code spring.integration.tcp.connections.borrow} timer for {@link #getConnection()}
+	 * and the {@code spring.integration.tcp.connections.churn} counters for the created
+	 * and closed connections. Invoked by the {@code IntegrationManagementConfigurer}
+	 * when Micrometer is on the class path.
+	 * @param metricsCaptor the metrics captor.
+	 * @since 5.2
+	 */
+	@Override
+	public void registerMetricsCaptor(MetricsCaptor metricsCaptor) {
+		if (metricsCaptor != null && this.poolMeters == null) {
+			String name = getBeanName() != null ? getBeanName() : "cachingClientConnectionFactory";
+			this.createdCounter = churnCounter(metricsCaptor, name, "created");
+			this.closedCounter = churnCounter(metricsCaptor, name, "closed");
+			this.poolMeters = new PoolMeters(metricsCaptor, this.pool, CONNECTIONS_METER_NAME, name,
+					"Pooled TCP connections");
+		}
+	}
+
+	@Override
+	public void setLoggingEnabled(boolean loggingEnabled) {
+		this.loggingEnabled = loggingEnabled;
+		this.managementOverrides.loggingConfigured = true;
+	}
+
+	@Override
+	public boolean isLoggingEnabled() {
+		return this.loggingEnabled;
+	}
+
+	/**
+	 * Reset the borrow statistics.
+	 */
+	@Override
+	public void reset() {
+		this.borrowCount.set(0);
+		this.borrowTimeTotal.set(0);
+	}
+
+	@Override
+	public void setCountsEnabled(boolean countsEnabled) {
+		this.countsEnabled = countsEnabled;
+		this.managementOverrides.countsConfigured = true;
+	}
+
+	@Override
+	public boolean isCountsEnabled() {
+		return this.countsEnabled;
+	}
+
+	@Override
+	public ManagementOverrides getOverrides() {
+		return this.managementOverrides;
+	}
+
+	private CounterFacade churnCounter(MetricsCaptor metricsCaptor, String name, String type) {
+		return metricsCaptor.counterBuilder(CONNECTIONS_METER_NAME + ".churn")
+				.tag("name", name)
+				.tag("type", type)
+				.description("Pooled TCP connections created and closed")
+				.build();
+	}
+
+	private void connectionCreated() {
+		this.createdCount.incrementAndGet();
+		CounterFacade counter = this.createdCounter;
+		if (counter != null) {
+			counter.increment();
+		}
+	}
+
+	private void connectionClosed() {
+		this.closedCount.incrementAndGet();
+		CounterFacade counter = this.closedCounter;
+		if (counter != null) {
+			counter.increment();
+		}
+	}
+
 	@Override
 	public TcpConnectionSupport obtainConnection() throws Exception {
-		return new CachedConnection(this.pool.getItem(), getListener());
+		long start = System.nanoTime();
+		TcpConnectionSupport connection = this.pool.getItem();
+		long borrowTime = System.nanoTime() - start;
+		this.borrowCount.incrementAndGet();
+		this.borrowTimeTotal.addAndGet(borrowTime);
+		PoolMeters meters = this.poolMeters;
+		if (meters != null) {
+			meters.recordBorrow(borrowTime);
+		}
+		return new CachedConnection(connection, getListener());
 	}
 
 ///////////////// DELEGATE METHODS ///////////////////////
@@ -376,19 +619,51 @@ public class CachingClientConnectionFactory extends AbstractClientConnectionFact
 		this.targetConnectionFactory.enableManualListenerRegistration();
 	}
 
+	/**
+	 * Start the target factory, establish the {@link #setMinIdle(int) minIdle}
+	 * connections and schedule the background eviction, if configured. A failure to
+	 * establish the connections is logged and doesn't prevent the start.
+	 */
 	@Override
-	public void start() {
+	public synchronized void start() {
 		setActive(true);
 		this.targetConnectionFactory.start();
 		super.start();
+		fillIdleConnections();
+		if (this.evictionInterval > 0 && this.evictionTask == null) {
+			TaskScheduler taskScheduler = getTaskScheduler();
+			Assert.state(taskScheduler != null, "A 'taskScheduler' is required for the background eviction");
+			this.evictionTask = taskScheduler.scheduleWithFixedDelay(this::evictIdleConnections,
+					this.evictionInterval);
+		}
 	}
 
 	@Override
 	public synchronized void stop() {
+		ScheduledFuture<?> task = this.evictionTask;
+		if (task != null) {
+			task.cancel(false);
+			this.evictionTask = null;
+		}
 		this.targetConnectionFactory.stop();
 		this.pool.removeAllIdleItems();
 	}
 
+	/**
+	 * Stop this factory and remove the meters registered with
+	 * {@link #registerMetricsCaptor(MetricsCaptor)}.
+	 */
+	@Override
+	public void destroy() {
+		stop();
+		PoolMeters meters = this.poolMeters;
+		if (meters != null) {
+			meters.remove();
+			this.createdCounter.remove();
+			this.closedCounter.remove();
+		}
+	}
+
 	private final class CachedConnection extends TcpConnectionInterceptorSupport {
 
 		private final AtomicBoolean released = new AtomicBoolean();
@@ -513,6 +513,15 @@ public class TcpNioConnection extends TcpConnectionSupport {
 		}
 	}
 
+	/**
+	 * Return true if the next read can be queued for the assembler without blocking.
+	 * @return true if the pipe has capacity.
+	 * @since 5.2
+	 */
+	boolean hasPipeCapacity() {
+		return this.channelInputStream.buffers.remainingCapacity() > 0;
+	}
+
 	/**
 	 * Close the socket due to timeout.
 	 */
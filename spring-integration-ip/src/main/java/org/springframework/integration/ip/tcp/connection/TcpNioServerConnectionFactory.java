@@ -16,6 +16,7 @@
 
 package org.springframework.integration.ip.tcp.connection;
 
+import java.io.EOFException;
 import java.io.IOException;
 import java.net.InetAddress;
 import java.net.InetSocketAddress;
@@ -29,6 +30,11 @@ import java.nio.channels.ServerSocketChannel;
 import java.nio.channels.SocketChannel;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
@@ -37,6 +43,14 @@ import org.springframework.util.Assert;
 /**
  * Implements a server connection factory that produces {@link TcpNioConnection}s using
  * a {@link ServerSocketChannel}. Must have a {@link TcpListener} registered.
+ * <p>
+ * By default, a single selector is used to accept new connections and to detect data
+ * to read, and each read is handed off to the task executor. When
+ * {@link #setEventLoopCount(int) event loops} are configured, accepted connections are
+ * distributed over that many additional selectors, each running on its own thread;
+ * a connection is pinned to its loop and data is read on the loop thread, while the
+ * message assembly (deserialization) and the listener invocation are offloaded to the
+ * task executor.
  *
  * @author Gary Russell
  * @author Artem Bilan
@@ -55,6 +69,12 @@ public class TcpNioServerConnectionFactory extends AbstractServerConnectionFacto
 
 	private volatile TcpNioConnectionSupport tcpNioConnectionSupport = new DefaultTcpNioConnectionSupport();
 
+	private final AtomicInteger nextEventLoop = new AtomicInteger();
+
+	private int eventLoopCount;
+
+	private volatile NioEventLoop[] eventLoops;
+
 	/**
 	 * Listens for incoming connections on the port.
 	 * @param port The port.
@@ -68,6 +88,30 @@ public class TcpNioServerConnectionFactory extends AbstractServerConnectionFacto
 		return "tcp-nio-server-connection-factory";
 	}
 
+	/**
+	 * Set the number of event loops (selector threads) that the accepted connections are
+	 * distributed over; typically the number of available processors.
+	 * Each loop reads data from its connections without handing off each read to the
+	 * task executor, so the number of executor threads no longer grows with the number
+	 * of connections. However, the loops run on the task executor and each loop holds
+	 * one of its threads for as long as the factory is running, as does the accepting
+	 * selector; a bounded task executor must therefore have more than
+	 * {@code eventLoopCount + 1} threads, the remainder being used for message assembly
+	 * and the listener invocation (or use a
+	 * {@link org.springframework.integration.util.CompositeExecutor} to run the loops on
+	 * a separate executor). When a connection has too much unassembled data, or the task
+	 * executor rejects the assembler, reads from that connection are delayed (see
+	 * {@link #setReadDelay(long)}), applying back pressure to the sender.
+	 * SSL connections are always read on the task executor.
+	 * Default 0 - a single selector is used for accepting and reading.
+	 * @param eventLoopCount the number of event loops.
+	 * @since 5.2
+	 */
+	public void setEventLoopCount(int eventLoopCount) {
+		Assert.isTrue(eventLoopCount >= 0, "'eventLoopCount' cannot be negative");
+		this.eventLoopCount = eventLoopCount;
+	}
+
 	@Override
 	public int getPort() {
 		int port = super.getPort();
@@ -137,6 +181,7 @@ public class TcpNioServerConnectionFactory extends AbstractServerConnectionFacto
 				setListening(true);
 				publishServerListeningEvent(getPort());
 				this.selector = theSelector;
+				startEventLoops();
 				doSelect(this.serverChannel, theSelector);
 			}
 		}
@@ -152,6 +197,19 @@ public class TcpNioServerConnectionFactory extends AbstractServerConnectionFacto
 		}
 	}
 
+	private void startEventLoops() throws IOException {
+		if (this.eventLoopCount > 0) {
+			NioEventLoop[] loops = new NioEventLoop[this.eventLoopCount];
+			for (int i = 0; i < loops.length; i++) {
+				loops[i] = new NioEventLoop(Selector.open());
+			}
+			this.eventLoops = loops;
+			for (NioEventLoop loop : loops) {
+				getTaskExecutor().execute(loop);
+			}
+		}
+	}
+
 	/**
 	 * Listens for incoming connections and for notifications that a connected
 	 * socket is ready for reading.
@@ -166,17 +224,9 @@ public class TcpNioServerConnectionFactory extends AbstractServerConnectionFacto
 	 */
 	private void doSelect(ServerSocketChannel server, final Selector selector) throws IOException {
 		while (isActive()) {
-			int soTimeout = getSoTimeout();
 			int selectionCount = 0;
 			try {
-				long timeout = soTimeout < 0 ? 0 : soTimeout;
-				if (getDelayedReads().size() > 0 && (timeout == 0 || getReadDelay() < timeout)) {
-					timeout = getReadDelay();
-				}
-				if (logger.isTraceEnabled()) {
-					logger.trace("Delayed reads: " + getDelayedReads().size() + " timeout " + timeout);
-				}
-				selectionCount = selector.select(timeout);
+				selectionCount = selector.select(selectTimeout());
 				processNioSelections(selectionCount, selector, server, this.channelMap);
 			}
 			catch (CancelledKeyException cke) {
@@ -192,6 +242,18 @@ public class TcpNioServerConnectionFactory extends AbstractServerConnectionFacto
 		}
 	}
 
+	private long selectTimeout() {
+		int soTimeout = getSoTimeout();
+		long timeout = soTimeout < 0 ? 0 : soTimeout;
+		if (getDelayedReads().size() > 0 && (timeout == 0 || getReadDelay() < timeout)) {
+			timeout = getReadDelay();
+		}
+		if (logger.isTraceEnabled()) {
+			logger.trace("Delayed reads: " + getDelayedReads().size() + " timeout " + timeout);
+		}
+		return timeout;
+	}
+
 	/**
 	 * @param selector The selector.
 	 * @param server The server socket channel.
@@ -224,8 +286,14 @@ public class TcpNioServerConnectionFactory extends AbstractServerConnectionFacto
 				if (getSslHandshakeTimeout() != null && connection instanceof TcpNioSSLConnection) {
 					((TcpNioSSLConnection) connection).setHandshakeTimeout(getSslHandshakeTimeout());
 				}
-				this.channelMap.put(channel, connection);
-				channel.register(selector, SelectionKey.OP_READ, connection);
+				NioEventLoop[] loops = this.eventLoops;
+				if (loops != null) {
+					loops[Math.abs(this.nextEventLoop.getAndIncrement() % loops.length)].register(channel, connection);
+				}
+				else {
+					this.channelMap.put(channel, connection);
+					channel.register(selector, SelectionKey.OP_READ, connection);
+				}
 				connection.publishConnectionOpenEvent();
 			}
 			catch (Exception e) {
@@ -237,6 +305,34 @@ public class TcpNioServerConnectionFactory extends AbstractServerConnectionFacto
 		}
 	}
 
+	@Override
+	protected void doRead(Selector selector, long now, SelectionKey key, TcpNioConnection connection) {
+		if (selector == this.selector || connection instanceof TcpNioSSLConnection) {
+			super.doRead(selector, now, key, connection);
+			return;
+		}
+		if (!connection.hasPipeCapacity()) {
+			if (logger.isDebugEnabled()) {
+				logger.debug("Assembler is behind, delaying read for " + connection.getConnectionId());
+			}
+			delayRead(selector, now, key);
+			return;
+		}
+		try {
+			connection.readPacket();
+		}
+		catch (RejectedExecutionException e) {
+			delayRead(selector, now, key);
+			return;
+		}
+		if (key.channel().isOpen()) {
+			key.interestOps(SelectionKey.OP_READ);
+		}
+		else {
+			connection.sendExceptionToListener(new EOFException("Connection is closed"));
+		}
+	}
+
 	@Nullable
 	private TcpNioConnection createTcpNioConnection(SocketChannel socketChannel) {
 		try {
@@ -264,6 +360,13 @@ public class TcpNioServerConnectionFactory extends AbstractServerConnectionFacto
 				logger.error("Error closing selector", e);
 			}
 		}
+		NioEventLoop[] loops = this.eventLoops;
+		if (loops != null) {
+			for (NioEventLoop loop : loops) {
+				loop.close();
+			}
+			this.eventLoops = null;
+		}
 		if (this.serverChannel != null) {
 			try {
 				this.serverChannel.close();
@@ -308,4 +411,75 @@ public class TcpNioServerConnectionFactory extends AbstractServerConnectionFacto
 		return this.channelMap;
 	}
 
+	/**
+	 * A selector, with its thread, reading from the connections assigned to it.
+	 */
+	private final class NioEventLoop implements Runnable {
+
+		private final Selector loopSelector;
+
+		private final Map<SocketChannel, TcpNioConnection> connections = new ConcurrentHashMap<>();
+
+		private final Queue<SocketChannel> registrations = new ConcurrentLinkedQueue<>();
+
+		NioEventLoop(Selector selector) {
+			this.loopSelector = selector;
+		}
+
+		void register(SocketChannel channel, TcpNioConnection connection) {
+			this.connections.put(channel, connection);
+			this.registrations.add(channel);
+			this.loopSelector.wakeup();
+		}
+
+		@Override
+		public void run() {
+			try {
+				while (isActive()) {
+					registerPendingChannels();
+					try {
+						int selectionCount = this.loopSelector.select(selectTimeout());
+						processNioSelections(selectionCount, this.loopSelector, null, this.connections);
+					}
+					catch (CancelledKeyException cke) {
+						logger.debug("CancelledKeyException during Selector.select()");
+					}
+				}
+			}
+			catch (ClosedSelectorException | IOException e) {
+				if (isActive()) {
+					logger.error("Event loop selector failed", e);
+					publishServerExceptionEvent(e);
+				}
+			}
+		}
+
+		private void registerPendingChannels() {
+			SocketChannel channel = this.registrations.poll();
+			while (channel != null) {
+				TcpNioConnection connection = this.connections.get(channel);
+				if (connection != null) {
+					try {
+						channel.register(this.loopSelector, SelectionKey.OP_READ, connection);
+					}
+					catch (IOException e) {
+						logger.error("Failed to register connection " + connection.getConnectionId(), e);
+						connection.close();
+					}
+				}
+				channel = this.registrations.poll();
+			}
+		}
+
+		void close() {
+			try {
+				this.loopSelector.close();
+			}
+			catch (IOException e) {
+				logger.error("Error closing event loop selector", e);
+			}
+		}
+
+	}
+
 }
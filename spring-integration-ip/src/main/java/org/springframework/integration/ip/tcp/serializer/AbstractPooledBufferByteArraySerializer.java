@@ -26,6 +26,9 @@ import org.springframework.util.Assert;
 /**
  * Base class for deserializers that cannot determine the buffer size needed.
  * Optionally pools buffers.
+ * <p>
+ * Since 5.2, the decoded frames can also be copied into pooled, reference-counted
+ * direct buffers instead of new arrays; see {@link PooledByteBufferDeserializer}.
  *
  * @author Gary Russell
  * @since 4.3
@@ -88,6 +91,29 @@ public abstract class AbstractPooledBufferByteArraySerializer extends AbstractBy
 		}
 	}
 
+	/**
+	 * Decode a frame and copy it to a buffer from the pool, without an intermediate
+	 * sized array.
+	 * @param inputStream the input stream.
+	 * @param bufferPool the pool.
+	 * @return the pooled buffer.
+	 * @throws IOException an io exception.
+	 * @since 5.2
+	 */
+	final PooledByteBuffer deserialize(InputStream inputStream, DirectByteBufferPool bufferPool)
+			throws IOException {
+
+		byte[] buffer = this.pool == null ? new byte[getMaxMessageSize()] : this.pool.getItem();
+		try {
+			return bufferPool.allocate(buffer, doDeserializeFrame(inputStream, buffer));
+		}
+		finally {
+			if (this.pool != null) {
+				this.pool.releaseItem(buffer);
+			}
+		}
+	}
+
 	/**
 	 * @param inputStream the input stream.
 	 * @param buffer the raw working buffer (maxMessageSize).
@@ -97,6 +123,26 @@ public abstract class AbstractPooledBufferByteArraySerializer extends AbstractBy
 	 */
 	protected abstract byte[] doDeserialize(InputStream inputStream, byte[] buffer) throws IOException;
 
+	/**
+	 * Decode a frame into the start of the working buffer and return its length,
+	 * without copying it to a sized array; used when deserializing to a
+	 * {@link PooledByteBuffer}. The default implementation calls
+	 * {@link #doDeserialize(InputStream, byte[])} and copies the result back to the
+	 * buffer if necessary; subclasses should override it to avoid the copy.
+	 * @param inputStream the input stream.
+	 * @param buffer the raw working buffer (maxMessageSize).
+	 * @return the length of the frame.
+	 * @throws IOException an io exception.
+	 * @since 5.2
+	 */
+	protected int doDeserializeFrame(InputStream inputStream, byte[] buffer) throws IOException {
+		byte[] frame = doDeserialize(inputStream, buffer);
+		if (frame != buffer) {
+			System.arraycopy(frame, 0, buffer, 0, frame.length);
+		}
+		return frame.length;
+	}
+
 	/**
 	 * Copy size bytes to a new buffer exactly size bytes long. If a pool is not
 	 * in use and the array is already the correct length, it is simply returned.
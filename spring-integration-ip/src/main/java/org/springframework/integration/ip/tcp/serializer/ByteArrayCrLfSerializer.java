@@ -49,6 +49,11 @@ public class ByteArrayCrLfSerializer extends AbstractPooledBufferByteArraySerial
 		return this.copyToSizedArray(buffer, n);
 	}
 
+	@Override
+	protected int doDeserializeFrame(InputStream inputStream, byte[] buffer) throws IOException {
+		return this.fillToCrLf(inputStream, buffer);
+	}
+
 	public int fillToCrLf(InputStream inputStream, byte[] buffer) throws IOException {
 		int n = 0;
 		int bite;
@@ -72,6 +72,11 @@ public class ByteArrayRawSerializer extends AbstractPooledBufferByteArraySeriali
 
 	@Override
 	protected byte[] doDeserialize(InputStream inputStream, byte[] buffer) throws IOException {
+		return copyToSizedArray(buffer, doDeserializeFrame(inputStream, buffer));
+	}
+
+	@Override
+	protected int doDeserializeFrame(InputStream inputStream, byte[] buffer) throws IOException {
 		int n = 0;
 		int bite = 0;
 		if (logger.isDebugEnabled()) {
@@ -100,7 +105,7 @@ public class ByteArrayRawSerializer extends AbstractPooledBufferByteArraySeriali
 				}
 				buffer[n++] = (byte) bite;
 			}
-			return copyToSizedArray(buffer, n);
+			return n;
 		}
 		catch (SoftEndOfStreamException e) {
 			throw e;
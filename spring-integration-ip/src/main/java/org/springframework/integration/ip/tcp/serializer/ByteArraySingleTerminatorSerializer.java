@@ -44,6 +44,11 @@ public class ByteArraySingleTerminatorSerializer extends AbstractPooledBufferByt
 	 */
 	@Override
 	protected byte[] doDeserialize(InputStream inputStream, byte[] buffer) throws IOException {
+		return copyToSizedArray(buffer, doDeserializeFrame(inputStream, buffer));
+	}
+
+	@Override
+	protected int doDeserializeFrame(InputStream inputStream, byte[] buffer) throws IOException {
 		int n = 0;
 		int bite;
 		if (logger.isDebugEnabled()) {
@@ -66,7 +71,7 @@ public class ByteArraySingleTerminatorSerializer extends AbstractPooledBufferByt
 							+ getMaxMessageSize());
 				}
 			}
-			return copyToSizedArray(buffer, n);
+			return n;
 		}
 		catch (SoftEndOfStreamException e) {
 			throw e;
@@ -51,6 +51,11 @@ public class ByteArrayStxEtxSerializer extends AbstractPooledBufferByteArraySeri
 	 */
 	@Override
 	public byte[] doDeserialize(InputStream inputStream, byte[] buffer) throws IOException {
+		return copyToSizedArray(buffer, doDeserializeFrame(inputStream, buffer));
+	}
+
+	@Override
+	protected int doDeserializeFrame(InputStream inputStream, byte[] buffer) throws IOException {
 		int bite = inputStream.read();
 		if (bite < 0) {
 			throw new SoftEndOfStreamException("Stream closed between payloads");
@@ -68,7 +73,7 @@ public class ByteArrayStxEtxSerializer extends AbstractPooledBufferByteArraySeri
 							+ getMaxMessageSize());
 				}
 			}
-			return copyToSizedArray(buffer, n);
+			return n;
 		}
 		catch (IOException e) {
 			publishEvent(e, buffer, n);
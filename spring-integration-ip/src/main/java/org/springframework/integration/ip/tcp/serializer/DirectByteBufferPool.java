@@ -0,0 +1,254 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.ip.tcp.serializer;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.integration.util.PoolItemNotAvailableException;
+import org.springframework.integration.util.SimplePool;
+import org.springframework.integration.util.SimplePool.PoolItemCallback;
+import org.springframework.util.Assert;
+
+/**
+ * A pool of fixed capacity direct {@link ByteBuffer}s, handed out as reference-counted
+ * {@link PooledByteBuffer}s.
+ * <p>
+ * Each allocation is tracked by weak references to the {@link PooledByteBuffer} and to
+ * every {@link ByteBuffer} view obtained from it; when all of them have been garbage
+ * collected without the buffer being released, the leak is logged and counted, and
+ * the underlying buffer is returned to the pool. Leaks are detected by
+ * {@link #reclaimLeaks()}, which is also called repeatedly by
+ * {@link #allocate(byte[], int)} while it waits for a buffer.
+ *
+ * @author Gary Russell
+ * @since 5.2
+ *
+ */
+public class DirectByteBufferPool {
+
+	private static final long LEAK_CHECK_INTERVAL = 100;
+
+	private final Log logger = LogFactory.getLog(getClass());
+
+	private final int bufferCapacity;
+
+	private final SimplePool<Slot> pool;
+
+	private final ReferenceQueue<Object> referenceQueue = new ReferenceQueue<>();
+
+	private final Set<Allocation> allocations = ConcurrentHashMap.newKeySet();
+
+	private final AtomicLong leaks = new AtomicLong();
+
+	private volatile long waitTimeout = Long.MAX_VALUE;
+
+	/**
+	 * Construct a pool with the provided size and buffer capacity.
+	 * @param poolSize the maximum number of buffers.
+	 * @param bufferCapacity the capacity of each buffer.
+	 */
+	public DirectByteBufferPool(int poolSize, int bufferCapacity) {
+		Assert.isTrue(poolSize > 0, "'poolSize' must be greater than 0");
+		Assert.isTrue(bufferCapacity > 0, "'bufferCapacity' must be greater than 0");
+		this.bufferCapacity = bufferCapacity;
+		this.pool = new SimplePool<>(poolSize, new PoolItemCallback<Slot>() {
+
+			@Override
+			public Slot createForPool() {
+				return new Slot(ByteBuffer.allocateDirect(bufferCapacity));
+			}
+
+			@Override
+			public boolean isStale(Slot item) {
+				return false; // never stale
+			}
+
+			@Override
+			public void removedFromPool(Slot item) {
+			}
+
+		});
+		this.pool.setWaitTimeout(LEAK_CHECK_INTERVAL);
+	}
+
+	/**
+	 * Set the time to wait for a buffer when all are in use, default unlimited.
+	 * While waiting, leaked buffers are reclaimed every 100 milliseconds.
+	 * @param waitTimeout the timeout.
+	 */
+	public void setWaitTimeout(long waitTimeout) {
+		this.waitTimeout = waitTimeout;
+		this.pool.setWaitTimeout(Math.min(waitTimeout, LEAK_CHECK_INTERVAL));
+	}
+
+	public int getBufferCapacity() {
+		return this.bufferCapacity;
+	}
+
+	/**
+	 * Return the number of buffers currently handed out.
+	 * @return the count.
+	 */
+	public int getActiveCount() {
+		return this.pool.getActiveCount();
+	}
+
+	/**
+	 * Return the number of buffers available for reuse.
+	 * @return the count.
+	 */
+	public int getIdleCount() {
+		return this.pool.getIdleCount();
+	}
+
+	/**
+	 * Return the number of buffers that were garbage collected without being released.
+	 * @return the count.
+	 */
+	public long getLeakCount() {
+		return this.leaks.get();
+	}
+
+	/**
+	 * Copy the data into a buffer from the pool.
+	 * @param data the data.
+	 * @param length the number of bytes to copy.
+	 * @return the buffer, with a reference count of 1.
+	 * @throws PoolItemNotAvailableException if no buffer becomes available within the
+	 * wait timeout.
+	 */
+	public PooledByteBuffer allocate(byte[] data, int length) {
+		Assert.isTrue(length <= this.bufferCapacity,
+				() -> "Data length " + length + " exceeds the buffer capacity " + this.bufferCapacity);
+		Slot slot = obtainSlot();
+		ByteBuffer buffer = slot.buffer;
+		buffer.clear();
+		buffer.put(data, 0, length);
+		buffer.flip();
+		Allocation allocation = new Allocation(slot);
+		PooledByteBuffer pooled = new PooledByteBuffer(buffer.asReadOnlyBuffer(), this, allocation);
+		this.allocations.add(allocation);
+		track(allocation, pooled);
+		return pooled;
+	}
+
+	private Slot obtainSlot() {
+		long start = System.currentTimeMillis();
+		while (true) {
+			reclaimLeaks();
+			try {
+				return this.pool.getItem();
+			}
+			catch (PoolItemNotAvailableException e) {
+				if (Thread.currentThread().isInterrupted()
+						|| System.currentTimeMillis() - start >= this.waitTimeout) {
+					throw e;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Return the buffers of unreleased {@link PooledByteBuffer}s to the pool, once the
+	 * {@link PooledByteBuffer} and all the {@link ByteBuffer} views obtained from it
+	 * have been garbage collected.
+	 * @return the number of leaks detected.
+	 */
+	public int reclaimLeaks() {
+		int count = 0;
+		Reference<?> reference = this.referenceQueue.poll();
+		while (reference != null) {
+			Allocation allocation = ((LeakTracker) reference).allocation;
+			allocation.trackers.remove(reference);
+			if (allocation.trackers.isEmpty() && this.allocations.remove(allocation)) {
+				count++;
+				this.leaks.incrementAndGet();
+				this.logger.error("A PooledByteBuffer was garbage collected without being released; "
+						+ "consumers that keep the payload beyond the flow must retain() and release() it");
+				this.pool.releaseItem(allocation.slot);
+			}
+			reference = this.referenceQueue.poll();
+		}
+		return count;
+	}
+
+	/*
+	 * Called by the PooledByteBuffer (which is therefore reachable) for each view it
+	 * hands out, so the slot is not reclaimed while a view is still in use.
+	 */
+	void track(Allocation allocation, Object referent) {
+		allocation.trackers.add(new LeakTracker(referent, allocation, this.referenceQueue));
+	}
+
+	void release(Allocation allocation) {
+		if (this.allocations.remove(allocation)) {
+			allocation.trackers.forEach(Reference::clear);
+			allocation.trackers.clear();
+			this.pool.releaseItem(allocation.slot);
+		}
+	}
+
+	/*
+	 * Identity-based holder; ByteBuffer.equals() and hashCode() depend on the content.
+	 */
+	private static final class Slot {
+
+		private final ByteBuffer buffer;
+
+		Slot(ByteBuffer buffer) {
+			this.buffer = buffer;
+		}
+
+	}
+
+	/*
+	 * The state of one use of a slot; holds the weak references (which must be strongly
+	 * reachable to be enqueued) to the PooledByteBuffer and its views.
+	 */
+	static final class Allocation {
+
+		private final Slot slot;
+
+		private final Set<LeakTracker> trackers = ConcurrentHashMap.newKeySet();
+
+		Allocation(Slot slot) {
+			this.slot = slot;
+		}
+
+	}
+
+	private static final class LeakTracker extends WeakReference<Object> {
+
+		private final Allocation allocation;
+
+		LeakTracker(Object referent, Allocation allocation, ReferenceQueue<Object> queue) {
+			super(referent, queue);
+			this.allocation = allocation;
+		}
+
+	}
+
+}
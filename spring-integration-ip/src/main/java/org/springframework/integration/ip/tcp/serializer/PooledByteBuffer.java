@@ -0,0 +1,157 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.ip.tcp.serializer;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A reference-counted, read-only view of a direct {@link ByteBuffer} obtained from a
+ * {@link DirectByteBufferPool}. The buffer is returned to the pool when the reference
+ * count drops to zero.
+ * <p>
+ * A new instance has a reference count of 1, owned by the endpoint that received it.
+ * The TCP inbound endpoints release that reference when the flow returns to them,
+ * whatever the channel type. Components that use the buffer after that point (e.g. on
+ * another thread after an executor or queue channel hand-off, or in an aggregator) must
+ * {@link #retain()} it before the hand-off and {@link #release()} it when done; a
+ * {@link PooledByteBufferChannelInterceptor} does that for point-to-point channels.
+ * Instances that are garbage collected without being released (together with all the
+ * views obtained from {@link #getByteBuffer()}) are reported as leaks by
+ * the pool.
+ *
+ * @author Gary Russell
+ * @since 5.2
+ *
+ */
+public final class PooledByteBuffer {
+
+	private final ByteBuffer buffer;
+
+	private final DirectByteBufferPool pool;
+
+	private final AtomicInteger refCount = new AtomicInteger(1);
+
+	private final DirectByteBufferPool.Allocation allocation;
+
+	PooledByteBuffer(ByteBuffer buffer, DirectByteBufferPool pool, DirectByteBufferPool.Allocation allocation) {
+		this.buffer = buffer;
+		this.pool = pool;
+		this.allocation = allocation;
+	}
+
+	/**
+	 * Return a read-only view of the data, with its own position and limit. The view
+	 * must not be used after the buffer is released.
+	 * @return the buffer.
+	 * @throws IllegalStateException if the buffer has been released.
+	 */
+	public ByteBuffer getByteBuffer() {
+		ensureAccessible();
+		ByteBuffer view = this.buffer.duplicate();
+		this.pool.track(this.allocation, view);
+		return view;
+	}
+
+	/**
+	 * Return the number of data bytes.
+	 * @return the size.
+	 */
+	public int size() {
+		return this.buffer.limit();
+	}
+
+	/**
+	 * Copy the data to a new array.
+	 * @return the bytes.
+	 * @throws IllegalStateException if the buffer has been released.
+	 */
+	public byte[] toByteArray() {
+		ensureAccessible();
+		byte[] bytes = new byte[this.buffer.limit()];
+		this.buffer.duplicate().get(bytes);
+		return bytes;
+	}
+
+	/**
+	 * Increment the reference count.
+	 * @return this buffer.
+	 * @throws IllegalStateException if the buffer has been released.
+	 */
+	public PooledByteBuffer retain() {
+		int count;
+		do {
+			count = this.refCount.get();
+			if (count <= 0) {
+				throw new IllegalStateException("Cannot retain a released buffer");
+			}
+		}
+		while (!this.refCount.compareAndSet(count, count + 1));
+		return this;
+	}
+
+	/**
+	 * Decrement the reference count, returning the buffer to the pool when it reaches 0.
+	 * @return true if the buffer was returned to the pool.
+	 * @throws IllegalStateException if the buffer has already been released.
+	 */
+	public boolean release() {
+		int count;
+		do {
+			count = this.refCount.get();
+			if (count <= 0) {
+				throw new IllegalStateException("Buffer already released");
+			}
+		}
+		while (!this.refCount.compareAndSet(count, count - 1));
+		if (count == 1) {
+			this.pool.release(this.allocation);
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Return the current reference count.
+	 * @return the count.
+	 */
+	public int refCount() {
+		return this.refCount.get();
+	}
+
+	private void ensureAccessible() {
+		if (this.refCount.get() <= 0) {
+			throw new IllegalStateException("Buffer has been released");
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "PooledByteBuffer [size=" + this.buffer.limit() + ", refCount=" + this.refCount.get() + "]";
+	}
+
+	/**
+	 * Release the payload if it is a {@link PooledByteBuffer}.
+	 * @param payload the payload.
+	 * @return true if the payload was a {@link PooledByteBuffer} and it was returned to
+	 * the pool.
+	 */
+	public static boolean releaseIfPooled(Object payload) {
+		return payload instanceof PooledByteBuffer && ((PooledByteBuffer) payload).release();
+	}
+
+}
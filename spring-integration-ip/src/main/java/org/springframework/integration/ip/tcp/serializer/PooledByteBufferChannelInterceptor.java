@@ -0,0 +1,92 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.ip.tcp.serializer;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.integration.channel.ExecutorChannelInterceptorAware;
+import org.springframework.integration.channel.PublishSubscribeChannel;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.support.ExecutorChannelInterceptor;
+import org.springframework.util.Assert;
+
+/**
+ * An {@link ExecutorChannelInterceptor} that hands a {@link PooledByteBuffer} payload
+ * off to another thread: it takes a reference to the buffer (with
+ * {@link PooledByteBuffer#retain()}) when the message is sent to the channel, and
+ * releases that reference after the message has been handled by the consumer.
+ * <p>
+ * Add it to a point-to-point channel that passes the message to another thread, such as
+ * an {@code ExecutorChannel}, or a {@code QueueChannel} consumed by a polling endpoint,
+ * so that the buffer remains valid after the inbound endpoint has released its own
+ * reference. It cannot be used with a {@link PublishSubscribeChannel}, and it has no
+ * effect on channels that hand off no messages, such as a {@code DirectChannel}.
+ *
+ * @author Gary Russell
+ * @since 5.2
+ *
+ */
+public class PooledByteBufferChannelInterceptor implements ExecutorChannelInterceptor {
+
+	private final Set<PooledByteBuffer> inFlight = Collections.newSetFromMap(new ConcurrentHashMap<>());
+
+	@Override
+	public Message<?> preSend(Message<?> message, MessageChannel channel) {
+		Object payload = message.getPayload();
+		if (payload instanceof PooledByteBuffer && isHandOff(channel)
+				&& this.inFlight.add((PooledByteBuffer) payload)) {
+
+			((PooledByteBuffer) payload).retain();
+		}
+		return message;
+	}
+
+	@Override
+	public void afterSendCompletion(Message<?> message, MessageChannel channel, boolean sent, Exception ex) {
+		if (!sent || ex != null) {
+			// the consumer may never see the message
+			release(message);
+		}
+	}
+
+	@Override
+	public void afterMessageHandled(Message<?> message, MessageChannel channel, MessageHandler handler,
+			Exception ex) {
+
+		release(message);
+	}
+
+	private void release(Message<?> message) {
+		// whichever of the consumer or the failed send comes first releases the reference
+		if (message != null && message.getPayload() instanceof PooledByteBuffer
+				&& this.inFlight.remove(message.getPayload())) {
+
+			((PooledByteBuffer) message.getPayload()).release();
+		}
+	}
+
+	private static boolean isHandOff(MessageChannel channel) {
+		Assert.state(!(channel instanceof PublishSubscribeChannel),
+				"A PooledByteBufferChannelInterceptor cannot be used with a PublishSubscribeChannel");
+		return channel instanceof ExecutorChannelInterceptorAware;
+	}
+
+}
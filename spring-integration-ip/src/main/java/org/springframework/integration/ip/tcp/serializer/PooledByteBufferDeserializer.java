@@ -0,0 +1,81 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.ip.tcp.serializer;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.springframework.core.serializer.Deserializer;
+import org.springframework.util.Assert;
+
+/**
+ * A {@link Deserializer} that decodes frames with an
+ * {@link AbstractPooledBufferByteArraySerializer} and returns them as
+ * {@link PooledByteBuffer}s, avoiding a new {@code byte[]} per message.
+ * <p>
+ * The TCP inbound channel adapter and gateway release the buffer when the flow returns
+ * to them; a flow that passes it to another thread must retain it, for example with a
+ * {@link PooledByteBufferChannelInterceptor}. See {@link PooledByteBuffer} for the full
+ * contract. When used with an outbound
+ * gateway, the application is responsible for releasing the reply payload.
+ * <p>
+ * The delegate must be fully configured (in particular its {@code maxMessageSize})
+ * before constructing this deserializer.
+ *
+ * @author Gary Russell
+ * @since 5.2
+ *
+ */
+public class PooledByteBufferDeserializer implements Deserializer<PooledByteBuffer> {
+
+	private final AbstractPooledBufferByteArraySerializer delegate;
+
+	private final DirectByteBufferPool bufferPool;
+
+	/**
+	 * Construct an instance with the provided delegate and direct buffer pool size.
+	 * @param delegate the deserializer that decodes the frames.
+	 * @param poolSize the maximum number of direct buffers.
+	 */
+	public PooledByteBufferDeserializer(AbstractPooledBufferByteArraySerializer delegate, int poolSize) {
+		Assert.notNull(delegate, "'delegate' cannot be null");
+		this.delegate = delegate;
+		this.bufferPool = new DirectByteBufferPool(poolSize, delegate.getMaxMessageSize());
+	}
+
+	/**
+	 * Set the time to wait for a direct buffer when all are in use, default unlimited.
+	 * @param poolWaitTimeout the timeout.
+	 */
+	public void setPoolWaitTimeout(long poolWaitTimeout) {
+		this.bufferPool.setWaitTimeout(poolWaitTimeout);
+	}
+
+	/**
+	 * Return the direct buffer pool, e.g. to monitor active buffers and leaks.
+	 * @return the pool.
+	 */
+	public DirectByteBufferPool getBufferPool() {
+		return this.bufferPool;
+	}
+
+	@Override
+	public PooledByteBuffer deserialize(InputStream inputStream) throws IOException {
+		return this.delegate.deserialize(inputStream, this.bufferPool);
+	}
+
+}
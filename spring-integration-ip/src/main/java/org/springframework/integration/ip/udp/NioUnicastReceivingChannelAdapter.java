@@ -0,0 +1,387 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.ip.udp;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.SocketOption;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.lang.Nullable;
+import org.springframework.messaging.MessagingException;
+import org.springframework.util.Assert;
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * A {@link UnicastReceivingChannelAdapter} that receives with a non-blocking
+ * {@link DatagramChannel}. Each time the channel is selected, all the available datagrams
+ * are drained (without blocking) into pooled buffers and handed off to the task
+ * executor in batches of up to {@link #setMaxBatchSize(int) maxBatchSize} packets, rather
+ * than scheduling one task and allocating one buffer per packet.
+ * <p>
+ * The buffers are returned to the pool as soon as their packets are mapped to messages.
+ * Since datagrams are not received in one system call (as with {@code recvmmsg}), the
+ * gain comes from the reduced allocation and task hand-off overhead.
+ * <p>
+ * On platforms that support {@code SO_REUSEPORT} (e.g. Linux, Java 9 or later), set
+ * {@link #setSocketCount(int) socketCount} to open several channels on the same port,
+ * each with its own receive loop; the kernel then distributes the datagrams across the
+ * sockets (by source address and port).
+ *
+ * @author Gary Russell
+ * @since 5.2
+ */
+public class NioUnicastReceivingChannelAdapter extends UnicastReceivingChannelAdapter {
+
+	private static final int DEFAULT_MAX_BATCH_SIZE = 64;
+
+	private static final int DEFAULT_BUFFER_POOL_SIZE = 256;
+
+	/**
+	 * StandardSocketOptions.SO_REUSEPORT - Java 9 and later.
+	 */
+	@Nullable
+	private static final SocketOption<Boolean> SO_REUSEPORT = reusePortOption();
+
+	private final List<DatagramChannel> additionalChannels = new CopyOnWriteArrayList<>();
+
+	private final Set<Selector> selectors = ConcurrentHashMap.newKeySet();
+
+	private int maxBatchSize = DEFAULT_MAX_BATCH_SIZE;
+
+	private int bufferPoolSize = DEFAULT_BUFFER_POOL_SIZE;
+
+	private int socketCount = 1;
+
+	private volatile BlockingQueue<byte[]> bufferPool;
+
+	private volatile DatagramChannel channel;
+
+	/**
+	 * Construct an instance that listens on the specified port.
+	 * @param port The port.
+	 */
+	public NioUnicastReceivingChannelAdapter(int port) {
+		super(port);
+	}
+
+	/**
+	 * Construct an instance that listens on the specified port, with the lengthCheck
+	 * option, which expects a length to precede the incoming packets.
+	 * @param port The port.
+	 * @param lengthCheck If true, enables the lengthCheck Option.
+	 */
+	public NioUnicastReceivingChannelAdapter(int port, boolean lengthCheck) {
+		super(port, lengthCheck);
+	}
+
+	/**
+	 * Set the maximum number of packets handed off to the task executor in a single
+	 * task. Default 64.
+	 * @param maxBatchSize the maximum batch size.
+	 */
+	public void setMaxBatchSize(int maxBatchSize) {
+		Assert.isTrue(maxBatchSize > 0, "'maxBatchSize' must be greater than 0");
+		this.maxBatchSize = maxBatchSize;
+	}
+
+	/**
+	 * Set the maximum number of idle receive buffers (each of
+	 * {@link #setReceiveBufferSize(int) receiveBufferSize} bytes) to retain for reuse.
+	 * Default 256.
+	 * @param bufferPoolSize the buffer pool size.
+	 */
+	public void setBufferPoolSize(int bufferPoolSize) {
+		Assert.isTrue(bufferPoolSize > 0, "'bufferPoolSize' must be greater than 0");
+		this.bufferPoolSize = bufferPoolSize;
+	}
+
+	/**
+	 * Set the number of channels to bind to the port with {@code SO_REUSEPORT}, each
+	 * with its own receive loop on the task executor; the pool size (or task executor)
+	 * must allow for these long-lived tasks, in addition to the batch hand-off tasks.
+	 * Default 1 (no {@code SO_REUSEPORT}).
+	 * Requires Java 9 or later and a platform that supports {@code SO_REUSEPORT}.
+	 * @param socketCount the number of sockets.
+	 */
+	public void setSocketCount(int socketCount) {
+		Assert.isTrue(socketCount > 0, "'socketCount' must be greater than 0");
+		Assert.isTrue(socketCount == 1 || SO_REUSEPORT != null, "'SO_REUSEPORT' requires Java 9 or later");
+		this.socketCount = socketCount;
+	}
+
+	/**
+	 * Return the number of idle receive buffers available for reuse.
+	 * @return the number of buffers.
+	 */
+	public int getPooledBufferCount() {
+		BlockingQueue<byte[]> pool = this.bufferPool;
+		return pool == null ? 0 : pool.size();
+	}
+
+	@Override
+	public synchronized DatagramSocket getSocket() {
+		if (this.channel == null) {
+			try {
+				DatagramChannel datagramChannel = openChannel(getBindAddress());
+				this.channel = datagramChannel;
+				setSocket(datagramChannel.socket());
+			}
+			catch (IOException e) {
+				throw new MessagingException("failed to create DatagramChannel", e);
+			}
+		}
+		return this.channel.socket();
+	}
+
+	/**
+	 * Return the address to bind the channel to.
+	 * @return the address.
+	 * @throws IOException if the local address cannot be resolved.
+	 */
+	protected InetSocketAddress getBindAddress() throws IOException {
+		String localAddress = getLocalAddress();
+		int port = getPort();
+		if (localAddress == null) {
+			return new InetSocketAddress(port);
+		}
+		else {
+			return new InetSocketAddress(InetAddress.getByName(localAddress), port);
+		}
+	}
+
+	private DatagramChannel openChannel(InetSocketAddress bindAddress) throws IOException {
+		DatagramChannel datagramChannel = DatagramChannel.open();
+		try {
+			if (this.socketCount > 1) {
+				Assert.state(datagramChannel.supportedOptions().contains(SO_REUSEPORT),
+						"'SO_REUSEPORT' is not supported on this platform");
+				datagramChannel.setOption(SO_REUSEPORT, true);
+			}
+			int soReceiveBufferSize = getSoReceiveBufferSize();
+			if (soReceiveBufferSize > 0) {
+				datagramChannel.setOption(StandardSocketOptions.SO_RCVBUF, soReceiveBufferSize);
+			}
+			datagramChannel.bind(bindAddress);
+			datagramChannel.configureBlocking(false);
+			return datagramChannel;
+		}
+		catch (IOException | RuntimeException e) {
+			datagramChannel.close();
+			throw e;
+		}
+	}
+
+	@Nullable
+	protected DatagramChannel getChannel() {
+		return this.channel;
+	}
+
+	@Override
+	public void run() {
+		DatagramChannel datagramChannel = getSocket().getChannel();
+		this.bufferPool = new ArrayBlockingQueue<>(this.bufferPoolSize);
+		try {
+			InetSocketAddress boundAddress = (InetSocketAddress) datagramChannel.getLocalAddress();
+			for (int i = 1; i < this.socketCount; i++) {
+				this.additionalChannels.add(openChannel(boundAddress));
+			}
+		}
+		catch (IOException e) {
+			closeAdditionalChannels();
+			throw new MessagingException("failed to create DatagramChannel", e);
+		}
+		try {
+			for (DatagramChannel additionalChannel : this.additionalChannels) {
+				getTaskExecutor().execute(() -> receiveLoop(additionalChannel));
+			}
+		}
+		catch (RejectedExecutionException e) {
+			// closes the additional channels and ends the receivers already submitted
+			stop();
+			throw new MessagingException("failed to start the receivers for the additional DatagramChannels", e);
+		}
+
+		ApplicationEventPublisher publisher = getApplicationEventPublisher();
+		if (publisher != null) {
+			publisher.publishEvent(new UdpServerListeningEvent(this, getPort()));
+		}
+
+		if (logger.isDebugEnabled()) {
+			logger.debug("UDP NIO Receiver running on port:" + getPort()
+					+ (this.socketCount > 1 ? " with " + this.socketCount + " sockets" : ""));
+		}
+
+		setListening(true);
+		try {
+			receiveLoop(datagramChannel);
+		}
+		finally {
+			setListening(false);
+		}
+	}
+
+	private void receiveLoop(DatagramChannel datagramChannel) {
+		try {
+			Selector receiveSelector = Selector.open();
+			this.selectors.add(receiveSelector);
+			try {
+				datagramChannel.register(receiveSelector, SelectionKey.OP_READ);
+				while (isActive()) {
+					if (receiveSelector.select(getSoTimeout()) > 0) {
+						receiveSelector.selectedKeys().clear();
+						receiveBatches(datagramChannel);
+					}
+				}
+			}
+			finally {
+				this.selectors.remove(receiveSelector);
+				receiveSelector.close();
+			}
+		}
+		catch (IOException e) {
+			if (isActive()) {
+				logger.error("Failed to receive on DatagramChannel; stopping", e);
+				stop();
+			}
+		}
+	}
+
+	/**
+	 * Drain all the datagrams available on the channel, handing them off in batches of up
+	 * to {@code maxBatchSize} packets.
+	 * @param datagramChannel the channel.
+	 * @throws IOException an IO exception.
+	 */
+	protected void receiveBatches(DatagramChannel datagramChannel) throws IOException {
+		boolean more = true;
+		while (more && isActive()) {
+			List<DatagramPacket> batch = new ArrayList<>();
+			while (batch.size() < this.maxBatchSize) {
+				byte[] buffer = obtainBuffer();
+				ByteBuffer byteBuffer = ByteBuffer.wrap(buffer);
+				SocketAddress sender = datagramChannel.receive(byteBuffer);
+				if (sender == null) {
+					releaseBuffer(buffer);
+					more = false;
+					break;
+				}
+				batch.add(new DatagramPacket(buffer, 0, byteBuffer.position(), sender));
+			}
+			if (!batch.isEmpty()) {
+				asyncSendBatch(batch);
+			}
+		}
+	}
+
+	/**
+	 * Map and send the packets of a batch on the task executor, returning their buffers
+	 * to the pool afterwards.
+	 * @param batch the packets.
+	 */
+	protected void asyncSendBatch(List<DatagramPacket> batch) {
+		Runnable task = () -> {
+			for (DatagramPacket packet : batch) {
+				try {
+					doSend(packet);
+				}
+				finally {
+					releaseBuffer(packet.getData());
+				}
+			}
+		};
+		Executor taskExecutor = getTaskExecutor();
+		if (taskExecutor != null) {
+			try {
+				taskExecutor.execute(task);
+				return;
+			}
+			catch (RejectedExecutionException e) {
+				if (logger.isDebugEnabled()) {
+					logger.debug("Adapter stopped, sending on main thread");
+				}
+			}
+		}
+		task.run();
+	}
+
+	private byte[] obtainBuffer() {
+		byte[] buffer = this.bufferPool.poll();
+		if (buffer == null || buffer.length != getReceiveBufferSize()) {
+			buffer = new byte[getReceiveBufferSize()];
+		}
+		return buffer;
+	}
+
+	private void releaseBuffer(byte[] buffer) {
+		this.bufferPool.offer(buffer);
+	}
+
+	@Override
+	protected void doStop() {
+		super.doStop();
+		this.channel = null;
+		closeAdditionalChannels();
+		for (Selector receiveSelector : this.selectors) {
+			receiveSelector.wakeup();
+		}
+	}
+
+	private void closeAdditionalChannels() {
+		for (DatagramChannel additionalChannel : this.additionalChannels) {
+			try {
+				additionalChannel.close();
+			}
+			catch (IOException e) {
+				// ignore
+			}
+		}
+		this.additionalChannels.clear();
+	}
+
+	@Override
+	public String getComponentType() {
+		return "ip:udp-nio-inbound-channel-adapter";
+	}
+
+	@SuppressWarnings("unchecked")
+	@Nullable
+	private static SocketOption<Boolean> reusePortOption() {
+		Field field = ReflectionUtils.findField(StandardSocketOptions.class, "SO_REUSEPORT");
+		return field == null ? null : (SocketOption<Boolean>) ReflectionUtils.getField(field, null);
+	}
+
+}
@@ -24,6 +24,7 @@ import java.net.InetSocketAddress;
 import java.net.SocketAddress;
 import java.net.SocketException;
 import java.net.URI;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
@@ -42,6 +43,7 @@ import org.springframework.integration.support.utils.IntegrationUtils;
 import org.springframework.lang.Nullable;
 import org.springframework.messaging.Message;
 import org.springframework.messaging.MessagingException;
+import org.springframework.messaging.support.GenericMessage;
 import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.util.Assert;
 import org.springframework.util.StringUtils;
@@ -53,6 +55,15 @@ import org.springframework.util.StringUtils;
  * Messages can be basic, with no support for reliability, can be prefixed
  * by a length so the receiving end can detect truncation, and can require
  * a UDP acknowledgment to confirm delivery.
+ * <p>
+ * Starting with version 5.2, when acknowledgments are not requested, a message with a
+ * {@link Collection} payload is fanned out: each element is sent as its own datagram,
+ * with its own {@link DatagramSocket#send(DatagramPacket)} call, but the socket and the
+ * destination are resolved only once. This is not a batched send at the system call
+ * level (the JDK has no {@code sendmmsg} equivalent), and it is not applied when
+ * acknowledgments are requested, because each datagram would need its own
+ * acknowledgment; such a payload is then mapped as a single message and rejected by
+ * the mapper, like any other payload that is not a {@code byte[]} or a {@code String}.
  *
  * @author Gary Russell
  * @author Marcin Pilaczynski
@@ -349,18 +360,39 @@ public class UnicastSendingMessageHandler extends
 		else {
 			destinationAddress = getDestinationAddress();
 		}
+		Object payload = message.getPayload();
+		if (payload instanceof Collection && !this.acknowledge) {
+			// fan out: one datagram (and one send) per element
+			int count = 0;
+			for (Object element : (Collection<?>) payload) {
+				if (send(datagramSocket, destinationAddress, new GenericMessage<>(element, message.getHeaders()))) {
+					count++;
+				}
+			}
+			if (logger.isDebugEnabled()) {
+				logger.debug("Sent " + count + " packets for the elements of message " + message + " to "
+						+ destinationAddress);
+			}
+		}
+		else if (send(datagramSocket, destinationAddress, message) && logger.isDebugEnabled()) {
+			logger.debug("Sent packet for message " + message + " to " + destinationAddress);
+		}
+	}
+
+	private boolean send(DatagramSocket datagramSocket, SocketAddress destinationAddress, Message<?> message)
+			throws Exception {
+
 		DatagramPacket packet = this.mapper.fromMessage(message);
 		if (packet != null) {
 			packet.setSocketAddress(destinationAddress);
 			datagramSocket.send(packet);
-			if (logger.isDebugEnabled()) {
-				logger.debug("Sent packet for message " + message + " to " + packet.getSocketAddress());
-			}
+			return true;
 		}
 		else {
 			if (logger.isDebugEnabled()) {
 				logger.debug("Mapper created no packet for message " + message);
 			}
+			return false;
 		}
 	}
 
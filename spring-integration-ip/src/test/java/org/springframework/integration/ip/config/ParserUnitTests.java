@@ -29,7 +29,10 @@ import org.junit.runner.RunWith;
 import org.springframework.beans.DirectFieldAccessor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.beans.factory.xml.XmlBeanDefinitionReader;
 import org.springframework.context.ApplicationContext;
+import org.springframework.core.io.ClassPathResource;
 import org.springframework.core.io.UrlResource;
 import org.springframework.core.serializer.Deserializer;
 import org.springframework.core.serializer.Serializer;
@@ -650,6 +653,16 @@ public class ParserUnitTests {
 		assertThat(dfa.getPropertyValue("tcpNetConnectionSupport")).isSameAs(this.netConnectionSupport);
 	}
 
+	@Test
+	public void testVirtualThreads() {
+		// parse only; virtual threads need Java 21 when the factory is created
+		DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+		new XmlBeanDefinitionReader(beanFactory)
+				.loadBeanDefinitions(new ClassPathResource("ParserUnitTests-virtualThreads.xml", getClass()));
+		assertThat(beanFactory.getBeanDefinition("cfVirtual").getPropertyValues().get("virtualThreads"))
+				.isEqualTo("true");
+	}
+
 	public static class FooAdvice extends AbstractRequestHandlerAdvice {
 
 		@Override
@@ -23,8 +23,10 @@ import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.io.BufferedReader;
 import java.io.EOFException;
 import java.io.IOException;
+import java.io.InputStreamReader;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.net.ServerSocket;
@@ -218,6 +220,80 @@ public class TcpOutboundGatewayTests {
 		serverSocket.get().close();
 	}
 
+	@Test
+	public void testCorrelatedMultiplexOutOfOrder() throws Exception {
+		final CountDownLatch latch = new CountDownLatch(1);
+		final AtomicBoolean done = new AtomicBoolean();
+		final AtomicReference<ServerSocket> serverSocket = new AtomicReference<>();
+		this.executor.execute(() -> {
+			try {
+				ServerSocket server = ServerSocketFactory.getDefault().createServerSocket(0, 10);
+				serverSocket.set(server);
+				latch.countDown();
+				Socket socket = server.accept();
+				BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream()));
+				List<String> requests = new ArrayList<>();
+				for (int i = 0; i < 10; i++) {
+					requests.add(reader.readLine());
+				}
+				Collections.reverse(requests);
+				for (String request : requests) {
+					String id = request.substring(0, request.indexOf(':'));
+					if (!"9".equals(id)) {
+						socket.getOutputStream().write((id + ":Reply\r\n").getBytes());
+					}
+				}
+				socket.getOutputStream().flush();
+				reader.readLine();
+			}
+			catch (Exception e) {
+				if (!done.get()) {
+					e.printStackTrace();
+				}
+			}
+		});
+		assertThat(latch.await(10000, TimeUnit.MILLISECONDS)).isTrue();
+		AbstractClientConnectionFactory ccf = new TcpNetClientConnectionFactory("localhost",
+				serverSocket.get().getLocalPort());
+		ccf.setSoTimeout(10000);
+		ccf.setSingleUse(false);
+		ccf.start();
+		TcpOutboundGateway gateway = new TcpOutboundGateway();
+		gateway.setConnectionFactory(ccf);
+		gateway.setCorrelationStrategy(message -> {
+			Object payload = message.getPayload();
+			String string = payload instanceof byte[] ? new String((byte[]) payload) : (String) payload;
+			return string.substring(0, string.indexOf(':'));
+		});
+		gateway.setRemoteTimeoutExpression(
+				new SpelExpressionParser().parseExpression("payload.startsWith('9:') ? 500 : 10000"));
+		gateway.setBeanFactory(mock(BeanFactory.class));
+		gateway.afterPropertiesSet();
+		List<Future<Object>> futures = new ArrayList<>();
+		for (int i = 0; i < 10; i++) {
+			String request = i + ":Test";
+			futures.add(this.executor.submit(() ->
+					gateway.handleRequestMessage(MessageBuilder.withPayload(request).build())));
+		}
+		for (int i = 0; i < 9; i++) {
+			Message<?> reply = (Message<?>) futures.get(i).get(10, TimeUnit.SECONDS);
+			assertThat(new String((byte[]) reply.getPayload())).isEqualTo(i + ":Reply");
+		}
+		try {
+			futures.get(9).get(10, TimeUnit.SECONDS);
+			fail("Expected timeout");
+		}
+		catch (ExecutionException e) {
+			assertThat(e.getCause()).isInstanceOf(MessageTimeoutException.class);
+		}
+		assertThat(TestUtils.getPropertyValue(gateway, "multiplexedReplies", Map.class).values())
+				.allMatch(replies -> ((Map<?, ?>) replies).isEmpty());
+		done.set(true);
+		gateway.stop();
+		ccf.stop();
+		serverSocket.get().close();
+	}
+
 	@Test
 	public void testGoodNetTimeout() throws Exception {
 		final CountDownLatch latch = new CountDownLatch(1);
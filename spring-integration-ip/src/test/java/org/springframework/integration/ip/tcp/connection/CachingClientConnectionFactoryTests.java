@@ -20,12 +20,15 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.fail;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -50,6 +53,7 @@ import java.util.concurrent.atomic.AtomicReference;
 import org.apache.commons.logging.Log;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.Answers;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 import org.mockito.invocation.InvocationOnMock;
@@ -69,6 +73,13 @@ import org.springframework.integration.ip.tcp.TcpSendingMessageHandler;
 import org.springframework.integration.ip.tcp.serializer.ByteArrayCrLfSerializer;
 import org.springframework.integration.ip.util.TestingUtilities;
 import org.springframework.integration.support.MessageBuilder;
+import org.springframework.integration.support.management.metrics.CounterFacade;
+import org.springframework.integration.support.management.metrics.GaugeFacade;
+import org.springframework.integration.support.management.metrics.MetricsCaptor;
+import org.springframework.integration.support.management.metrics.MetricsCaptor.CounterBuilder;
+import org.springframework.integration.support.management.metrics.MetricsCaptor.GaugeBuilder;
+import org.springframework.integration.support.management.metrics.MetricsCaptor.TimerBuilder;
+import org.springframework.integration.support.management.metrics.TimerFacade;
 import org.springframework.integration.test.util.TestUtils;
 import org.springframework.integration.util.PoolItemNotAvailableException;
 import org.springframework.integration.util.SimplePool;
@@ -342,6 +353,74 @@ public class CachingClientConnectionFactoryTests {
 		verify(mockConn2).close();
 	}
 
+	@Test
+	public void testMinIdleAndEviction() throws Exception {
+		AbstractClientConnectionFactory factory = mock(AbstractClientConnectionFactory.class);
+		when(factory.isRunning()).thenReturn(true);
+		TcpConnectionSupport mockConn1 = makeMockConnection("conn1", true);
+		TcpConnectionSupport mockConn2 = makeMockConnection("conn2", true);
+		TcpConnectionSupport mockConn3 = makeMockConnection("conn3", true);
+		when(factory.getConnection()).thenReturn(mockConn1, mockConn2, mockConn3);
+		CachingClientConnectionFactory cachingFactory = new CachingClientConnectionFactory(factory, 4);
+		cachingFactory.setMinIdle(2);
+		cachingFactory.start();
+		assertThat(cachingFactory.getIdleCount()).isEqualTo(2);
+		assertThat(cachingFactory.getCreatedCount()).isEqualTo(2);
+		when(mockConn1.isOpen()).thenReturn(false);
+		assertThat(cachingFactory.evictIdleConnections()).isEqualTo(1);
+		verify(mockConn1).close();
+		assertThat(cachingFactory.getIdleCount()).isEqualTo(2);
+		assertThat(cachingFactory.getCreatedCount()).isEqualTo(3);
+		assertThat(cachingFactory.getClosedCount()).isEqualTo(1);
+		TcpConnection conn = cachingFactory.getConnection();
+		assertThat(cachingFactory.getActiveCount()).isEqualTo(1);
+		assertThat(cachingFactory.getIdleCount()).isEqualTo(1);
+		assertThat(cachingFactory.getBorrowCount()).isEqualTo(1);
+		assertThat(cachingFactory.getCreatedCount()).isEqualTo(3);
+		conn.close();
+		assertThat(cachingFactory.getIdleCount()).isEqualTo(2);
+		cachingFactory.stop();
+		assertThat(cachingFactory.getClosedCount()).isEqualTo(3);
+	}
+
+	@Test
+	public void testMetricsCaptorTaggedWithBeanName() throws Exception {
+		AbstractClientConnectionFactory factory = mock(AbstractClientConnectionFactory.class);
+		when(factory.isRunning()).thenReturn(true);
+		TcpConnectionSupport mockConn1 = makeMockConnection("conn1", true);
+		when(factory.getConnection()).thenReturn(mockConn1);
+		CachingClientConnectionFactory cachingFactory = new CachingClientConnectionFactory(factory, 2);
+		cachingFactory.setBeanName("cccf");
+		MetricsCaptor captor = mock(MetricsCaptor.class);
+		TimerBuilder timerBuilder = mock(TimerBuilder.class, Answers.RETURNS_SELF);
+		TimerFacade timer = mock(TimerFacade.class);
+		when(timerBuilder.build()).thenReturn(timer);
+		when(captor.timerBuilder("spring.integration.tcp.connections.borrow")).thenReturn(timerBuilder);
+		GaugeBuilder gaugeBuilder = mock(GaugeBuilder.class, Answers.RETURNS_SELF);
+		GaugeFacade gauge = mock(GaugeFacade.class);
+		when(gaugeBuilder.build()).thenReturn(gauge);
+		when(captor.gaugeBuilder(eq("spring.integration.tcp.connections"), any(), any())).thenReturn(gaugeBuilder);
+		CounterBuilder counterBuilder = mock(CounterBuilder.class, Answers.RETURNS_SELF);
+		CounterFacade counter = mock(CounterFacade.class);
+		when(counterBuilder.build()).thenReturn(counter);
+		when(captor.counterBuilder("spring.integration.tcp.connections.churn")).thenReturn(counterBuilder);
+		cachingFactory.registerMetricsCaptor(captor);
+		verify(timerBuilder).tag("name", "cccf");
+		verify(gaugeBuilder, times(4)).tag("name", "cccf");
+		verify(counterBuilder, times(2)).tag("name", "cccf");
+		cachingFactory.start();
+		cachingFactory.getConnection().close();
+		verify(timer).record(anyLong(), eq(TimeUnit.NANOSECONDS));
+		verify(counter).increment();
+		assertThat(cachingFactory.getBorrowCount()).isEqualTo(1);
+		cachingFactory.reset();
+		assertThat(cachingFactory.getBorrowCount()).isEqualTo(0);
+		cachingFactory.destroy();
+		verify(timer).remove();
+		verify(gauge, times(4)).remove();
+		verify(counter, times(2)).remove();
+	}
+
 	@Test
 	public void testExceptionOnSendNet() throws Exception {
 		TcpConnectionSupport conn1 = mockedTcpNetConnection();
@@ -27,13 +27,18 @@ import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.lang.reflect.Method;
 import java.net.InetSocketAddress;
+import java.net.Socket;
 import java.net.SocketAddress;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.net.SocketFactory;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -51,10 +56,12 @@ import org.springframework.integration.context.IntegrationContextUtils;
 import org.springframework.integration.ip.config.TcpConnectionFactoryFactoryBean;
 import org.springframework.integration.ip.event.IpIntegrationEvent;
 import org.springframework.integration.ip.tcp.TcpReceivingChannelAdapter;
+import org.springframework.integration.ip.util.TestingUtilities;
 import org.springframework.integration.test.rule.Log4j2LevelAdjuster;
 import org.springframework.integration.test.util.TestUtils;
 import org.springframework.scheduling.TaskScheduler;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.util.ReflectionUtils;
 
 /**
  * @author Gary Russell
@@ -247,6 +254,40 @@ public class ConnectionFactoryTests {
 		factory.stop();
 	}
 
+	@Test
+	public void testVirtualThreads() throws Exception {
+		TcpNetServerConnectionFactory serverFactory = new TcpNetServerConnectionFactory(0);
+		Method isVirtual = ReflectionUtils.findMethod(Thread.class, "isVirtual");
+		if (isVirtual == null) {
+			try {
+				serverFactory.setVirtualThreads(true);
+				fail("Expected IllegalArgumentException");
+			}
+			catch (IllegalArgumentException e) {
+				assertThat(e.getMessage()).contains("Java 21");
+			}
+			return;
+		}
+		serverFactory.setVirtualThreads(true);
+		serverFactory.setApplicationEventPublisher(e -> {
+		});
+		AtomicReference<Object> readOnVirtualThread = new AtomicReference<>();
+		CountDownLatch latch = new CountDownLatch(1);
+		serverFactory.registerListener(message -> {
+			readOnVirtualThread.set(ReflectionUtils.invokeMethod(isVirtual, Thread.currentThread()));
+			latch.countDown();
+			return false;
+		});
+		serverFactory.start();
+		TestingUtilities.waitListening(serverFactory, null);
+		try (Socket socket = SocketFactory.getDefault().createSocket("localhost", serverFactory.getPort())) {
+			socket.getOutputStream().write("foo\r\n".getBytes());
+			assertThat(latch.await(10, TimeUnit.SECONDS)).isTrue();
+		}
+		assertThat(readOnVirtualThread.get()).isEqualTo(Boolean.TRUE);
+		serverFactory.stop();
+	}
+
 	@SuppressWarnings("serial")
 	private class FooEvent extends TcpConnectionOpenEvent {
 
@@ -22,7 +22,12 @@ import static org.assertj.core.api.Assertions.fail;
 import java.net.Socket;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
@@ -39,6 +44,7 @@ import org.springframework.integration.ip.tcp.serializer.ByteArrayStxEtxSerializ
 import org.springframework.integration.ip.util.SocketTestUtils;
 import org.springframework.integration.ip.util.TestingUtilities;
 import org.springframework.integration.test.support.LongRunningIntegrationTest;
+import org.springframework.integration.test.util.TestUtils;
 import org.springframework.messaging.Message;
 import org.springframework.messaging.support.ErrorMessage;
 
@@ -104,6 +110,44 @@ public class TcpNioConnectionReadTests {
 	}
 
 
+	@Test
+	public void testReadWithEventLoops() throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(5);
+		TcpNioServerConnectionFactory scf = new TcpNioServerConnectionFactory(0);
+		scf.setEventLoopCount(2);
+		scf.setTaskExecutor(executor);
+		scf.setApplicationEventPublisher(e -> {
+		});
+		Set<String> received = ConcurrentHashMap.newKeySet();
+		CountDownLatch receivedLatch = new CountDownLatch(4);
+		scf.registerListener(message -> {
+			received.add(new String((byte[]) message.getPayload()));
+			receivedLatch.countDown();
+			return false;
+		});
+		scf.start();
+		TestingUtilities.waitListening(scf, null);
+		List<Socket> sockets = new ArrayList<>();
+		for (int i = 0; i < 4; i++) {
+			Socket socket = SocketFactory.getDefault().createSocket("localhost", scf.getPort());
+			socket.getOutputStream().write(("foo" + i + "\r\n").getBytes());
+			sockets.add(socket);
+		}
+		assertThat(receivedLatch.await(10, TimeUnit.SECONDS)).isTrue();
+		assertThat(received).containsExactlyInAnyOrder("foo0", "foo1", "foo2", "foo3");
+		Object[] eventLoops = TestUtils.getPropertyValue(scf, "eventLoops", Object[].class);
+		assertThat(eventLoops).hasSize(2);
+		for (Object eventLoop : eventLoops) {
+			assertThat(TestUtils.getPropertyValue(eventLoop, "connections", Map.class)).hasSize(2);
+		}
+		assertThat(TestUtils.getPropertyValue(scf, "channelMap", Map.class)).isEmpty();
+		for (Socket socket : sockets) {
+			socket.close();
+		}
+		scf.stop();
+		executor.shutdownNow();
+	}
+
 	@SuppressWarnings("unchecked")
 	@Test
 	public void testFragmented() throws Exception {
@@ -17,15 +17,32 @@
 package org.springframework.integration.ip.tcp.serializer;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
 import static org.assertj.core.api.Assertions.fail;
+import static org.mockito.Mockito.mock;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.lang.ref.Reference;
+import java.nio.ByteBuffer;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.junit.Test;
 
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.integration.channel.ExecutorChannel;
+import org.springframework.integration.channel.PublishSubscribeChannel;
+import org.springframework.integration.channel.QueueChannel;
+import org.springframework.integration.ip.tcp.TcpReceivingChannelAdapter;
 import org.springframework.integration.test.util.TestUtils;
+import org.springframework.integration.util.PoolItemNotAvailableException;
+import org.springframework.messaging.support.GenericMessage;
 
 /**
  * @author Gary Russell
@@ -68,4 +85,163 @@ public class PooledDeserializationTests {
 		assertThat(TestUtils.getPropertyValue(deser, "pool.allocated", Set.class).iterator().next()).isNotSameAs(bytes);
 	}
 
+	@Test
+	public void testDirectBuffers() throws IOException {
+		ByteArrayCrLfSerializer delegate = new ByteArrayCrLfSerializer();
+		delegate.setPoolSize(1);
+		PooledByteBufferDeserializer deser = new PooledByteBufferDeserializer(delegate, 2);
+		DirectByteBufferPool pool = deser.getBufferPool();
+		ByteArrayInputStream bais = new ByteArrayInputStream("foo\r\n".getBytes());
+		PooledByteBuffer buffer = deser.deserialize(bais);
+		assertThat(buffer.size()).isEqualTo(3);
+		assertThat(new String(buffer.toByteArray())).isEqualTo("foo");
+		ByteBuffer byteBuffer = buffer.getByteBuffer();
+		assertThat(byteBuffer.isDirect()).isTrue();
+		assertThat(byteBuffer.isReadOnly()).isTrue();
+		assertThat(pool.getActiveCount()).isEqualTo(1);
+		assertThat(buffer.retain().refCount()).isEqualTo(2);
+		assertThat(buffer.release()).isFalse();
+		assertThat(PooledByteBuffer.releaseIfPooled(buffer)).isTrue();
+		assertThat(pool.getActiveCount()).isEqualTo(0);
+		assertThat(pool.getIdleCount()).isEqualTo(1);
+		assertThatIllegalStateException().isThrownBy(buffer::release);
+		assertThatIllegalStateException().isThrownBy(buffer::getByteBuffer);
+		bais.reset();
+		buffer = deser.deserialize(bais);
+		assertThat(new String(buffer.toByteArray())).isEqualTo("foo");
+		assertThat(pool.getIdleCount()).isEqualTo(0);
+		assertThat(pool.getActiveCount()).isEqualTo(1);
+		buffer.release();
+		assertThat(TestUtils.getPropertyValue(delegate, "pool.allocated", Set.class).size()).isEqualTo(1);
+		assertThat(TestUtils.getPropertyValue(delegate, "pool.inUse", Set.class).size()).isEqualTo(0);
+		assertThat(PooledByteBuffer.releaseIfPooled("foo".getBytes())).isFalse();
+	}
+
+	@Test
+	public void testLeakDetection() {
+		DirectByteBufferPool pool = new DirectByteBufferPool(1, 16);
+		pool.setWaitTimeout(0);
+		PooledByteBuffer buffer = pool.allocate("foo".getBytes(), 3);
+		ByteBuffer view = buffer.getByteBuffer();
+		assertThat(pool.getActiveCount()).isEqualTo(1);
+		assertThatExceptionOfType(PoolItemNotAvailableException.class)
+				.isThrownBy(() -> pool.allocate("bar".getBytes(), 3));
+		// simulate the collection of the PooledByteBuffer while its view is still in use
+		enqueueTracker(pool, buffer);
+		assertThat(pool.reclaimLeaks()).isEqualTo(0);
+		assertThat(pool.getActiveCount()).isEqualTo(1);
+		enqueueTracker(pool, view);
+		assertThat(pool.reclaimLeaks()).isEqualTo(1);
+		assertThat(pool.getLeakCount()).isEqualTo(1);
+		assertThat(pool.getActiveCount()).isEqualTo(0);
+		buffer = pool.allocate("bar".getBytes(), 3);
+		assertThat(new String(buffer.toByteArray())).isEqualTo("bar");
+		buffer.release();
+		assertThat(pool.reclaimLeaks()).isEqualTo(0);
+		assertThat(pool.getLeakCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void testLeaksReclaimedWhileWaiting() throws Exception {
+		DirectByteBufferPool pool = new DirectByteBufferPool(1, 16);
+		pool.setWaitTimeout(10_000);
+		PooledByteBuffer buffer = pool.allocate("foo".getBytes(), 3);
+		ExecutorService exec = Executors.newSingleThreadExecutor();
+		exec.execute(() -> {
+			try {
+				Thread.sleep(200);
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			enqueueTracker(pool, buffer);
+		});
+		PooledByteBuffer next = pool.allocate("bar".getBytes(), 3);
+		assertThat(new String(next.toByteArray())).isEqualTo("bar");
+		assertThat(pool.getLeakCount()).isEqualTo(1);
+		next.release();
+		exec.shutdownNow();
+	}
+
+	@Test
+	public void testEndpointReleasesWhenFlowReturns() {
+		DirectByteBufferPool pool = new DirectByteBufferPool(2, 16);
+		TcpReceivingChannelAdapter adapter = new TcpReceivingChannelAdapter();
+		adapter.setBeanFactory(mock(BeanFactory.class));
+		PublishSubscribeChannel pubSub = new PublishSubscribeChannel();
+		pubSub.subscribe(message -> {
+			assertThat(((PooledByteBuffer) message.getPayload()).refCount()).isEqualTo(1);
+		});
+		adapter.setOutputChannel(pubSub);
+		adapter.afterPropertiesSet();
+		PooledByteBuffer buffer = pool.allocate("foo".getBytes(), 3);
+		adapter.onMessage(new GenericMessage<>(buffer));
+		assertThat(buffer.refCount()).isEqualTo(0);
+		assertThat(pool.getActiveCount()).isEqualTo(0);
+	}
+
+	@Test
+	public void testInterceptorRetainsAcrossHandOff() throws Exception {
+		DirectByteBufferPool pool = new DirectByteBufferPool(2, 16);
+		TcpReceivingChannelAdapter adapter = new TcpReceivingChannelAdapter();
+		adapter.setBeanFactory(mock(BeanFactory.class));
+		ExecutorService exec = Executors.newSingleThreadExecutor();
+		ExecutorChannel executorChannel = new ExecutorChannel(exec);
+		executorChannel.setBeanFactory(mock(BeanFactory.class));
+		executorChannel.afterPropertiesSet();
+		executorChannel.addInterceptor(new PooledByteBufferChannelInterceptor());
+		CountDownLatch handOff = new CountDownLatch(1);
+		AtomicReference<String> received = new AtomicReference<>();
+		CountDownLatch handled = new CountDownLatch(1);
+		executorChannel.subscribe(message -> {
+			try {
+				handOff.await(10, TimeUnit.SECONDS);
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			received.set(new String(((PooledByteBuffer) message.getPayload()).toByteArray()));
+			handled.countDown();
+		});
+		adapter.setOutputChannel(executorChannel);
+		adapter.afterPropertiesSet();
+		PooledByteBuffer buffer = pool.allocate("foo".getBytes(), 3);
+		adapter.onMessage(new GenericMessage<>(buffer));
+		assertThat(buffer.refCount()).isEqualTo(1);
+		handOff.countDown();
+		assertThat(handled.await(10, TimeUnit.SECONDS)).isTrue();
+		assertThat(received.get()).isEqualTo("foo");
+		int n = 0;
+		while (n++ < 100 && pool.getActiveCount() > 0) {
+			Thread.sleep(50);
+		}
+		assertThat(buffer.refCount()).isEqualTo(0);
+		assertThat(pool.getActiveCount()).isEqualTo(0);
+		QueueChannel queue = new QueueChannel(1);
+		queue.addInterceptor(new PooledByteBufferChannelInterceptor());
+		queue.send(new GenericMessage<>("full"));
+		adapter.setOutputChannel(queue);
+		adapter.setSendTimeout(0);
+		buffer = pool.allocate("bar".getBytes(), 3);
+		try {
+			adapter.onMessage(new GenericMessage<>(buffer));
+		}
+		catch (Exception e) {
+			// expected
+		}
+		assertThat(buffer.refCount()).isEqualTo(0);
+		assertThat(pool.getActiveCount()).isEqualTo(0);
+		exec.shutdownNow();
+	}
+
+	private static void enqueueTracker(DirectByteBufferPool pool, Object referent) {
+		for (Object allocation : TestUtils.getPropertyValue(pool, "allocations", Set.class)) {
+			for (Object tracker : TestUtils.getPropertyValue(allocation, "trackers", Set.class)) {
+				if (((Reference<?>) tracker).get() == referent) {
+					((Reference<?>) tracker).enqueue();
+				}
+			}
+		}
+	}
+
 }
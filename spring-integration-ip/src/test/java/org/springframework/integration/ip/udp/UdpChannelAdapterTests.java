@@ -18,18 +18,29 @@ package org.springframework.integration.ip.udp;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.fail;
+import static org.assertj.core.api.Assumptions.assumeThat;
 import static org.mockito.Mockito.mock;
 
 import java.io.IOException;
+import java.lang.reflect.Field;
 import java.net.DatagramPacket;
 import java.net.DatagramSocket;
 import java.net.Inet4Address;
 import java.net.InetSocketAddress;
+import java.net.SocketOption;
+import java.net.StandardSocketOptions;
+import java.nio.channels.DatagramChannel;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 
 import org.junit.Rule;
@@ -45,8 +56,10 @@ import org.springframework.integration.handler.ServiceActivatingHandler;
 import org.springframework.integration.ip.IpHeaders;
 import org.springframework.integration.ip.util.SocketTestUtils;
 import org.springframework.integration.support.MessageBuilder;
+import org.springframework.integration.test.util.TestUtils;
 import org.springframework.messaging.Message;
 import org.springframework.messaging.SubscribableChannel;
+import org.springframework.util.ReflectionUtils;
 
 /**
  *
@@ -242,6 +255,114 @@ public class UdpChannelAdapterTests {
 		handler.stop();
 	}
 
+	@SuppressWarnings("unchecked")
+	@Test
+	public void testNioUnicastReceiverBatchesAndBatchSender() throws Exception {
+		QueueChannel channel = new QueueChannel();
+		NioUnicastReceivingChannelAdapter adapter = new NioUnicastReceivingChannelAdapter(0);
+		adapter.setMaxBatchSize(10);
+		adapter.setOutputChannel(channel);
+		adapter.start();
+		SocketTestUtils.waitListening(adapter);
+		int port = adapter.getPort();
+
+		UnicastSendingMessageHandler handler = new UnicastSendingMessageHandler("localhost", port);
+		handler.setBeanFactory(mock(BeanFactory.class));
+		handler.afterPropertiesSet();
+		handler.start();
+		String[] payloads = new String[50];
+		for (int i = 0; i < payloads.length; i++) {
+			payloads[i] = "foo" + i;
+		}
+		handler.handleMessage(MessageBuilder.withPayload(Arrays.asList(payloads)).build());
+		Set<String> received = new HashSet<>();
+		for (int i = 0; i < payloads.length; i++) {
+			Message<byte[]> receivedMessage = (Message<byte[]>) channel.receive(10000);
+			assertThat(receivedMessage).isNotNull();
+			assertThat(receivedMessage.getHeaders().get(IpHeaders.PORT)).isNotNull();
+			received.add(new String(receivedMessage.getPayload()));
+		}
+		assertThat(received).containsExactlyInAnyOrder(payloads);
+		int n = 0;
+		while (n++ < 100 && adapter.getPooledBufferCount() == 0) {
+			Thread.sleep(100);
+		}
+		assertThat(adapter.getPooledBufferCount()).isGreaterThan(0);
+		adapter.stop();
+		handler.stop();
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void testNioUnicastReceiverReusePort() throws Exception {
+		Field reusePort = ReflectionUtils.findField(StandardSocketOptions.class, "SO_REUSEPORT");
+		assumeThat(reusePort).isNotNull();
+		try (DatagramChannel probe = DatagramChannel.open()) {
+			assumeThat(probe.supportedOptions())
+					.contains((SocketOption<?>) ReflectionUtils.getField(reusePort, null));
+		}
+		QueueChannel channel = new QueueChannel();
+		NioUnicastReceivingChannelAdapter adapter = new NioUnicastReceivingChannelAdapter(0);
+		adapter.setSocketCount(3);
+		adapter.setPoolSize(10);
+		adapter.setOutputChannel(channel);
+		adapter.start();
+		SocketTestUtils.waitListening(adapter);
+		int port = adapter.getPort();
+
+		Set<String> sent = new HashSet<>();
+		for (int i = 0; i < 30; i++) {
+			String payload = "foo" + i;
+			byte[] bytes = payload.getBytes();
+			try (DatagramSocket datagramSocket = new DatagramSocket(0)) {
+				datagramSocket.send(new DatagramPacket(bytes, bytes.length, new InetSocketAddress("localhost", port)));
+			}
+			sent.add(payload);
+		}
+		Set<String> received = new HashSet<>();
+		for (int i = 0; i < sent.size(); i++) {
+			Message<byte[]> receivedMessage = (Message<byte[]>) channel.receive(10000);
+			assertThat(receivedMessage).isNotNull();
+			received.add(new String(receivedMessage.getPayload()));
+		}
+		assertThat(received).isEqualTo(sent);
+		adapter.stop();
+	}
+
+	@Test
+	public void testNioUnicastReceiverReusePortReaderRejected() throws Exception {
+		Field reusePort = ReflectionUtils.findField(StandardSocketOptions.class, "SO_REUSEPORT");
+		assumeThat(reusePort).isNotNull();
+		try (DatagramChannel probe = DatagramChannel.open()) {
+			assumeThat(probe.supportedOptions())
+					.contains((SocketOption<?>) ReflectionUtils.getField(reusePort, null));
+		}
+		CountDownLatch finished = new CountDownLatch(2);
+		AtomicInteger submitted = new AtomicInteger();
+		NioUnicastReceivingChannelAdapter adapter = new NioUnicastReceivingChannelAdapter(0);
+		adapter.setSocketCount(3);
+		adapter.setOutputChannel(new QueueChannel());
+		// runs the adapter and the first additional reader, rejects the second reader
+		adapter.setTaskExecutor(task -> {
+			if (submitted.incrementAndGet() > 2) {
+				throw new RejectedExecutionException("test");
+			}
+			new Thread(() -> {
+				try {
+					task.run();
+				}
+				finally {
+					finished.countDown();
+				}
+			}).start();
+		});
+		adapter.start();
+		assertThat(finished.await(10, TimeUnit.SECONDS)).isTrue();
+		assertThat(adapter.isRunning()).isFalse();
+		assertThat(adapter.isListening()).isFalse();
+		assertThat(TestUtils.getPropertyValue(adapter, "additionalChannels", List.class)).isEmpty();
+	}
+
 	@SuppressWarnings("unchecked")
 	@Test
 	public void testMulticastReceiver() throws Exception {
@@ -38,6 +38,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.integration.IntegrationMessageHeaderAccessor;
 import org.springframework.integration.channel.DirectChannel;
 import org.springframework.integration.history.MessageHistory;
+import org.springframework.integration.store.CompactMessageSerializer;
 import org.springframework.integration.store.MessageGroup;
 import org.springframework.integration.support.MessageBuilder;
 import org.springframework.integration.test.predicate.MessagePredicate;
@@ -138,6 +139,24 @@ public class JdbcMessageStoreTests {
 		assertThat(result.getPayload()).isEqualTo("foo");
 	}
 
+	@Test
+	public void testCompactMessageSerializer() {
+		CompactMessageSerializer serializer = new CompactMessageSerializer();
+		serializer.setCompressionThreshold(16);
+		messageStore.setSerializer(serializer);
+		messageStore.setDeserializer(serializer.messageDeserializer());
+		Message<String> message = MessageBuilder.withPayload("foo")
+				.setCorrelationId("bar")
+				.setSequenceNumber(2)
+				.setHeader("baz", 42L)
+				.build();
+		Message<String> saved = messageStore.addMessage(message);
+		Message<?> result = messageStore.getMessage(saved.getHeaders().getId());
+		assertThat(result).isNotNull();
+		assertThat(saved).matches(new MessagePredicate(result));
+		assertThat(result.getHeaders().get("baz")).isEqualTo(42L);
+	}
+
 	@Test
 	public void testAddAndGetWithDifferentRegion() {
 		Message<String> message = MessageBuilder.withPayload("foo").build();
@@ -0,0 +1,260 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.jms;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.jms.JMSException;
+import javax.jms.Message;
+import javax.jms.MessageConsumer;
+import javax.jms.Session;
+
+import org.springframework.jms.listener.DefaultMessageListenerContainer;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * A {@link DefaultMessageListenerContainer} that consumes messages in batches of up to
+ * {@link #setBatchSize(int) batchSize} messages, or as many as are received within
+ * {@link #setBatchTimeout(long) batchTimeout} milliseconds of the first message of the
+ * batch, and commits (or acknowledges) the whole batch once.
+ * <p>
+ * By default, the listener is invoked for each message as it is received; only the
+ * commit is deferred. When {@link #setBatchListener(boolean) batchListener} is true,
+ * the listener must implement {@link BatchMessageListener} and it is invoked once with
+ * the list of messages.
+ * <p>
+ * Requires a locally transacted session (or {@code CLIENT_ACKNOWLEDGE}), no external
+ * transaction manager and a cache level of at least {@link #CACHE_CONSUMER}, so that
+ * the session stays open for the whole batch. An exception thrown by the listener
+ * rolls back (and causes the redelivery of) the whole batch.
+ *
+ * @author Gary Russell
+ * @since 5.2
+ *
+ */
+public class BatchingMessageListenerContainer extends DefaultMessageListenerContainer {
+
+	/**
+	 * The default batch size.
+	 */
+	public static final int DEFAULT_BATCH_SIZE = 10;
+
+	private final ThreadLocal<Batch> batches = new ThreadLocal<>();
+
+	private int batchSize = DEFAULT_BATCH_SIZE;
+
+	private long batchTimeout = DEFAULT_RECEIVE_TIMEOUT;
+
+	private boolean batchListener;
+
+	/**
+	 * Set the maximum number of messages in a batch; default
+	 * {@value #DEFAULT_BATCH_SIZE}.
+	 * @param batchSize the batch size.
+	 */
+	public void setBatchSize(int batchSize) {
+		Assert.isTrue(batchSize > 0, "'batchSize' must be greater than 0");
+		this.batchSize = batchSize;
+	}
+
+	/**
+	 * Set the maximum time in milliseconds, from the receipt of the first message of a
+	 * batch, after which a partial batch is completed; default 1000.
+	 * @param batchTimeout the batch timeout.
+	 */
+	public void setBatchTimeout(long batchTimeout) {
+		Assert.isTrue(batchTimeout > 0, "'batchTimeout' must be greater than 0");
+		this.batchTimeout = batchTimeout;
+	}
+
+	/**
+	 * Set to true to invoke the listener once per batch, with the list of messages.
+	 * The listener must then implement {@link BatchMessageListener}.
+	 * @param batchListener true to invoke the listener with the batch.
+	 */
+	public void setBatchListener(boolean batchListener) {
+		this.batchListener = batchListener;
+	}
+
+	public int getBatchSize() {
+		return this.batchSize;
+	}
+
+	public long getBatchTimeout() {
+		return this.batchTimeout;
+	}
+
+	public boolean isBatchListener() {
+		return this.batchListener;
+	}
+
+	@Override
+	protected void validateConfiguration() {
+		super.validateConfiguration();
+		Assert.state(getTransactionManager() == null,
+				"A transaction manager is not supported; use a locally transacted session instead");
+		Assert.state(isSessionTransacted() || getSessionAcknowledgeMode() == Session.CLIENT_ACKNOWLEDGE,
+				"Batches require a transacted session or CLIENT_ACKNOWLEDGE");
+		Assert.state(getCacheLevel() >= CACHE_CONSUMER, "Batches require a cache level of at least CACHE_CONSUMER");
+		Assert.state(!this.batchListener || getMessageListener() instanceof BatchMessageListener,
+				"The message listener must implement BatchMessageListener when 'batchListener' is true");
+	}
+
+	@Override
+	@Nullable
+	protected Message receiveMessage(MessageConsumer consumer) throws JMSException {
+		Batch batch = this.batches.get();
+		if (batch == null || batch.count == 0) {
+			return super.receiveMessage(consumer);
+		}
+		// don't wait beyond the end of the current batch
+		long remaining = batch.deadline - System.currentTimeMillis();
+		if (remaining <= 0) {
+			return receiveFromConsumer(consumer, RECEIVE_TIMEOUT_NO_WAIT);
+		}
+		long receiveTimeout = getReceiveTimeout();
+		return receiveFromConsumer(consumer, receiveTimeout > 0 ? Math.min(receiveTimeout, remaining) : remaining);
+	}
+
+	@Override
+	protected void invokeListener(Session session, Message message) throws JMSException {
+		Batch batch = this.batches.get();
+		if (batch == null || batch.session != session || batch.complete) {
+			// a batch left by a closed session was rolled back by the broker
+			batch = new Batch(session, this.batchListener);
+			this.batches.set(batch);
+		}
+		if (batch.count == 0) {
+			batch.deadline = System.currentTimeMillis() + this.batchTimeout;
+		}
+		batch.add(message);
+		if (!this.batchListener) {
+			super.invokeListener(session, message);
+		}
+		if (batch.count >= this.batchSize || System.currentTimeMillis() >= batch.deadline) {
+			completeBatch(session, batch);
+		}
+	}
+
+	@Override
+	protected void commitIfNecessary(Session session, @Nullable Message message) throws JMSException {
+		Batch batch = this.batches.get();
+		if (batch != null && batch.session == session && batch.count > 0) {
+			if (!batch.complete) {
+				return; // deferred until the batch is complete
+			}
+			this.batches.remove();
+			super.commitIfNecessary(session, message != null ? message : batch.last);
+		}
+		else {
+			super.commitIfNecessary(session, message);
+		}
+	}
+
+	@Override
+	protected void noMessageReceived(Object invoker, Session session) {
+		super.noMessageReceived(invoker, session);
+		Batch batch = this.batches.get();
+		if (batch != null && batch.session == session && batch.count > 0 && !batch.complete) {
+			try {
+				if (!isAcceptMessagesWhileStopping() && !isRunning()) {
+					rollbackIfNecessary(session);
+					return;
+				}
+				completeBatch(session, batch);
+				commitIfNecessary(session, batch.last);
+			}
+			catch (Throwable ex) { // NOSONAR
+				try {
+					rollbackOnExceptionIfNecessary(session, ex);
+				}
+				catch (JMSException e) {
+					logger.error("Failed to roll back a batch", e);
+				}
+				handleListenerException(ex);
+			}
+		}
+	}
+
+	@Override
+	protected void rollbackIfNecessary(Session session) throws JMSException {
+		this.batches.remove();
+		super.rollbackIfNecessary(session);
+	}
+
+	@Override
+	protected void rollbackOnExceptionIfNecessary(Session session, Throwable ex) throws JMSException {
+		this.batches.remove();
+		super.rollbackOnExceptionIfNecessary(session, ex);
+	}
+
+	private void completeBatch(Session session, Batch batch) throws JMSException {
+		batch.complete = true;
+		if (this.batchListener) {
+			((BatchMessageListener) getMessageListener()).onMessageBatch(batch.messages, session);
+		}
+	}
+
+	/**
+	 * A listener that receives a batch of messages from a
+	 * {@link BatchingMessageListenerContainer}.
+	 */
+	@FunctionalInterface
+	public interface BatchMessageListener {
+
+		/**
+		 * Process a batch of messages.
+		 * @param messages the messages.
+		 * @param session the session; the batch is committed when this method returns.
+		 * @throws JMSException if thrown by JMS API methods.
+		 */
+		void onMessageBatch(List<Message> messages, Session session) throws JMSException;
+
+	}
+
+	private static final class Batch {
+
+		private final Session session;
+
+		private final List<Message> messages;
+
+		private int count;
+
+		private Message last;
+
+		private long deadline;
+
+		private boolean complete;
+
+		Batch(Session session, boolean keepMessages) {
+			this.session = session;
+			this.messages = keepMessages ? new ArrayList<>() : null;
+		}
+
+		void add(Message message) {
+			if (this.messages != null) {
+				this.messages.add(message);
+			}
+			this.count++;
+			this.last = message;
+		}
+
+	}
+
+}
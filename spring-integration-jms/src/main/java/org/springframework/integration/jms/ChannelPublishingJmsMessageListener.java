@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,6 +16,8 @@
 
 package org.springframework.integration.jms;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
 import javax.jms.DeliveryMode;
@@ -55,6 +57,10 @@ import org.springframework.util.Assert;
  * Message and sends that Message to a channel. If the 'expectReply' value is
  * <code>true</code>, it will also wait for a Spring Integration reply Message
  * and convert that into a JMS reply.
+ * <p>
+ * When used with a {@link BatchingMessageListenerContainer} configured as a batch
+ * listener, a batch of JMS Messages is sent as a single Message with a {@link List}
+ * of converted Messages as its payload; replies are not supported in that case.
  *
  * @author Mark Fisher
  * @author Juergen Hoeller
@@ -63,7 +69,8 @@ import org.springframework.util.Assert;
  * @author Gary Russell
  */
 public class ChannelPublishingJmsMessageListener
-		implements SessionAwareMessageListener<javax.jms.Message>, InitializingBean,
+		implements SessionAwareMessageListener<javax.jms.Message>,
+		BatchingMessageListenerContainer.BatchMessageListener, InitializingBean,
 		TrackableComponent, BeanFactoryAware {
 
 	protected final Log logger = LogFactory.getLog(getClass());
@@ -106,6 +113,10 @@ public class ChannelPublishingJmsMessageListener
 		this.expectReply = expectReply;
 	}
 
+	boolean isExpectReply() {
+		return this.expectReply;
+	}
+
 	public void setComponentName(String componentName) {
 		this.gatewayDelegate.setComponentName(componentName);
 	}
@@ -309,34 +320,8 @@ public class ChannelPublishingJmsMessageListener
 
 	@Override
 	public void onMessage(javax.jms.Message jmsMessage, Session session) throws JMSException {
-		Object result = jmsMessage;
-		Message<?> requestMessage = null;
-		boolean errors = false;
-		try {
-			if (this.extractRequestPayload) {
-				result = this.messageConverter.fromMessage(jmsMessage);
-				if (this.logger.isDebugEnabled()) {
-					this.logger.debug("converted JMS Message [" + jmsMessage + "] to integration Message payload ["
-							+ result + "]");
-				}
-			}
-
-			Map<String, Object> headers = this.headerMapper.toHeaders(jmsMessage);
-			requestMessage = (result instanceof Message<?>) ?
-					this.messageBuilderFactory.fromMessage((Message<?>) result).copyHeaders(headers).build() :
-					this.messageBuilderFactory.withPayload(result).copyHeaders(headers).build();
-		}
-		catch (RuntimeException e) {
-			MessageChannel errorChannel = this.gatewayDelegate.getErrorChannel();
-			if (errorChannel == null) {
-				throw e;
-			}
-			this.gatewayDelegate.getMessagingTemplate().send(errorChannel,
-					this.gatewayDelegate.buildErrorMessage(
-							new MessagingException("Inbound conversion failed for: " + jmsMessage, e)));
-			errors = true;
-		}
-		if (!errors) {
+		Message<?> requestMessage = toRequestMessage(jmsMessage);
+		if (requestMessage != null) {
 			if (!this.expectReply) {
 				this.gatewayDelegate.send(requestMessage);
 			}
@@ -373,6 +358,64 @@ public class ChannelPublishingJmsMessageListener
 		}
 	}
 
+	/**
+	 * Convert the JMS Messages and send them as the payload of a single Message.
+	 * Messages that cannot be converted are sent to the error channel, if any.
+	 * @param jmsMessages the JMS Messages.
+	 * @param session the session.
+	 * @throws JMSException if thrown by JMS API methods.
+	 * @since 5.2
+	 */
+	@Override
+	public void onMessageBatch(List<javax.jms.Message> jmsMessages, Session session) throws JMSException {
+		Assert.state(!this.expectReply, "Replies are not supported for batches");
+		List<Message<?>> batch = new ArrayList<>(jmsMessages.size());
+		for (javax.jms.Message jmsMessage : jmsMessages) {
+			Message<?> requestMessage = toRequestMessage(jmsMessage);
+			if (requestMessage != null) {
+				batch.add(requestMessage);
+			}
+		}
+		if (!batch.isEmpty()) {
+			this.gatewayDelegate.send(this.messageBuilderFactory.withPayload(batch).build());
+		}
+	}
+
+	/**
+	 * Convert the JMS Message; if the conversion fails and there is an error channel,
+	 * send an error message to it and return null.
+	 * @param jmsMessage the JMS Message.
+	 * @return the message, or null.
+	 * @throws JMSException if thrown by JMS API methods.
+	 */
+	private Message<?> toRequestMessage(javax.jms.Message jmsMessage) throws JMSException {
+		try {
+			Object result = jmsMessage;
+			if (this.extractRequestPayload) {
+				result = this.messageConverter.fromMessage(jmsMessage);
+				if (this.logger.isDebugEnabled()) {
+					this.logger.debug("converted JMS Message [" + jmsMessage + "] to integration Message payload ["
+							+ result + "]");
+				}
+			}
+
+			Map<String, Object> headers = this.headerMapper.toHeaders(jmsMessage);
+			return (result instanceof Message<?>) ?
+					this.messageBuilderFactory.fromMessage((Message<?>) result).copyHeaders(headers).build() :
+					this.messageBuilderFactory.withPayload(result).copyHeaders(headers).build();
+		}
+		catch (RuntimeException e) {
+			MessageChannel errorChannel = this.gatewayDelegate.getErrorChannel();
+			if (errorChannel == null) {
+				throw e;
+			}
+			this.gatewayDelegate.getMessagingTemplate().send(errorChannel,
+					this.gatewayDelegate.buildErrorMessage(
+							new MessagingException("Inbound conversion failed for: " + jmsMessage, e)));
+			return null;
+		}
+	}
+
 	@Override
 	public void afterPropertiesSet() {
 		if (this.beanFactory != null) {
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,14 +16,22 @@
 
 package org.springframework.integration.jms;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
 import javax.jms.Destination;
+import javax.jms.JMSException;
+import javax.jms.MessageConsumer;
+import javax.jms.Session;
+import javax.jms.Topic;
 
 import org.springframework.integration.endpoint.AbstractMessageSource;
 import org.springframework.integration.jms.util.JmsAdapterUtils;
 import org.springframework.integration.support.AbstractIntegrationMessageBuilder;
+import org.springframework.jms.connection.ConnectionFactoryUtils;
 import org.springframework.jms.core.JmsTemplate;
+import org.springframework.jms.support.JmsUtils;
 import org.springframework.jms.support.converter.MessageConverter;
 import org.springframework.messaging.Message;
 import org.springframework.messaging.MessagingException;
@@ -34,14 +42,19 @@ import org.springframework.util.Assert;
  * only recommended for very low message volume. Otherwise, the
  * {@link JmsMessageDrivenEndpoint} that uses Spring's MessageListener container
  * support is a better option.
+ * <p>
+ * When the {@link #setMaxMessagesPerReceive(int) maxMessagesPerReceive} is greater than
+ * one, each receive drains up to that number of messages from a single consumer and
+ * returns them as one message with a {@link List} payload, with a single commit (or
+ * acknowledgment) for the batch.
  *
  * @author Mark Fisher
  * @author Oleg Zhurakousky
  * @author Artem Bilan
+ * @author Gary Russell
  */
 public class JmsDestinationPollingSource extends AbstractMessageSource<Object> {
 
-
 	private final JmsTemplate jmsTemplate;
 
 	private volatile Destination destination;
@@ -56,6 +69,8 @@ public class JmsDestinationPollingSource extends AbstractMessageSource<Object> {
 
 	private volatile boolean extractPayload = true;
 
+	private volatile int maxMessagesPerReceive = 1;
+
 	public JmsDestinationPollingSource(JmsTemplate jmsTemplate) {
 		this.jmsTemplate = jmsTemplate;
 	}
@@ -80,6 +95,21 @@ public class JmsDestinationPollingSource extends AbstractMessageSource<Object> {
 		this.extractPayload = extractPayload;
 	}
 
+	/**
+	 * Set the maximum number of JMS messages to receive in one operation. When greater
+	 * than one, a single consumer is used to receive the first message (honoring the
+	 * template's {@code receiveTimeout}) and then up to {@code maxMessagesPerReceive - 1}
+	 * more messages that are immediately available; the session is committed (or the
+	 * last message acknowledged) once for the batch, and a single message with a
+	 * {@code List<Message<?>>} payload is returned. Default 1.
+	 * @param maxMessagesPerReceive the maximum number of messages per receive.
+	 * @since 5.2
+	 */
+	public void setMaxMessagesPerReceive(int maxMessagesPerReceive) {
+		Assert.isTrue(maxMessagesPerReceive > 0, "'maxMessagesPerReceive' must be greater than 0");
+		this.maxMessagesPerReceive = maxMessagesPerReceive;
+	}
+
 	@Override
 	public String getComponentType() {
 		return "jms:inbound-channel-adapter";
@@ -120,34 +150,115 @@ public class JmsDestinationPollingSource extends AbstractMessageSource<Object> {
 	 * Will receive a JMS {@link javax.jms.Message} converting and returning it as
 	 * a Spring Integration {@link Message}. This method will also use the current
 	 * {@link JmsHeaderMapper} instance to map JMS properties to the MessageHeaders.
+	 * When {@code maxMessagesPerReceive} is greater than one, the converted messages
+	 * are returned as the {@link List} payload of a single message.
 	 */
 	@Override
 	protected Object doReceive() {
+		if (this.maxMessagesPerReceive > 1) {
+			List<Message<?>> messages = this.jmsTemplate.execute(this::doReceiveBatch, true);
+			return messages == null || messages.isEmpty() ? null : messages;
+		}
 		javax.jms.Message jmsMessage = doReceiveJmsMessage();
 		if (jmsMessage == null) {
 			return null;
 		}
 		try {
-			// Map headers
-			Map<String, Object> mappedHeaders = this.headerMapper.toHeaders(jmsMessage);
-			Object object = jmsMessage;
-			if (this.extractPayload) {
-				MessageConverter converter = this.jmsTemplate.getMessageConverter();
-				if (converter != null) {
-					object = converter.fromMessage(jmsMessage);
-				}
-			}
-			AbstractIntegrationMessageBuilder<?> builder =
-					(object instanceof Message)
-							? getMessageBuilderFactory().fromMessage((Message<?>) object)
-							: getMessageBuilderFactory().withPayload(object);
-			return builder.copyHeadersIfAbsent(mappedHeaders);
+			return toMessageBuilder(jmsMessage);
 		}
 		catch (Exception e) {
 			throw new MessagingException(e.getMessage(), e);
 		}
 	}
 
+	private AbstractIntegrationMessageBuilder<?> toMessageBuilder(javax.jms.Message jmsMessage)
+			throws JMSException {
+
+		// Map headers
+		Map<String, Object> mappedHeaders = this.headerMapper.toHeaders(jmsMessage);
+		Object object = jmsMessage;
+		if (this.extractPayload) {
+			MessageConverter converter = this.jmsTemplate.getMessageConverter();
+			if (converter != null) {
+				object = converter.fromMessage(jmsMessage);
+			}
+		}
+		AbstractIntegrationMessageBuilder<?> builder =
+				(object instanceof Message)
+						? getMessageBuilderFactory().fromMessage((Message<?>) object)
+						: getMessageBuilderFactory().withPayload(object);
+		return builder.copyHeadersIfAbsent(mappedHeaders);
+	}
+
+	private List<Message<?>> doReceiveBatch(Session session) throws JMSException {
+		Destination destinationToUse = resolveDestination(session);
+		MessageConsumer consumer = null;
+		try {
+			if (destinationToUse instanceof Topic) {
+				consumer = session.createConsumer(destinationToUse, this.messageSelector,
+						this.jmsTemplate.isPubSubNoLocal());
+			}
+			else {
+				consumer = session.createConsumer(destinationToUse, this.messageSelector);
+			}
+			List<Message<?>> messages = new ArrayList<>();
+			javax.jms.Message jmsMessage = receiveFirst(consumer);
+			javax.jms.Message lastMessage = null;
+			while (jmsMessage != null) {
+				// convert before committing, so a conversion failure rolls back the batch
+				messages.add(toMessageBuilder(jmsMessage).build());
+				lastMessage = jmsMessage;
+				jmsMessage = messages.size() < this.maxMessagesPerReceive ? consumer.receiveNoWait() : null;
+			}
+			if (lastMessage != null) {
+				if (session.getTransacted()) {
+					if (!ConnectionFactoryUtils.isSessionTransactional(session,
+							this.jmsTemplate.getConnectionFactory())) {
+						JmsUtils.commitIfNecessary(session);
+					}
+				}
+				else if (session.getAcknowledgeMode() == Session.CLIENT_ACKNOWLEDGE) {
+					lastMessage.acknowledge();
+				}
+			}
+			return messages;
+		}
+		finally {
+			JmsUtils.closeMessageConsumer(consumer);
+		}
+	}
+
+	private Destination resolveDestination(Session session) throws JMSException {
+		if (this.destination != null) {
+			return this.destination;
+		}
+		String name = this.destinationName;
+		if (name == null) {
+			Destination defaultDestination = this.jmsTemplate.getDefaultDestination();
+			if (defaultDestination != null) {
+				return defaultDestination;
+			}
+			name = this.jmsTemplate.getDefaultDestinationName();
+			Assert.state(name != null,
+					"No 'destination' or 'destinationName' and no default destination on the template");
+		}
+		return this.jmsTemplate.getDestinationResolver()
+				.resolveDestinationName(session, name, this.jmsTemplate.isPubSubDomain());
+	}
+
+	private javax.jms.Message receiveFirst(MessageConsumer consumer) throws JMSException {
+		long timeout = this.jmsTemplate.getReceiveTimeout();
+		if (timeout > 0) {
+			return consumer.receive(timeout);
+		}
+		else if (timeout < 0) {
+			return consumer.receiveNoWait();
+		}
+		else {
+			return consumer.receive();
+		}
+	}
+
 	private javax.jms.Message doReceiveJmsMessage() {
 		javax.jms.Message jmsMessage = null;
 		if (this.destination != null) {
@@ -170,9 +170,10 @@ public class JmsMessageDrivenEndpoint extends MessageProducerSupport
 		super.onInit();
 
 		this.listener.afterPropertiesSet();
-		if (!this.listenerContainer.isActive()) {
-			this.listenerContainer.afterPropertiesSet();
-		}
+		Assert.state(!(this.listenerContainer instanceof BatchingMessageListenerContainer
+						&& ((BatchingMessageListenerContainer) this.listenerContainer).isBatchListener()
+						&& this.listener.isExpectReply()),
+				"Replies are not supported for batches; a gateway cannot use a batch listener container");
 		String sessionAckeMode = this.sessionAcknowledgeMode;
 		if (sessionAckeMode == null && !this.externalContainer
 				&& DefaultMessageListenerContainer.class.isAssignableFrom(this.listenerContainer.getClass())) {
@@ -187,6 +188,10 @@ public class JmsMessageDrivenEndpoint extends MessageProducerSupport
 				this.listenerContainer.setSessionAcknowledgeMode(acknowledgeMode);
 			}
 		}
+		if (!this.listenerContainer.isActive()) {
+			// after the acknowledge mode is set, so that it is validated by the container
+			this.listenerContainer.afterPropertiesSet();
+		}
 		this.listener.setComponentName(this.getComponentName());
 	}
 
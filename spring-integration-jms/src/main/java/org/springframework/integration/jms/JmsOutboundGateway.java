@@ -94,8 +94,7 @@ public class JmsOutboundGateway extends AbstractReplyProducingMessageHandler imp
 	private final ConcurrentHashMap<String, TimedReply> earlyOrLateReplies =
 			new ConcurrentHashMap<String, JmsOutboundGateway.TimedReply>();
 
-	private final Map<String, SettableListenableFuture<AbstractIntegrationMessageBuilder<?>>> futures =
-			new ConcurrentHashMap<String, SettableListenableFuture<AbstractIntegrationMessageBuilder<?>>>();
+	private final Map<String, ReplyFuture> futures = new ConcurrentHashMap<>();
 
 	private final Object lifeCycleMonitor = new Object();
 
@@ -151,6 +150,8 @@ public class JmsOutboundGateway extends AbstractReplyProducingMessageHandler imp
 
 	private volatile ScheduledFuture<?> reaper;
 
+	private volatile ScheduledFuture<?> replyFutureExpirer;
+
 	private volatile boolean requiresReply;
 
 	private long lastSend;
@@ -596,10 +597,6 @@ public class JmsOutboundGateway extends AbstractReplyProducingMessageHandler imp
 				setContainerProperties(container);
 				container.afterPropertiesSet();
 				this.replyContainer = container;
-				if (isAsync() && this.correlationKey == null) {
-					logger.warn("'async=true' requires a correlationKey; ignored");
-					setAsync(false);
-				}
 			}
 			else {
 				if (isAsync()) {
@@ -714,10 +711,15 @@ public class JmsOutboundGateway extends AbstractReplyProducingMessageHandler imp
 					else {
 						Assert.state(taskScheduler != null, "'taskScheduler' is required.");
 					}
-					if (!isAsync() && this.receiveTimeout >= 0) {
+					if ((!isAsync() || this.correlationKey == null) && this.receiveTimeout >= 0) {
 						Assert.state(taskScheduler != null, "'taskScheduler' is required.");
 						this.reaper = taskScheduler.schedule(new LateReplyReaper(), new Date());
 					}
+					if (isAsync() && this.receiveTimeout > 0) {
+						Assert.state(taskScheduler != null, "'taskScheduler' is required.");
+						this.replyFutureExpirer = taskScheduler.scheduleAtFixedRate(new ReplyFutureExpirer(),
+								Math.max(this.receiveTimeout / 2, 1));
+					}
 				}
 				this.active = true;
 			}
@@ -734,6 +736,10 @@ public class JmsOutboundGateway extends AbstractReplyProducingMessageHandler imp
 				if (this.reaper != null) {
 					this.reaper.cancel(false);
 				}
+				if (this.replyFutureExpirer != null) {
+					this.replyFutureExpirer.cancel(false);
+					this.replyFutureExpirer = null;
+				}
 			}
 			if (this.idleTask != null) {
 				this.idleTask.cancel(true);
@@ -1102,7 +1108,7 @@ public class JmsOutboundGateway extends AbstractReplyProducingMessageHandler imp
 			if (logger.isDebugEnabled()) {
 				logger.debug(this.getComponentName() + " Sending message with correlationId " + correlation);
 			}
-			SettableListenableFuture<AbstractIntegrationMessageBuilder<?>> future = null;
+			ReplyFuture future = null;
 			boolean async = isAsync();
 			if (!async) {
 				replyQueue = new LinkedBlockingQueue<javax.jms.Message>(1);
@@ -1129,15 +1135,15 @@ public class JmsOutboundGateway extends AbstractReplyProducingMessageHandler imp
 		}
 	}
 
-	private javax.jms.Message doSendAndReceiveAsyncDefaultCorrelation(Destination requestDestination,
+	private Object doSendAndReceiveAsyncDefaultCorrelation(Destination requestDestination,
 			javax.jms.Message jmsRequest, Session session, int priority) throws JMSException {
 
 		String correlation = null;
 		MessageProducer messageProducer = null;
+		boolean async = isAsync();
 
 		try {
 			messageProducer = session.createProducer(requestDestination);
-			LinkedBlockingQueue<javax.jms.Message> replyQueue = new LinkedBlockingQueue<javax.jms.Message>(1);
 
 			this.sendRequestMessage(jmsRequest, messageProducer, priority);
 
@@ -1146,6 +1152,24 @@ public class JmsOutboundGateway extends AbstractReplyProducingMessageHandler imp
 			if (logger.isDebugEnabled()) {
 				logger.debug(this.getComponentName() + " Sent message with correlationId " + correlation);
 			}
+			if (async) {
+				ReplyFuture future = createFuture(correlation);
+				/*
+				 * Check to see if the reply arrived before we obtained the correlationId
+				 */
+				synchronized (this.earlyOrLateReplies) {
+					TimedReply timedReply = this.earlyOrLateReplies.remove(correlation);
+					if (timedReply != null) {
+						if (logger.isDebugEnabled()) {
+							logger.debug("Found early reply with correlationId " + correlation);
+						}
+						onMessageAsync(timedReply.getReply(), correlation);
+					}
+				}
+				return future;
+			}
+
+			LinkedBlockingQueue<javax.jms.Message> replyQueue = new LinkedBlockingQueue<javax.jms.Message>(1);
 			this.replies.put(correlation, replyQueue);
 
 			/*
@@ -1165,7 +1189,7 @@ public class JmsOutboundGateway extends AbstractReplyProducingMessageHandler imp
 		}
 		finally {
 			JmsUtils.closeMessageProducer(messageProducer);
-			if (correlation != null) {
+			if (correlation != null && !async) {
 				this.replies.remove(correlation);
 			}
 		}
@@ -1199,19 +1223,20 @@ public class JmsOutboundGateway extends AbstractReplyProducingMessageHandler imp
 		return reply;
 	}
 
-	private SettableListenableFuture<AbstractIntegrationMessageBuilder<?>> createFuture(final String correlationId) {
-		SettableListenableFuture<AbstractIntegrationMessageBuilder<?>> future =
-				new SettableListenableFuture<AbstractIntegrationMessageBuilder<?>>();
+	private ReplyFuture createFuture(final String correlationId) {
+		/*
+		 * Futures are expired by a single periodic task rather than a task per request, so that
+		 * many requests can be in flight without growing the scheduler's queue.
+		 */
+		ReplyFuture future = new ReplyFuture(this.receiveTimeout > 0
+				? System.currentTimeMillis() + this.receiveTimeout
+				: Long.MAX_VALUE);
 		this.futures.put(correlationId, future);
-		if (this.receiveTimeout > 0) {
-			getTaskScheduler().schedule((Runnable) () -> expire(correlationId),
-					new Date(System.currentTimeMillis() + this.receiveTimeout));
-		}
 		return future;
 	}
 
 	private void expire(String correlationId) {
-		final SettableListenableFuture<AbstractIntegrationMessageBuilder<?>> future = this.futures.remove(correlationId);
+		final ReplyFuture future = this.futures.remove(correlationId);
 		if (future != null) {
 			try {
 				if (getRequiresReply()) {
@@ -1313,8 +1338,23 @@ public class JmsOutboundGateway extends AbstractReplyProducingMessageHandler imp
 		}
 	}
 
-	private void onMessageAsync(javax.jms.Message message, String correlationId) throws Exception {
-		SettableListenableFuture<AbstractIntegrationMessageBuilder<?>> future = this.futures.remove(correlationId);
+	private void onMessageAsync(javax.jms.Message message, String correlationId) throws JMSException {
+		ReplyFuture future = this.futures.remove(correlationId);
+		if (future == null && this.correlationKey == null) {
+			/*
+			 * The reply can arrive before the request's JMSMessageID (the correlation) is known.
+			 */
+			synchronized (this.earlyOrLateReplies) {
+				future = this.futures.remove(correlationId);
+				if (future == null) {
+					if (logger.isDebugEnabled()) {
+						logger.debug("Reply for correlationId " + correlationId + " received early or late");
+					}
+					this.earlyOrLateReplies.put(correlationId, new TimedReply(message));
+					return;
+				}
+			}
+		}
 		if (future != null) {
 			message.setJMSCorrelationID(null);
 			future.set(buildReply(message));
@@ -1472,6 +1512,34 @@ public class JmsOutboundGateway extends AbstractReplyProducingMessageHandler imp
 		}
 	}
 
+	private static final class ReplyFuture extends SettableListenableFuture<AbstractIntegrationMessageBuilder<?>> {
+
+		private final long expiresAt;
+
+		ReplyFuture(long expiresAt) {
+			this.expiresAt = expiresAt;
+		}
+
+	}
+
+	private class ReplyFutureExpirer implements Runnable {
+
+		ReplyFutureExpirer() {
+			super();
+		}
+
+		@Override
+		public void run() {
+			long now = System.currentTimeMillis();
+			for (Entry<String, ReplyFuture> entry : JmsOutboundGateway.this.futures.entrySet()) {
+				if (entry.getValue().expiresAt <= now) {
+					expire(entry.getKey());
+				}
+			}
+		}
+
+	}
+
 	private class LateReplyReaper implements Runnable {
 
 		LateReplyReaper() {
@@ -1,5 +1,5 @@
 /*
- * Copyright 2016-2017 the original author or authors.
+ * Copyright 2016-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -93,6 +93,17 @@ public class JmsInboundChannelAdapterSpec<S extends JmsInboundChannelAdapterSpec
 		return _this();
 	}
 
+	/**
+	 * @param maxMessagesPerReceive the maximum number of messages per receive.
+	 * @return the spec.
+	 * @since 5.2
+	 * @see JmsDestinationPollingSource#setMaxMessagesPerReceive(int)
+	 */
+	public S maxMessagesPerReceive(int maxMessagesPerReceive) {
+		this.target.setMaxMessagesPerReceive(maxMessagesPerReceive);
+		return _this();
+	}
+
 	/**
 	 * A {@link JmsTemplate}-based {@link JmsInboundChannelAdapterSpec} extension.
 	 */
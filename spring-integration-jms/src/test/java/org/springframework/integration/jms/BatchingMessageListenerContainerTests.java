@@ -0,0 +1,112 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.jms;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+import static org.mockito.Mockito.mock;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.integration.channel.DirectChannel;
+import org.springframework.integration.channel.QueueChannel;
+import org.springframework.jms.core.JmsTemplate;
+import org.springframework.messaging.Message;
+
+/**
+ * @author Gary Russell
+ * @since 5.2
+ *
+ */
+public class BatchingMessageListenerContainerTests extends ActiveMQMultiContextTests {
+
+	@Test
+	public void testBatchListenerWithRollback() {
+		BatchingMessageListenerContainer container = new BatchingMessageListenerContainer();
+		container.setConnectionFactory(amqFactory);
+		container.setDestinationName("batching.queue");
+		container.setSessionTransacted(true);
+		container.setBatchSize(3);
+		container.setBatchTimeout(500);
+		container.setBatchListener(true);
+		JmsMessageDrivenEndpoint endpoint =
+				new JmsMessageDrivenEndpoint(container, new ChannelPublishingJmsMessageListener());
+		AtomicBoolean fail = new AtomicBoolean(true);
+		QueueChannel out = new QueueChannel();
+		DirectChannel channel = new DirectChannel();
+		channel.subscribe(message -> {
+			if (fail.getAndSet(false)) {
+				throw new RuntimeException("test");
+			}
+			out.send(message);
+		});
+		endpoint.setOutputChannel(channel);
+		endpoint.setBeanFactory(mock(BeanFactory.class));
+		endpoint.afterPropertiesSet();
+		JmsTemplate template = new JmsTemplate(connectionFactory);
+		for (int i = 0; i < 5; i++) {
+			template.convertAndSend("batching.queue", "test" + i);
+		}
+		endpoint.start();
+		assertThat(payloads(out.receive(10_000))).containsExactly("test0", "test1", "test2");
+		assertThat(payloads(out.receive(10_000))).containsExactly("test3", "test4");
+		endpoint.stop();
+		template.setReceiveTimeout(100);
+		assertThat(template.receiveAndConvert("batching.queue")).isNull();
+	}
+
+	@Test
+	public void testRequiresTransactedSession() {
+		BatchingMessageListenerContainer container = new BatchingMessageListenerContainer();
+		container.setConnectionFactory(amqFactory);
+		container.setDestinationName("batching.queue");
+		assertThatIllegalStateException()
+				.isThrownBy(container::afterPropertiesSet)
+				.withMessageContaining("transacted");
+	}
+
+	@Test
+	public void testBatchListenerRejectsReplies() {
+		BatchingMessageListenerContainer container = new BatchingMessageListenerContainer();
+		container.setConnectionFactory(amqFactory);
+		container.setDestinationName("batching.queue");
+		container.setSessionTransacted(true);
+		container.setBatchListener(true);
+		ChannelPublishingJmsMessageListener listener = new ChannelPublishingJmsMessageListener();
+		listener.setExpectReply(true);
+		JmsMessageDrivenEndpoint endpoint = new JmsMessageDrivenEndpoint(container, listener);
+		endpoint.setOutputChannel(new DirectChannel());
+		endpoint.setBeanFactory(mock(BeanFactory.class));
+		assertThatIllegalStateException()
+				.isThrownBy(endpoint::afterPropertiesSet)
+				.withMessageContaining("Replies are not supported for batches");
+	}
+
+	private static List<Object> payloads(Message<?> message) {
+		assertThat(message).isNotNull();
+		assertThat(message.getPayload()).isInstanceOf(List.class);
+		return ((List<?>) message.getPayload()).stream()
+				.map(element -> ((Message<?>) element).getPayload())
+				.collect(Collectors.toList());
+	}
+
+}
@@ -17,18 +17,25 @@
 package org.springframework.integration.jms;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import java.util.List;
+import java.util.stream.Collectors;
 
 import javax.jms.ConnectionFactory;
 
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
+import org.springframework.beans.factory.BeanFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.ImportResource;
 import org.springframework.integration.jms.JmsInboundChannelAdapterTests.CFConfig;
 import org.springframework.jms.core.JmsTemplate;
+import org.springframework.jms.support.JmsHeaders;
+import org.springframework.messaging.Message;
 import org.springframework.messaging.PollableChannel;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.context.ContextConfiguration;
@@ -58,6 +65,38 @@ public class JmsInboundChannelAdapterTests extends ActiveMQMultiContextTests {
 		 */
 	}
 
+	@Test
+	public void testBatchReceive() {
+		JmsTemplate template = new JmsTemplate(connectionFactory);
+		for (int i = 0; i < 5; i++) {
+			template.convertAndSend("batchPollQ", "test" + i);
+		}
+		JmsTemplate receiveTemplate = new JmsTemplate(connectionFactory);
+		receiveTemplate.setReceiveTimeout(1000);
+		JmsDestinationPollingSource source = new JmsDestinationPollingSource(receiveTemplate);
+		source.setDestinationName("batchPollQ");
+		source.setSessionAcknowledgeMode("transacted");
+		source.setMaxMessagesPerReceive(3);
+		source.setBeanFactory(mock(BeanFactory.class));
+		source.afterPropertiesSet();
+		assertThat(payloads(source.receive())).containsExactly("test0", "test1", "test2");
+		assertThat(payloads(source.receive())).containsExactly("test3", "test4");
+		assertThat(source.receive()).isNull();
+		template.setReceiveTimeout(100);
+		assertThat(template.receiveAndConvert("batchPollQ")).isNull();
+	}
+
+	private static List<Object> payloads(Message<?> message) {
+		assertThat(message).isNotNull();
+		assertThat(message.getPayload()).isInstanceOf(List.class);
+		return ((List<?>) message.getPayload()).stream()
+				.map(element -> {
+					assertThat(((Message<?>) element).getHeaders()).containsKey(JmsHeaders.MESSAGE_ID);
+					return ((Message<?>) element).getPayload();
+				})
+				.collect(Collectors.toList());
+	}
+
 	@Configuration
 	@ImportResource("org/springframework/integration/jms/JmsInboundChannelAdapterTests-context.xml")
 	public static class CFConfig {
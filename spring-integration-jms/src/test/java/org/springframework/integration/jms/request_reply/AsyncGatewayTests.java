@@ -65,6 +65,9 @@ public class AsyncGatewayTests extends ActiveMQMultiContextTests {
 	@Autowired
 	private JmsOutboundGateway gateway2;
 
+	@Autowired
+	private JmsOutboundGateway gateway3;
+
 	@Test
 	public void testWithReply() throws Exception {
 		QueueChannel replies = new QueueChannel();
@@ -89,6 +92,33 @@ public class AsyncGatewayTests extends ActiveMQMultiContextTests {
 		this.gateway1.stop();
 	}
 
+	@Test
+	public void testWithReplyDefaultCorrelation() throws Exception {
+		QueueChannel replies = new QueueChannel();
+		this.gateway3.setOutputChannel(replies);
+		this.gateway3.start();
+		this.gateway3.handleMessage(MessageBuilder.withPayload("foo").build());
+		this.gateway3.handleMessage(MessageBuilder.withPayload("bar").build());
+		JmsTemplate template = new JmsTemplate(this.ccf);
+		template.setReceiveTimeout(10000);
+		for (int i = 0; i < 2; i++) {
+			final Message received = template.receive("asyncTest5");
+			assertThat(received).isNotNull();
+			template.send(received.getJMSReplyTo(), (MessageCreator) session -> {
+				TextMessage textMessage = session.createTextMessage(((TextMessage) received).getText().toUpperCase());
+				textMessage.setJMSCorrelationID(received.getJMSMessageID());
+				return textMessage;
+			});
+		}
+		org.springframework.messaging.Message<?> reply = replies.receive(10000);
+		assertThat(reply).isNotNull();
+		assertThat(reply.getPayload()).isEqualTo("FOO");
+		reply = replies.receive(10000);
+		assertThat(reply).isNotNull();
+		assertThat(reply.getPayload()).isEqualTo("BAR");
+		this.gateway3.stop();
+	}
+
 	@Test
 	public void testWithTimeout() throws Exception {
 		QueueChannel errors = new QueueChannel();
@@ -165,6 +195,18 @@ public class AsyncGatewayTests extends ActiveMQMultiContextTests {
 			return gateway;
 		}
 
+		@Bean
+		public JmsOutboundGateway gateway3() {
+			JmsOutboundGateway gateway = new JmsOutboundGateway();
+			gateway.setUseReplyContainer(true);
+			gateway.setConnectionFactory(ccf());
+			gateway.setRequestDestinationName("asyncTest5");
+			gateway.setRequiresReply(true);
+			gateway.setReceiveTimeout(10000);
+			gateway.setAsync(true);
+			return gateway;
+		}
+
 	}
 
 }
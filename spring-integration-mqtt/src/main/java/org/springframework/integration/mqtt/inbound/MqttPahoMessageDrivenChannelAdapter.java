@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,8 +16,12 @@
 
 package org.springframework.integration.mqtt.inbound;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.Date;
+import java.util.List;
 import java.util.concurrent.ScheduledFuture;
 
 import org.eclipse.paho.client.mqttv3.IMqttClient;
@@ -41,6 +45,11 @@ import org.springframework.util.Assert;
 
 /**
  * Eclipse Paho Implementation.
+ * <p>
+ * With a {@link #setConcurrency(int) concurrency} greater than one, the adapter
+ * subscribes with that many clients, each with its own callback thread, either using
+ * MQTT shared subscriptions ({@link #setSharedSubscriptionGroup(String)}) or by
+ * partitioning the topics among the clients.
  *
  * @author Gary Russell
  * @author Artem Bilan
@@ -55,6 +64,8 @@ public class MqttPahoMessageDrivenChannelAdapter extends AbstractMqttMessageDriv
 
 	private static final int DEFAULT_RECOVERY_INTERVAL = 10000;
 
+	private static final String SHARED_SUBSCRIPTION_PREFIX = "$share/";
+
 	private final MqttPahoClientFactory clientFactory;
 
 	private int recoveryInterval = DEFAULT_RECOVERY_INTERVAL;
@@ -73,6 +84,14 @@ public class MqttPahoMessageDrivenChannelAdapter extends AbstractMqttMessageDriv
 
 	private ApplicationEventPublisher applicationEventPublisher;
 
+	private int concurrency = 1;
+
+	private String sharedSubscriptionGroup;
+
+	private volatile List<MqttPahoMessageDrivenChannelAdapter> subscribers = Collections.emptyList();
+
+	private MqttPahoMessageDrivenChannelAdapter parent;
+
 	/**
 	 * Use this constructor for a single url (although it may be overridden
 	 * if the server URI(s) are provided by the {@link MqttConnectOptions#getServerURIs()}
@@ -132,6 +151,39 @@ public class MqttPahoMessageDrivenChannelAdapter extends AbstractMqttMessageDriv
 		this.recoveryInterval = recoveryInterval;
 	}
 
+	/**
+	 * Set the number of clients used to subscribe to the topics; default 1. When
+	 * greater than one, each client has the client id {@code <clientId>-<n>} and its
+	 * own callback thread. With a {@link #setSharedSubscriptionGroup(String)
+	 * sharedSubscriptionGroup}, each client subscribes to all the topics and the broker
+	 * distributes the messages among them; otherwise the topics are partitioned among
+	 * the clients (and there are no more clients than topics). The clients are started,
+	 * stopped and recovered with this adapter.
+	 * @param concurrency the number of clients.
+	 * @since 5.2
+	 */
+	public void setConcurrency(int concurrency) {
+		Assert.isTrue(concurrency > 0, "'concurrency' must be greater than 0");
+		this.concurrency = concurrency;
+	}
+
+	/**
+	 * Set the group name for MQTT shared subscriptions; when the
+	 * {@link #setConcurrency(int) concurrency} is greater than one, each client
+	 * subscribes to {@code $share/<group>/<topic>} for each topic. Requires a broker
+	 * that supports shared subscriptions. With a single client, subscribe to a
+	 * {@code $share/<group>/<topic>} topic directly instead.
+	 * @param sharedSubscriptionGroup the group.
+	 * @since 5.2
+	 */
+	public void setSharedSubscriptionGroup(String sharedSubscriptionGroup) {
+		Assert.hasText(sharedSubscriptionGroup, "'sharedSubscriptionGroup' cannot be null or empty");
+		Assert.isTrue(!sharedSubscriptionGroup.contains("/") && !sharedSubscriptionGroup.contains("+")
+				&& !sharedSubscriptionGroup.contains("#"),
+				"'sharedSubscriptionGroup' cannot contain '/', '+' or '#'");
+		this.sharedSubscriptionGroup = sharedSubscriptionGroup;
+	}
+
 	/**
 	 * @since 4.2.2
 	 */
@@ -144,6 +196,10 @@ public class MqttPahoMessageDrivenChannelAdapter extends AbstractMqttMessageDriv
 	protected void doStart() {
 		Assert.state(getTaskScheduler() != null, "A 'taskScheduler' is required");
 		super.doStart();
+		if (this.concurrency > 1) {
+			startSubscribers();
+			return;
+		}
 		try {
 			connectAndSubscribe();
 		}
@@ -157,6 +213,7 @@ public class MqttPahoMessageDrivenChannelAdapter extends AbstractMqttMessageDriv
 	protected synchronized void doStop() {
 		cancelReconnect();
 		super.doStop();
+		stopSubscribers();
 		if (this.client != null) {
 			try {
 				if (this.consumerStopAction.equals(ConsumerStopAction.UNSUBSCRIBE_ALWAYS)
@@ -197,11 +254,16 @@ public class MqttPahoMessageDrivenChannelAdapter extends AbstractMqttMessageDriv
 			if (this.client != null && this.client.isConnected()) {
 				this.client.subscribe(topic, qos);
 			}
+			addTopicToSubscribers(topic, qos);
 		}
 		catch (MqttException e) {
 			super.removeTopic(topic);
 			throw new MessagingException("Failed to subscribe to topic " + topic, e);
 		}
+		catch (RuntimeException e) {
+			super.removeTopic(topic);
+			throw e;
+		}
 		finally {
 			this.topicLock.unlock();
 		}
@@ -214,6 +276,7 @@ public class MqttPahoMessageDrivenChannelAdapter extends AbstractMqttMessageDriv
 			if (this.client != null && this.client.isConnected()) {
 				this.client.unsubscribe(topic);
 			}
+			removeTopicFromSubscribers(topic);
 			super.removeTopic(topic);
 		}
 		catch (MqttException e) {
@@ -224,6 +287,102 @@ public class MqttPahoMessageDrivenChannelAdapter extends AbstractMqttMessageDriv
 		}
 	}
 
+	private void startSubscribers() {
+		List<MqttPahoMessageDrivenChannelAdapter> newSubscribers = new ArrayList<>();
+		this.topicLock.lock();
+		try {
+			String[] topics = getTopic();
+			int[] qos = getQos();
+			if (this.sharedSubscriptionGroup != null) {
+				String[] sharedTopics = new String[topics.length];
+				for (int i = 0; i < topics.length; i++) {
+					sharedTopics[i] = sharedTopic(topics[i]);
+				}
+				for (int i = 0; i < this.concurrency; i++) {
+					newSubscribers.add(createSubscriber(i, sharedTopics, qos));
+				}
+			}
+			else {
+				int partitions = Math.max(1, Math.min(this.concurrency, topics.length));
+				for (int i = 0; i < partitions; i++) {
+					List<String> partitionTopics = new ArrayList<>();
+					List<Integer> partitionQos = new ArrayList<>();
+					for (int j = i; j < topics.length; j += partitions) {
+						partitionTopics.add(topics[j]);
+						partitionQos.add(qos[j]);
+					}
+					newSubscribers.add(createSubscriber(i, partitionTopics.toArray(new String[0]),
+							partitionQos.stream().mapToInt(Integer::intValue).toArray()));
+				}
+			}
+			this.subscribers = newSubscribers;
+		}
+		finally {
+			this.topicLock.unlock();
+		}
+		newSubscribers.forEach(MqttPahoMessageDrivenChannelAdapter::start);
+	}
+
+	private MqttPahoMessageDrivenChannelAdapter createSubscriber(int index, String[] topics, int[] qos) {
+		MqttPahoMessageDrivenChannelAdapter subscriber = new MqttPahoMessageDrivenChannelAdapter(getUrl(),
+				getClientId() + "-" + index, this.clientFactory, topics);
+		if (qos.length > 0) {
+			subscriber.setQos(qos);
+		}
+		subscriber.parent = this;
+		subscriber.setConverter(getConverter());
+		subscriber.setCompletionTimeout(this.completionTimeout);
+		subscriber.setRecoveryInterval(this.recoveryInterval);
+		subscriber.setTaskScheduler(getTaskScheduler());
+		subscriber.setApplicationEventPublisher(this.applicationEventPublisher);
+		if (getBeanFactory() != null) {
+			subscriber.setBeanFactory(getBeanFactory());
+		}
+		if (getComponentName() != null) {
+			subscriber.setComponentName(getComponentName() + "-" + index);
+		}
+		subscriber.afterPropertiesSet();
+		return subscriber;
+	}
+
+	private void stopSubscribers() {
+		List<MqttPahoMessageDrivenChannelAdapter> oldSubscribers = this.subscribers;
+		this.subscribers = Collections.emptyList();
+		oldSubscribers.forEach(MqttPahoMessageDrivenChannelAdapter::stop);
+	}
+
+	private void addTopicToSubscribers(String topic, int qos) {
+		List<MqttPahoMessageDrivenChannelAdapter> currentSubscribers = this.subscribers;
+		if (this.sharedSubscriptionGroup != null) {
+			for (MqttPahoMessageDrivenChannelAdapter subscriber : currentSubscribers) {
+				subscriber.addTopic(sharedTopic(topic), qos);
+			}
+		}
+		else {
+			currentSubscribers.stream()
+					.min(Comparator.comparingInt(subscriber -> subscriber.getTopic().length))
+					.ifPresent(subscriber -> subscriber.addTopic(topic, qos));
+		}
+	}
+
+	private void removeTopicFromSubscribers(String... topic) {
+		List<MqttPahoMessageDrivenChannelAdapter> currentSubscribers = this.subscribers;
+		for (MqttPahoMessageDrivenChannelAdapter subscriber : currentSubscribers) {
+			List<String> subscribed = Arrays.asList(subscriber.getTopic());
+			String[] toRemove = Arrays.stream(topic)
+					.map(t -> this.sharedSubscriptionGroup != null ? sharedTopic(t) : t)
+					.filter(subscribed::contains)
+					.toArray(String[]::new);
+			if (toRemove.length > 0) {
+				subscriber.removeTopic(toRemove);
+			}
+		}
+	}
+
+	private String sharedTopic(String topic) {
+		return SHARED_SUBSCRIPTION_PREFIX + this.sharedSubscriptionGroup + "/" + topic;
+	}
+
 	private synchronized void connectAndSubscribe() throws MqttException {
 		MqttConnectOptions connectionOptions = this.clientFactory.getConnectionOptions();
 		this.cleanSession = connectionOptions.isCleanSession();
@@ -259,7 +418,7 @@ public class MqttPahoMessageDrivenChannelAdapter extends AbstractMqttMessageDriv
 		}
 		catch (MqttException e) {
 			if (this.applicationEventPublisher != null) {
-				this.applicationEventPublisher.publishEvent(new MqttConnectionFailedEvent(this, e));
+				this.applicationEventPublisher.publishEvent(new MqttConnectionFailedEvent(eventSource(), e));
 			}
 			logger.error("Error connecting or subscribing to " + Arrays.toString(topics), e);
 			this.client.disconnectForcibly(this.completionTimeout);
@@ -283,11 +442,15 @@ public class MqttPahoMessageDrivenChannelAdapter extends AbstractMqttMessageDriv
 				logger.debug(message);
 			}
 			if (this.applicationEventPublisher != null) {
-				this.applicationEventPublisher.publishEvent(new MqttSubscribedEvent(this, message));
+				this.applicationEventPublisher.publishEvent(new MqttSubscribedEvent(eventSource(), message));
 			}
 		}
 	}
 
+	private Object eventSource() {
+		return this.parent != null ? this.parent : this;
+	}
+
 	private synchronized void cancelReconnect() {
 		if (this.reconnectFuture != null) {
 			this.reconnectFuture.cancel(false);
@@ -338,7 +501,7 @@ public class MqttPahoMessageDrivenChannelAdapter extends AbstractMqttMessageDriv
 			this.client = null;
 			scheduleReconnect();
 			if (this.applicationEventPublisher != null) {
-				this.applicationEventPublisher.publishEvent(new MqttConnectionFailedEvent(this, cause));
+				this.applicationEventPublisher.publishEvent(new MqttConnectionFailedEvent(eventSource(), cause));
 			}
 		}
 	}
@@ -347,7 +510,12 @@ public class MqttPahoMessageDrivenChannelAdapter extends AbstractMqttMessageDriv
 	public void messageArrived(String topic, MqttMessage mqttMessage) {
 		Message<?> message = this.getConverter().toMessage(topic, mqttMessage);
 		try {
-			sendMessage(message);
+			if (this.parent != null) {
+				this.parent.sendMessage(message);
+			}
+			else {
+				sendMessage(message);
+			}
 		}
 		catch (RuntimeException e) {
 			logger.error("Unhandled exception for " + message.toString(), e);
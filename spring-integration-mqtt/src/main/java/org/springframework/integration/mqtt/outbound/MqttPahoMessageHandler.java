@@ -16,8 +16,17 @@
 
 package org.springframework.integration.mqtt.outbound;
 
+import java.util.ArrayList;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.eclipse.paho.client.mqttv3.IMqttActionListener;
 import org.eclipse.paho.client.mqttv3.IMqttAsyncClient;
 import org.eclipse.paho.client.mqttv3.IMqttDeliveryToken;
+import org.eclipse.paho.client.mqttv3.IMqttToken;
 import org.eclipse.paho.client.mqttv3.MqttCallback;
 import org.eclipse.paho.client.mqttv3.MqttConnectOptions;
 import org.eclipse.paho.client.mqttv3.MqttException;
@@ -25,17 +34,32 @@ import org.eclipse.paho.client.mqttv3.MqttMessage;
 
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.ApplicationEventPublisherAware;
+import org.springframework.integration.MessageTimeoutException;
 import org.springframework.integration.mqtt.core.DefaultMqttPahoClientFactory;
 import org.springframework.integration.mqtt.core.MqttPahoClientFactory;
 import org.springframework.integration.mqtt.event.MqttMessageDeliveredEvent;
 import org.springframework.integration.mqtt.event.MqttMessageSentEvent;
 import org.springframework.integration.mqtt.support.MqttMessageConverter;
+import org.springframework.integration.support.management.metrics.MeterFacade;
+import org.springframework.integration.support.management.metrics.MetricsCaptor;
+import org.springframework.integration.support.management.metrics.SampleFacade;
+import org.springframework.integration.support.management.metrics.TimerFacade;
 import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageDeliveryException;
+import org.springframework.messaging.MessageHandlingException;
 import org.springframework.messaging.MessagingException;
 import org.springframework.util.Assert;
+import org.springframework.util.concurrent.ListenableFuture;
+import org.springframework.util.concurrent.SettableListenableFuture;
 
 /**
  * Eclipse Paho implementation.
+ * <p>
+ * The number of messages published but not yet delivered can be bounded with
+ * {@link #setMaxInFlight(int)}; a {@link ListenableFuture} for the delivery of each
+ * message can be sent to a {@link #setDeliveryFuturesChannel(MessageChannel)
+ * deliveryFuturesChannel}.
  *
  * @author Gary Russell
  * @author Artem Bilan
@@ -48,6 +72,12 @@ public class MqttPahoMessageHandler extends AbstractMqttMessageHandler
 
 	public static final long DEFAULT_COMPLETION_TIMEOUT = 30000L;
 
+	private static final String IN_FLIGHT_GAUGE_NAME = "spring.integration.mqtt.inflight";
+
+	private static final String DELIVERY_TIMER_NAME = "spring.integration.mqtt.delivery";
+
+	private final Set<Delivery> inFlight = ConcurrentHashMap.newKeySet();
+
 	private long completionTimeout = DEFAULT_COMPLETION_TIMEOUT;
 
 	private final MqttPahoClientFactory clientFactory;
@@ -58,6 +88,24 @@ public class MqttPahoMessageHandler extends AbstractMqttMessageHandler
 
 	private ApplicationEventPublisher applicationEventPublisher;
 
+	private int maxInFlight;
+
+	private long inFlightWaitTime = DEFAULT_COMPLETION_TIMEOUT;
+
+	private MessageChannel deliveryFuturesChannel;
+
+	private String deliveryFuturesChannelName;
+
+	private volatile Semaphore inFlightWindow;
+
+	private volatile MetricsCaptor metricsCaptor;
+
+	private volatile TimerFacade deliveredTimer;
+
+	private volatile TimerFacade failedTimer;
+
+	private volatile MeterFacade[] meters = new MeterFacade[0];
+
 	private volatile IMqttAsyncClient client;
 
 	/**
@@ -127,6 +175,68 @@ public class MqttPahoMessageHandler extends AbstractMqttMessageHandler
 		this.completionTimeout = completionTimeout;
 	}
 
+	/**
+	 * Set the maximum number of messages that have been published but not yet
+	 * delivered (for QoS 0, sent). When the window is full, a publish blocks for up to
+	 * {@link #setInFlightWaitTime(long)} for a delivery to complete. Set it no higher
+	 * than the {@link MqttConnectOptions#getMaxInflight() maxInflight} connect option,
+	 * otherwise the client rejects publishes beyond that number.
+	 * Default 0 (unbounded).
+	 * @param maxInFlight the maximum.
+	 * @since 5.2
+	 */
+	public void setMaxInFlight(int maxInFlight) {
+		Assert.isTrue(maxInFlight >= 0, "'maxInFlight' cannot be negative");
+		this.maxInFlight = maxInFlight;
+	}
+
+	/**
+	 * Set the time in milliseconds to wait for room in the in-flight window before a
+	 * {@link MessageTimeoutException} is thrown; 0 to reject a publish with a
+	 * {@link MessageDeliveryException} as soon as the window is full.
+	 * Default {@value #DEFAULT_COMPLETION_TIMEOUT} milliseconds.
+	 * @param inFlightWaitTime the time.
+	 * @since 5.2
+	 * @see #setMaxInFlight(int)
+	 */
+	public void setInFlightWaitTime(long inFlightWaitTime) {
+		this.inFlightWaitTime = inFlightWaitTime;
+	}
+
+	/**
+	 * Set a channel to which, for each published message, a message is sent with a
+	 * {@code ListenableFuture<Message<?>>} payload and the headers of the published
+	 * message. The future completes with the published message when it is delivered,
+	 * or with a {@link MessageDeliveryException} if it fails or the connection is lost.
+	 * @param deliveryFuturesChannel the channel.
+	 * @since 5.2
+	 */
+	public void setDeliveryFuturesChannel(MessageChannel deliveryFuturesChannel) {
+		this.deliveryFuturesChannel = deliveryFuturesChannel;
+	}
+
+	/**
+	 * Set the name of the channel to which delivery futures are sent.
+	 * @param deliveryFuturesChannelName the channel name.
+	 * @since 5.2
+	 * @see #setDeliveryFuturesChannel(MessageChannel)
+	 */
+	public void setDeliveryFuturesChannelName(String deliveryFuturesChannelName) {
+		this.deliveryFuturesChannelName = deliveryFuturesChannelName;
+	}
+
+	/**
+	 * Return the number of messages that have been published but not yet delivered,
+	 * when delivery tracking is enabled ({@link #setMaxInFlight(int) maxInFlight}, a
+	 * {@link #setDeliveryFuturesChannel(MessageChannel) deliveryFuturesChannel} or
+	 * metrics).
+	 * @return the number of messages in flight.
+	 * @since 5.2
+	 */
+	public int getInFlightCount() {
+		return this.inFlight.size();
+	}
+
 	@Override
 	public void setApplicationEventPublisher(ApplicationEventPublisher applicationEventPublisher) {
 		this.applicationEventPublisher = applicationEventPublisher;
@@ -137,6 +247,46 @@ public class MqttPahoMessageHandler extends AbstractMqttMessageHandler
 		super.onInit();
 		Assert.state(getConverter() instanceof MqttMessageConverter,
 				"MessageConverter must be an MqttMessageConverter");
+		if (this.maxInFlight > 0) {
+			int clientMaxInflight = this.clientFactory.getConnectionOptions().getMaxInflight();
+			if (this.maxInFlight > clientMaxInflight && logger.isWarnEnabled()) {
+				logger.warn("'maxInFlight' (" + this.maxInFlight + ") is greater than the client's 'maxInflight' ("
+						+ clientMaxInflight + "); publishes beyond that number will be rejected by the client");
+			}
+			this.inFlightWindow = new Semaphore(this.maxInFlight);
+		}
+	}
+
+	/**
+	 * In addition to the handler meters, register the
+	 * {@code spring.integration.mqtt.inflight} gauge and the
+	 * {@code spring.integration.mqtt.delivery} timer (time from publish to delivery).
+	 * @param metricsCaptor the metrics captor.
+	 */
+	@Override
+	public void registerMetricsCaptor(MetricsCaptor metricsCaptor) {
+		super.registerMetricsCaptor(metricsCaptor);
+		String name = getComponentName() == null ? "unknown" : getComponentName();
+		this.deliveredTimer = deliveryTimer(metricsCaptor, name, "success");
+		this.failedTimer = deliveryTimer(metricsCaptor, name, "failure");
+		this.meters = new MeterFacade[] {
+				this.deliveredTimer,
+				this.failedTimer,
+				metricsCaptor.gaugeBuilder(IN_FLIGHT_GAUGE_NAME, this,
+						obj -> ((MqttPahoMessageHandler) obj).getInFlightCount())
+						.tag("name", name)
+						.description("Messages published but not yet delivered")
+						.build()
+		};
+		this.metricsCaptor = metricsCaptor;
+	}
+
+	private static TimerFacade deliveryTimer(MetricsCaptor metricsCaptor, String name, String result) {
+		return metricsCaptor.timerBuilder(DELIVERY_TIMER_NAME)
+				.tag("name", name)
+				.tag("result", result)
+				.description("Time from publish to delivery")
+				.build();
 	}
 
 	@Override
@@ -156,6 +306,15 @@ public class MqttPahoMessageHandler extends AbstractMqttMessageHandler
 		catch (MqttException e) {
 			logger.error("Failed to disconnect", e);
 		}
+		failInFlight(MqttException.REASON_CODE_CLIENT_CLOSED, null);
+	}
+
+	@Override
+	public void destroy() {
+		super.destroy();
+		for (MeterFacade meter : this.meters) {
+			meter.remove();
+		}
 	}
 
 	private synchronized IMqttAsyncClient checkConnection() throws MqttException {
@@ -191,8 +350,14 @@ public class MqttPahoMessageHandler extends AbstractMqttMessageHandler
 	@Override
 	protected void publish(String topic, Object mqttMessage, Message<?> message) throws Exception {
 		Assert.isInstanceOf(MqttMessage.class, mqttMessage);
-		IMqttDeliveryToken token = checkConnection()
-				.publish(topic, (MqttMessage) mqttMessage);
+		IMqttDeliveryToken token;
+		if (isDeliveryTracking()) {
+			token = publishTracked(topic, (MqttMessage) mqttMessage, message);
+		}
+		else {
+			token = checkConnection()
+					.publish(topic, (MqttMessage) mqttMessage);
+		}
 		if (!this.async) {
 			token.waitForCompletion(this.completionTimeout);
 		}
@@ -203,6 +368,79 @@ public class MqttPahoMessageHandler extends AbstractMqttMessageHandler
 		}
 	}
 
+	private boolean isDeliveryTracking() {
+		return this.inFlightWindow != null || this.deliveryFuturesChannel != null
+				|| this.deliveryFuturesChannelName != null || this.metricsCaptor != null;
+	}
+
+	private IMqttDeliveryToken publishTracked(String topic, MqttMessage mqttMessage, Message<?> message)
+			throws MqttException {
+
+		Semaphore window = this.inFlightWindow;
+		if (window != null) {
+			acquireWindowPermit(window, message);
+		}
+		Delivery delivery = new Delivery(message, window);
+		this.inFlight.add(delivery);
+		IMqttDeliveryToken token;
+		try {
+			token = checkConnection().publish(topic, mqttMessage, null, delivery);
+		}
+		catch (MqttException | RuntimeException e) {
+			delivery.fail(e);
+			throw e;
+		}
+		MessageChannel futuresChannel = getDeliveryFuturesChannel();
+		if (futuresChannel != null) {
+			futuresChannel.send(getMessageBuilderFactory()
+					.withPayload(delivery.future)
+					.copyHeaders(message.getHeaders())
+					.build());
+		}
+		return token;
+	}
+
+	private void acquireWindowPermit(Semaphore window, Message<?> message) {
+		try {
+			if (this.inFlightWaitTime <= 0) {
+				if (!window.tryAcquire()) {
+					throw new MessageDeliveryException(message, "The in-flight window is full; "
+							+ this.maxInFlight + " messages in flight");
+				}
+			}
+			else if (!window.tryAcquire(this.inFlightWaitTime, TimeUnit.MILLISECONDS)) {
+				throw new MessageTimeoutException(message, "Timed out waiting for room in the in-flight window; "
+						+ this.maxInFlight + " messages in flight");
+			}
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new MessageHandlingException(message, "Interrupted waiting for room in the in-flight window", e);
+		}
+	}
+
+	private MessageChannel getDeliveryFuturesChannel() {
+		if (this.deliveryFuturesChannelName != null) {
+			synchronized (this) {
+				if (this.deliveryFuturesChannelName != null) {
+					this.deliveryFuturesChannel =
+							getChannelResolver().resolveDestination(this.deliveryFuturesChannelName);
+					this.deliveryFuturesChannelName = null;
+				}
+			}
+		}
+		return this.deliveryFuturesChannel;
+	}
+
+	/*
+	 * The tokens of a closed client are never completed; release their window permits.
+	 */
+	private void failInFlight(int reasonCode, Throwable cause) {
+		for (Delivery delivery : new ArrayList<>(this.inFlight)) {
+			delivery.fail(new MqttException(reasonCode, cause));
+		}
+	}
+
 	private void sendDeliveryComplete(IMqttDeliveryToken token) {
 		if (this.async && this.asyncEvents && this.applicationEventPublisher != null) {
 			this.applicationEventPublisher.publishEvent(
@@ -224,6 +462,7 @@ public class MqttPahoMessageHandler extends AbstractMqttMessageHandler
 			}
 			this.client = null;
 		}
+		failInFlight(MqttException.REASON_CODE_CONNECTION_LOST, cause);
 	}
 
 	@Override
@@ -236,4 +475,61 @@ public class MqttPahoMessageHandler extends AbstractMqttMessageHandler
 		sendDeliveryComplete(token);
 	}
 
+	/**
+	 * Tracks the delivery of one published message.
+	 */
+	private final class Delivery implements IMqttActionListener {
+
+		private final Message<?> message;
+
+		private final Semaphore window;
+
+		private final SampleFacade sample;
+
+		private final SettableListenableFuture<Message<?>> future = new SettableListenableFuture<>();
+
+		private final AtomicBoolean completed = new AtomicBoolean();
+
+		Delivery(Message<?> message, Semaphore window) {
+			this.message = message;
+			this.window = window;
+			MetricsCaptor captor = MqttPahoMessageHandler.this.metricsCaptor;
+			this.sample = captor == null ? null : captor.start();
+		}
+
+		@Override
+		public void onSuccess(IMqttToken asyncActionToken) {
+			if (complete(MqttPahoMessageHandler.this.deliveredTimer)) {
+				this.future.set(this.message);
+			}
+		}
+
+		@Override
+		public void onFailure(IMqttToken asyncActionToken, Throwable exception) {
+			fail(exception);
+		}
+
+		void fail(Throwable exception) {
+			if (complete(MqttPahoMessageHandler.this.failedTimer)) {
+				this.future.setException(new MessageDeliveryException(this.message, "Failed to deliver message",
+						exception));
+			}
+		}
+
+		private boolean complete(TimerFacade timer) {
+			if (this.completed.compareAndSet(false, true)) {
+				MqttPahoMessageHandler.this.inFlight.remove(this);
+				if (this.window != null) {
+					this.window.release();
+				}
+				if (this.sample != null && timer != null) {
+					this.sample.stop(timer);
+				}
+				return true;
+			}
+			return false;
+		}
+
+	}
+
 }
@@ -17,6 +17,7 @@
 package org.springframework.integration.mqtt;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
 import static org.assertj.core.api.Assertions.fail;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
@@ -34,10 +35,15 @@ import static org.mockito.Mockito.verify;
 
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -48,8 +54,10 @@ import javax.net.SocketFactory;
 
 import org.aopalliance.intercept.MethodInterceptor;
 import org.apache.commons.logging.Log;
+import org.eclipse.paho.client.mqttv3.IMqttActionListener;
 import org.eclipse.paho.client.mqttv3.IMqttAsyncClient;
 import org.eclipse.paho.client.mqttv3.IMqttClient;
+import org.eclipse.paho.client.mqttv3.IMqttDeliveryToken;
 import org.eclipse.paho.client.mqttv3.IMqttToken;
 import org.eclipse.paho.client.mqttv3.MqttAsyncClient;
 import org.eclipse.paho.client.mqttv3.MqttCallback;
@@ -83,11 +91,13 @@ import org.springframework.integration.mqtt.outbound.MqttPahoMessageHandler;
 import org.springframework.integration.mqtt.support.DefaultPahoMessageConverter;
 import org.springframework.integration.test.util.TestUtils;
 import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageDeliveryException;
 import org.springframework.messaging.MessageHandlingException;
 import org.springframework.messaging.support.GenericMessage;
 import org.springframework.scheduling.TaskScheduler;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 import org.springframework.util.ReflectionUtils;
+import org.springframework.util.concurrent.ListenableFuture;
 
 /**
  * @author Gary Russell
@@ -196,6 +206,57 @@ public class MqttAdapterTests {
 		assertThat(connectCalled.get()).isTrue();
 	}
 
+	@Test
+	public void testInFlightWindowAndDeliveryFutures() throws Exception {
+		IMqttAsyncClient client = mock(IMqttAsyncClient.class);
+		willReturn(alwaysComplete).given(client).connect(any(MqttConnectOptions.class));
+		given(client.isConnected()).willReturn(true);
+		List<IMqttActionListener> listeners = new ArrayList<>();
+		willAnswer(invocation -> {
+			listeners.add(invocation.getArgument(3));
+			return mock(IMqttDeliveryToken.class);
+		}).given(client).publish(anyString(), any(MqttMessage.class), any(), any(IMqttActionListener.class));
+		DefaultMqttPahoClientFactory factory = new DefaultMqttPahoClientFactory() {
+
+			@Override
+			public IMqttAsyncClient getAsyncClientInstance(String uri, String clientId) {
+				return client;
+			}
+
+		};
+		MqttPahoMessageHandler handler = new MqttPahoMessageHandler("tcp://localhost:1883", "client", factory);
+		handler.setDefaultTopic("foo");
+		handler.setAsync(true);
+		handler.setMaxInFlight(2);
+		handler.setInFlightWaitTime(0);
+		QueueChannel futures = new QueueChannel();
+		handler.setDeliveryFuturesChannel(futures);
+		handler.setBeanFactory(mock(BeanFactory.class));
+		handler.afterPropertiesSet();
+		handler.start();
+		handler.handleMessage(new GenericMessage<>("foo"));
+		handler.handleMessage(new GenericMessage<>("bar"));
+		assertThat(handler.getInFlightCount()).isEqualTo(2);
+		assertThatExceptionOfType(MessageDeliveryException.class)
+				.isThrownBy(() -> handler.handleMessage(new GenericMessage<>("baz")))
+				.withMessageContaining("in-flight window is full");
+		ListenableFuture<Message<?>> future1 = deliveryFuture(futures);
+		ListenableFuture<Message<?>> future2 = deliveryFuture(futures);
+		assertThat(futures.receive(0)).isNull();
+		listeners.get(0).onSuccess(null);
+		assertThat(future1.get(10, TimeUnit.SECONDS).getPayload()).isEqualTo("foo");
+		assertThat(handler.getInFlightCount()).isEqualTo(1);
+		handler.handleMessage(new GenericMessage<>("baz"));
+		ListenableFuture<Message<?>> future3 = deliveryFuture(futures);
+		handler.connectionLost(new RuntimeException("test"));
+		assertThat(handler.getInFlightCount()).isEqualTo(0);
+		assertThatExceptionOfType(ExecutionException.class)
+				.isThrownBy(() -> future2.get(10, TimeUnit.SECONDS))
+				.withCauseInstanceOf(MessageDeliveryException.class);
+		assertThat(future3.isDone()).isTrue();
+		handler.stop();
+	}
+
 	@Test
 	public void testInboundOptionsApplied() throws Exception {
 		DefaultMqttPahoClientFactory factory = new DefaultMqttPahoClientFactory();
@@ -312,6 +373,49 @@ public class MqttAdapterTests {
 		taskScheduler.destroy();
 	}
 
+	@Test
+	public void testConcurrencyWithPartitionedTopics() throws Exception {
+		Map<String, IMqttClient> clients = new ConcurrentHashMap<>();
+		Map<String, MqttCallback> callbacks = new ConcurrentHashMap<>();
+		MqttPahoMessageDrivenChannelAdapter adapter = buildConcurrentAdapterIn(clients, callbacks, "foo", "bar",
+				"baz");
+		adapter.setConcurrency(2);
+		QueueChannel outputChannel = new QueueChannel();
+		adapter.setOutputChannel(outputChannel);
+		adapter.start();
+		assertThat(clients.keySet()).containsExactlyInAnyOrder("client-0", "client-1");
+		verify(clients.get("client-0")).subscribe(new String[] { "foo", "baz" }, new int[] { 1, 1 });
+		verify(clients.get("client-1")).subscribe(new String[] { "bar" }, new int[] { 1 });
+		callbacks.get("client-1").messageArrived("bar", new MqttMessage("qux".getBytes()));
+		Message<?> received = outputChannel.receive(0);
+		assertThat(received).isNotNull();
+		assertThat(received.getPayload()).isEqualTo("qux");
+		adapter.addTopic("fiz", 2);
+		verify(clients.get("client-1")).subscribe("fiz", 2);
+		assertThat(adapter.getTopic()).containsExactly("foo", "bar", "baz", "fiz");
+		adapter.removeTopic("foo");
+		verify(clients.get("client-0")).unsubscribe(new String[] { "foo" });
+		verify(clients.get("client-1"), never()).unsubscribe(any(String[].class));
+		adapter.stop();
+		verify(clients.get("client-0")).close();
+		verify(clients.get("client-1")).close();
+	}
+
+	@Test
+	public void testConcurrencyWithSharedSubscriptions() throws Exception {
+		Map<String, IMqttClient> clients = new ConcurrentHashMap<>();
+		MqttPahoMessageDrivenChannelAdapter adapter = buildConcurrentAdapterIn(clients, new ConcurrentHashMap<>(),
+				"foo", "bar");
+		adapter.setConcurrency(3);
+		adapter.setSharedSubscriptionGroup("group");
+		adapter.start();
+		assertThat(clients).hasSize(3);
+		for (IMqttClient client : clients.values()) {
+			verify(client).subscribe(new String[] { "$share/group/foo", "$share/group/bar" }, new int[] { 1, 1 });
+		}
+		adapter.stop();
+	}
+
 	@Test
 	public void testStopActionDefault() throws Exception {
 		final IMqttClient client = mock(IMqttClient.class);
@@ -536,6 +640,35 @@ public class MqttAdapterTests {
 		return adapter;
 	}
 
+	private MqttPahoMessageDrivenChannelAdapter buildConcurrentAdapterIn(Map<String, IMqttClient> clients,
+			Map<String, MqttCallback> callbacks, String... topics) {
+
+		DefaultMqttPahoClientFactory factory = new DefaultMqttPahoClientFactory() {
+
+			@Override
+			public IMqttClient getClientInstance(String uri, String clientId) {
+				IMqttClient client = mock(IMqttClient.class);
+				given(client.isConnected()).willReturn(true);
+				willAnswer(invocation -> {
+					MqttCallback callback = invocation.getArgument(0);
+					if (callback != null) {
+						callbacks.put(clientId, callback);
+					}
+					return null;
+				}).given(client).setCallback(any());
+				clients.put(clientId, client);
+				return client;
+			}
+
+		};
+		MqttPahoMessageDrivenChannelAdapter adapter = new MqttPahoMessageDrivenChannelAdapter("tcp://localhost:1883",
+				"client", factory, topics);
+		adapter.setOutputChannel(new NullChannel());
+		adapter.setTaskScheduler(mock(TaskScheduler.class));
+		adapter.afterPropertiesSet();
+		return adapter;
+	}
+
 	private MqttPahoMessageHandler buildAdapterOut(final IMqttAsyncClient client) throws MqttException {
 		DefaultMqttPahoClientFactory factory = new DefaultMqttPahoClientFactory() {
 
@@ -555,6 +688,14 @@ public class MqttAdapterTests {
 		return adapter;
 	}
 
+	@SuppressWarnings("unchecked")
+	private static ListenableFuture<Message<?>> deliveryFuture(QueueChannel futures) {
+		Message<?> message = futures.receive(0);
+		assertThat(message).isNotNull();
+		assertThat(message.getPayload()).isInstanceOf(ListenableFuture.class);
+		return (ListenableFuture<Message<?>>) message.getPayload();
+	}
+
 	private void verifyUnsubscribe(IMqttClient client) throws Exception {
 		verify(client).connect(any(MqttConnectOptions.class));
 		verify(client).subscribe(any(String[].class), any(int[].class));
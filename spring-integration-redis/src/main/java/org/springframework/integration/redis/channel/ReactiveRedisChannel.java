@@ -0,0 +1,289 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.redis.channel;
+
+import java.time.Duration;
+import java.util.Collections;
+
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+
+import org.springframework.beans.factory.BeanFactoryAware;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
+import org.springframework.data.redis.connection.ReactiveSubscription;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.ReactiveRedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializationContext.SerializationPair;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.integration.channel.AbstractMessageChannel;
+import org.springframework.integration.support.converter.SimpleMessageConverter;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.converter.MessageConverter;
+import org.springframework.util.Assert;
+
+import reactor.core.Disposable;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.DirectProcessor;
+import reactor.core.publisher.FluxSink;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * A Redis Pub/Sub {@link org.springframework.messaging.MessageChannel} that is a
+ * Reactive Streams {@link Publisher}, based on a
+ * {@link ReactiveRedisMessageListenerContainer}.
+ * <p>
+ * Each subscriber has its own bounded buffer of up to {@link #setBufferSize(int)
+ * bufferSize} messages and receives messages according to its own demand, on a
+ * {@link #setScheduler(Scheduler) scheduler} thread; a slow subscriber does not slow
+ * down the others. When a subscriber's buffer is full, the
+ * {@link #setOverflowStrategy(BufferOverflowStrategy) overflowStrategy} determines
+ * whether the newest message is dropped ({@code DROP_LATEST}), the oldest buffered
+ * message is dropped ({@code DROP_OLDEST}), or the subscriber is terminated with an
+ * error ({@code ERROR}, the default).
+ * <p>
+ * As with any Redis Pub/Sub channel, messages published while there are no
+ * subscribers, or while the channel is stopped, are lost.
+ * A message that cannot be deserialized or converted is logged and skipped.
+ * If the Redis subscription itself fails, the channel stops and must be restarted.
+ *
+ * @author Gary Russell
+ *
+ * @since 5.2
+ */
+public class ReactiveRedisChannel extends AbstractMessageChannel
+		implements Publisher<Message<?>>, SmartLifecycle, DisposableBean {
+
+	/**
+	 * The default per-subscriber buffer size.
+	 */
+	public static final int DEFAULT_BUFFER_SIZE = 256;
+
+	private final DirectProcessor<Message<?>> processor = DirectProcessor.create();
+
+	private final FluxSink<Message<?>> sink = this.processor.sink();
+
+	private final ReactiveRedisConnectionFactory connectionFactory;
+
+	private final String topicName;
+
+	private int bufferSize = DEFAULT_BUFFER_SIZE;
+
+	private BufferOverflowStrategy overflowStrategy = BufferOverflowStrategy.ERROR;
+
+	private Scheduler scheduler = Schedulers.elastic();
+
+	private RedisSerializer<?> serializer = StringRedisSerializer.UTF_8;
+
+	private MessageConverter messageConverter = new SimpleMessageConverter();
+
+	private boolean autoStartup = true;
+
+	private int phase = Integer.MAX_VALUE;
+
+	private ReactiveRedisTemplate<String, Object> redisTemplate;
+
+	private volatile ReactiveRedisMessageListenerContainer container;
+
+	private volatile Disposable subscription;
+
+	public ReactiveRedisChannel(ReactiveRedisConnectionFactory connectionFactory, String topicName) {
+		Assert.notNull(connectionFactory, "'connectionFactory' must not be null");
+		Assert.hasText(topicName, "'topicName' must not be empty");
+		this.connectionFactory = connectionFactory;
+		this.topicName = topicName;
+	}
+
+	/**
+	 * Set the maximum number of messages buffered for each subscriber; default
+	 * {@value #DEFAULT_BUFFER_SIZE}.
+	 * @param bufferSize the buffer size.
+	 */
+	public void setBufferSize(int bufferSize) {
+		Assert.isTrue(bufferSize > 0, "'bufferSize' must be greater than 0");
+		this.bufferSize = bufferSize;
+	}
+
+	/**
+	 * Set the strategy applied when a subscriber's buffer is full; default
+	 * {@link BufferOverflowStrategy#ERROR}.
+	 * @param overflowStrategy the strategy.
+	 */
+	public void setOverflowStrategy(BufferOverflowStrategy overflowStrategy) {
+		Assert.notNull(overflowStrategy, "'overflowStrategy' must not be null");
+		this.overflowStrategy = overflowStrategy;
+	}
+
+	/**
+	 * Set the scheduler on which messages are delivered to each subscriber; default
+	 * {@link Schedulers#elastic()}.
+	 * @param scheduler the scheduler.
+	 */
+	public void setScheduler(Scheduler scheduler) {
+		Assert.notNull(scheduler, "'scheduler' must not be null");
+		this.scheduler = scheduler;
+	}
+
+	/**
+	 * Set the serializer for the Redis message body, used for sending and receiving;
+	 * default {@link StringRedisSerializer}.
+	 * @param serializer the serializer.
+	 */
+	public void setSerializer(RedisSerializer<?> serializer) {
+		Assert.notNull(serializer, "'serializer' must not be null");
+		this.serializer = serializer;
+	}
+
+	@Override
+	public void setMessageConverter(MessageConverter messageConverter) {
+		Assert.notNull(messageConverter, "'messageConverter' must not be null");
+		this.messageConverter = messageConverter;
+	}
+
+	public void setAutoStartup(boolean autoStartup) {
+		this.autoStartup = autoStartup;
+	}
+
+	public void setPhase(int phase) {
+		this.phase = phase;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	protected void onInit() {
+		super.onInit();
+		if (this.messageConverter instanceof BeanFactoryAware) {
+			((BeanFactoryAware) this.messageConverter).setBeanFactory(getBeanFactory());
+		}
+		RedisSerializationContext<String, Object> serializationContext =
+				RedisSerializationContext.<String, Object>newSerializationContext(this.serializer)
+						.key(StringRedisSerializer.UTF_8)
+						.value((RedisSerializer<Object>) this.serializer)
+						.build();
+		this.redisTemplate = new ReactiveRedisTemplate<>(this.connectionFactory, serializationContext);
+	}
+
+	@Override
+	protected boolean doSend(Message<?> message, long timeout) {
+		Object value = this.messageConverter.fromMessage(message, Object.class);
+		Assert.state(value != null, () -> "The message converter returned null for " + message);
+		if (timeout < 0) {
+			this.redisTemplate.convertAndSend(this.topicName, value).block();
+		}
+		else {
+			this.redisTemplate.convertAndSend(this.topicName, value).block(Duration.ofMillis(timeout));
+		}
+		return true;
+	}
+
+	@Override
+	public void subscribe(Subscriber<? super Message<?>> subscriber) {
+		this.processor
+				.onBackpressureBuffer(this.bufferSize, this::messageDropped, this.overflowStrategy)
+				.publishOn(this.scheduler, 1)
+				.subscribe(subscriber);
+	}
+
+	private void messageDropped(Message<?> message) {
+		if (logger.isDebugEnabled()) {
+			logger.debug("A subscriber's buffer is full; dropped " + message + " for redis-channel '"
+					+ this.topicName + "' (" + getFullChannelName() + ")");
+		}
+	}
+
+	@Override
+	public boolean isAutoStartup() {
+		return this.autoStartup;
+	}
+
+	@Override
+	public int getPhase() {
+		return this.phase;
+	}
+
+	@Override
+	public boolean isRunning() {
+		Disposable currentSubscription = this.subscription;
+		return currentSubscription != null && !currentSubscription.isDisposed();
+	}
+
+	@Override
+	public synchronized void start() {
+		if (!isRunning()) {
+			stop();
+			this.container = new ReactiveRedisMessageListenerContainer(this.connectionFactory);
+			this.subscription = this.container
+					.receive(Collections.singletonList(new ChannelTopic(this.topicName)),
+							SerializationPair.fromSerializer(StringRedisSerializer.UTF_8),
+							SerializationPair.fromSerializer(RedisSerializer.byteArray()))
+					.map(ReactiveSubscription.Message::getMessage)
+					.subscribe(this::messageReceived, this::subscriptionTerminated);
+		}
+	}
+
+	private void messageReceived(byte[] body) {
+		Message<?> message;
+		try {
+			message = this.messageConverter.toMessage(this.serializer.deserialize(body), null);
+		}
+		catch (Exception ex) {
+			logger.error("Failed to convert a message received from redis-channel '" + this.topicName
+					+ "' (" + getFullChannelName() + "); skipped", ex);
+			return;
+		}
+		if (message != null) {
+			this.sink.next(message);
+		}
+	}
+
+	private synchronized void subscriptionTerminated(Throwable ex) {
+		logger.error("Redis subscription for '" + this.topicName + "' terminated; the channel ("
+				+ getFullChannelName() + ") is stopped", ex);
+		stop();
+	}
+
+	@Override
+	public synchronized void stop() {
+		if (this.subscription != null) {
+			this.subscription.dispose();
+			this.subscription = null;
+		}
+		if (this.container != null) {
+			this.container.destroy();
+			this.container = null;
+		}
+	}
+
+	@Override
+	public void stop(Runnable callback) {
+		stop();
+		callback.run();
+	}
+
+	@Override
+	public void destroy() {
+		stop();
+		this.sink.complete();
+		super.destroy();
+	}
+
+}
@@ -0,0 +1,297 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.redis.inbound;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.data.redis.support.collections.RedisCollectionFactoryBean.CollectionType;
+import org.springframework.expression.Expression;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
+import org.springframework.integration.endpoint.AbstractMessageSource;
+import org.springframework.integration.expression.ExpressionUtils;
+import org.springframework.util.Assert;
+
+/**
+ * Inbound channel adapter which returns a Message with a {@link List} payload containing
+ * a page (of up to {@link #setPageSize(int) pageSize} elements) of a Redis LIST, SET or
+ * ZSET, so that very large collections are never read into memory as a whole.
+ * <p>
+ * By default, the collection is not modified; each poll returns the next page and a
+ * poll after the last page returns null and starts a new pass over the collection.
+ * LIST and ZSET pages are read by index ({@code LRANGE}/{@code ZRANGE}); SET pages are
+ * read with {@code SSCAN}, which can return an element more than once if the set is
+ * modified during a pass. Only the numeric {@code SSCAN} cursor (and any elements of the
+ * last {@code SSCAN} reply beyond the page size) is kept between polls, so no
+ * connection is held.
+ * <p>
+ * When {@link #setRemoveOnRead(boolean) removeOnRead} is true, each page is removed
+ * from the collection atomically when it is read (a Lua script for LIST and ZSET,
+ * {@code SPOP} for SET); the removal is not rolled back if the downstream flow fails.
+ *
+ * @author Gary Russell
+ *
+ * @since 5.2
+ */
+public class RedisStorePagingMessageSource extends AbstractMessageSource<List<Object>> {
+
+	/**
+	 * The default page size.
+	 */
+	public static final int DEFAULT_PAGE_SIZE = 100;
+
+	private static final String POP_LIST_PAGE_SCRIPT =
+			"local items = redis.call('LRANGE', KEYS[1], 0, tonumber(ARGV[1]) - 1)\n" +
+					"if #items > 0 then\n" +
+					"  redis.call('LTRIM', KEYS[1], #items, -1)\n" +
+					"end\n" +
+					"return items";
+
+	private static final String POP_ZSET_PAGE_SCRIPT =
+			"local items = redis.call('ZRANGE', KEYS[1], 0, tonumber(ARGV[1]) - 1)\n" +
+					"if #items > 0 then\n" +
+					"  redis.call('ZREMRANGEBYRANK', KEYS[1], 0, #items - 1)\n" +
+					"end\n" +
+					"return items";
+
+	private static final String SCAN_SET_PAGE_SCRIPT =
+			"return redis.call('SSCAN', KEYS[1], ARGV[1], 'COUNT', ARGV[2])";
+
+	@SuppressWarnings("rawtypes")
+	private static final RedisScript<List> POP_LIST_PAGE = new DefaultRedisScript<>(POP_LIST_PAGE_SCRIPT, List.class);
+
+	@SuppressWarnings("rawtypes")
+	private static final RedisScript<List> POP_ZSET_PAGE = new DefaultRedisScript<>(POP_ZSET_PAGE_SCRIPT, List.class);
+
+	@SuppressWarnings("rawtypes")
+	private static final RedisScript<List> SCAN_SET_PAGE = new DefaultRedisScript<>(SCAN_SET_PAGE_SCRIPT, List.class);
+
+	private final RedisTemplate<String, ?> redisTemplate;
+
+	private final Expression keyExpression;
+
+	private CollectionType collectionType = CollectionType.LIST;
+
+	private int pageSize = DEFAULT_PAGE_SIZE;
+
+	private boolean removeOnRead;
+
+	private StandardEvaluationContext evaluationContext;
+
+	private String currentKey;
+
+	private long offset;
+
+	private boolean rangeEnded;
+
+	private final List<Object> scanned = new ArrayList<>();
+
+	private long scanCursor;
+
+	private boolean scanEnded;
+
+	/**
+	 * Create an instance with the provided {@link RedisTemplate} and SpEL expression
+	 * which should resolve to a 'key' name of the collection to be used.
+	 * The 'keyExpression' is evaluated on every call to the {@link #receive()} method;
+	 * when the key changes, paging restarts at the beginning of the new collection.
+	 * @param redisTemplate The Redis template.
+	 * @param keyExpression The key expression.
+	 */
+	public RedisStorePagingMessageSource(RedisTemplate<String, ?> redisTemplate, Expression keyExpression) {
+		Assert.notNull(keyExpression, "'keyExpression' must not be null");
+		Assert.notNull(redisTemplate, "'redisTemplate' must not be null");
+		this.redisTemplate = redisTemplate;
+		this.keyExpression = keyExpression;
+	}
+
+	/**
+	 * Create an instance with the provided {@link RedisConnectionFactory} and SpEL
+	 * expression which should resolve to a 'key' name of the collection to be used.
+	 * A {@link StringRedisTemplate} is used for all serialization.
+	 * @param connectionFactory The connection factory.
+	 * @param keyExpression The key expression.
+	 */
+	public RedisStorePagingMessageSource(RedisConnectionFactory connectionFactory, Expression keyExpression) {
+		Assert.notNull(keyExpression, "'keyExpression' must not be null");
+		Assert.notNull(connectionFactory, "'connectionFactory' must not be null");
+		StringRedisTemplate template = new StringRedisTemplate();
+		template.setConnectionFactory(connectionFactory);
+		template.afterPropertiesSet();
+		this.redisTemplate = template;
+		this.keyExpression = keyExpression;
+	}
+
+	/**
+	 * Set the collection type; LIST (default), SET or ZSET.
+	 * @param collectionType the collection type.
+	 */
+	public void setCollectionType(CollectionType collectionType) {
+		Assert.isTrue(CollectionType.LIST.equals(collectionType) || CollectionType.SET.equals(collectionType)
+				|| CollectionType.ZSET.equals(collectionType), "Only LIST, SET and ZSET collections can be paged");
+		this.collectionType = collectionType;
+	}
+
+	/**
+	 * Set the maximum number of elements in each page; default
+	 * {@value #DEFAULT_PAGE_SIZE}. For SET without {@code removeOnRead}, it is also
+	 * used as the {@code COUNT} hint for {@code SSCAN}.
+	 * @param pageSize the page size.
+	 */
+	public void setPageSize(int pageSize) {
+		Assert.isTrue(pageSize > 0, "'pageSize' must be greater than 0");
+		this.pageSize = pageSize;
+	}
+
+	/**
+	 * Set to true to atomically remove each page from the collection when it is read.
+	 * Default false.
+	 * @param removeOnRead true to remove the elements that are read.
+	 */
+	public void setRemoveOnRead(boolean removeOnRead) {
+		this.removeOnRead = removeOnRead;
+	}
+
+	@Override
+	public String getComponentType() {
+		return "redis:store-paging-inbound-channel-adapter";
+	}
+
+	@Override
+	protected void onInit() {
+		this.evaluationContext = ExpressionUtils.createStandardEvaluationContext(getBeanFactory());
+	}
+
+	/**
+	 * Return the next page of the collection identified by the key expression, or null
+	 * if there are no (more) elements.
+	 */
+	@Override
+	protected synchronized List<Object> doReceive() {
+		String key = this.keyExpression.getValue(this.evaluationContext, String.class);
+		Assert.hasText(key, "Failed to determine the key for the collection");
+		if (!key.equals(this.currentKey)) {
+			reset();
+			this.currentKey = key;
+		}
+		List<Object> page;
+		if (this.removeOnRead) {
+			page = popPage(key);
+		}
+		else if (CollectionType.SET.equals(this.collectionType)) {
+			page = scanPage(key);
+		}
+		else {
+			page = rangePage(key);
+		}
+		return page.isEmpty() ? null : page;
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private List<Object> popPage(String key) {
+		Collection<?> page;
+		if (CollectionType.SET.equals(this.collectionType)) {
+			page = this.redisTemplate.opsForSet().pop(key, this.pageSize);
+		}
+		else {
+			RedisScript<List> script = CollectionType.LIST.equals(this.collectionType)
+					? POP_LIST_PAGE
+					: POP_ZSET_PAGE;
+			page = this.redisTemplate.execute(script, StringRedisSerializer.UTF_8,
+					(RedisSerializer<List>) this.redisTemplate.getValueSerializer(), Collections.singletonList(key),
+					Integer.toString(this.pageSize));
+		}
+		return toList(page);
+	}
+
+	private List<Object> rangePage(String key) {
+		if (this.rangeEnded) {
+			// the pass is complete; return no page and start a new pass on the next poll
+			reset();
+			return new ArrayList<>();
+		}
+		long end = this.offset + this.pageSize - 1;
+		Collection<?> page = CollectionType.LIST.equals(this.collectionType)
+				? this.redisTemplate.opsForList().range(key, this.offset, end)
+				: this.redisTemplate.opsForZSet().range(key, this.offset, end);
+		List<Object> result = toList(page);
+		if (result.isEmpty()) {
+			reset();
+		}
+		else {
+			// a short page is the last one
+			this.rangeEnded = result.size() < this.pageSize;
+			this.offset += result.size();
+		}
+		return result;
+	}
+
+	private List<Object> scanPage(String key) {
+		if (this.scanEnded && this.scanned.isEmpty()) {
+			// the pass is complete; return no page and start a new pass on the next poll
+			reset();
+			return new ArrayList<>();
+		}
+		while (this.scanned.isEmpty() && !this.scanEnded) {
+			scan(key);
+		}
+		List<Object> pageView = this.scanned.subList(0, Math.min(this.pageSize, this.scanned.size()));
+		List<Object> page = new ArrayList<>(pageView);
+		pageView.clear();
+		if (page.isEmpty()) {
+			reset();
+		}
+		return page;
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private void scan(String key) {
+		List<?> reply = this.redisTemplate.execute(SCAN_SET_PAGE, StringRedisSerializer.UTF_8,
+				(RedisSerializer<List>) (RedisSerializer) RedisSerializer.byteArray(), Collections.singletonList(key),
+				Long.toUnsignedString(this.scanCursor), Integer.toString(this.pageSize));
+		Assert.state(reply != null && reply.size() == 2, "Unexpected SSCAN reply");
+		this.scanCursor = Long.parseUnsignedLong(new String((byte[]) reply.get(0), StandardCharsets.UTF_8));
+		this.scanEnded = this.scanCursor == 0;
+		RedisSerializer<?> valueSerializer = this.redisTemplate.getValueSerializer();
+		for (Object member : (List<?>) reply.get(1)) {
+			this.scanned.add(valueSerializer == null ? member : valueSerializer.deserialize((byte[]) member));
+		}
+	}
+
+	private static List<Object> toList(Collection<?> page) {
+		return page == null ? new ArrayList<>() : new ArrayList<>(page);
+	}
+
+	private void reset() {
+		this.offset = 0;
+		this.rangeEnded = false;
+		this.scanned.clear();
+		this.scanCursor = 0;
+		this.scanEnded = false;
+	}
+
+}
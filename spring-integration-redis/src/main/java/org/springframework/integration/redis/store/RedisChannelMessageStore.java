@@ -1,5 +1,5 @@
 /*
- * Copyright 2014-2018 the original author or authors.
+ * Copyright 2014-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,13 +16,24 @@
 
 package org.springframework.integration.redis.store;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
 import org.springframework.beans.factory.BeanNameAware;
 import org.springframework.beans.factory.InitializingBean;
+import org.springframework.data.redis.connection.RedisClusterConnection;
+import org.springframework.data.redis.connection.RedisClusterNode;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
 import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
@@ -38,6 +49,10 @@ import org.springframework.util.Assert;
  * Specialized Redis {@link ChannelMessageStore} that uses a list to back a QueueChannel.
  * <p>
  * Requires {@link #setBeanName(String)} which is used as part of the key.
+ * <p>
+ * With Redis Cluster, keys are scanned on each master node and list sizes are
+ * obtained with one {@code LLEN} per key, since cross-node {@code SCAN} and
+ * pipelining are not supported by cluster connections.
  *
  * @author Gary Russell
  * @author Artem Bilan
@@ -46,12 +61,18 @@ import org.springframework.util.Assert;
  */
 public class RedisChannelMessageStore implements ChannelMessageStore, BeanNameAware, InitializingBean {
 
+	private static final int SCAN_COUNT = 1000;
+
+	private final Log logger = LogFactory.getLog(getClass());
+
 	private final RedisTemplate<Object, Message<?>> redisTemplate;
 
 	private volatile MessageGroupFactory messageGroupFactory = new SimpleMessageGroupFactory();
 
 	private String beanName;
 
+	private volatile Boolean cluster;
+
 	/**
 	 * Construct a message store that uses Java Serialization for messages.
 	 *
@@ -106,6 +127,21 @@ public class RedisChannelMessageStore implements ChannelMessageStore, BeanNameAw
 		return this.redisTemplate;
 	}
 
+	/**
+	 * Return true if the connection factory provides Redis Cluster connections.
+	 * @return true for a cluster.
+	 * @since 5.2
+	 */
+	protected boolean isCluster() {
+		Boolean isCluster = this.cluster;
+		if (isCluster == null) {
+			isCluster = this.redisTemplate.execute(
+					(RedisCallback<Boolean>) connection -> connection instanceof RedisClusterConnection);
+			this.cluster = isCluster;
+		}
+		return Boolean.TRUE.equals(isCluster);
+	}
+
 	@Override
 	public void afterPropertiesSet() throws Exception {
 		Assert.notNull(this.beanName, "'beanName' must not be null");
@@ -142,21 +178,95 @@ public class RedisChannelMessageStore implements ChannelMessageStore, BeanNameAw
 
 	@ManagedAttribute
 	public int getMessageCountForAllMessageGroups() {
-		Set<?> keys = this.redisTemplate.keys(this.beanName + ":*");
-		if (keys == null) {
-			return 0;
-		}
-		int count = 0;
-		for (Object key : keys) {
-			count += this.messageGroupSize(key);
-		}
-		return count;
+		return countMessages(scanKeys(this.beanName + ":*"));
 	}
 
 	@ManagedAttribute
 	public int getMessageGroupCount() {
-		Set<Object> keys = this.redisTemplate.keys(this.beanName + ":*");
-		return keys == null ? 0 : keys.size();
+		return scanKeys(this.beanName + ":*").size();
+	}
+
+	/**
+	 * Return the keys matching the pattern, using {@code SCAN} rather than the blocking
+	 * {@code KEYS} command; with Redis Cluster, each master node is scanned.
+	 * @param pattern the key pattern.
+	 * @return the keys.
+	 * @since 5.2
+	 */
+	protected Set<String> scanKeys(String pattern) {
+		Set<String> keys = new HashSet<>();
+		ScanOptions options = ScanOptions.scanOptions().match(pattern).count(SCAN_COUNT).build();
+		this.redisTemplate.execute((RedisCallback<Void>) connection -> {
+			if (connection instanceof RedisClusterConnection) {
+				RedisClusterConnection clusterConnection = (RedisClusterConnection) connection;
+				for (RedisClusterNode node : clusterConnection.clusterGetNodes()) {
+					if (node.isMaster()) {
+						scan(clusterConnection.scan(node, options), keys);
+					}
+				}
+			}
+			else {
+				scan(connection.scan(options), keys);
+			}
+			return null;
+		});
+		return keys;
+	}
+
+	private void scan(Cursor<byte[]> cursor, Set<String> keys) {
+		try {
+			while (cursor.hasNext()) {
+				keys.add(StringRedisSerializer.UTF_8.deserialize(cursor.next()));
+			}
+		}
+		finally {
+			try {
+				cursor.close();
+			}
+			catch (Exception e) {
+				if (this.logger.isDebugEnabled()) {
+					this.logger.debug("Failed to close the SCAN cursor", e);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Return the total size of the lists with the provided keys, obtained in a single
+	 * pipelined round trip; with Redis Cluster, one {@code LLEN} is issued per key.
+	 * @param keys the keys.
+	 * @return the total number of messages.
+	 * @since 5.2
+	 */
+	protected int countMessages(Collection<?> keys) {
+		if (keys.isEmpty()) {
+			return 0;
+		}
+		List<Object> sizes;
+		if (isCluster()) {
+			sizes = this.redisTemplate.execute((RedisCallback<List<Object>>) connection -> {
+				List<Object> lengths = new ArrayList<>(keys.size());
+				for (Object key : keys) {
+					lengths.add(connection.lLen(StringRedisSerializer.UTF_8.serialize((String) key)));
+				}
+				return lengths;
+			});
+		}
+		else {
+			sizes = this.redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+				for (Object key : keys) {
+					connection.lLen(StringRedisSerializer.UTF_8.serialize((String) key));
+				}
+				return null;
+			});
+		}
+		long count = 0;
+		for (Object size : sizes) {
+			if (size instanceof Long) {
+				count += (Long) size;
+			}
+		}
+		return (int) count;
 	}
 
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2014-2018 the original author or authors.
+ * Copyright 2014-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,14 +16,19 @@
 
 package org.springframework.integration.redis.store;
 
+import java.util.ArrayList;
 import java.util.Collections;
-import java.util.Comparator;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Set;
 
 import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
 import org.springframework.integration.IntegrationMessageHeaderAccessor;
 import org.springframework.integration.store.MessageGroup;
 import org.springframework.integration.store.PriorityCapableChannelMessageStore;
@@ -37,6 +42,12 @@ import org.springframework.util.Assert;
  * Priorities 0-9 are supported (9 the highest); invalid priority values are treated with the same priority (none)
  * as messages with no priority header (retrieved after any messages that have a priority).
  * <p>
+ * Each priority has its own list ({@code groupId:priority}, or just {@code groupId} for no priority);
+ * polling walks the lists from the highest priority and pops in a single atomic Lua script,
+ * without looking the keys up.
+ * With Redis Cluster, where the lists of a group may be on different nodes, the lists are
+ * popped one {@code RPOP} at a time instead, so a multi-message poll is not atomic.
+ * <p>
  * Requires that groupId is a String.
  *
  * @author Gary Russell
@@ -47,7 +58,23 @@ import org.springframework.util.Assert;
 public class RedisChannelPriorityMessageStore extends RedisChannelMessageStore
 		implements PriorityCapableChannelMessageStore {
 
-	private final Comparator<String> keysComparator = (s1, s2) -> s2.compareTo(s1);
+	private static final int MAX_PRIORITY = 9;
+
+	private static final String POLL_SCRIPT =
+			"local count = tonumber(ARGV[1])\n" +
+					"local result = {}\n" +
+					"for i = 1, #KEYS do\n" +
+					"  while #result < count do\n" +
+					"    local message = redis.call('RPOP', KEYS[i])\n" +
+					"    if not message then break end\n" +
+					"    result[#result + 1] = message\n" +
+					"  end\n" +
+					"  if #result >= count then break end\n" +
+					"end\n" +
+					"return result";
+
+	@SuppressWarnings("rawtypes")
+	private static final RedisScript<List> POLL = new DefaultRedisScript<>(POLL_SCRIPT, List.class);
 
 	public RedisChannelPriorityMessageStore(RedisConnectionFactory connectionFactory) {
 		super(connectionFactory);
@@ -62,26 +89,33 @@ public class RedisChannelPriorityMessageStore extends RedisChannelMessageStore
 	@ManagedAttribute
 	public int messageGroupSize(Object groupId) {
 		Assert.isInstanceOf(String.class, groupId);
-		List<String> list = sortedKeys((String) groupId);
-		int count = 0;
-		for (String key : list) {
-			Long size = getRedisTemplate().boundListOps(key).size();
-			if (size != null) {
-				count += size;
-			}
-		}
-		return count;
+		return countMessages(priorityKeys((String) groupId));
 	}
 
 	@Override
+	@SuppressWarnings("unchecked")
 	public MessageGroup getMessageGroup(Object groupId) {
 		Assert.isInstanceOf(String.class, groupId);
+		List<Object> keys = priorityKeys((String) groupId);
+		List<Object> ranges;
+		if (isCluster()) {
+			ranges = new ArrayList<>(keys.size());
+			for (Object key : keys) {
+				ranges.add(getRedisTemplate().opsForList().range(key, 0, -1));
+			}
+		}
+		else {
+			ranges = getRedisTemplate().executePipelined((RedisCallback<Object>) connection -> {
+				for (Object key : keys) {
+					connection.lRange(StringRedisSerializer.UTF_8.serialize((String) key), 0, -1);
+				}
+				return null;
+			});
+		}
 		List<Message<?>> allMessages = new LinkedList<Message<?>>();
-		List<String> list = sortedKeys((String) groupId);
-		for (String key : list) {
-			List<Message<?>> messages = this.getRedisTemplate().boundListOps(key).range(0, -1);
-			if (messages != null) {
-				allMessages.addAll(messages);
+		for (Object range : ranges) {
+			if (range != null) {
+				allMessages.addAll((List<Message<?>>) range);
 			}
 		}
 		return getMessageGroupFactory().create(allMessages, groupId);
@@ -93,7 +127,7 @@ public class RedisChannelPriorityMessageStore extends RedisChannelMessageStore
 		Assert.isInstanceOf(String.class, groupId);
 		String key = (String) groupId;
 		Integer priority = new IntegrationMessageHeaderAccessor(message).getPriority();
-		if (priority != null && priority < 10 && priority >= 0) {
+		if (priority != null && priority <= MAX_PRIORITY && priority >= 0) {
 			key = key + ":" + priority;
 		}
 		return super.addMessageToGroup(key, message);
@@ -101,29 +135,62 @@ public class RedisChannelPriorityMessageStore extends RedisChannelMessageStore
 
 	@Override
 	public Message<?> pollMessageFromGroup(Object groupId) {
+		List<Message<?>> messages = pollMessagesFromGroup(groupId, 1);
+		return messages.isEmpty() ? null : messages.get(0);
+	}
+
+	/**
+	 * Atomically remove and return up to {@code maxMessages} messages from the group, in
+	 * priority order, in a single round trip.
+	 * With Redis Cluster, the messages are popped one at a time, without atomicity.
+	 * @param groupId the group id.
+	 * @param maxMessages the maximum number of messages to return.
+	 * @return the messages; empty if the group has no messages.
+	 * @since 5.2
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	public List<Message<?>> pollMessagesFromGroup(Object groupId, int maxMessages) {
 		Assert.isInstanceOf(String.class, groupId);
-		List<String> list = sortedKeys((String) groupId);
-		Message<?> message;
-		for (String key : list) {
-			message = super.pollMessageFromGroup(key);
-			if (message != null) {
-				return message;
-			}
+		Assert.isTrue(maxMessages > 0, "'maxMessages' must be greater than 0");
+		if (isCluster()) {
+			return popMessagesFromGroup((String) groupId, maxMessages);
 		}
-		return null;
+		List<Message<?>> messages = getRedisTemplate().execute(POLL, StringRedisSerializer.UTF_8,
+				(RedisSerializer<List>) getRedisTemplate().getValueSerializer(), priorityKeys((String) groupId),
+				Integer.toString(maxMessages));
+		return messages == null ? Collections.emptyList() : messages;
 	}
 
-	private List<String> sortedKeys(String groupId) {
-		Set<Object> keys = this.getRedisTemplate().keys(groupId == null ? (this.getBeanName() + ":*") : (groupId + "*"));
-		List<String> list = new LinkedList<>();
-		if (keys != null) {
-			for (Object key : keys) {
-				Assert.isInstanceOf(String.class, key);
-				list.add((String) key);
+	private List<Message<?>> popMessagesFromGroup(String groupId, int maxMessages) {
+		List<Message<?>> messages = new ArrayList<>();
+		for (Object key : priorityKeys(groupId)) {
+			while (messages.size() < maxMessages) {
+				Message<?> message = getRedisTemplate().opsForList().rightPop(key);
+				if (message == null) {
+					break;
+				}
+				messages.add(message);
+			}
+			if (messages.size() >= maxMessages) {
+				break;
 			}
-			Collections.sort(list, this.keysComparator);
 		}
-		return list;
+		return messages;
+	}
+
+	/**
+	 * Return the keys of the lists for the group, in the order that they are polled:
+	 * {@code groupId:9} to {@code groupId:0}, then {@code groupId}.
+	 * @param groupId the group id.
+	 * @return the keys.
+	 */
+	private List<Object> priorityKeys(String groupId) {
+		List<Object> keys = new ArrayList<>(MAX_PRIORITY + 2);
+		for (int priority = MAX_PRIORITY; priority >= 0; priority--) {
+			keys.add(groupId + ":" + priority);
+		}
+		keys.add(groupId);
+		return keys;
 	}
 
 	@Override
@@ -135,19 +202,15 @@ public class RedisChannelPriorityMessageStore extends RedisChannelMessageStore
 
 
 	private Set<Object> narrowedKeys() {
-		Set<Object> keys = this.getRedisTemplate().keys(this.getBeanName() + ":*");
+		Set<String> keys = scanKeys(this.getBeanName() + ":*");
 		Set<Object> narrowedKeys = new HashSet<>();
-		if (keys != null) {
-			for (Object key : keys) {
-				Assert.isInstanceOf(String.class, key);
-				String keyString = (String) key;
-				int lastIndexOfColon = keyString.lastIndexOf(":");
-				if (keyString.indexOf(":") != lastIndexOfColon) {
-					narrowedKeys.add(keyString.substring(0, lastIndexOfColon));
-				}
-				else {
-					narrowedKeys.add(key);
-				}
+		for (String keyString : keys) {
+			int lastIndexOfColon = keyString.lastIndexOf(":");
+			if (keyString.indexOf(":") != lastIndexOfColon) {
+				narrowedKeys.add(keyString.substring(0, lastIndexOfColon));
+			}
+			else {
+				narrowedKeys.add(keyString);
 			}
 		}
 		return narrowedKeys;
@@ -156,22 +219,7 @@ public class RedisChannelPriorityMessageStore extends RedisChannelMessageStore
 	@Override
 	public void removeMessageGroup(Object groupId) {
 		Assert.isInstanceOf(String.class, groupId);
-		List<String> list = sortedKeys((String) groupId);
-		for (String key : list) {
-			super.removeMessageGroup(key);
-		}
+		getRedisTemplate().delete(priorityKeys((String) groupId));
 	}
 
-	@Override
-	@ManagedAttribute
-	public int getMessageCountForAllMessageGroups() {
-		Set<Object> narrowedKeys = narrowedKeys();
-		int count = 0;
-		for (Object key : narrowedKeys) {
-			count += this.messageGroupSize(key);
-		}
-		return count;
-	}
-
-
 }
@@ -0,0 +1,176 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.redis.channel;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import java.util.Arrays;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.reactivestreams.Subscription;
+
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
+import org.springframework.data.redis.serializer.SerializationException;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.integration.redis.rules.RedisAvailable;
+import org.springframework.integration.redis.rules.RedisAvailableTests;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.GenericMessage;
+
+import reactor.core.publisher.BaseSubscriber;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+
+/**
+ * @author Gary Russell
+ * @since 5.2
+ *
+ */
+public class ReactiveRedisChannelTests extends RedisAvailableTests {
+
+	@Test
+	@RedisAvailable
+	public void testPubSub() throws Exception {
+		ReactiveRedisChannel channel = createChannel("si.test.reactive.channel", BufferOverflowStrategy.ERROR);
+		BlockingQueue<Object> received1 = new LinkedBlockingQueue<>();
+		BlockingQueue<Object> received2 = new LinkedBlockingQueue<>();
+		Flux.from(channel).map(Message::getPayload).subscribe(received1::add);
+		Flux.from(channel).map(Message::getPayload).subscribe(received2::add);
+		awaitSubscribed(channel, received1);
+		received2.clear();
+		channel.send(new GenericMessage<>("1"));
+		channel.send(new GenericMessage<>("2"));
+		channel.send(new GenericMessage<>("3"));
+		for (BlockingQueue<Object> received : Arrays.asList(received1, received2)) {
+			assertThat(received.poll(10, TimeUnit.SECONDS)).isEqualTo("1");
+			assertThat(received.poll(10, TimeUnit.SECONDS)).isEqualTo("2");
+			assertThat(received.poll(10, TimeUnit.SECONDS)).isEqualTo("3");
+		}
+		channel.destroy();
+	}
+
+	@Test
+	@RedisAvailable
+	public void testSlowSubscriberKeepsLatest() throws Exception {
+		ReactiveRedisChannel channel =
+				createChannel("si.test.reactive.channel.slow", BufferOverflowStrategy.DROP_OLDEST);
+		BlockingQueue<Object> fast = new LinkedBlockingQueue<>();
+		Flux.from(channel).map(Message::getPayload).subscribe(fast::add);
+		awaitSubscribed(channel, fast);
+		BlockingQueue<Object> slow = new LinkedBlockingQueue<>();
+		NoDemandSubscriber slowSubscriber = new NoDemandSubscriber(slow);
+		channel.subscribe(slowSubscriber);
+		BlockingQueue<Object> marker = new LinkedBlockingQueue<>();
+		// subscribed after the slow subscriber, so it sees each message after it
+		Flux.from(channel).map(Message::getPayload).subscribe(marker::add);
+		for (String payload : new String[] { "a", "b", "c", "d", "e" }) {
+			channel.send(new GenericMessage<>(payload));
+		}
+		Object last = null;
+		while (!"e".equals(last)) {
+			last = marker.poll(10, TimeUnit.SECONDS);
+			assertThat(last).isNotNull();
+		}
+		assertThat(fast).contains("a", "b", "c", "d", "e");
+		assertThat(slow).isEmpty();
+		slowSubscriber.request(10);
+		// 'a' was prefetched for delivery; 'b' and 'c' were dropped from the buffer of 2
+		assertThat(slow.poll(10, TimeUnit.SECONDS)).isEqualTo("a");
+		assertThat(slow.poll(10, TimeUnit.SECONDS)).isEqualTo("d");
+		assertThat(slow.poll(10, TimeUnit.SECONDS)).isEqualTo("e");
+		assertThat(slow.poll(100, TimeUnit.MILLISECONDS)).isNull();
+		channel.destroy();
+	}
+
+	@Test
+	@RedisAvailable
+	public void testUndeserializableMessageSkipped() throws Exception {
+		ReactiveRedisChannel channel = new ReactiveRedisChannel(
+				(ReactiveRedisConnectionFactory) getConnectionFactoryForTest(), "si.test.reactive.channel.bad");
+		channel.setSerializer(new StringRedisSerializer() {
+
+			@Override
+			public String deserialize(byte[] bytes) {
+				String value = super.deserialize(bytes);
+				if ("bad".equals(value)) {
+					throw new SerializationException("bad");
+				}
+				return value;
+			}
+
+		});
+		channel.setBeanFactory(mock(BeanFactory.class));
+		channel.afterPropertiesSet();
+		channel.start();
+		BlockingQueue<Object> received = new LinkedBlockingQueue<>();
+		Flux.from(channel).map(Message::getPayload).subscribe(received::add);
+		awaitSubscribed(channel, received);
+		channel.send(new GenericMessage<>("bad"));
+		channel.send(new GenericMessage<>("good"));
+		assertThat(received.poll(10, TimeUnit.SECONDS)).isEqualTo("good");
+		assertThat(channel.isRunning()).isTrue();
+		channel.destroy();
+		assertThat(channel.isRunning()).isFalse();
+	}
+
+	private ReactiveRedisChannel createChannel(String topic, BufferOverflowStrategy strategy) {
+		ReactiveRedisChannel channel = new ReactiveRedisChannel(
+				(ReactiveRedisConnectionFactory) getConnectionFactoryForTest(), topic);
+		channel.setBufferSize(2);
+		channel.setOverflowStrategy(strategy);
+		channel.setBeanFactory(mock(BeanFactory.class));
+		channel.afterPropertiesSet();
+		channel.start();
+		return channel;
+	}
+
+	private void awaitSubscribed(ReactiveRedisChannel channel, BlockingQueue<Object> received) throws Exception {
+		int n = 0;
+		while (received.poll(100, TimeUnit.MILLISECONDS) == null) {
+			assertThat(n++).isLessThan(100);
+			channel.send(new GenericMessage<>("warmup"));
+		}
+		Thread.sleep(200);
+		received.clear();
+	}
+
+	private static class NoDemandSubscriber extends BaseSubscriber<Message<?>> {
+
+		private final BlockingQueue<Object> received;
+
+		NoDemandSubscriber(BlockingQueue<Object> received) {
+			this.received = received;
+		}
+
+		@Override
+		protected void hookOnSubscribe(Subscription subscription) {
+			// no initial demand
+		}
+
+		@Override
+		protected void hookOnNext(Message<?> message) {
+			this.received.add(message.getPayload());
+		}
+
+	}
+
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.redis.inbound;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.support.collections.RedisCollectionFactoryBean.CollectionType;
+import org.springframework.expression.common.LiteralExpression;
+import org.springframework.integration.redis.rules.RedisAvailable;
+import org.springframework.integration.redis.rules.RedisAvailableTests;
+import org.springframework.messaging.Message;
+
+/**
+ * @author Gary Russell
+ * @since 5.2
+ *
+ */
+public class RedisStorePagingMessageSourceTests extends RedisAvailableTests {
+
+	@Test
+	@RedisAvailable
+	public void testListPages() {
+		RedisConnectionFactory connectionFactory = getConnectionFactoryForTest();
+		StringRedisTemplate template = createStringRedisTemplate(connectionFactory);
+		template.delete("pagedList");
+		template.opsForList().rightPushAll("pagedList", "a", "b", "c", "d", "e");
+		RedisStorePagingMessageSource source = createSource(connectionFactory, "pagedList", CollectionType.LIST);
+		assertThat(source.receive().getPayload()).containsExactly("a", "b");
+		assertThat(source.receive().getPayload()).containsExactly("c", "d");
+		assertThat(source.receive().getPayload()).containsExactly("e");
+		assertThat(source.receive()).isNull();
+		assertThat(source.receive().getPayload()).containsExactly("a", "b");
+		assertThat(template.opsForList().size("pagedList")).isEqualTo(5L);
+		template.delete("pagedList");
+	}
+
+	@Test
+	@RedisAvailable
+	public void testZsetPagesEndOnFullPage() {
+		RedisConnectionFactory connectionFactory = getConnectionFactoryForTest();
+		StringRedisTemplate template = createStringRedisTemplate(connectionFactory);
+		template.delete("pagedZset");
+		template.opsForZSet().add("pagedZset", "d", 4);
+		template.opsForZSet().add("pagedZset", "c", 3);
+		template.opsForZSet().add("pagedZset", "a", 1);
+		template.opsForZSet().add("pagedZset", "b", 2);
+		RedisStorePagingMessageSource source = createSource(connectionFactory, "pagedZset", CollectionType.ZSET);
+		assertThat(source.receive().getPayload()).containsExactly("a", "b");
+		assertThat(source.receive().getPayload()).containsExactly("c", "d");
+		assertThat(source.receive()).isNull();
+		assertThat(source.receive().getPayload()).containsExactly("a", "b");
+		template.delete("pagedZset");
+	}
+
+	@Test
+	@RedisAvailable
+	public void testListPagesRemoved() {
+		RedisConnectionFactory connectionFactory = getConnectionFactoryForTest();
+		StringRedisTemplate template = createStringRedisTemplate(connectionFactory);
+		template.delete("pagedList");
+		template.opsForList().rightPushAll("pagedList", "a", "b", "c");
+		RedisStorePagingMessageSource source = createSource(connectionFactory, "pagedList", CollectionType.LIST);
+		source.setRemoveOnRead(true);
+		assertThat(source.receive().getPayload()).containsExactly("a", "b");
+		assertThat(template.opsForList().range("pagedList", 0, -1)).containsExactly("c");
+		assertThat(source.receive().getPayload()).containsExactly("c");
+		assertThat(source.receive()).isNull();
+	}
+
+	@Test
+	@RedisAvailable
+	public void testZsetPagesRemoved() {
+		RedisConnectionFactory connectionFactory = getConnectionFactoryForTest();
+		StringRedisTemplate template = createStringRedisTemplate(connectionFactory);
+		template.delete("pagedZset");
+		template.opsForZSet().add("pagedZset", "c", 3);
+		template.opsForZSet().add("pagedZset", "a", 1);
+		template.opsForZSet().add("pagedZset", "b", 2);
+		RedisStorePagingMessageSource source = createSource(connectionFactory, "pagedZset", CollectionType.ZSET);
+		source.setRemoveOnRead(true);
+		assertThat(source.receive().getPayload()).containsExactly("a", "b");
+		assertThat(source.receive().getPayload()).containsExactly("c");
+		assertThat(source.receive()).isNull();
+	}
+
+	@Test
+	@RedisAvailable
+	public void testSetScan() {
+		RedisConnectionFactory connectionFactory = getConnectionFactoryForTest();
+		StringRedisTemplate template = createStringRedisTemplate(connectionFactory);
+		template.delete("pagedSet");
+		template.opsForSet().add("pagedSet", "a", "b", "c", "d", "e");
+		RedisStorePagingMessageSource source = createSource(connectionFactory, "pagedSet", CollectionType.SET);
+		Set<Object> received = new HashSet<>();
+		Message<List<Object>> message = source.receive();
+		while (message != null) {
+			assertThat(message.getPayload().size()).isLessThanOrEqualTo(2);
+			received.addAll(message.getPayload());
+			message = source.receive();
+		}
+		assertThat(received).containsExactlyInAnyOrder("a", "b", "c", "d", "e");
+		assertThat(template.opsForSet().size("pagedSet")).isEqualTo(5L);
+		template.delete("pagedSet");
+	}
+
+	private RedisStorePagingMessageSource createSource(RedisConnectionFactory connectionFactory, String key,
+			CollectionType type) {
+
+		RedisStorePagingMessageSource source =
+				new RedisStorePagingMessageSource(connectionFactory, new LiteralExpression(key));
+		source.setCollectionType(type);
+		source.setPageSize(2);
+		source.setBeanFactory(mock(BeanFactory.class));
+		source.afterPropertiesSet();
+		return source;
+	}
+
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.redis.store;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.aryEq;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import org.springframework.data.redis.connection.RedisClusterConnection;
+import org.springframework.data.redis.connection.RedisClusterNode;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisNode.NodeType;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.GenericMessage;
+
+/**
+ * @author Gary Russell
+ *
+ * @since 5.2
+ *
+ */
+public class RedisChannelMessageStoreClusterTests {
+
+	private final RedisClusterNode master1 = RedisClusterNode.newRedisClusterNode()
+			.listeningAt("localhost", 7000)
+			.promotedAs(NodeType.MASTER)
+			.build();
+
+	private final RedisClusterNode master2 = RedisClusterNode.newRedisClusterNode()
+			.listeningAt("localhost", 7001)
+			.promotedAs(NodeType.MASTER)
+			.build();
+
+	private final RedisClusterNode replica = RedisClusterNode.newRedisClusterNode()
+			.listeningAt("localhost", 7002)
+			.promotedAs(NodeType.SLAVE)
+			.build();
+
+	private final RedisClusterConnection connection = mock(RedisClusterConnection.class);
+
+	private final RedisConnectionFactory connectionFactory = mock(RedisConnectionFactory.class);
+
+	@Before
+	public void setUp() {
+		when(this.connectionFactory.getConnection()).thenReturn(this.connection);
+		when(this.connection.clusterGetNodes()).thenReturn(Arrays.asList(this.master1, this.master2, this.replica));
+	}
+
+	@Test
+	public void testStatisticsScanEachMasterWithoutPipeline() throws Exception {
+		Cursor<byte[]> cursor1 = cursor("cms:a");
+		Cursor<byte[]> cursor2 = cursor("cms:b");
+		when(this.connection.scan(eq(this.master1), any(ScanOptions.class))).thenReturn(cursor1);
+		when(this.connection.scan(eq(this.master2), any(ScanOptions.class))).thenReturn(cursor2);
+		when(this.connection.lLen(aryEq("cms:a".getBytes()))).thenReturn(2L);
+		when(this.connection.lLen(aryEq("cms:b".getBytes()))).thenReturn(3L);
+		RedisChannelMessageStore store = new RedisChannelMessageStore(this.connectionFactory);
+		store.setBeanName("cms");
+		assertThat(store.getMessageGroupCount()).isEqualTo(2);
+		assertThat(store.getMessageCountForAllMessageGroups()).isEqualTo(5);
+		verify(this.connection, never()).scan(any(ScanOptions.class));
+		verify(this.connection, never()).scan(eq(this.replica), any(ScanOptions.class));
+		verify(this.connection, never()).openPipeline();
+		verify(cursor1).close();
+		verify(cursor2).close();
+	}
+
+	@Test
+	public void testPriorityPollPopsEachList() {
+		JdkSerializationRedisSerializer serializer = new JdkSerializationRedisSerializer();
+		Message<String> m5 = new GenericMessage<>("m5");
+		Message<String> m0 = new GenericMessage<>("m0");
+		when(this.connection.rPop(aryEq("group:5".getBytes()))).thenReturn(serializer.serialize(m5), (byte[]) null);
+		when(this.connection.rPop(aryEq("group".getBytes()))).thenReturn(serializer.serialize(m0), (byte[]) null);
+		RedisChannelPriorityMessageStore store = new RedisChannelPriorityMessageStore(this.connectionFactory);
+		store.setBeanName("cms");
+		List<Message<?>> messages = store.pollMessagesFromGroup("group", 3);
+		assertThat(messages).extracting(Message::getPayload).containsExactly("m5", "m0");
+		verify(this.connection, never()).openPipeline();
+	}
+
+	@SuppressWarnings("unchecked")
+	private static Cursor<byte[]> cursor(String key) {
+		Cursor<byte[]> cursor = mock(Cursor.class);
+		when(cursor.hasNext()).thenReturn(true, false);
+		when(cursor.next()).thenReturn(key.getBytes());
+		return cursor;
+	}
+
+}
@@ -174,4 +174,23 @@ public class RedisChannelMessageStoreTests extends RedisAvailableTests {
 		assertThat(this.priorityCms.messageGroupSize("priorityCms:testChannel3")).isEqualTo(0);
 	}
 
+	@Test
+	@RedisAvailable
+	public void testPriorityMultiMessagePoll() {
+		RedisChannelPriorityMessageStore store = (RedisChannelPriorityMessageStore) this.priorityCms;
+		String groupId = "priorityCms:testChannel4";
+		store.addMessageToGroup(groupId, MessageBuilder.withPayload("none").build());
+		store.addMessageToGroup(groupId, MessageBuilder.withPayload("low").setPriority(1).build());
+		store.addMessageToGroup(groupId, MessageBuilder.withPayload("high1").setPriority(8).build());
+		store.addMessageToGroup(groupId, MessageBuilder.withPayload("high2").setPriority(8).build());
+		assertThat(store.pollMessagesFromGroup(groupId, 3))
+				.extracting(Message::getPayload)
+				.containsExactly("high1", "high2", "low");
+		assertThat(store.pollMessagesFromGroup(groupId, 3))
+				.extracting(Message::getPayload)
+				.containsExactly("none");
+		assertThat(store.pollMessagesFromGroup(groupId, 3)).isEmpty();
+		assertThat(store.pollMessageFromGroup(groupId)).isNull();
+	}
+
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -143,6 +143,36 @@ public class SftpSession implements Session<LsEntry> {
 		}
 	}
 
+	@Override
+	public void read(String source, long offset, OutputStream os) throws IOException {
+		Assert.state(this.channel != null, "session is not connected");
+		Assert.isTrue(offset >= 0, "'offset' must not be negative");
+		try {
+			InputStream is = this.channel.get(source, null, offset);
+			FileCopyUtils.copy(is, os);
+		}
+		catch (SftpException e) {
+			throw new NestedIOException("failed to read file " + source + " from offset " + offset, e);
+		}
+	}
+
+	@Override
+	public InputStream readRaw(String source, long offset) throws IOException {
+		Assert.state(this.channel != null, "session is not connected");
+		Assert.isTrue(offset >= 0, "'offset' must not be negative");
+		try {
+			return this.channel.get(source, null, offset);
+		}
+		catch (SftpException e) {
+			throw new NestedIOException("failed to read file " + source + " from offset " + offset, e);
+		}
+	}
+
+	@Override
+	public boolean supportsOffsetReads() {
+		return true;
+	}
+
 	@Override
 	public boolean finalizeRaw() throws IOException {
 		return true;
@@ -0,0 +1,588 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.syslog;
+
+import java.io.Serializable;
+import java.lang.reflect.Method;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+import org.springframework.util.Assert;
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * A {@link RFC5424SyslogParser} that parses RFC 5424 messages directly from a
+ * {@code byte[]}, without decoding the whole message to a {@link String} first.
+ * <p>
+ * The header fields are located in a single pass; the resulting {@link Map} only
+ * creates the values (strings, the structured data list, the message) when they are
+ * accessed, including through its entry set. The map retains a reference to the array,
+ * which must therefore not be reused by the caller. The {@link String}-based
+ * {@link #parse(String, int, boolean)} inherited from the super class is unchanged.
+ * <p>
+ * When a subclass overrides {@link #getTimestamp(Reader)} or
+ * {@link #parseStructuredDataElements(Reader)}, the hook is invoked during the parse,
+ * with a {@link Reader} over the timestamp (including the following space) or the
+ * structured data, and its result is the value of the corresponding header; an
+ * {@link IllegalStateException} thrown by the hook produces the same error map as a
+ * parse failure.
+ * <p>
+ * With {@link #setCompactHeaders(boolean) compactHeaders}, the map omits the derived
+ * {@link SyslogHeaders#SEVERITY_TEXT}, the {@link SyslogHeaders#DECODE_ERRORS} flag for
+ * successfully decoded messages, and the nil ({@code -}) header fields.
+ * <p>
+ * The header identifiers must consist of printable US-ASCII characters (33 to 126) and
+ * be followed by a space; any other character, such as {@code DEL}, is a decode error.
+ *
+ * @author Gary Russell
+ * @since 5.2
+ */
+public class RFC5424ByteArraySyslogParser extends RFC5424SyslogParser {
+
+	private static final String[] KEYS = {
+			SyslogHeaders.FACILITY,
+			SyslogHeaders.SEVERITY,
+			SyslogHeaders.SEVERITY_TEXT,
+			SyslogHeaders.TIMESTAMP,
+			SyslogHeaders.HOST,
+			SyslogHeaders.APP_NAME,
+			SyslogHeaders.PROCID,
+			SyslogHeaders.MSGID,
+			SyslogHeaders.VERSION,
+			SyslogHeaders.STRUCTURED_DATA,
+			SyslogHeaders.MESSAGE,
+			SyslogHeaders.DECODE_ERRORS,
+			SyslogHeaders.UNDECODED
+	};
+
+	private static final Map<String, Integer> KEY_INDEXES = new HashMap<>();
+
+	static {
+		for (int i = 0; i < KEYS.length; i++) {
+			KEY_INDEXES.put(KEYS[i], i);
+		}
+	}
+
+	private Charset charset = StandardCharsets.UTF_8;
+
+	private boolean compactHeaders;
+
+	private final boolean timestampHook = overrides("getTimestamp");
+
+	private final boolean structuredDataHook = overrides("parseStructuredDataElements");
+
+	/**
+	 * Construct a default parser; do not retain the original message content unless there
+	 * is an error.
+	 */
+	public RFC5424ByteArraySyslogParser() {
+		super();
+	}
+
+	/**
+	 * @param retainOriginal when true, include the original message content intact in the
+	 * map.
+	 */
+	public RFC5424ByteArraySyslogParser(boolean retainOriginal) {
+		super(retainOriginal);
+	}
+
+	/**
+	 * Set the charset used to decode the structured data, the message and the original
+	 * content; the other header fields are US-ASCII. Default UTF-8.
+	 * @param charset the charset.
+	 */
+	public void setCharset(Charset charset) {
+		Assert.notNull(charset, "'charset' cannot be null");
+		this.charset = charset;
+	}
+
+	/**
+	 * Set to true to omit the severity text, the decode errors flag (when there are no
+	 * errors) and the nil header fields from the map. Default false.
+	 * @param compactHeaders true for compact headers.
+	 */
+	public void setCompactHeaders(boolean compactHeaders) {
+		this.compactHeaders = compactHeaders;
+	}
+
+	/**
+	 * Parse the whole array.
+	 * @param bytes the message.
+	 * @param octetCount the expected length (octet counting framing), for errors.
+	 * @param shortRead true if fewer than {@code octetCount} bytes were received.
+	 * @return the map.
+	 * @see #parse(byte[], int, int, int, boolean)
+	 */
+	public Map<String, ?> parse(byte[] bytes, int octetCount, boolean shortRead) {
+		return parse(bytes, 0, bytes.length, octetCount, shortRead);
+	}
+
+	/**
+	 * Parse {@code length} bytes of the array from {@code offset}.
+	 * @param bytes the array.
+	 * @param offset the offset of the message.
+	 * @param length the length of the message.
+	 * @param octetCount the expected length (octet counting framing), for errors.
+	 * @param shortRead true if fewer than {@code octetCount} bytes were received.
+	 * @return the map.
+	 */
+	public Map<String, ?> parse(byte[] bytes, int offset, int length, int octetCount, boolean shortRead) {
+		int end = offset + length;
+		if (shortRead) {
+			int n = end;
+			while (n > offset && bytes[n - 1] == 0x00) {
+				n--;
+			}
+			return errorMap(bytes, offset, n,
+					"Insufficient data; expected " + octetCount + " got " + (n - offset));
+		}
+		try {
+			ParsedSyslogMap map = new ParsedSyslogMap(bytes, offset, end, this.charset, this.compactHeaders,
+					this.retainOriginal);
+			if (this.timestampHook) {
+				map.resolve(ParsedSyslogMap.TIMESTAMP, getTimestamp(new Reader(map.timestampSegment())));
+			}
+			if (this.structuredDataHook && map.hasStructuredData()) {
+				map.resolve(ParsedSyslogMap.STRUCTURED_DATA,
+						parseStructuredDataElements(new Reader(map.structuredDataSegment())));
+			}
+			return map;
+		}
+		catch (IllegalStateException e) {
+			return errorMap(bytes, offset, end, e.getMessage());
+		}
+		catch (StringIndexOutOfBoundsException e) {
+			return errorMap(bytes, offset, end, "Unexpected end of message: " + e.getMessage());
+		}
+	}
+
+	private boolean overrides(String hook) {
+		Method method = ReflectionUtils.findMethod(getClass(), hook, Reader.class);
+		return method != null && !RFC5424SyslogParser.class.equals(method.getDeclaringClass());
+	}
+
+	private Map<String, ?> errorMap(byte[] bytes, int offset, int end, String errors) {
+		Map<String, Object> map = new LinkedHashMap<>();
+		map.put(SyslogHeaders.DECODE_ERRORS, "true");
+		map.put(SyslogHeaders.ERRORS, errors);
+		map.put(SyslogHeaders.UNDECODED, new String(bytes, offset, end - offset, this.charset));
+		return map;
+	}
+
+	/**
+	 * The header fields are located by the constructor; the values are created (once)
+	 * when accessed, the presence of a key is determined without creating its value.
+	 * Serialized as a {@link LinkedHashMap}.
+	 */
+	private static final class ParsedSyslogMap extends AbstractMap<String, Object> implements Serializable {
+
+		private static final long serialVersionUID = 1L;
+
+		private static final int FACILITY = 0;
+
+		private static final int SEVERITY = 1;
+
+		private static final int SEVERITY_TEXT = 2;
+
+		private static final int TIMESTAMP = 3;
+
+		private static final int HOST = 4;
+
+		private static final int APP_NAME = 5;
+
+		private static final int PROCID = 6;
+
+		private static final int MSGID = 7;
+
+		private static final int VERSION = 8;
+
+		private static final int STRUCTURED_DATA = 9;
+
+		private static final int MESSAGE = 10;
+
+		private static final int DECODE_ERRORS = 11;
+
+		private static final int UNDECODED = 12;
+
+		private final transient byte[] bytes;
+
+		private final int offset;
+
+		private final int end;
+
+		private final transient Charset charset;
+
+		private final boolean compact;
+
+		private final boolean retainOriginal;
+
+		private final int pri;
+
+		private final int version;
+
+		/*
+		 * Start and end of timestamp, host, app name, procid, msgid, structured data and
+		 * message; -1 for a nil timestamp or structured data.
+		 */
+		private final int[] bounds = new int[14];
+
+		private final Object[] values = new Object[KEYS.length];
+
+		private final boolean[] resolved = new boolean[KEYS.length];
+
+		private int pos;
+
+		private transient Set<Entry<String, Object>> entrySet;
+
+		ParsedSyslogMap(byte[] bytes, int offset, int end, Charset charset, boolean compact,
+				boolean retainOriginal) {
+
+			this.bytes = bytes;
+			this.offset = offset;
+			this.end = end;
+			this.charset = charset;
+			this.compact = compact;
+			this.retainOriginal = retainOriginal;
+			this.pos = offset;
+			expect('<');
+			this.pri = readInt();
+			expect('>');
+			this.version = readInt();
+			expect(SPACE);
+			timestamp();
+			for (int i = 2; i < 10; i += 2) {
+				identifier(i);
+			}
+			structuredData();
+			if (this.pos < end && this.bytes[this.pos] == SPACE) {
+				this.bounds[12] = this.pos + 1;
+			}
+			else {
+				this.bounds[12] = end;
+			}
+			this.bounds[13] = end;
+		}
+
+		private int byteAt(int index) {
+			if (index >= this.end) {
+				throw new IllegalStateException("Unexpected end of message @" + (index - this.offset));
+			}
+			return this.bytes[index] & 0xff;
+		}
+
+		private void expect(char c) {
+			if (byteAt(this.pos++) != c) {
+				throw new IllegalStateException("Expected '" + c + "' @" + (this.pos - this.offset));
+			}
+		}
+
+		private int readInt() {
+			int val = 0;
+			int c = byteAt(this.pos);
+			while (c >= '0' && c <= '9') {
+				val = val * 10 + c - '0';
+				c = byteAt(++this.pos);
+			}
+			return val;
+		}
+
+		private void timestamp() {
+			int c = byteAt(this.pos);
+			if (c == NILVALUE) {
+				this.pos++;
+				expect(SPACE);
+				this.bounds[0] = -1;
+			}
+			else if (c < '0' || c > '9') {
+				throw new IllegalStateException("Year expected @" + (this.pos - this.offset));
+			}
+			else {
+				this.bounds[0] = this.pos;
+				while (byteAt(this.pos) != SPACE) {
+					this.pos++;
+				}
+				this.bounds[1] = this.pos++;
+			}
+		}
+
+		private void identifier(int boundsIndex) {
+			this.bounds[boundsIndex] = this.pos;
+			int c = byteAt(this.pos);
+			while (c >= 33 && c <= 126) { // PRINTUSASCII
+				c = byteAt(++this.pos);
+			}
+			this.bounds[boundsIndex + 1] = this.pos;
+			expect(SPACE);
+		}
+
+		private void structuredData() {
+			if (byteAt(this.pos) == NILVALUE) {
+				this.pos++;
+				this.bounds[10] = -1;
+				return;
+			}
+			this.bounds[10] = this.pos;
+			while (this.pos < this.end && this.bytes[this.pos] == '[') {
+				this.pos++;
+				while (byteAt(this.pos) != ']' || this.bytes[this.pos - 1] == '\\') {
+					this.pos++;
+				}
+				this.pos++;
+			}
+			this.bounds[11] = this.pos;
+		}
+
+		String timestampSegment() {
+			return this.bounds[0] < 0 ? NILVALUE + " " : decode(this.bounds[0], this.bounds[1] + 1);
+		}
+
+		boolean hasStructuredData() {
+			return this.bounds[10] >= 0;
+		}
+
+		String structuredDataSegment() {
+			return decode(this.bounds[10], this.bounds[11]) + SPACE;
+		}
+
+		synchronized void resolve(int index, Object value) {
+			this.values[index] = value;
+			this.resolved[index] = true;
+		}
+
+		@Override
+		public Object get(Object key) {
+			Integer index = KEY_INDEXES.get(key);
+			return index == null ? null : value(index);
+		}
+
+		@Override
+		public boolean containsKey(Object key) {
+			Integer index = KEY_INDEXES.get(key);
+			return index != null && isPresent(index);
+		}
+
+		@Override
+		public Set<Entry<String, Object>> entrySet() {
+			if (this.entrySet == null) {
+				this.entrySet = new EntrySet();
+			}
+			return this.entrySet;
+		}
+
+		private synchronized Object value(int index) {
+			if (!this.resolved[index]) {
+				this.values[index] = createValue(index);
+				this.resolved[index] = true;
+			}
+			return this.values[index];
+		}
+
+		private synchronized boolean isPresent(int index) { // NOSONAR complexity
+			if (this.resolved[index]) {
+				return this.values[index] != null;
+			}
+			switch (index) {
+				case SEVERITY_TEXT:
+				case DECODE_ERRORS:
+					return !this.compact;
+				case TIMESTAMP:
+					return this.bounds[0] >= 0;
+				case STRUCTURED_DATA:
+					return this.bounds[10] >= 0;
+				case UNDECODED:
+					return this.retainOriginal;
+				case HOST:
+				case APP_NAME:
+				case PROCID:
+				case MSGID:
+					return !(this.compact && isNil((index - HOST + 1) * 2));
+				default:
+					return true;
+			}
+		}
+
+		private Object createValue(int index) { // NOSONAR complexity
+			switch (index) {
+				case FACILITY:
+					return this.pri >> 3;
+				case SEVERITY:
+					return this.pri & 0x7;
+				case SEVERITY_TEXT:
+					return this.compact ? null : Severity.parseInt(this.pri & 0x7).label();
+				case TIMESTAMP:
+					return this.bounds[0] < 0 ? null : ascii(0);
+				case VERSION:
+					return this.version;
+				case STRUCTURED_DATA:
+					return this.bounds[10] < 0 ? null : structuredDataElements();
+				case MESSAGE:
+					return decode(this.bounds[12], this.bounds[13]);
+				case DECODE_ERRORS:
+					return this.compact ? null : "false";
+				case UNDECODED:
+					return this.retainOriginal ? decode(this.offset, this.end) : null;
+				default:
+					int boundsIndex = (index - HOST + 1) * 2; // HOST, APP_NAME, PROCID, MSGID
+					return this.compact && isNil(boundsIndex) ? null : ascii(boundsIndex);
+			}
+		}
+
+		private boolean isNil(int boundsIndex) {
+			return this.bounds[boundsIndex + 1] - this.bounds[boundsIndex] == 1
+					&& this.bytes[this.bounds[boundsIndex]] == NILVALUE;
+		}
+
+		private String ascii(int boundsIndex) {
+			int start = this.bounds[boundsIndex];
+			return new String(this.bytes, start, this.bounds[boundsIndex + 1] - start, StandardCharsets.US_ASCII);
+		}
+
+		private String decode(int start, int stop) {
+			return new String(this.bytes, start, stop - start, this.charset);
+		}
+
+		private List<String> structuredDataElements() {
+			List<String> fragments = new ArrayList<>();
+			int start = this.bounds[10];
+			int stop = this.bounds[11];
+			int i = start;
+			while (i < stop) {
+				i++;
+				while (this.bytes[i] != ']' || this.bytes[i - 1] == '\\') {
+					i++;
+				}
+				i++;
+				fragments.add(decode(start, i));
+				start = i;
+			}
+			return fragments;
+		}
+
+		private Object writeReplace() {
+			return new LinkedHashMap<>(this);
+		}
+
+		/**
+		 * The present keys, in {@code KEYS} order; the values are created when the
+		 * entries are read.
+		 */
+		private final class EntrySet extends AbstractSet<Entry<String, Object>> {
+
+			@Override
+			public int size() {
+				int size = 0;
+				for (int i = 0; i < KEYS.length; i++) {
+					if (isPresent(i)) {
+						size++;
+					}
+				}
+				return size;
+			}
+
+			@Override
+			public Iterator<Entry<String, Object>> iterator() {
+				return new Iterator<Entry<String, Object>>() {
+
+					private int next = advance(0);
+
+					@Override
+					public boolean hasNext() {
+						return this.next < KEYS.length;
+					}
+
+					@Override
+					public Entry<String, Object> next() {
+						if (!hasNext()) {
+							throw new NoSuchElementException();
+						}
+						Entry<String, Object> entry = new LazyEntry(this.next);
+						this.next = advance(this.next + 1);
+						return entry;
+					}
+
+					private int advance(int from) {
+						int index = from;
+						while (index < KEYS.length && !isPresent(index)) {
+							index++;
+						}
+						return index;
+					}
+
+				};
+			}
+
+		}
+
+		private final class LazyEntry implements Entry<String, Object> {
+
+			private final int index;
+
+			LazyEntry(int index) {
+				this.index = index;
+			}
+
+			@Override
+			public String getKey() {
+				return KEYS[this.index];
+			}
+
+			@Override
+			public Object getValue() {
+				return value(this.index);
+			}
+
+			@Override
+			public Object setValue(Object value) {
+				throw new UnsupportedOperationException();
+			}
+
+			@Override
+			public boolean equals(Object obj) {
+				if (!(obj instanceof Entry)) {
+					return false;
+				}
+				Entry<?, ?> other = (Entry<?, ?>) obj;
+				return getKey().equals(other.getKey()) && Objects.equals(getValue(), other.getValue());
+			}
+
+			@Override
+			public int hashCode() {
+				return getKey().hashCode() ^ Objects.hashCode(getValue());
+			}
+
+			@Override
+			public String toString() {
+				return getKey() + "=" + getValue();
+			}
+
+		}
+
+	}
+
+}
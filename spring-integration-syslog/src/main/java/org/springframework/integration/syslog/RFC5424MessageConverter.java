@@ -1,5 +1,5 @@
 /*
- * Copyright 2014 the original author or authors.
+ * Copyright 2014-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -27,6 +27,8 @@ import org.springframework.util.Assert;
  * necessary (TCP will have already done the syslog conversion because it needs
  * to handle different message framing). Copies the resulting {@link Map} to
  * the message headers if {@link #asMap()} is false.
+ * A {@link RFC5424ByteArraySyslogParser} parses {@code byte[]} payloads without
+ * decoding them to a {@link String} first.
  *
  * @author Gary Russell
  * @since 4.1.1
@@ -67,7 +69,12 @@ public class RFC5424MessageConverter extends DefaultMessageConverter {
 		Object originalContent;
 		if (!isMap) {
 			Assert.isInstanceOf(byte[].class, message.getPayload(), "Only byte[] and Map payloads are supported");
-			map = this.parser.parse(new String(((byte[]) message.getPayload()), this.charset), 0, false);
+			if (this.parser instanceof RFC5424ByteArraySyslogParser) {
+				map = ((RFC5424ByteArraySyslogParser) this.parser).parse((byte[]) message.getPayload(), 0, false);
+			}
+			else {
+				map = this.parser.parse(new String(((byte[]) message.getPayload()), this.charset), 0, false);
+			}
 			originalContent = message.getPayload();
 		}
 		else {
@@ -1,5 +1,5 @@
 /*
- * Copyright 2014-2016 the original author or authors.
+ * Copyright 2014-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -25,6 +25,7 @@ import java.util.Map;
 import org.springframework.core.serializer.Deserializer;
 import org.springframework.integration.ip.tcp.serializer.ByteArrayLfSerializer;
 import org.springframework.integration.ip.tcp.serializer.SoftEndOfStreamException;
+import org.springframework.integration.syslog.RFC5424ByteArraySyslogParser;
 import org.springframework.integration.syslog.RFC5424SyslogParser;
 import org.springframework.util.Assert;
 
@@ -32,6 +33,9 @@ import org.springframework.util.Assert;
  * RFC5424/6587 Deserializer. Implemented as a {@link Deserializer} instead of a
  * transformer because we may receive a mixture of octet counting and non-transparent
  * framing - see RFC 6587.
+ * <p>
+ * When the parser is a {@link RFC5424ByteArraySyslogParser}, the frame is parsed
+ * without decoding it to a {@link String} first.
  *
  * @author Duncan McIntyre
  * @author Gary Russell
@@ -71,25 +75,26 @@ public class RFC6587SyslogDeserializer implements Deserializer<Map<String, ?>> {
 	@Override
 	public Map<String, ?> deserialize(InputStream inputStream) throws IOException {
 		DataInputStream stream = new DataInputStream(inputStream);
-		String line;
+		byte[] bytes;
 		int octetCount = 0;
 		boolean shortRead = false;
 		int peek = stream.read();
 		if (isDigit(peek)) {
 			octetCount = calculateLength(stream, peek);
 			Assert.state(octetCount > 0, "Expected length > 0");
-			byte[] bytes = new byte[octetCount];
+			bytes = new byte[octetCount];
 			try {
 				stream.readFully(bytes);
 			}
 			catch (EOFException e) {
 				shortRead = true;
 			}
-			line = new String(bytes, getCharset());
 		}
 		else if (peek == '<') {
-			byte[] bytes = this.delimitedDeserializer.deserialize(inputStream);
-			line = "<" + new String(bytes, getCharset());
+			byte[] frame = this.delimitedDeserializer.deserialize(inputStream);
+			bytes = new byte[frame.length + 1];
+			bytes[0] = '<';
+			System.arraycopy(frame, 0, bytes, 1, frame.length);
 		}
 		else if (peek < 0) {
 			throw new SoftEndOfStreamException();
@@ -97,7 +102,12 @@ public class RFC6587SyslogDeserializer implements Deserializer<Map<String, ?>> {
 		else {
 			throw new IllegalStateException("Expected a digit or '<', got 0x" + Integer.toHexString(peek));
 		}
-		return this.parser.parse(line, octetCount, shortRead);
+		if (this.parser instanceof RFC5424ByteArraySyslogParser) {
+			return ((RFC5424ByteArraySyslogParser) this.parser).parse(bytes, octetCount, shortRead);
+		}
+		else {
+			return this.parser.parse(new String(bytes, getCharset()), octetCount, shortRead);
+		}
 	}
 
 	private boolean isDigit(int peek) {
@@ -24,7 +24,9 @@ import java.util.Map;
 
 import org.junit.Test;
 
+import org.springframework.integration.syslog.RFC5424ByteArraySyslogParser;
 import org.springframework.integration.syslog.SyslogHeaders;
+import org.springframework.integration.test.util.TestUtils;
 
 /**
  * @author Duncan McIntyre
@@ -139,4 +141,93 @@ public class SyslogDeserializerTests {
 		assertThat(map.get(SyslogHeaders.DECODE_ERRORS)).isEqualTo("true");
 	}
 
+	@Test
+	public void byteArrayParserShouldMatchStringParser() throws Exception {
+		RFC6587SyslogDeserializer deserializer = new RFC6587SyslogDeserializer();
+		RFC6587SyslogDeserializer byteArrayDeserializer = new RFC6587SyslogDeserializer();
+		byteArrayDeserializer.setParser(new RFC5424ByteArraySyslogParser());
+		for (String entry : new String[] { VALID_UNFRAMED_ENTRY, VALID_FRAMED_ENTRY, SHORT_FRAMED_ENTRY,
+				SD_ENTRY_1, SD_ENTRY_2, SD_ENTRY_3 }) {
+
+			Map<String, ?> expected = deserializer.deserialize(new ByteArrayInputStream(entry.getBytes()));
+			Map<String, ?> map = byteArrayDeserializer.deserialize(new ByteArrayInputStream(entry.getBytes()));
+			if ("true".equals(expected.get(SyslogHeaders.DECODE_ERRORS))) {
+				assertThat(map.get(SyslogHeaders.DECODE_ERRORS)).isEqualTo("true");
+			}
+			else {
+				assertThat(map.get(SyslogHeaders.MESSAGE)).isEqualTo(expected.get(SyslogHeaders.MESSAGE));
+				assertThat(map).isEqualTo(expected);
+				assertThat(map.keySet()).containsExactlyElementsOf(expected.keySet());
+			}
+		}
+	}
+
+	@Test
+	public void byteArrayParserShouldEmitCompactHeaders() throws Exception {
+		RFC5424ByteArraySyslogParser parser = new RFC5424ByteArraySyslogParser();
+		parser.setCompactHeaders(true);
+		Map<String, ?> map = parser.parse(("<14>1 - loggregator - DEA - [exampleSDID@32473 iut=\\\"3\\\"] "
+				+ "Removing instance").getBytes(), 0, false);
+
+		assertThat(map).doesNotContainKeys(SyslogHeaders.SEVERITY_TEXT, SyslogHeaders.DECODE_ERRORS,
+				SyslogHeaders.TIMESTAMP, SyslogHeaders.APP_NAME, SyslogHeaders.MSGID, SyslogHeaders.UNDECODED);
+		assertThat(map.get(SyslogHeaders.HOST)).isEqualTo("loggregator");
+		assertThat(map.get(SyslogHeaders.PROCID)).isEqualTo("DEA");
+		assertThat(map.get(SyslogHeaders.MESSAGE)).isEqualTo("Removing instance");
+		assertThat((List<?>) map.get(SyslogHeaders.STRUCTURED_DATA))
+				.containsExactly("[exampleSDID@32473 iut=\\\"3\\\"]");
+		assertThat(map).hasSize(7);
+
+		map = parser.parse("<14>1 - loggregator".getBytes(), 0, false);
+		assertThat(map.get(SyslogHeaders.DECODE_ERRORS)).isEqualTo("true");
+		assertThat(map.get(SyslogHeaders.UNDECODED)).isEqualTo("<14>1 - loggregator");
+	}
+
+	@Test
+	public void byteArrayParserShouldRejectDelInIdentifiers() {
+		Map<String, ?> map = new RFC5424ByteArraySyslogParser()
+				.parse("<14>1 - loggre\u007fgator - DEA - - Removing instance".getBytes(), 0, false);
+		assertThat(map.get(SyslogHeaders.DECODE_ERRORS)).isEqualTo("true");
+	}
+
+	@Test
+	public void byteArrayParserShouldInvokeOverriddenHooks() {
+		RFC5424ByteArraySyslogParser parser = new RFC5424ByteArraySyslogParser() {
+
+			@Override
+			protected Object getTimestamp(Reader r) {
+				return "ts:" + super.getTimestamp(r);
+			}
+
+			@Override
+			protected Object parseStructuredDataElements(Reader r) {
+				return ((List<?>) super.parseStructuredDataElements(r)).size();
+			}
+
+		};
+		Map<String, ?> map = parser.parse(SD_ENTRY_2.substring(SD_ENTRY_2.indexOf('<')).getBytes(), 0, false);
+		assertThat(map.get(SyslogHeaders.DECODE_ERRORS)).isEqualTo("false");
+		assertThat(map.get(SyslogHeaders.TIMESTAMP)).isEqualTo("ts:2014-06-20T09:14:07+00:00");
+		assertThat(map.get(SyslogHeaders.STRUCTURED_DATA)).isEqualTo(2);
+		assertThat(map.get(SyslogHeaders.MESSAGE)).isEqualTo("Removing instance");
+	}
+
+	@Test
+	public void byteArrayParserShouldCreateValuesOnlyWhenRead() {
+		Map<String, ?> map = new RFC5424ByteArraySyslogParser()
+				.parse(SD_ENTRY_1.substring(SD_ENTRY_1.indexOf('<')).getBytes(), 0, false);
+		assertThat(map.keySet()).contains(SyslogHeaders.HOST, SyslogHeaders.STRUCTURED_DATA, SyslogHeaders.MESSAGE);
+		assertThat(map.containsKey(SyslogHeaders.TIMESTAMP)).isTrue();
+		assertThat(map.containsKey(SyslogHeaders.UNDECODED)).isFalse();
+		assertThat(TestUtils.getPropertyValue(map, "resolved", boolean[].class)).containsOnly(false);
+		map.entrySet().stream()
+				.filter(entry -> entry.getKey().equals(SyslogHeaders.HOST))
+				.forEach(Map.Entry::getValue);
+		boolean[] resolved = TestUtils.getPropertyValue(map, "resolved", boolean[].class);
+		assertThat(resolved[4]).isTrue();
+		assertThat(resolved[3]).isFalse();
+		assertThat(resolved[9]).isFalse();
+		assertThat(resolved[10]).isFalse();
+	}
+
 }